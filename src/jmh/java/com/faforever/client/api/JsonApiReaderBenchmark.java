@@ -0,0 +1,115 @@
+package com.faforever.client.api;
+
+import com.faforever.client.api.dto.Ladder1v1LeaderboardEntry;
+import com.faforever.client.api.dto.Mod;
+import com.faforever.client.api.dto.ModVersion;
+import com.faforever.client.api.dto.Player;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jasminb.jsonapi.ResourceConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares reading JSON-API collections through {@link ResourceConverter}, which builds a tree of the whole document
+ * first, with {@link StreamingJsonApiReader}. The documents are generated to resemble a leaderboard (many resources
+ * without relationships) and a mod list (resources with an included uploader each). Run with {@code -prof gc} to
+ * compare how much memory each of them allocates per document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class JsonApiReaderBenchmark {
+
+  @Param({"leaderboard", "mods"})
+  public String document;
+
+  @Param("10000")
+  public int resources;
+
+  private ResourceConverter resourceConverter;
+  private StreamingJsonApiReader streamingJsonApiReader;
+  private byte[] json;
+
+  @Setup
+  public void setUp() {
+    ObjectMapper objectMapper = new ObjectMapper()
+        .findAndRegisterModules()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    Class<?>[] types = {Ladder1v1LeaderboardEntry.class, Mod.class, ModVersion.class, Player.class};
+    resourceConverter = new ResourceConverter(objectMapper, types);
+    streamingJsonApiReader = new StreamingJsonApiReader(objectMapper, types);
+
+    json = ("leaderboard".equals(document) ? leaderboardDocument(resources) : modsDocument(resources)).getBytes(UTF_8);
+  }
+
+  private static String leaderboardDocument(int count) {
+    StringBuilder builder = new StringBuilder("{\"data\":[");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append("{\"type\":\"ladder1v1LeaderboardEntry\",\"id\":\"").append(i).append("\",\"attributes\":{")
+          .append("\"rank\":").append(i + 1)
+          .append(",\"name\":\"player").append(i).append('"')
+          .append(",\"mean\":").append(1500 - i * 0.1)
+          .append(",\"deviation\":").append(50 + i % 100)
+          .append(",\"numGames\":").append(i % 500)
+          .append(",\"wonGames\":").append(i % 250)
+          .append(",\"isActive\":true")
+          .append(",\"rating\":").append(1350 - i * 0.1)
+          .append("}}");
+    }
+    return builder.append("]}").toString();
+  }
+
+  private static String modsDocument(int count) {
+    StringBuilder builder = new StringBuilder("{\"data\":[");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append("{\"type\":\"mod\",\"id\":\"").append(i).append("\",\"attributes\":{")
+          .append("\"displayName\":\"Mod ").append(i).append('"')
+          .append(",\"author\":\"Author ").append(i % 100).append('"')
+          .append("},\"relationships\":{\"uploader\":{\"data\":{\"type\":\"player\",\"id\":\"").append(i % 100).append("\"}}}}");
+    }
+    builder.append("],\"included\":[");
+    for (int i = 0; i < Math.min(count, 100); i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append("{\"type\":\"player\",\"id\":\"").append(i).append("\",\"attributes\":{\"login\":\"player").append(i).append("\"}}");
+    }
+    return builder.append("]}").toString();
+  }
+
+  @Benchmark
+  public List<?> resourceConverter() {
+    return resourceConverter.readDocumentCollection(new ByteArrayInputStream(json), Object.class).get();
+  }
+
+  @Benchmark
+  public List<?> streamingReader() throws IOException {
+    return streamingJsonApiReader.readDocumentCollection(new ByteArrayInputStream(json));
+  }
+}
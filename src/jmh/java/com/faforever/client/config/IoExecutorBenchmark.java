@@ -0,0 +1,180 @@
+package com.faforever.client.config;
+
+import com.faforever.client.io.HttpClientStatistics;
+import com.faforever.client.io.PooledHttpClients;
+import com.faforever.client.util.InstrumentedThreadPoolExecutor;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Load test of the I/O executor with platform threads and with virtual threads. Each operation fires a few hundred
+ * concurrent requests, alternating between vault pages and map previews, to a local server that answers after a fixed
+ * delay, and waits for all of them. Virtual threads are only used on Java 21 and later; on older JVMs both variants
+ * use platform threads.
+ * <p>
+ * Besides the time per operation, the peak number of platform threads, the statistics of the executor (like how long
+ * requests waited for a thread) and the latency of the requests are printed at the end of each trial. The server's
+ * threads are started before the peak thread count is reset, so the peak only grows by the client's threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IoExecutorBenchmark {
+
+  private static final int VAULT_PAGE_BYTES = 20 * 1024;
+  private static final int PREVIEW_BYTES = 64 * 1024;
+
+  @Param({"false", "true"})
+  public boolean virtualThreads;
+
+  @Param("400")
+  public int concurrentRequests;
+
+  @Param("20")
+  public int serverLatencyMillis;
+
+  private ThreadPoolExecutor serverExecutor;
+  private HttpServer httpServer;
+  private HttpClientStatistics httpClientStatistics;
+  private CloseableHttpClient httpClient;
+  private InstrumentedThreadPoolExecutor executor;
+  private List<URI> uris;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    // Without Spring Boot's logging configuration, logback logs every byte of every request
+    ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME))
+        .setLevel(ch.qos.logback.classic.Level.INFO);
+
+    byte[] vaultPage = vaultPage();
+    byte[] preview = new byte[PREVIEW_BYTES];
+
+    serverExecutor = new ThreadPoolExecutor(concurrentRequests, concurrentRequests, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>());
+    serverExecutor.prestartAllCoreThreads();
+    httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), concurrentRequests);
+    httpServer.createContext("/data/map", exchange -> respond(exchange, vaultPage, "application/vnd.api+json"));
+    httpServer.createContext("/preview", exchange -> respond(exchange, preview, "image/png"));
+    httpServer.setExecutor(serverExecutor);
+    httpServer.start();
+
+    String baseUrl = "http://localhost:" + httpServer.getAddress().getPort();
+    uris = Arrays.asList(URI.create(baseUrl + "/data/map"), URI.create(baseUrl + "/preview"));
+
+    ClientProperties clientProperties = new ClientProperties();
+    clientProperties.getThreads().setVirtualIoThreads(virtualThreads);
+    clientProperties.getHttp().setMaxConnections(concurrentRequests);
+    clientProperties.getHttp().setMaxConnectionsPerHost(concurrentRequests);
+    httpClientStatistics = new HttpClientStatistics();
+    httpClient = PooledHttpClients.create(clientProperties.getHttp(), httpClientStatistics);
+    executor = new AsyncConfig(clientProperties).taskExecutor();
+
+    ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    System.out.printf("%nPeak platform threads: %d, live platform threads: %d%n",
+        threadMXBean.getPeakThreadCount(), threadMXBean.getThreadCount());
+    System.out.println("Executor " + executor);
+    System.out.println("HTTP client " + httpClientStatistics);
+
+    executor.shutdownNow();
+    httpClient.close();
+    httpServer.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  @Benchmark
+  public long vaultPagesAndPreviews() {
+    List<CompletableFuture<Long>> futures = new ArrayList<>(concurrentRequests);
+    for (int i = 0; i < concurrentRequests; i++) {
+      URI uri = uris.get(i % uris.size());
+      futures.add(CompletableFuture.supplyAsync(() -> fetch(uri), executor));
+    }
+    long bytes = 0;
+    for (CompletableFuture<Long> future : futures) {
+      bytes += future.join();
+    }
+    return bytes;
+  }
+
+  private long fetch(URI uri) {
+    try (CloseableHttpResponse response = httpClient.execute(new HttpGet(uri))) {
+      HttpEntity entity = response.getEntity();
+      try (InputStream inputStream = entity.getContent()) {
+        return ByteStreams.exhaust(inputStream);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void respond(HttpExchange exchange, byte[] body, String contentType) throws IOException {
+    try {
+      Thread.sleep(serverLatencyMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(body);
+    }
+  }
+
+  private static byte[] vaultPage() {
+    StringBuilder builder = new StringBuilder("{\"data\":[");
+    for (int i = 0; builder.length() < VAULT_PAGE_BYTES; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append("{\"type\":\"map\",\"id\":\"").append(i).append("\",\"attributes\":{\"displayName\":\"Map ")
+          .append(i).append("\",\"mapType\":\"skirmish\",\"createTime\":\"2018-10-01T12:00:00Z\"}}");
+    }
+    return builder.append("]}").toString().getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,114 @@
+package com.faforever.client.preferences;
+
+import com.google.gson.Gson;
+import javafx.collections.ObservableMap;
+import javafx.scene.paint.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Measures how long storing the preferences takes when they contain many user colors and ignored notifications, which
+ * grow with every user that is given a color in chat:
+ * <ul>
+ * <li>{@code directWrite}: serializing straight into the preferences file, as the client used to do</li>
+ * <li>{@code writeChanged}: changing a color and writing through {@link PreferencesWriter}, including the temporary
+ * file, the rename and flushing to disk</li>
+ * <li>{@code writeUnchanged}: writing through {@link PreferencesWriter} without any change, which only serializes</li>
+ * <li>{@code storeInBackground}: what the caller (usually the application thread) waits for when storing</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PreferencesStoreBenchmark {
+
+  @Param({"100", "10000"})
+  public int entries;
+
+  private Path directory;
+  private Path file;
+  private Gson gson;
+  private Preferences preferences;
+  private PreferencesWriter preferencesWriter;
+  private Random random;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("preferences-benchmark");
+    file = directory.resolve("client.prefs");
+    random = new Random(1);
+
+    preferences = new Preferences();
+    ObservableMap<String, Color> userToColor = preferences.getChat().getUserToColor();
+    List<String> ignoredNotifications = preferences.getIgnoredNotifications();
+    for (int i = 0; i < entries; i++) {
+      userToColor.put("user" + i, Color.rgb(random.nextInt(256), random.nextInt(256), random.nextInt(256)));
+      ignoredNotifications.add("notification.ignored." + i);
+    }
+
+    gson = PreferencesService.createGson();
+    preferencesWriter = new PreferencesWriter(file, () -> gson.toJson(preferences), () -> {
+    }, Duration.ofSeconds(1), Duration.ofSeconds(10), new ConcurrentTaskScheduler());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    preferencesWriter.close();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path path : (Iterable<Path>) files::iterator) {
+        Files.delete(path);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  @Benchmark
+  public void directWrite() throws IOException {
+    try (Writer writer = Files.newBufferedWriter(file, UTF_8)) {
+      gson.toJson(preferences, writer);
+    }
+  }
+
+  @Benchmark
+  public void writeChanged() throws IOException {
+    preferences.getChat().getUserToColor().put("user0", Color.rgb(random.nextInt(256), 0, 0));
+    preferencesWriter.write();
+  }
+
+  @Benchmark
+  public void writeUnchanged() throws IOException {
+    preferencesWriter.write();
+  }
+
+  @Benchmark
+  public void storeInBackground() {
+    preferencesWriter.scheduleWrite();
+  }
+}
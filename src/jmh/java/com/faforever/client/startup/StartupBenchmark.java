@@ -0,0 +1,167 @@
+package com.faforever.client.startup;
+
+import com.faforever.client.FafClientApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Measures the time from launching the client until its main window, which shows the login, is shown. The client is
+ * started in the offline profile in a new JVM for every invocation, with and without a class data sharing archive.
+ * Like the build's training run, the archive is created from the classes loaded by a first run of the client, for the
+ * class path of the benchmark.
+ * <p>
+ * The client needs a display. Its preferences are kept in a temporary directory, so that every run starts the same way.
+ * Next to the wall clock time, the uptime the client reports when showing the main window is printed at the end of
+ * each trial, which excludes creating the JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+  private static final String MAIN_WINDOW_SHOWN = "Startup milestone 'Main window shown' reached after ";
+  private static final Pattern UPTIME_PATTERN = Pattern.compile(Pattern.quote(MAIN_WINDOW_SHOWN) + "(\\d+) ms");
+  private static final long TIMEOUT_MINUTES = 5;
+
+  @Param({"false", "true"})
+  public boolean classDataSharing;
+
+  private Path directory;
+  private Path archive;
+  private String javaExecutable;
+  private String classPath;
+  private List<Long> reportedUptimes;
+
+  private Process process;
+  private BufferedReader output;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("startup-benchmark");
+    archive = directory.resolve("faf-client.jsa");
+    javaExecutable = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    classPath = System.getProperty("java.class.path");
+    reportedUptimes = new ArrayList<>();
+
+    if (classDataSharing) {
+      Path classList = directory.resolve("faf-client.classlist");
+      Process trainingRun = startClient("-XX:DumpLoadedClassList=" + classList);
+      drainAndWait(trainingRun, new BufferedReader(new InputStreamReader(trainingRun.getInputStream(), UTF_8)));
+
+      List<String> command = new ArrayList<>(Arrays.asList(javaExecutable, "-Xshare:dump",
+          "-XX:SharedClassListFile=" + classList, "-XX:SharedArchiveFile=" + archive, "-cp", classPath));
+      if (Runtime.version().feature() == 10) {
+        command.add(1, "-XX:+UseAppCDS");
+      }
+      Process dump = new ProcessBuilder(command).redirectErrorStream(true).start();
+      drainAndWait(dump, new BufferedReader(new InputStreamReader(dump.getInputStream(), UTF_8)));
+      if (dump.exitValue() != 0) {
+        throw new IllegalStateException("Shared archive could not be created, exit code " + dump.exitValue());
+      }
+    }
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDownInvocation() throws Exception {
+    // The client exits by itself once it has warmed up
+    drainAndWait(process, output);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    System.out.printf("%nUptime reported when the main window was shown (ms): %s%n", reportedUptimes);
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted((first, second) -> second.compareTo(first)).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public void untilMainWindowShown() throws IOException {
+    if (classDataSharing) {
+      process = startClient("-Xshare:on", "-XX:SharedArchiveFile=" + archive);
+    } else {
+      // Only the JDK's own classes are shared, as they are by default
+      process = startClient();
+    }
+    output = new BufferedReader(new InputStreamReader(process.getInputStream(), UTF_8));
+
+    String line;
+    while ((line = output.readLine()) != null) {
+      Matcher matcher = UPTIME_PATTERN.matcher(line);
+      if (matcher.find()) {
+        reportedUptimes.add(Long.parseLong(matcher.group(1)));
+        return;
+      }
+    }
+    throw new IllegalStateException("Client exited with code " + waitFor(process) + " before showing the main window");
+  }
+
+  private Process startClient(String... jvmOptions) throws IOException {
+    List<String> command = new ArrayList<>();
+    command.add(javaExecutable);
+    if (classDataSharing && Runtime.version().feature() == 10) {
+      command.add("-XX:+UseAppCDS");
+    }
+    command.addAll(Arrays.asList(jvmOptions));
+    command.addAll(Arrays.asList(
+        "-Duser.home=" + directory.resolve("home"),
+        "-cp", classPath,
+        FafClientApplication.class.getName(),
+        "--spring.profiles.active=" + FafClientApplication.PROFILE_OFFLINE,
+        "--faf-client.startup.exit-after-warm-up=true",
+        "--faf-client.startup.create-shared-archive=false"
+    ));
+    return new ProcessBuilder(command).redirectErrorStream(true).start();
+  }
+
+  private static void drainAndWait(Process process, BufferedReader output) throws IOException {
+    while (output.readLine() != null) {
+      // The process blocks if its output isn't read
+    }
+    waitFor(process);
+  }
+
+  private static int waitFor(Process process) {
+    try {
+      if (!process.waitFor(TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+        process.destroyForcibly();
+        throw new IllegalStateException("Client did not exit within " + TIMEOUT_MINUTES + " minutes");
+      }
+      return process.exitValue();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      process.destroyForcibly();
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.faforever.client.util;
+
+import com.google.common.io.ByteStreams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares reading {@code _scenario.lua} and {@code mod_info.lua} files through {@link LuaUtil#loadData(byte[])} with
+ * executing them in LuaJ. By default, the corpus consists of the files in the test resources. To run it against a
+ * local copy of the map and mod vault, pass its directory: {@code gradlew jmh -Pjmh.corpus=/path/to/vault}, or {@code
+ * -p corpus=/path/to/vault} when running the JMH jar directly. Files are read into memory beforehand so that only
+ * parsing is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LuaDataFileBenchmark {
+
+  private static final String[] BUNDLED_CORPUS = {
+      "/maps/SCMP_001/SCMP_001_scenario.lua",
+      "/mods/blackops_support_mod_info.lua",
+      "/mods/blackops_unleashed_mod_info.lua",
+      "/mods/eco_manager_mod_info.lua",
+      "/featured_mod/mod_info.lua",
+  };
+
+  /** Directory that is scanned recursively for Lua data files; the bundled corpus is used if empty. */
+  @Param("")
+  public String corpus;
+
+  private List<byte[]> files;
+
+  private static boolean isLuaDataFile(Path path) {
+    String fileName = path.getFileName().toString();
+    return fileName.endsWith("_scenario.lua") || fileName.equals("mod_info.lua");
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    files = new ArrayList<>();
+    if (corpus.isEmpty()) {
+      for (String resource : BUNDLED_CORPUS) {
+        try (InputStream inputStream = getClass().getResourceAsStream(resource)) {
+          files.add(ByteStreams.toByteArray(inputStream));
+        }
+      }
+      return;
+    }
+
+    try (Stream<Path> paths = Files.walk(Paths.get(corpus))) {
+      for (Path path : paths.filter(LuaDataFileBenchmark::isLuaDataFile).collect(Collectors.toList())) {
+        files.add(Files.readAllBytes(path));
+      }
+    }
+    if (files.isEmpty()) {
+      throw new IllegalArgumentException("No _scenario.lua or mod_info.lua files found in: " + corpus);
+    }
+  }
+
+  @Benchmark
+  public void literalParser(Blackhole blackhole) throws IOException {
+    for (byte[] file : files) {
+      blackhole.consume(LuaUtil.loadData(file));
+    }
+  }
+
+  @Benchmark
+  public void luaj(Blackhole blackhole) throws IOException {
+    for (byte[] file : files) {
+      blackhole.consume(LuaUtil.load(new ByteArrayInputStream(file)));
+    }
+  }
+}
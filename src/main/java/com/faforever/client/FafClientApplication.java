@@ -5,6 +5,8 @@ import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.main.MainController;
 import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.startup.StartupProfiler;
+import com.faforever.client.startup.WarmUpService;
 import com.faforever.client.theme.UiService;
 import com.faforever.client.ui.StageHolder;
 import com.faforever.client.ui.taskbar.WindowsTaskbarProgressUpdater;
@@ -91,6 +93,7 @@ public class FafClientApplication extends Application {
         .profiles(getAdditionalProfiles())
         .bannerMode(Mode.OFF)
         .run(getParameters().getRaw().toArray(new String[0]));
+    applicationContext.getBean(StartupProfiler.class).mark("Application context started");
   }
 
   @Override
@@ -98,12 +101,20 @@ public class FafClientApplication extends Application {
     StageHolder.setStage(stage);
     stage.initStyle(StageStyle.UNDECORATED);
     showMainWindow();
+    applicationContext.getBean(StartupProfiler.class).mark("Main window shown");
     JavaFxUtil.fixJDK8089296();
 
     // TODO publish event instead
     if (!applicationContext.getBeansOfType(WindowsTaskbarProgressUpdater.class).isEmpty()) {
       applicationContext.getBean(WindowsTaskbarProgressUpdater.class).initTaskBar();
     }
+
+    // Loads what isn't needed to show the login window, like the installed maps and mods
+    applicationContext.getBean(WarmUpService.class).warmUp().thenRun(() -> {
+      if (applicationContext.getBean(ClientProperties.class).getStartup().isExitAfterWarmUp()) {
+        Platform.runLater(Platform::exit);
+      }
+    });
   }
 
   @Bean
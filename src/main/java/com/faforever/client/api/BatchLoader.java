@@ -0,0 +1,140 @@
+package com.faforever.client.api;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects the keys that are requested within a short time window and loads them with a single request, in the style
+ * of DataLoader. A key that is already queued or being loaded isn't requested again, its callers share the pending
+ * result instead. Nothing is cached once a batch has been loaded; that's up to the caller.
+ *
+ * @param <K> the type of the keys, for instance IDs
+ * @param <V> the type of the loaded values
+ */
+class BatchLoader<K, V> {
+
+  private final Function<Collection<K>, List<V>> batchFunction;
+  private final Function<V, K> keyFunction;
+  private final Executor executor;
+  private final Executor delayedExecutor;
+  private final int maxBatchSize;
+
+  private final Object lock = new Object();
+  /** Futures of all keys that are queued or being loaded. */
+  private final Map<K, CompletableFuture<Optional<V>>> pending;
+  /** Futures of the keys that will be loaded by the next batch. */
+  private Map<K, CompletableFuture<Optional<V>>> queued;
+
+  /**
+   * @param batchFunction loads the values of the specified keys. Values that don't exist are simply left out.
+   * @param keyFunction returns the key of a loaded value
+   * @param delay how long to wait for more keys after the first one of a batch has been requested
+   * @param maxBatchSize a batch is loaded right away once it has this many keys
+   */
+  BatchLoader(Function<Collection<K>, List<V>> batchFunction, Function<V, K> keyFunction, Executor executor, Duration delay, int maxBatchSize) {
+    this.batchFunction = batchFunction;
+    this.keyFunction = keyFunction;
+    this.executor = executor;
+    this.delayedExecutor = CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS, executor);
+    this.maxBatchSize = maxBatchSize;
+    pending = new HashMap<>();
+    queued = new LinkedHashMap<>();
+  }
+
+  /**
+   * Returns the value of the specified key, or an empty optional if it doesn't exist.
+   */
+  CompletableFuture<Optional<V>> load(K key) {
+    CompletableFuture<Optional<V>> future;
+    Map<K, CompletableFuture<Optional<V>>> fullBatch = null;
+    boolean firstOfBatch = false;
+    synchronized (lock) {
+      future = pending.get(key);
+      if (future != null) {
+        return future;
+      }
+      future = new CompletableFuture<>();
+      pending.put(key, future);
+      queued.put(key, future);
+      if (queued.size() >= maxBatchSize) {
+        fullBatch = takeQueued();
+      } else {
+        firstOfBatch = queued.size() == 1;
+      }
+    }
+
+    if (fullBatch != null) {
+      Map<K, CompletableFuture<Optional<V>>> batch = fullBatch;
+      executor.execute(() -> dispatch(batch));
+    } else if (firstOfBatch) {
+      delayedExecutor.execute(() -> {
+        Map<K, CompletableFuture<Optional<V>>> batch;
+        synchronized (lock) {
+          batch = takeQueued();
+        }
+        if (!batch.isEmpty()) {
+          dispatch(batch);
+        }
+      });
+    }
+    return future;
+  }
+
+  /**
+   * Returns the values of the specified keys that exist, in the order of the keys.
+   */
+  CompletableFuture<List<V>> loadMany(Collection<K> keys) {
+    List<CompletableFuture<Optional<V>>> futures = new ArrayList<>();
+    for (K key : new LinkedHashSet<>(keys)) {
+      futures.add(load(key));
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .thenApply(aVoid -> {
+          List<V> values = new ArrayList<>(futures.size());
+          futures.forEach(future -> future.join().ifPresent(values::add));
+          return values;
+        });
+  }
+
+  private Map<K, CompletableFuture<Optional<V>>> takeQueued() {
+    Map<K, CompletableFuture<Optional<V>>> batch = queued;
+    queued = new LinkedHashMap<>();
+    return batch;
+  }
+
+  private void dispatch(Map<K, CompletableFuture<Optional<V>>> batch) {
+    Set<K> keys = batch.keySet();
+    Map<K, V> valuesByKey = new HashMap<>();
+    Throwable failure = null;
+    try {
+      for (V value : batchFunction.apply(new ArrayList<>(keys))) {
+        valuesByKey.putIfAbsent(keyFunction.apply(value), value);
+      }
+    } catch (Throwable t) {
+      failure = t;
+    }
+
+    synchronized (lock) {
+      pending.keySet().removeAll(keys);
+    }
+    for (Map.Entry<K, CompletableFuture<Optional<V>>> entry : batch.entrySet()) {
+      if (failure != null) {
+        entry.getValue().completeExceptionally(failure);
+      } else {
+        entry.getValue().complete(Optional.ofNullable(valuesByKey.get(entry.getKey())));
+      }
+    }
+  }
+}
@@ -31,6 +31,8 @@ import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Provides access to the FAF REST API. Services should not access this class directly, but use {@link
@@ -53,9 +55,15 @@ public interface FafApiAccessor {
 
   List<com.faforever.client.api.dto.FeaturedMod> getFeaturedMods();
 
-  List<Ladder1v1LeaderboardEntry> getLadder1v1Leaderboard();
+  /**
+   * Returns a page of the ladder 1v1 leaderboard, sorted by rank. Page numbers start at 1.
+   */
+  List<Ladder1v1LeaderboardEntry> getLadder1v1Leaderboard(int pageSize, int page);
 
-  List<GlobalLeaderboardEntry> getGlobalLeaderboard();
+  /**
+   * Returns a page of the global leaderboard, sorted by rank. Page numbers start at 1.
+   */
+  List<GlobalLeaderboardEntry> getGlobalLeaderboard(int pageSize, int page);
 
   Ladder1v1LeaderboardEntry getLadder1v1EntryForPlayer(int playerId);
 
@@ -111,7 +119,11 @@ public interface FafApiAccessor {
 
   Optional<Clan> getClanByTag(String tag);
 
-  List<Map> findMapsByQuery(SearchConfig searchConfig, int page, int count);
+  /**
+   * Searches up to {@code count} maps, skipping the ones of previous pages. The maps are passed to {@code
+   * pageConsumer} in order, as soon as the smaller pages they're loaded in arrive.
+   */
+  CompletableFuture<Void> findMapsByQuery(SearchConfig searchConfig, int page, int count, Consumer<List<Map>> pageConsumer);
 
   Optional<MapVersion> findMapVersionById(String id);
 
@@ -123,6 +135,12 @@ public interface FafApiAccessor {
 
   List<Mod> findModsByQuery(SearchConfig query, int page, int maxResults);
 
+  /**
+   * Searches up to {@code count} mods, skipping the ones of previous pages. The mods are passed to {@code
+   * pageConsumer} in order, as soon as the smaller pages they're loaded in arrive.
+   */
+  CompletableFuture<Void> findModsByQuery(SearchConfig query, int page, int count, Consumer<List<Mod>> pageConsumer);
+
   List<Ladder1v1Map> getLadder1v1Maps(int count, int page);
 
   List<Tournament> getAllTournaments();
@@ -1,5 +1,6 @@
 package com.faforever.client.api;
 
+import com.faforever.client.api.PageIterator.Page;
 import com.faforever.client.api.dto.AchievementDefinition;
 import com.faforever.client.api.dto.Clan;
 import com.faforever.client.api.dto.CoopMission;
@@ -42,6 +43,7 @@ import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.HttpClient;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -49,6 +51,8 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.security.oauth2.client.DefaultOAuth2ClientContext;
+import org.springframework.security.oauth2.client.OAuth2ClientContext;
 import org.springframework.security.oauth2.client.OAuth2RestTemplate;
 import org.springframework.security.oauth2.client.token.grant.password.ResourceOwnerPasswordResourceDetails;
 import org.springframework.security.oauth2.common.AuthenticationScheme;
@@ -63,14 +67,19 @@ import org.springframework.web.util.UriComponentsBuilder;
 import javax.inject.Inject;
 import java.io.Serializable;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -90,23 +99,71 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   private final RestTemplateBuilder restTemplateBuilder;
   private final ClientProperties clientProperties;
   private final HttpComponentsClientHttpRequestFactory requestFactory;
+  private final ExecutorService executorService;
+  private final HttpResponseCache httpResponseCache;
+  private final BatchLoader<Integer, Player> playerLoader;
+  private final BatchLoader<String, MapVersion> mapVersionLoader;
+  private final BatchLoader<String, ModVersion> modVersionLoader;
+  private final BatchLoader<String, Clan> clanLoader;
 
   private CountDownLatch authorizedLatch;
   private RestOperations restOperations;
+  /**
+   * Used for GET requests only. Any interceptor makes Spring buffer the whole request body, which must not happen for
+   * uploads.
+   */
+  private RestOperations cachingRestOperations;
 
   @Inject
   public FafApiAccessorImpl(EventBus eventBus, RestTemplateBuilder restTemplateBuilder,
                             ClientProperties clientProperties, JsonApiMessageConverter jsonApiMessageConverter,
-                            JsonApiErrorHandler jsonApiErrorHandler) {
+                            JsonApiErrorHandler jsonApiErrorHandler, ExecutorService executorService,
+                            HttpResponseCache httpResponseCache, HttpClient httpClient) {
     this.eventBus = eventBus;
     this.clientProperties = clientProperties;
+    this.executorService = executorService;
+    this.httpResponseCache = httpResponseCache;
     authorizedLatch = new CountDownLatch(1);
 
-    requestFactory = new HttpComponentsClientHttpRequestFactory();
+    requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
     this.restTemplateBuilder = restTemplateBuilder
         .requestFactory(() -> requestFactory)
         .additionalMessageConverters(jsonApiMessageConverter)
         .errorHandler(jsonApiErrorHandler);
+
+    playerLoader = batchLoader(ids -> getMany("/data/player", ids.size(), ImmutableMap.of(
+        "include", PLAYER_INCLUDES,
+        "filter", rsql(qBuilder().string("id").in(ids.stream().map(String::valueOf).collect(Collectors.toList())))
+    )), player -> Integer.valueOf(player.getId()));
+    mapVersionLoader = batchLoader(ids -> getMany("/data/mapVersion", ids.size(), ImmutableMap.of(
+        "include", "map,map.statistics,reviews",
+        "filter", rsql(qBuilder().string("id").in(ids))
+    )), MapVersion::getId);
+    modVersionLoader = batchLoader(uids -> getMany("/data/modVersion", uids.size(), ImmutableMap.of(
+        "include", "mod,mod.latestVersion,mod.versions,mod.uploader",
+        "filter", rsql(qBuilder().string("uid").in(uids))
+    )), ModVersion::getUid);
+    clanLoader = batchLoader(tags -> getMany("/data/clan", tags.size(), ImmutableMap.of(
+        "include", "leader,founder,memberships,memberships.player",
+        "filter", rsql(qBuilder().string("tag").in(tags))
+    )), Clan::getTag);
+  }
+
+  private <K, V> BatchLoader<K, V> batchLoader(Function<Collection<K>, List<V>> batchFunction, Function<V, K> keyFunction) {
+    Api api = clientProperties.getApi();
+    return new BatchLoader<>(batchFunction, keyFunction, executorService, api.getBatchDelay(), api.getMaxBatchSize());
+  }
+
+  /**
+   * Waits for a batched lookup and throws whatever its request threw.
+   */
+  @SneakyThrows
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      throw e.getCause();
+    }
   }
 
   private static String rsql(Condition<?> eq) {
@@ -126,6 +183,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   public void onLoggedOutEvent(LoggedOutEvent event) {
     authorizedLatch = new CountDownLatch(1);
     restOperations = null;
+    cachingRestOperations = null;
   }
 
   @Subscribe
@@ -178,35 +236,24 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   }
 
   @Override
-  @Cacheable(CacheNames.GLOBAL_LEADERBOARD)
-  @SneakyThrows
-  @SuppressWarnings("unchecked")
-  public List<GlobalLeaderboardEntry> getGlobalLeaderboard() {
-    // This is not an ordinary JSON-API route and thus doesn't support paging, that's why it's called manually
-    authorizedLatch.await();
-    return restOperations.getForObject("/leaderboards/global", List.class,
-        ImmutableMap.of(
-            "sort", "-rating",
-            "include", "player",
-            "fields[globalRating]", "rating,numGames",
-            "fields[player]", "login"
-        ));
+  public List<GlobalLeaderboardEntry> getGlobalLeaderboard(int pageSize, int page) {
+    // Not cached, LeaderboardService keeps the pages it has loaded in a more compact form
+    return getPage("/leaderboards/global", pageSize, page, ImmutableMap.of(
+        "sort", "-rating",
+        "include", "player",
+        "fields[globalRating]", "rating,numGames",
+        "fields[player]", "login"
+    ));
   }
 
   @Override
-  @Cacheable(CacheNames.LADDER_1V1_LEADERBOARD)
-  @SneakyThrows
-  @SuppressWarnings("unchecked")
-  public List<Ladder1v1LeaderboardEntry> getLadder1v1Leaderboard() {
-    // This is not an ordinary JSON-API route and thus doesn't support paging, that's why it doesn't use getAll()
-    authorizedLatch.await();
-    return restOperations.getForObject("/leaderboards/ladder1v1", List.class,
-        ImmutableMap.of(
-            "sort", "-rating",
-            "include", "player",
-            "fields[ladder1v1Rating]", "rating,numGames,winGames",
-            "fields[player]", "login"
-        ));
+  public List<Ladder1v1LeaderboardEntry> getLadder1v1Leaderboard(int pageSize, int page) {
+    return getPage("/leaderboards/ladder1v1", pageSize, page, ImmutableMap.of(
+        "sort", "-rating",
+        "include", "player",
+        "fields[ladder1v1Rating]", "rating,numGames,winGames",
+        "fields[player]", "login"
+    ));
   }
 
   @Override
@@ -302,9 +349,8 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
 
   @Override
   public ModVersion getModVersion(String uid) {
-    return (ModVersion) getMany("/data/modVersion", 1,
-        ImmutableMap.of("filter", rsql(qBuilder().string("uid").eq(uid)), "include", "mod,mod.latestVersion,mod.versions,mod.uploader")
-    ).get(0);
+    return join(modVersionLoader.load(uid))
+        .orElseThrow(() -> new IllegalArgumentException("There is no mod version with UID " + uid));
   }
 
   @Override
@@ -358,12 +404,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
 
   @Override
   public List<Player> getPlayersByIds(Collection<Integer> playerIds) {
-    List<String> ids = playerIds.stream().map(String::valueOf).collect(Collectors.toList());
-
-    return getMany("/data/player", playerIds.size(), ImmutableMap.of(
-        "include", PLAYER_INCLUDES,
-        "filter", rsql(qBuilder().string("id").in(ids))
-    ));
+    return join(playerLoader.loadMany(playerIds));
   }
 
   @Override
@@ -408,13 +449,22 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
 
   @Override
   public List<Mod> findModsByQuery(SearchConfig searchConfig, int page, int count) {
+    return getPage(MOD_ENDPOINT, count, page, modSearchParameters(searchConfig));
+  }
+
+  @Override
+  public CompletableFuture<Void> findModsByQuery(SearchConfig searchConfig, int page, int count, Consumer<List<Mod>> pageConsumer) {
+    return forEachSearchPage(MOD_ENDPOINT, page, count, modSearchParameters(searchConfig), pageConsumer);
+  }
+
+  private static MultiValueMap<String, String> modSearchParameters(SearchConfig searchConfig) {
     MultiValueMap<String, String> parameterMap = new LinkedMultiValueMap<>();
     if (searchConfig.hasQuery()) {
       parameterMap.add("filter", searchConfig.getSearchQuery() + ";latestVersion.hidden==\"false\"");
     }
     parameterMap.add("include", "latestVersion,latestVersion.reviews,latestVersion.reviews.player,latestVersion.reviewsSummary");
     parameterMap.add("sort", searchConfig.getSortConfig().toQuery());
-    return getPage(MOD_ENDPOINT, count, page, parameterMap);
+    return parameterMap;
   }
 
   @Override
@@ -449,32 +499,24 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   @Override
   @Cacheable(CacheNames.CLAN)
   public Optional<Clan> getClanByTag(String tag) {
-    List<Clan> clans = getMany("/data/clan", 1, ImmutableMap.of(
-        "include", "leader,founder,memberships,memberships.player",
-        "filter", rsql(qBuilder().string("tag").eq(tag))
-    ));
-    if (clans.isEmpty()) {
-      return Optional.empty();
-    }
-    return Optional.ofNullable(clans.get(0));
+    return join(clanLoader.load(tag));
   }
 
   @Override
-  public List<Map> findMapsByQuery(SearchConfig searchConfig, int page, int count) {
+  public CompletableFuture<Void> findMapsByQuery(SearchConfig searchConfig, int page, int count, Consumer<List<Map>> pageConsumer) {
     MultiValueMap<String, String> parameterMap = new LinkedMultiValueMap<>();
     if (searchConfig.hasQuery()) {
       parameterMap.add("filter", searchConfig.getSearchQuery() + ";latestVersion.hidden==\"false\"");
     }
     parameterMap.add("include", "latestVersion,latestVersion.reviews,latestVersion.reviews.player,author,statistics,latestVersion.reviewsSummary");
     parameterMap.add("sort", searchConfig.getSortConfig().toQuery());
-    return getPage(MAP_ENDPOINT, count, page, parameterMap);
+    return forEachSearchPage(MAP_ENDPOINT, page, count, parameterMap, pageConsumer);
   }
 
   @Override
   public Optional<MapVersion> findMapVersionById(String id) {
-    // FIXME: that is not gonna work this way
     //FIXME: filter hidden maps
-    return Optional.ofNullable(getOne(MAP_ENDPOINT + "/" + id, MapVersion.class));
+    return join(mapVersionLoader.load(id));
   }
 
   @Override
@@ -519,10 +561,13 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
     details.setUsername(username);
     details.setPassword(password);
 
-    restOperations = restTemplateBuilder
-        // Base URL can be changed in login window
-        .rootUri(apiProperties.getBaseUrl())
-        .configure(new OAuth2RestTemplate(details));
+    // Base URL can be changed in login window
+    RestTemplateBuilder authorizedBuilder = restTemplateBuilder.rootUri(apiProperties.getBaseUrl());
+    OAuth2ClientContext clientContext = new DefaultOAuth2ClientContext();
+    restOperations = authorizedBuilder.configure(new OAuth2RestTemplate(details, clientContext));
+    cachingRestOperations = authorizedBuilder
+        .additionalInterceptors(httpResponseCache)
+        .configure(new OAuth2RestTemplate(details, clientContext));
 
     authorizedLatch.countDown();
   }
@@ -567,7 +612,7 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
   @SuppressWarnings("unchecked")
   @SneakyThrows
   private <T> T getOne(String endpointPath, Class<T> type) {
-    return restOperations.getForObject(endpointPath, type, Collections.emptyMap());
+    return cachingRestOperations.getForObject(endpointPath, type, Collections.emptyMap());
   }
 
   @SuppressWarnings("unchecked")
@@ -592,24 +637,72 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
     return getMany(endpointPath, clientProperties.getApi().getMaxPageSize(), params);
   }
 
-  @SneakyThrows
   private <T> List<T> getMany(String endpointPath, int count, java.util.Map<String, Serializable> params) {
-    List<T> result = new LinkedList<>();
-    List<T> current = null;
-    int page = 1;
-    int maxPageSize = clientProperties.getApi().getMaxPageSize();
-    while ((current == null || current.size() >= maxPageSize) && result.size() < count) {
-      current = getPage(endpointPath, count, page++, params);
-      result.addAll(current);
+    List<T> result = new ArrayList<>();
+    try (PageIterator<T> pages = iteratePages(endpointPath, count, params)) {
+      pages.forEachRemaining(result::addAll);
     }
     return result;
   }
 
+  /**
+   * Returns the pages of up to {@code count} records, which are loaded concurrently while the caller iterates over
+   * them. Responses of endpoints that are served from the cache are always requested in the same pages.
+   */
+  private <T> PageIterator<T> iteratePages(String endpointPath, int count, java.util.Map<String, Serializable> params) {
+    boolean adaptivePageSize = !httpResponseCache.isStaleWhileRevalidate(endpointPath);
+    return iteratePages(endpointPath, 0, count, clientProperties.getApi().getInitialPageSize(), adaptivePageSize, toMultiValueMap(params));
+  }
+
+  /**
+   * Loads the records of a search result page in smaller, fixed pages of {@link Api#getSearchPageSize()} records and
+   * passes them to {@code pageConsumer} as they arrive, so that the first results can be shown early on.
+   */
+  private <T> CompletableFuture<Void> forEachSearchPage(String endpointPath, int page, int count, MultiValueMap<String, String> params, Consumer<List<T>> pageConsumer) {
+    PageIterator<T> pages = iteratePages(endpointPath, (page - 1) * count, count, clientProperties.getApi().getSearchPageSize(), false, params);
+    return pages.forEachRemainingAsync(pageConsumer);
+  }
+
+  private <T> PageIterator<T> iteratePages(String endpointPath, int offset, int count, int initialPageSize, boolean adaptivePageSize, MultiValueMap<String, String> params) {
+    Api api = clientProperties.getApi();
+    return new PageIterator<>(
+        (pageOffset, limit, countTotal) -> getRecords(endpointPath, pageOffset, limit, countTotal, params),
+        executorService, offset, count, initialPageSize, api.getMaxPageSize(), api.getMaxConcurrentPageRequests(), adaptivePageSize
+    );
+  }
+
+  @SuppressWarnings("unchecked")
+  @SneakyThrows
+  private <T> Page<T> getRecords(String endpointPath, int offset, int limit, boolean countTotal, MultiValueMap<String, String> params) {
+    UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder.fromPath(endpointPath)
+        .queryParams(params);
+    if (offset % limit == 0) {
+      uriComponentsBuilder
+          .replaceQueryParam("page[size]", limit)
+          .replaceQueryParam("page[number]", offset / limit + 1);
+    } else {
+      uriComponentsBuilder
+          .replaceQueryParam("page[offset]", offset)
+          .replaceQueryParam("page[limit]", limit);
+    }
+    if (countTotal) {
+      uriComponentsBuilder.queryParam("page[totals]");
+    }
+
+    authorizedLatch.await();
+    List<T> records = cachingRestOperations.getForObject(uriComponentsBuilder.build().toUriString(), List.class);
+    Integer totalRecords = records instanceof JsonApiList ? ((JsonApiList<T>) records).getTotalRecords() : null;
+    return new Page<>(records, totalRecords);
+  }
+
   private <T> List<T> getPage(String endpointPath, int pageSize, int page, java.util.Map<String, Serializable> params) {
+    return getPage(endpointPath, pageSize, page, toMultiValueMap(params));
+  }
+
+  private static MultiValueMap<String, String> toMultiValueMap(java.util.Map<String, Serializable> params) {
     java.util.Map<String, List<String>> multiValues = params.entrySet().stream()
         .collect(Collectors.toMap(Entry::getKey, entry -> Collections.singletonList(String.valueOf(entry.getValue()))));
-
-    return getPage(endpointPath, pageSize, page, CollectionUtils.toMultiValueMap(multiValues));
+    return CollectionUtils.toMultiValueMap(multiValues);
   }
 
   @SuppressWarnings("unchecked")
@@ -622,6 +715,6 @@ public class FafApiAccessorImpl implements FafApiAccessor, InitializingBean {
         .build();
 
     authorizedLatch.await();
-    return (List<T>) restOperations.getForObject(uriComponents.toUriString(), List.class);
+    return (List<T>) cachingRestOperations.getForObject(uriComponents.toUriString(), List.class);
   }
 }
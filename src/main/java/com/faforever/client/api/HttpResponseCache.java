@@ -0,0 +1,585 @@
+package com.faforever.client.api;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.config.ClientProperties.Api;
+import com.faforever.client.io.LruDiskCache;
+import com.faforever.client.preferences.PreferencesService;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Keeps the responses of GET requests to the API on disk, so that they don't need to be downloaded again after a
+ * restart or once they've been evicted from the in-memory caches. A cached response is revalidated using its {@code
+ * ETag} or {@code Last-Modified} header, so that the server only needs to send it again if it changed. New responses
+ * are written to disk while they're being read, rather than being buffered in memory first, and cached responses are
+ * read from disk the same way. Responses that must not be stored ({@code Cache-Control: no-store}) or that are meant for
+ * a single user only ({@code Cache-Control: private}) are never cached.
+ * <p>
+ * For read-only endpoints ({@link Api#getStaleWhileRevalidatePaths()}), a cached response that is not older than
+ * {@link Api#getMaxStale()} is returned right away and revalidated in the background, so that the next request gets
+ * the up to date response. The size of the cache on disk is limited by {@link Api#getResponseCacheMaxDiskBytes()}.
+ */
+@Slf4j
+@Lazy
+@Component
+public class HttpResponseCache implements ClientHttpRequestInterceptor {
+
+  private static final String CACHE_SUB_FOLDER = "api";
+  private static final int FORMAT_VERSION = 2;
+
+  private final PreferencesService preferencesService;
+  private final ExecutorService executorService;
+  private final LruDiskCache diskCache;
+  private final List<String> staleWhileRevalidatePaths;
+  private final Duration maxStale;
+  /** Keys of the responses that are currently being revalidated in the background. */
+  private final Set<String> revalidatingKeys;
+
+  @Inject
+  public HttpResponseCache(PreferencesService preferencesService, ClientProperties clientProperties, ExecutorService executorService) {
+    this.preferencesService = preferencesService;
+    this.executorService = executorService;
+    Api api = clientProperties.getApi();
+    diskCache = new LruDiskCache(api.getResponseCacheMaxDiskBytes());
+    staleWhileRevalidatePaths = api.getStaleWhileRevalidatePaths();
+    maxStale = api.getMaxStale();
+    revalidatingKeys = ConcurrentHashMap.newKeySet();
+  }
+
+  @Override
+  public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    if (request.getMethod() != HttpMethod.GET) {
+      return execution.execute(request, body);
+    }
+
+    String uri = request.getURI().toString();
+    Path cacheFile = getCacheDirectory().resolve(Hashing.sha256().hashString(uri, UTF_8).toString());
+    CachedResponse cachedResponse = read(cacheFile, uri);
+
+    boolean staleWhileRevalidate = isStaleWhileRevalidate(request.getURI().getPath());
+    if (cachedResponse == null) {
+      return fetch(request, body, execution, cacheFile, null, staleWhileRevalidate);
+    }
+
+    if (staleWhileRevalidate && cachedResponse.getAge().compareTo(maxStale) <= 0) {
+      log.trace("Serving {} from cache while revalidating", uri);
+      if (revalidatingKeys.add(uri)) {
+        executorService.execute(() -> {
+          // The body of the cached response is being returned, so the revalidation needs its own one
+          try {
+            // A response that is being cached is read completely when it's closed
+            fetch(request, body, execution, cacheFile, read(cacheFile, uri), true).close();
+          } catch (IOException | RuntimeException e) {
+            log.debug("Could not revalidate {}", uri, e);
+          } finally {
+            revalidatingKeys.remove(uri);
+          }
+        });
+      }
+      return cachedResponse.toResponse();
+    }
+
+    return fetch(request, body, execution, cacheFile, cachedResponse, staleWhileRevalidate);
+  }
+
+  /**
+   * Executes the request, conditionally if there's a cached response, and updates the cache with the result. The body
+   * of the cached response is either returned or closed.
+   */
+  private ClientHttpResponse fetch(HttpRequest request, byte[] body, ClientHttpRequestExecution execution, Path cacheFile,
+                                   @Nullable CachedResponse cachedResponse, boolean cacheWithoutValidators) throws IOException {
+    if (cachedResponse != null) {
+      HttpHeaders headers = request.getHeaders();
+      if (cachedResponse.eTag != null) {
+        headers.setIfNoneMatch(cachedResponse.eTag);
+      }
+      if (cachedResponse.lastModified != null) {
+        headers.set(HttpHeaders.IF_MODIFIED_SINCE, cachedResponse.lastModified);
+      }
+    }
+
+    ClientHttpResponse response;
+    boolean notModified = false;
+    try {
+      response = execution.execute(request, body);
+      notModified = cachedResponse != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED;
+    } finally {
+      if (cachedResponse != null && !notModified) {
+        cachedResponse.close();
+      }
+    }
+
+    if (notModified) {
+      response.close();
+      log.trace("{} has not been modified", request.getURI());
+      cachedResponse.markRevalidated(cacheFile);
+      return cachedResponse.toResponse();
+    }
+
+    if (response.getStatusCode() != HttpStatus.OK || hasArbitraryPageBoundaries(request)) {
+      return response;
+    }
+
+    HttpHeaders headers = response.getHeaders();
+    if (isNotStorable(headers)) {
+      // A previously cached response must not be served instead of this one
+      diskCache.remove(cacheFile);
+      deleteIfExists(cacheFile);
+      return response;
+    }
+
+    String eTag = headers.getETag();
+    String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+    if (eTag == null && lastModified == null && !cacheWithoutValidators) {
+      return response;
+    }
+
+    CachedResponse newResponse = new CachedResponse(request.getURI().toString(), System.currentTimeMillis(), eTag,
+        lastModified, headers.getFirst(HttpHeaders.CONTENT_TYPE));
+    return new CachingResponse(response, cacheFile, newResponse);
+  }
+
+  /**
+   * Returns whether the response must not be stored at all, or only by the user's own cache. Requests are sent with
+   * the user's access token but cached by their URI only, so a private response is not cached either.
+   */
+  private static boolean isNotStorable(HttpHeaders headers) {
+    String cacheControl = headers.getCacheControl();
+    if (cacheControl == null) {
+      return false;
+    }
+    String directives = cacheControl.toLowerCase(Locale.ROOT);
+    return directives.contains("no-store") || directives.contains("private");
+  }
+
+  /**
+   * Returns whether the request is for a page that doesn't start at a multiple of its size. Such pages are only
+   * requested while the page size adapts to the connection, so the same request is unlikely to be sent again.
+   */
+  private static boolean hasArbitraryPageBoundaries(HttpRequest request) {
+    String query = request.getURI().getQuery();
+    return query != null && query.contains("page[offset]");
+  }
+
+  /**
+   * Returns whether cached responses of the specified path are used while they're revalidated. Requests to such paths
+   * should always look the same, e.g. use the same page boundaries, or their cached responses will rarely be used.
+   */
+  public boolean isStaleWhileRevalidate(@Nullable String path) {
+    return path != null && staleWhileRevalidatePaths.stream().anyMatch(path::startsWith);
+  }
+
+  private Path getCacheDirectory() {
+    Path cacheDirectory = preferencesService.getCacheDirectory().resolve(CACHE_SUB_FOLDER);
+    diskCache.track(cacheDirectory);
+    return cacheDirectory;
+  }
+
+  /**
+   * Reads the header of the cached response and keeps the file open, so that the body can be read from it even if the
+   * cached response is replaced in the meantime.
+   */
+  @Nullable
+  private CachedResponse read(Path cacheFile, String uri) {
+    if (!diskCache.contains(cacheFile)) {
+      return null;
+    }
+    FileChannel channel = null;
+    try {
+      channel = FileChannel.open(cacheFile);
+      CachedResponse cachedResponse = CachedResponse.read(Channels.newInputStream(channel), channel.size());
+      if (cachedResponse == null || !cachedResponse.uri.equals(uri)) {
+        channel.close();
+        return null;
+      }
+      diskCache.touch(cacheFile);
+      return cachedResponse;
+    } catch (IOException e) {
+      log.debug("Could not read cached response: {}", cacheFile, e);
+      diskCache.remove(cacheFile);
+      if (channel != null) {
+        try {
+          channel.close();
+        } catch (IOException closeException) {
+          log.debug("Could not close {}", cacheFile, closeException);
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Creates a temporary file next to the specified cache file. Concurrent requests for the same URI write to different
+   * temporary files, the last one to complete ends up in the cache.
+   */
+  private static Path createTempFile(Path cacheFile) throws IOException {
+    Files.createDirectories(cacheFile.getParent());
+    return Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), LruDiskCache.TEMP_FILE_SUFFIX);
+  }
+
+  private void commit(Path tempFile, Path cacheFile) throws IOException {
+    Files.move(tempFile, cacheFile, REPLACE_EXISTING, ATOMIC_MOVE);
+    diskCache.add(cacheFile, Files.size(cacheFile));
+  }
+
+  private static void deleteIfExists(@Nullable Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.debug("Could not delete {}", file, e);
+    }
+  }
+
+  private static final class CachedResponse implements Closeable {
+    private final String uri;
+    private final long storedAt;
+    private final String eTag;
+    private final String lastModified;
+    private final String contentType;
+    /** Where {@link #storedAt} is written in the cache file. */
+    private final long storedAtPosition;
+    /** The rest of the cache file, or {@code null} if the response is only being written to the cache. */
+    private final InputStream body;
+    private final long bodyLength;
+
+    private CachedResponse(String uri, long storedAt, @Nullable String eTag, @Nullable String lastModified,
+                           @Nullable String contentType) {
+      this(uri, storedAt, eTag, lastModified, contentType, -1, null, -1);
+    }
+
+    private CachedResponse(String uri, long storedAt, @Nullable String eTag, @Nullable String lastModified,
+                           @Nullable String contentType, long storedAtPosition, @Nullable InputStream body, long bodyLength) {
+      this.uri = uri;
+      this.storedAt = storedAt;
+      this.eTag = eTag;
+      this.lastModified = lastModified;
+      this.contentType = contentType;
+      this.storedAtPosition = storedAtPosition;
+      this.body = body;
+      this.bodyLength = bodyLength;
+    }
+
+    /**
+     * Reads the header from the specified stream, which is then positioned at the body.
+     */
+    @Nullable
+    private static CachedResponse read(InputStream fileInputStream, long fileSize) throws IOException {
+      // Not buffered, so that the stream is positioned right after the header
+      CountingInputStream countingInputStream = new CountingInputStream(fileInputStream);
+      DataInputStream inputStream = new DataInputStream(countingInputStream);
+      if (inputStream.readInt() != FORMAT_VERSION) {
+        return null;
+      }
+      String uri = inputStream.readUTF();
+      long storedAtPosition = countingInputStream.getCount();
+      long storedAt = inputStream.readLong();
+      String eTag = emptyToNull(inputStream.readUTF());
+      String lastModified = emptyToNull(inputStream.readUTF());
+      String contentType = emptyToNull(inputStream.readUTF());
+      // The body is the rest of the file, so that it can be written while it's being received
+      return new CachedResponse(uri, storedAt, eTag, lastModified, contentType, storedAtPosition,
+          new BufferedInputStream(fileInputStream), fileSize - countingInputStream.getCount());
+    }
+
+    private void writeHeader(DataOutputStream outputStream) throws IOException {
+      outputStream.writeInt(FORMAT_VERSION);
+      outputStream.writeUTF(uri);
+      outputStream.writeLong(storedAt);
+      outputStream.writeUTF(nullToEmpty(eTag));
+      outputStream.writeUTF(nullToEmpty(lastModified));
+      outputStream.writeUTF(nullToEmpty(contentType));
+    }
+
+    private static String emptyToNull(String string) {
+      return string.isEmpty() ? null : string;
+    }
+
+    private static String nullToEmpty(@Nullable String string) {
+      return string == null ? "" : string;
+    }
+
+    private Duration getAge() {
+      return Duration.ofMillis(System.currentTimeMillis() - storedAt);
+    }
+
+    /**
+     * Updates the time the response has been stored at in the cache file, without rewriting the body.
+     */
+    private void markRevalidated(Path cacheFile) {
+      ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, System.currentTimeMillis());
+      try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.WRITE)) {
+        channel.write(buffer, storedAtPosition);
+      } catch (IOException e) {
+        log.debug("Could not update cached response: {}", cacheFile, e);
+      }
+    }
+
+    /**
+     * Returns the cached response, which takes over the body.
+     */
+    private ClientHttpResponse toResponse() {
+      HttpHeaders headers = new HttpHeaders();
+      if (contentType != null) {
+        headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+      }
+      headers.setContentLength(bodyLength);
+      return new ClientHttpResponse() {
+        @Override
+        public HttpStatus getStatusCode() {
+          return HttpStatus.OK;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+          return HttpStatus.OK.value();
+        }
+
+        @Override
+        public String getStatusText() {
+          return HttpStatus.OK.getReasonPhrase();
+        }
+
+        @Override
+        public void close() {
+          CachedResponse.this.close();
+        }
+
+        @Override
+        public InputStream getBody() {
+          return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+          return headers;
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      if (body == null) {
+        return;
+      }
+      try {
+        body.close();
+      } catch (IOException e) {
+        log.debug("Could not close cached response: {}", uri, e);
+      }
+    }
+  }
+
+  /**
+   * Passes a response on while writing its body to a temporary file, which becomes the cached response once the body
+   * has been read completely. If the response is closed before, the rest of the body is read first, like the HTTP
+   * client does anyway to reuse the connection. If writing fails, the response is passed on without being cached.
+   */
+  private final class CachingResponse implements ClientHttpResponse {
+    private final ClientHttpResponse response;
+    private final Path cacheFile;
+    private final CachedResponse cachedResponse;
+    private CachingInputStream body;
+
+    private CachingResponse(ClientHttpResponse response, Path cacheFile, CachedResponse cachedResponse) {
+      this.response = response;
+      this.cacheFile = cacheFile;
+      this.cachedResponse = cachedResponse;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() throws IOException {
+      return response.getStatusCode();
+    }
+
+    @Override
+    public int getRawStatusCode() throws IOException {
+      return response.getRawStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+      return response.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return response.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+      if (body == null) {
+        body = new CachingInputStream(response.getBody(), cacheFile, cachedResponse);
+      }
+      return body;
+    }
+
+    @Override
+    public void close() {
+      try {
+        // Reads the rest of the body, even if it hasn't been requested
+        getBody().close();
+      } catch (IOException e) {
+        log.debug("Could not close response body", e);
+      } finally {
+        response.close();
+      }
+    }
+  }
+
+  private final class CachingInputStream extends FilterInputStream {
+    private final Path cacheFile;
+    private Path tempFile;
+    /** Where the body is written to, or {@code null} if it's not (or no longer) being cached. */
+    private DataOutputStream outputStream;
+
+    private CachingInputStream(InputStream inputStream, Path cacheFile, CachedResponse cachedResponse) {
+      super(inputStream);
+      this.cacheFile = cacheFile;
+      try {
+        tempFile = createTempFile(cacheFile);
+        outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)));
+        cachedResponse.writeHeader(outputStream);
+      } catch (IOException e) {
+        log.warn("Could not cache response: {}", cacheFile, e);
+        discard();
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b == -1) {
+        complete();
+      } else if (outputStream != null) {
+        try {
+          outputStream.write(b);
+        } catch (IOException e) {
+          log.warn("Could not cache response: {}", cacheFile, e);
+          discard();
+        }
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int count = super.read(buffer, offset, length);
+      if (count == -1) {
+        complete();
+      } else if (outputStream != null) {
+        try {
+          outputStream.write(buffer, offset, count);
+        } catch (IOException e) {
+          log.warn("Could not cache response: {}", cacheFile, e);
+          discard();
+        }
+      }
+      return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      if (n <= 0) {
+        return 0;
+      }
+      // Skipped bytes need to be cached as well
+      byte[] buffer = new byte[(int) Math.min(n, 8192)];
+      long skipped = 0;
+      while (skipped < n) {
+        int count = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+        if (count == -1) {
+          break;
+        }
+        skipped += count;
+      }
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (outputStream != null) {
+          ByteStreams.exhaust(this);
+        }
+      } catch (IOException e) {
+        log.debug("Could not read the rest of the response: {}", cacheFile, e);
+        discard();
+      } finally {
+        super.close();
+      }
+    }
+
+    private void complete() {
+      if (outputStream == null) {
+        return;
+      }
+      try {
+        outputStream.close();
+        outputStream = null;
+        commit(tempFile, cacheFile);
+      } catch (IOException e) {
+        log.warn("Could not cache response: {}", cacheFile, e);
+        discard();
+      }
+    }
+
+    private void discard() {
+      if (outputStream != null) {
+        try {
+          outputStream.close();
+        } catch (IOException e) {
+          log.debug("Could not close {}", tempFile, e);
+        }
+        outputStream = null;
+      }
+      deleteIfExists(tempFile);
+    }
+  }
+}
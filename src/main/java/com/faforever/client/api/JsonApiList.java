@@ -0,0 +1,39 @@
+package com.faforever.client.api;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A list of resources read from a JSON-API collection document, along with the paging information of its meta
+ * object.
+ */
+public class JsonApiList<T> extends ArrayList<T> {
+
+  private final Integer totalRecords;
+
+  JsonApiList(Collection<? extends T> resources, @Nullable Map<String, ?> meta) {
+    super(resources);
+    this.totalRecords = readTotalRecords(meta);
+  }
+
+  @Nullable
+  private static Integer readTotalRecords(@Nullable Map<String, ?> meta) {
+    if (meta == null || !(meta.get("page") instanceof Map)) {
+      return null;
+    }
+    Object totalRecords = ((Map<?, ?>) meta.get("page")).get("totalRecords");
+    return totalRecords instanceof Number ? ((Number) totalRecords).intValue() : null;
+  }
+
+  /**
+   * Returns the total number of records of the whole collection, if the server reported it (which it only does when
+   * asked to using {@code page[totals]}).
+   */
+  @Nullable
+  public Integer getTotalRecords() {
+    return totalRecords;
+  }
+}
@@ -18,11 +18,13 @@ import java.util.Collection;
 @Component
 public class JsonApiMessageConverter extends AbstractHttpMessageConverter<Object> {
   private final ResourceConverter resourceConverter;
+  private final StreamingJsonApiReader streamingJsonApiReader;
 
   @Inject
-  public JsonApiMessageConverter(ResourceConverter resourceConverter) {
+  public JsonApiMessageConverter(ResourceConverter resourceConverter, StreamingJsonApiReader streamingJsonApiReader) {
     super(MediaType.parseMediaType("application/vnd.api+json"));
     this.resourceConverter = resourceConverter;
+    this.streamingJsonApiReader = streamingJsonApiReader;
   }
 
   @Override
@@ -36,14 +38,11 @@ public class JsonApiMessageConverter extends AbstractHttpMessageConverter<Object
   @SuppressWarnings("unchecked")
   protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
     try (InputStream inputStream = inputMessage.getBody()) {
-      JSONAPIDocument<?> document;
       if (Iterable.class.isAssignableFrom(clazz)) {
-        document = resourceConverter.readDocumentCollection(inputStream, Object.class);
-      } else {
-        document = resourceConverter.readDocument(inputMessage.getBody(), Object.class);
+        // Collections can be large (e.g. leaderboards), so they're read without building a tree of the whole document
+        return streamingJsonApiReader.readDocumentCollection(inputStream);
       }
-
-      return document.get();
+      return resourceConverter.readDocument(inputMessage.getBody(), Object.class).get();
     }
   }
 
@@ -39,6 +39,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Lazy
 @Component
@@ -106,12 +108,12 @@ public class MockFafApiAccessor implements FafApiAccessor {
   }
 
   @Override
-  public List<Ladder1v1LeaderboardEntry> getLadder1v1Leaderboard() {
+  public List<Ladder1v1LeaderboardEntry> getLadder1v1Leaderboard(int pageSize, int page) {
     return Collections.emptyList();
   }
 
   @Override
-  public List<GlobalLeaderboardEntry> getGlobalLeaderboard() {
+  public List<GlobalLeaderboardEntry> getGlobalLeaderboard(int pageSize, int page) {
     return Collections.emptyList();
   }
 
@@ -241,8 +243,8 @@ public class MockFafApiAccessor implements FafApiAccessor {
   }
 
   @Override
-  public List<Map> findMapsByQuery(SearchConfig searchConfig, int page, int count) {
-    return Collections.emptyList();
+  public CompletableFuture<Void> findMapsByQuery(SearchConfig searchConfig, int page, int count, Consumer<List<Map>> pageConsumer) {
+    return CompletableFuture.completedFuture(null);
   }
 
   @Override
@@ -270,6 +272,11 @@ public class MockFafApiAccessor implements FafApiAccessor {
     return Collections.emptyList();
   }
 
+  @Override
+  public CompletableFuture<Void> findModsByQuery(SearchConfig query, int page, int count, Consumer<List<Mod>> pageConsumer) {
+    return CompletableFuture.completedFuture(null);
+  }
+
   @Override
   public List<Ladder1v1Map> getLadder1v1Maps(int count, int page) {
     return Collections.emptyList();
@@ -0,0 +1,282 @@
+package com.faforever.client.api;
+
+import com.google.common.base.Throwables;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Iterates over the pages of a JSON-API collection. The first page is requested when iteration starts and, if there
+ * are more records than fit into it, asks the server how many records there are in total. The remaining pages are then
+ * requested concurrently, with at most {@code maxConcurrentRequests} in flight, and returned in order as soon as they
+ * are available. This way, callers can process the first results while the rest is still being loaded. Instead of
+ * iterating, which blocks until the next page is available, pages can be passed to a callback using {@link
+ * #forEachRemainingAsync(Consumer)}.
+ * <p>
+ * If the page size is adaptive, the size of each page that is requested is adapted to how long previous pages took to
+ * load, so that small pages are used on slow connections and few large pages on fast ones. Otherwise, all pages have
+ * the initial size, so that the same records always end up in the same request and responses can be cached. If the
+ * server doesn't report the total number of records, pages are requested one after another until a page isn't full.
+ */
+@Slf4j
+class PageIterator<T> implements Iterator<List<T>>, AutoCloseable {
+
+  private static final int MIN_PAGE_SIZE = 100;
+  private static final long TARGET_PAGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final PageFetcher<T> pageFetcher;
+  private final Executor executor;
+  private final int startOffset;
+  private final int endOffset;
+  private final int initialPageSize;
+  private final int maxPageSize;
+  private final int maxConcurrentRequests;
+  private final boolean adaptivePageSize;
+  private final Deque<PendingPage<T>> pendingPages;
+
+  private volatile int pageSize;
+  private boolean started;
+  private boolean exhausted;
+  private Integer totalRecords;
+  private int nextOffset;
+
+  /**
+   * @param offset the index of the first record to load
+   * @param count the maximum number of records to load
+   * @param adaptivePageSize whether the page size may change depending on how fast pages load, which must not be the
+   * case if responses are cached
+   */
+  PageIterator(PageFetcher<T> pageFetcher, Executor executor, int offset, int count, int initialPageSize,
+               int maxPageSize, int maxConcurrentRequests, boolean adaptivePageSize) {
+    this.pageFetcher = pageFetcher;
+    this.executor = executor;
+    startOffset = offset;
+    endOffset = (int) Math.min((long) offset + count, Integer.MAX_VALUE);
+    this.initialPageSize = Math.max(1, Math.min(initialPageSize, maxPageSize));
+    this.maxPageSize = maxPageSize;
+    this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+    this.adaptivePageSize = adaptivePageSize;
+    pendingPages = new ArrayDeque<>();
+    pageSize = this.initialPageSize;
+    nextOffset = offset;
+  }
+
+  @Override
+  public synchronized boolean hasNext() {
+    if (!started) {
+      started = true;
+      Page<T> firstPage = fetchFirstPage();
+      if (firstPage != null) {
+        pendingPages.add(new PendingPage<>(CompletableFuture.completedFuture(firstPage), getFirstPageLimit()));
+      }
+    }
+    return !pendingPages.isEmpty();
+  }
+
+  @Override
+  public synchronized List<T> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    PendingPage<T> pendingPage = pendingPages.poll();
+    return accept(pendingPage, await(pendingPage.future));
+  }
+
+  /**
+   * Passes each remaining page to the specified action, in order, as soon as it's available. Unlike iterating, this
+   * doesn't block the calling thread; all pages, including the first one, are requested by the executor. The action is
+   * called by the executor as well, even if a page has already been loaded, so never by the calling thread. Cancelling the returned future cancels all pages that are still being
+   * loaded.
+   */
+  CompletableFuture<Void> forEachRemainingAsync(Consumer<? super List<T>> action) {
+    synchronized (this) {
+      if (!started) {
+        started = true;
+        pendingPages.add(new PendingPage<>(CompletableFuture.supplyAsync(this::fetchFirstPage, executor), getFirstPageLimit()));
+      }
+    }
+    CompletableFuture<Void> future = acceptRemaining(action);
+    future.whenComplete((aVoid, throwable) -> close());
+    return future;
+  }
+
+  private CompletableFuture<Void> acceptRemaining(Consumer<? super List<T>> action) {
+    PendingPage<T> pendingPage;
+    synchronized (this) {
+      pendingPage = pendingPages.peek();
+    }
+    if (pendingPage == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return pendingPage.future.thenComposeAsync(page -> {
+      if (page == null) {
+        return CompletableFuture.completedFuture(null);
+      }
+      List<T> items;
+      synchronized (this) {
+        if (pendingPages.poll() != pendingPage) {
+          // Closed in the meantime
+          return CompletableFuture.completedFuture(null);
+        }
+        items = accept(pendingPage, page);
+      }
+      action.accept(items);
+      return acceptRemaining(action);
+    }, executor);
+  }
+
+  /**
+   * Checks whether there are more pages than the specified one and requests them.
+   */
+  private List<T> accept(PendingPage<T> pendingPage, Page<T> page) {
+    if (page.items.size() > pendingPage.limit) {
+      log.debug("Server returned {} records when asked for {}, assuming it doesn't support paging", page.items.size(), pendingPage.limit);
+      exhausted = true;
+    } else if (totalRecords == null && page.items.size() < pendingPage.limit) {
+      exhausted = true;
+    }
+    requestMorePages();
+    return page.items;
+  }
+
+  /**
+   * Cancels all pages that have been requested but not yet returned.
+   */
+  @Override
+  public synchronized void close() {
+    exhausted = true;
+    pendingPages.forEach(pendingPage -> pendingPage.future.cancel(true));
+    pendingPages.clear();
+  }
+
+  /**
+   * Fetches the first page, by the calling thread since it's needed right away anyway, and returns {@code null} if
+   * there's nothing to fetch.
+   */
+  @Nullable
+  private Page<T> fetchFirstPage() {
+    int limit = getFirstPageLimit();
+    if (limit <= 0) {
+      synchronized (this) {
+        exhausted = true;
+      }
+      return null;
+    }
+
+    Page<T> page = fetch(startOffset, limit, endOffset - startOffset > limit);
+    synchronized (this) {
+      nextOffset = startOffset + page.items.size();
+      totalRecords = page.totalRecords;
+      if (page.items.size() != limit) {
+        exhausted = true;
+      }
+    }
+    return page;
+  }
+
+  private int getFirstPageLimit() {
+    return Math.min(endOffset - startOffset, initialPageSize);
+  }
+
+  private void requestMorePages() {
+    while (!exhausted && pendingPages.size() < maxConcurrentRequests) {
+      // Without knowing how many records there are, a page can only be requested once the previous one turned out full
+      if (totalRecords == null && !pendingPages.isEmpty()) {
+        return;
+      }
+
+      int remaining = Math.min(endOffset, totalRecords != null ? totalRecords : Integer.MAX_VALUE) - nextOffset;
+      if (remaining <= 0) {
+        exhausted = true;
+        return;
+      }
+
+      int offset = nextOffset;
+      // Fixed pages aren't cut off at the total, which may change, so that their boundaries stay the same
+      int limit = adaptivePageSize ? Math.min(pageSize, remaining) : Math.min(pageSize, endOffset - nextOffset);
+      CompletableFuture<Page<T>> future = CompletableFuture.supplyAsync(() -> fetch(offset, limit, false), executor);
+      pendingPages.add(new PendingPage<>(future, limit));
+      nextOffset += limit;
+    }
+  }
+
+  private Page<T> fetch(int offset, int limit, boolean countTotal) {
+    long startTime = System.nanoTime();
+    Page<T> page = pageFetcher.fetch(offset, limit, countTotal);
+    if (adaptivePageSize) {
+      adaptPageSize(page.items.size(), System.nanoTime() - startTime);
+    }
+    return page;
+  }
+
+  /**
+   * Sets the size of the next pages so that they're expected to take about {@link #TARGET_PAGE_NANOS} to load, judging
+   * by how long it took to load the specified number of records. The size is at most doubled at once, so that a
+   * single quick response doesn't result in huge pages.
+   */
+  private void adaptPageSize(int records, long nanos) {
+    if (records < MIN_PAGE_SIZE || nanos <= 0) {
+      return;
+    }
+    long estimate = records * TARGET_PAGE_NANOS / nanos;
+    int newPageSize = (int) Math.max(MIN_PAGE_SIZE, Math.min(Math.min(estimate, 2L * pageSize), maxPageSize));
+    log.trace("Loading {} records took {} ms, page size is now {}", records, TimeUnit.NANOSECONDS.toMillis(nanos), newPageSize);
+    pageSize = newPageSize;
+  }
+
+  private static <T> Page<T> await(Future<Page<T>> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for page");
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new CompletionException(e.getCause());
+    }
+  }
+
+  @FunctionalInterface
+  interface PageFetcher<T> {
+
+    /**
+     * Fetches up to {@code limit} records starting at {@code offset}.
+     *
+     * @param countTotal whether the server should be asked for the total number of records
+     */
+    Page<T> fetch(int offset, int limit, boolean countTotal);
+  }
+
+  static class Page<T> {
+    private final List<T> items;
+    private final Integer totalRecords;
+
+    Page(List<T> items, @Nullable Integer totalRecords) {
+      this.items = items;
+      this.totalRecords = totalRecords;
+    }
+  }
+
+  private static class PendingPage<T> {
+    private final CompletableFuture<Page<T>> future;
+    private final int limit;
+
+    private PendingPage(CompletableFuture<Page<T>> future, int limit) {
+      this.future = future;
+      this.limit = limit;
+    }
+  }
+}
@@ -0,0 +1,390 @@
+package com.faforever.client.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.github.jasminb.jsonapi.ConverterConfiguration;
+import com.github.jasminb.jsonapi.exceptions.ResourceParseException;
+import com.github.jasminb.jsonapi.models.errors.Errors;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Reads JSON-API collection documents token by token instead of building a tree of the whole document first, like
+ * {@link com.github.jasminb.jsonapi.ResourceConverter} does. The attributes of each resource are bound to its class as
+ * soon as they've been read, and {@code included} resources are kept in an index by type and ID to resolve
+ * relationships. Only the resulting objects are kept in memory, which for documents with thousands of resources uses
+ * a fraction of the heap the tree would need.
+ * <p>
+ * Resources are passed on as soon as they're complete: resources without relationships right away, all others when
+ * the end of the document has been reached (since the resources they refer to are usually included after them).
+ * Relationships to resources that aren't included are set to instances that only have their ID set. Resource level
+ * {@code meta} and {@code links} objects are ignored.
+ */
+@Slf4j
+public class StreamingJsonApiReader {
+
+  private static final String DATA = "data";
+  private static final String INCLUDED = "included";
+  private static final String META = "meta";
+  private static final String ERRORS = "errors";
+  private static final String TYPE = "type";
+  private static final String ID = "id";
+  private static final String ATTRIBUTES = "attributes";
+  private static final String RELATIONSHIPS = "relationships";
+  private static final TypeReference<Map<String, Object>> META_TYPE = new TypeReference<Map<String, Object>>() {
+  };
+
+  private final ObjectMapper objectMapper;
+  private final ConverterConfiguration configuration;
+  private final Map<Class<?>, ObjectReader> readers;
+
+  public StreamingJsonApiReader(ObjectMapper objectMapper, Class<?>... types) {
+    this.objectMapper = objectMapper;
+    this.configuration = new ConverterConfiguration(types);
+    readers = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Reads all primary resources of a collection document into a list, in the order of the document.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> JsonApiList<T> readDocumentCollection(InputStream inputStream) throws IOException {
+    Document document = read(inputStream, null);
+    return new JsonApiList<>((List<T>) document.primaryResources, document.meta);
+  }
+
+  /**
+   * Reads a document and passes each of its primary resources to {@code consumer} as soon as it's complete. Note that
+   * this means that resources aren't necessarily passed on in the order of the document.
+   *
+   * @return the document's meta object, if any
+   */
+  public Map<String, ?> readDocument(InputStream inputStream, Consumer<Object> consumer) throws IOException {
+    return read(inputStream, consumer).meta;
+  }
+
+  /**
+   * @param consumer the consumer to pass primary resources to as soon as they're complete, or {@code null} to collect
+   * them in the document in order
+   */
+  private Document read(InputStream inputStream, Consumer<Object> consumer) throws IOException {
+    Document document = new Document(consumer);
+    try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+      expect(parser.nextToken(), JsonToken.START_OBJECT);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        switch (fieldName) {
+          case DATA:
+            readResources(parser, token, document, true);
+            break;
+          case INCLUDED:
+            readResources(parser, token, document, false);
+            break;
+          case META:
+            document.meta = objectMapper.readValue(parser, META_TYPE);
+            break;
+          case ERRORS:
+            Errors errors = new Errors();
+            errors.setErrors(objectMapper.readValue(parser,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, com.github.jasminb.jsonapi.models.errors.Error.class)));
+            throw new ResourceParseException(errors);
+          default:
+            parser.skipChildren();
+        }
+      }
+    }
+    document.finish();
+    return document;
+  }
+
+  private void readResources(JsonParser parser, JsonToken token, Document document, boolean primary) throws IOException {
+    if (token == JsonToken.VALUE_NULL) {
+      return;
+    }
+    if (token == JsonToken.START_OBJECT) {
+      readResource(parser, document, primary);
+      return;
+    }
+    expect(token, JsonToken.START_ARRAY);
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      readResource(parser, document, primary);
+    }
+  }
+
+  private void readResource(JsonParser parser, Document document, boolean primary) throws IOException {
+    ParsedResource resource = readResource(parser);
+    if (resource != null) {
+      document.add(resource, primary);
+    }
+  }
+
+  /**
+   * Reads the resource object the parser is positioned at.
+   *
+   * @return the parsed resource, or {@code null} if its type isn't known
+   */
+  private ParsedResource readResource(JsonParser parser) throws IOException {
+    expect(parser.currentToken(), JsonToken.START_OBJECT);
+    String type = null;
+    String id = null;
+    Object object = null;
+    TokenBuffer bufferedAttributes = null;
+    Map<String, Object> relationships = null;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      parser.nextToken();
+      switch (fieldName) {
+        case TYPE:
+          type = parser.getText();
+          break;
+        case ID:
+          id = parser.getText();
+          break;
+        case ATTRIBUTES:
+          // Attributes can be bound right away if the type is known, which it is if the server writes it first
+          Class<?> attributesClass = type != null ? configuration.getTypeClass(type) : null;
+          if (attributesClass != null) {
+            object = reader(attributesClass).readValue(parser);
+          } else {
+            bufferedAttributes = new TokenBuffer(parser);
+            bufferedAttributes.copyCurrentStructure(parser);
+          }
+          break;
+        case RELATIONSHIPS:
+          relationships = readRelationships(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+
+    Class<?> clazz = type != null ? configuration.getTypeClass(type) : null;
+    if (clazz == null) {
+      log.debug("Skipping resource of unknown type '{}'", type);
+      return null;
+    }
+    if (object == null) {
+      object = bufferedAttributes != null
+          ? reader(clazz).readValue(bufferedAttributes.asParser(parser.getCodec()))
+          : newInstance(clazz);
+    }
+    setId(object, id);
+    return new ParsedResource(identifier(type, id), object, relationships);
+  }
+
+  /**
+   * Reads a resource's relationships object into a map of the relationship name to either a {@link ResourceIdentifier}
+   * or a list of them.
+   */
+  private Map<String, Object> readRelationships(JsonParser parser) throws IOException {
+    expect(parser.currentToken(), JsonToken.START_OBJECT);
+    Map<String, Object> relationships = new HashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      expect(parser.nextToken(), JsonToken.START_OBJECT);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if (!DATA.equals(fieldName) || token == JsonToken.VALUE_NULL) {
+          parser.skipChildren();
+          continue;
+        }
+        if (token == JsonToken.START_ARRAY) {
+          List<ResourceIdentifier> identifiers = new ArrayList<>();
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            identifiers.add(readResourceIdentifier(parser));
+          }
+          relationships.put(name, identifiers);
+        } else {
+          relationships.put(name, readResourceIdentifier(parser));
+        }
+      }
+    }
+    return relationships;
+  }
+
+  private static ResourceIdentifier readResourceIdentifier(JsonParser parser) throws IOException {
+    expect(parser.currentToken(), JsonToken.START_OBJECT);
+    String type = null;
+    String id = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      parser.nextToken();
+      if (TYPE.equals(fieldName)) {
+        type = parser.getText();
+      } else if (ID.equals(fieldName)) {
+        id = parser.getText();
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return new ResourceIdentifier(type, id);
+  }
+
+  private ObjectReader reader(Class<?> clazz) {
+    return readers.computeIfAbsent(clazz, objectMapper::readerFor);
+  }
+
+  private Object newInstance(Class<?> clazz) throws IOException {
+    return reader(clazz).readValue(objectMapper.createObjectNode());
+  }
+
+  private void setId(Object object, String id) {
+    Field idField = configuration.getIdField(object.getClass());
+    if (idField == null || id == null) {
+      return;
+    }
+    try {
+      idField.setAccessible(true);
+      idField.set(object, configuration.getIdHandler(object.getClass()).fromString(id));
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Could not set ID of " + object.getClass(), e);
+    }
+  }
+
+  private static String identifier(String type, String id) {
+    return type + ":" + id;
+  }
+
+  private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+    if (actual != expected) {
+      throw new IOException("Expected " + expected + " but got " + actual);
+    }
+  }
+
+  private static class ResourceIdentifier {
+    private final String type;
+    private final String id;
+
+    private ResourceIdentifier(String type, String id) {
+      this.type = type;
+      this.id = id;
+    }
+  }
+
+  private static class ParsedResource {
+    private final String identifier;
+    private final Object object;
+    /** Relationships that still need to be resolved, or {@code null} if there are none. */
+    private final Map<String, Object> relationships;
+
+    private ParsedResource(String identifier, Object object, Map<String, Object> relationships) {
+      this.identifier = identifier;
+      this.object = object;
+      this.relationships = relationships == null || relationships.isEmpty() ? null : relationships;
+    }
+  }
+
+  /**
+   * The state of a document being read: the index of all resources read so far, and those whose relationships can't
+   * be resolved until the whole document has been read.
+   */
+  private class Document {
+    private final Consumer<Object> consumer;
+    private final List<Object> primaryResources;
+    private final Map<String, Object> resourcesByIdentifier;
+    private final List<ParsedResource> unresolvedResources;
+    private final List<ParsedResource> unresolvedPrimaryResources;
+    private Map<String, ?> meta;
+
+    private Document(Consumer<Object> consumer) {
+      this.consumer = consumer;
+      primaryResources = new ArrayList<>();
+      resourcesByIdentifier = new HashMap<>();
+      unresolvedResources = new ArrayList<>();
+      unresolvedPrimaryResources = new ArrayList<>();
+    }
+
+    private void add(ParsedResource resource, boolean primary) {
+      resourcesByIdentifier.putIfAbsent(resource.identifier, resource.object);
+      if (resource.relationships != null) {
+        unresolvedResources.add(resource);
+      }
+      if (!primary) {
+        return;
+      }
+      if (consumer == null) {
+        primaryResources.add(resource.object);
+      } else if (resource.relationships == null) {
+        consumer.accept(resource.object);
+      } else {
+        unresolvedPrimaryResources.add(resource);
+      }
+    }
+
+    private void finish() {
+      for (ParsedResource resource : unresolvedResources) {
+        resolveRelationships(resource);
+      }
+      unresolvedPrimaryResources.forEach(resource -> consumer.accept(resource.object));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resolveRelationships(ParsedResource resource) {
+      Class<?> clazz = resource.object.getClass();
+      resource.relationships.forEach((name, value) -> {
+        Field field = configuration.getRelationshipField(clazz, name);
+        if (field == null) {
+          return;
+        }
+        Class<?> relationshipType = configuration.getRelationshipType(clazz, name);
+
+        Object fieldValue;
+        if (value instanceof List) {
+          Collection<Object> collection = Set.class.isAssignableFrom(field.getType()) ? new HashSet<>() : new ArrayList<>();
+          for (ResourceIdentifier identifier : (List<ResourceIdentifier>) value) {
+            collection.add(resolve(identifier, relationshipType));
+          }
+          fieldValue = collection;
+        } else {
+          fieldValue = resolve((ResourceIdentifier) value, relationshipType);
+        }
+
+        try {
+          field.setAccessible(true);
+          field.set(resource.object, fieldValue);
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException("Could not set relationship '" + name + "' of " + clazz, e);
+        }
+      });
+    }
+
+    /**
+     * Returns the resource the identifier refers to if it's contained in the document, or else a new instance with
+     * only its ID set.
+     */
+    private Object resolve(ResourceIdentifier resourceIdentifier, Class<?> relationshipType) {
+      return resourcesByIdentifier.computeIfAbsent(identifier(resourceIdentifier.type, resourceIdentifier.id), key -> {
+        Class<?> clazz = configuration.getTypeClass(resourceIdentifier.type);
+        if (clazz == null || !relationshipType.isAssignableFrom(clazz)) {
+          clazz = relationshipType;
+        }
+        try {
+          Object object = newInstance(clazz);
+          setId(object, resourceIdentifier.id);
+          return object;
+        } catch (IOException e) {
+          throw new IllegalStateException("Could not create instance of " + clazz, e);
+        }
+      });
+    }
+  }
+}
@@ -189,7 +189,7 @@ public class PircBotXChatService implements ChatService, InitializingBean, Dispo
 
     ChatPrefs chatPrefs = preferencesService.getPreferences().getChat();
     JavaFxUtil.addListener(chatPrefs.userToColorProperty(),
-        (MapChangeListener<? super String, ? super Color>) change -> preferencesService.store()
+        (MapChangeListener<? super String, ? super Color>) change -> preferencesService.storeInBackground()
     );
     JavaFxUtil.addListener(chatPrefs.chatColorModeProperty(), (observable, oldValue, newValue) -> {
       synchronized (chatChannelUsersByChannelAndName) {
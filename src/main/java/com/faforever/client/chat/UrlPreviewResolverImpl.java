@@ -8,6 +8,13 @@ import javafx.scene.Node;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import lombok.SneakyThrows;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
@@ -15,7 +22,7 @@ import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
 import java.io.IOException;
-import java.net.HttpURLConnection;
+import java.net.URI;
 import java.net.URL;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -39,20 +46,42 @@ public class UrlPreviewResolverImpl implements UrlPreviewResolver {
 
   private final I18n i18n;
 
+  private final HttpClient httpClient;
+
   @Inject
-  public UrlPreviewResolverImpl(UiService uiService, I18n i18n) {
+  public UrlPreviewResolverImpl(UiService uiService, I18n i18n, HttpClient httpClient) {
     this.uiService = uiService;
     this.i18n = i18n;
+    this.httpClient = httpClient;
   }
 
-  private static boolean testUrl(String urlString) {
+  private boolean testUrl(String urlString) {
     try {
-      return ((HttpURLConnection) new URL(urlString).openConnection()).getResponseCode() == HttpURLConnection.HTTP_OK;
-    } catch (IOException e) {
+      return requestHeaders(URI.create(urlString)).getStatusLine().getStatusCode() == HttpStatus.SC_OK;
+    } catch (IOException | IllegalArgumentException e) {
       return false;
     }
   }
 
+  /**
+   * Requests the headers of the specified URL. Since not all servers support HEAD requests, a GET request is sent if
+   * the server doesn't support them; it's aborted once the headers have been received, so the body isn't downloaded.
+   */
+  private HttpResponse requestHeaders(URI uri) throws IOException {
+    HttpResponse response = httpClient.execute(new HttpHead(uri), headResponse -> headResponse);
+    int statusCode = response.getStatusLine().getStatusCode();
+    if (statusCode != HttpStatus.SC_METHOD_NOT_ALLOWED && statusCode != HttpStatus.SC_NOT_IMPLEMENTED) {
+      return response;
+    }
+
+    HttpGet request = new HttpGet(uri);
+    try {
+      return httpClient.execute(request);
+    } finally {
+      request.abort();
+    }
+  }
+
   @Override
   @Cacheable(CacheNames.URL_PREVIEW)
   @Async
@@ -69,11 +98,14 @@ public class UrlPreviewResolverImpl implements UrlPreviewResolver {
       return CompletableFuture.completedFuture(Optional.empty());
     }
 
-    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-    connection.setInstanceFollowRedirects(true);
-
-    long contentLength = connection.getContentLengthLong();
-    String contentType = connection.getContentType();
+    HttpResponse response = requestHeaders(url.toURI());
+    long contentLength = Optional.ofNullable(response.getFirstHeader(HttpHeaders.CONTENT_LENGTH))
+        .map(Header::getValue)
+        .map(Long::parseLong)
+        .orElse(-1L);
+    String contentType = Optional.ofNullable(response.getFirstHeader(HttpHeaders.CONTENT_TYPE))
+        .map(Header::getValue)
+        .orElse(null);
 
     Node root = uiService.loadFxml("theme/image_preview.fxml");
     ImageView imageView = (ImageView) root.lookup("#imageView");
@@ -1,27 +1,60 @@
 package com.faforever.client.config;
 
+import com.faforever.client.config.ClientProperties.Threads;
+import com.faforever.client.util.InstrumentedThreadPoolExecutor;
+import com.faforever.client.util.OverflowQueue;
+import com.faforever.client.util.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.beans.factory.DisposableBean;
 
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor.AbortPolicy;
 
+/**
+ * Defines the thread pools of the application:
+ * <ul>
+ * <li>{@link #taskExecutor()} for blocking I/O, the default for {@code @Async} methods and any injected executor</li>
+ * <li>{@link #cpuExecutor()} for CPU-bound work, with one thread per processor</li>
+ * <li>{@link #daemonExecutor()} for threads that live as long as a server, process or watch they serve</li>
+ * </ul>
+ * No other code should start threads on its own.
+ */
+@Slf4j
 @EnableAsync
 @EnableScheduling
 @Configuration
 public class AsyncConfig implements AsyncConfigurer, SchedulingConfigurer, DisposableBean {
 
+  private static final Duration KEEP_ALIVE_TIME = Duration.ofSeconds(60);
+
+  private final ClientProperties clientProperties;
+
+  @Inject
+  public AsyncConfig(ClientProperties clientProperties) {
+    this.clientProperties = clientProperties;
+  }
+
   @Override
   public Executor getAsyncExecutor() {
     return taskExecutor();
@@ -37,9 +70,55 @@ public class AsyncConfig implements AsyncConfigurer, SchedulingConfigurer, Dispo
     taskRegistrar.setTaskScheduler(taskScheduler());
   }
 
+  /**
+   * Tasks are handed directly to a thread, rather than queued, as long as the maximum number of threads hasn't been
+   * reached, since tasks of this pool often wait for other tasks of this pool (e.g. the segments of a download). Only
+   * if all threads are busy, tasks are queued until a thread becomes idle, and rejected if the queue is full. The
+   * submitting thread never runs a task itself, since it may be the JavaFX application thread or a timer thread.
+   * <p>
+   * If enabled, the pool's threads are virtual threads. They're still pooled, so that the pool can be injected and
+   * measured like any other, but are cheap enough to allow many more of them. Virtual threads that block while holding
+   * a monitor (inside {@code synchronized}) block their carrier thread as well, up to Java 23.
+   */
+  @Bean
+  @Primary
+  public InstrumentedThreadPoolExecutor taskExecutor() {
+    Threads threads = clientProperties.getThreads();
+    OverflowQueue queue = new OverflowQueue(threads.getIoQueueCapacity());
+    InstrumentedThreadPoolExecutor executor = null;
+    if (threads.isVirtualIoThreads()) {
+      Optional<ThreadFactory> virtualThreadFactory = VirtualThreads.newThreadFactory("io");
+      if (virtualThreadFactory.isPresent()) {
+        log.info("Using virtual threads for I/O");
+        executor = new InstrumentedThreadPoolExecutor("io", 0, threads.getMaxVirtualIoThreads(), KEEP_ALIVE_TIME,
+            queue, virtualThreadFactory.get(), queue);
+      } else {
+        log.warn("Virtual threads are not supported by Java {}, using platform threads for I/O",
+            System.getProperty("java.version"));
+      }
+    }
+    if (executor == null) {
+      executor = new InstrumentedThreadPoolExecutor("io", 0, threads.getMaxIoThreads(),
+          KEEP_ALIVE_TIME, queue, false, queue);
+    }
+    queue.setExecutor(executor);
+    return executor;
+  }
+
   @Bean
-  public ExecutorService taskExecutor() {
-    return Executors.newCachedThreadPool();
+  public InstrumentedThreadPoolExecutor cpuExecutor() {
+    Threads threads = clientProperties.getThreads();
+    int poolSize = threads.getCpuThreads() > 0 ? threads.getCpuThreads() : Runtime.getRuntime().availableProcessors();
+    InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor("cpu", poolSize, poolSize,
+        KEEP_ALIVE_TIME, new LinkedBlockingQueue<>(), false, new AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  @Bean
+  public InstrumentedThreadPoolExecutor daemonExecutor() {
+    return new InstrumentedThreadPoolExecutor("daemon", 0, clientProperties.getThreads().getMaxDaemonThreads(),
+        KEEP_ALIVE_TIME, new SynchronousQueue<>(), true, new AbortPolicy());
   }
 
   @Bean
@@ -47,8 +126,23 @@ public class AsyncConfig implements AsyncConfigurer, SchedulingConfigurer, Dispo
     return new ThreadPoolTaskScheduler();
   }
 
+  @Scheduled(fixedRate = 10 * 60_000, initialDelay = 10 * 60_000)
+  public void logExecutorStatistics() {
+    if (!log.isDebugEnabled()) {
+      return;
+    }
+    executors().forEach(executor -> log.debug("Executor {}", executor));
+  }
+
   @Override
   public void destroy() {
-    taskExecutor().shutdownNow();
+    executors().forEach(executor -> {
+      log.info("Executor {}", executor);
+      executor.shutdownNow();
+    });
+  }
+
+  private List<InstrumentedThreadPoolExecutor> executors() {
+    return Arrays.asList(taskExecutor(), cpuExecutor(), daemonExecutor());
   }
 }
@@ -1,5 +1,6 @@
 package com.faforever.client.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
@@ -14,6 +15,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static com.faforever.client.config.CacheNames.ACHIEVEMENTS;
 import static com.faforever.client.config.CacheNames.ACHIEVEMENT_IMAGES;
@@ -25,8 +29,6 @@ import static com.faforever.client.config.CacheNames.COOP_MAPS;
 import static com.faforever.client.config.CacheNames.COUNTRY_FLAGS;
 import static com.faforever.client.config.CacheNames.FEATURED_MODS;
 import static com.faforever.client.config.CacheNames.FEATURED_MOD_FILES;
-import static com.faforever.client.config.CacheNames.GLOBAL_LEADERBOARD;
-import static com.faforever.client.config.CacheNames.LADDER_1V1_LEADERBOARD;
 import static com.faforever.client.config.CacheNames.MAPS;
 import static com.faforever.client.config.CacheNames.MAP_PREVIEW;
 import static com.faforever.client.config.CacheNames.MODS;
@@ -36,47 +38,77 @@ import static com.faforever.client.config.CacheNames.RATING_HISTORY;
 import static com.faforever.client.config.CacheNames.STATISTICS;
 import static com.faforever.client.config.CacheNames.THEME_IMAGES;
 import static com.faforever.client.config.CacheNames.URL_PREVIEW;
-import static com.github.benmanes.caffeine.cache.Caffeine.newBuilder;
-import static java.util.concurrent.TimeUnit.MINUTES;
-import static java.util.concurrent.TimeUnit.SECONDS;
 
 @Configuration
 @EnableCaching
 public class CacheConfig extends CachingConfigurerSupport {
 
+  private static final long MB = 1024 * 1024;
+
+  private final ClientProperties clientProperties;
+
+  public CacheConfig(ClientProperties clientProperties) {
+    this.clientProperties = clientProperties;
+  }
+
   @Bean
   @Override
   public CacheManager cacheManager() {
     SimpleCacheManager simpleCacheManager = new SimpleCacheManager();
-    simpleCacheManager.setCaches(Arrays.asList(
-        new CaffeineCache(STATISTICS, newBuilder().maximumSize(10).expireAfterWrite(20, MINUTES).build()),
-        new CaffeineCache(ACHIEVEMENTS, newBuilder().expireAfterWrite(10, MINUTES).build()),
-        new CaffeineCache(MODS, newBuilder().expireAfterWrite(10, MINUTES).build()),
-        new CaffeineCache(MAPS, newBuilder().expireAfterWrite(10, MINUTES).build()),
-        new CaffeineCache(GLOBAL_LEADERBOARD, newBuilder().maximumSize(1).expireAfterAccess(5, MINUTES).build()),
-        new CaffeineCache(LADDER_1V1_LEADERBOARD, newBuilder().maximumSize(1).expireAfterAccess(5, MINUTES).build()),
-        new CaffeineCache(AVAILABLE_AVATARS, newBuilder().expireAfterAccess(30, SECONDS).build()),
-        new CaffeineCache(COOP_MAPS, newBuilder().expireAfterAccess(10, SECONDS).build()),
-        new CaffeineCache(NEWS, newBuilder().expireAfterWrite(1, MINUTES).build()),
-        new CaffeineCache(RATING_HISTORY, newBuilder().expireAfterWrite(1, MINUTES).build()),
-        new CaffeineCache(COOP_LEADERBOARD, newBuilder().expireAfterWrite(1, MINUTES).build()),
-        new CaffeineCache(CLAN, newBuilder().expireAfterWrite(1, MINUTES).build()),
-        new CaffeineCache(FEATURED_MODS, newBuilder().build()),
-        new CaffeineCache(FEATURED_MOD_FILES, newBuilder().expireAfterWrite(10, MINUTES).build()),
-
-        // Images should only be cached as long as they are in use. This avoids loading an image multiple times, while
-        // at the same time it doesn't prevent unused images from being garbage collected.
-        new CaffeineCache(ACHIEVEMENT_IMAGES, newBuilder().weakValues().build()),
-        new CaffeineCache(AVATARS, newBuilder().weakValues().build()),
-        new CaffeineCache(URL_PREVIEW, newBuilder().weakValues().expireAfterAccess(30, MINUTES).build()),
-        new CaffeineCache(MAP_PREVIEW, newBuilder().weakValues().build()),
-        new CaffeineCache(COUNTRY_FLAGS, newBuilder().weakValues().build()),
-        new CaffeineCache(THEME_IMAGES, newBuilder().weakValues().build()),
-        new CaffeineCache(MOD_THUMBNAIL, newBuilder().weakValues().build()
-        )));
+    simpleCacheManager.setCaches(defaultSpecs().entrySet().stream()
+        .map(entry -> createCache(entry.getKey(), clientProperties.getCache().getSpecs().getOrDefault(entry.getKey(), entry.getValue())))
+        .collect(Collectors.toList()));
     return simpleCacheManager;
   }
 
+  /**
+   * Returns the Caffeine specification of each cache, unless it's overridden by {@link ClientProperties.Cache#getSpecs()}.
+   * Weights are estimated sizes in bytes, see {@link CacheWeigher}. Values that are still loading are weighed again once
+   * they have been loaded, see {@link ReweighingCaffeineCache}.
+   */
+  private Map<String, String> defaultSpecs() {
+    Map<String, String> specs = new LinkedHashMap<>();
+    specs.put(STATISTICS, "maximumSize=10,expireAfterWrite=20m");
+    specs.put(ACHIEVEMENTS, "maximumWeight=" + 4 * MB + ",expireAfterWrite=10m");
+    specs.put(MODS, "maximumWeight=" + 16 * MB + ",expireAfterWrite=10m");
+    specs.put(MAPS, "maximumWeight=" + 16 * MB + ",expireAfterWrite=10m");
+    specs.put(AVAILABLE_AVATARS, "maximumWeight=" + MB + ",expireAfterAccess=30s");
+    specs.put(COOP_MAPS, "maximumWeight=" + MB + ",expireAfterAccess=10s");
+    specs.put(NEWS, "maximumWeight=" + MB + ",expireAfterWrite=1m");
+    specs.put(RATING_HISTORY, "maximumWeight=" + 4 * MB + ",expireAfterWrite=1m");
+    specs.put(COOP_LEADERBOARD, "maximumWeight=" + 4 * MB + ",expireAfterWrite=1m");
+    specs.put(CLAN, "maximumWeight=" + 2 * MB + ",expireAfterWrite=1m");
+    specs.put(FEATURED_MODS, "maximumWeight=" + MB);
+    specs.put(FEATURED_MOD_FILES, "maximumWeight=" + 4 * MB + ",expireAfterWrite=10m");
+
+    // Images should only be cached as long as they are in use. This avoids loading an image multiple times, while
+    // at the same time it doesn't prevent unused images from being garbage collected.
+    specs.put(ACHIEVEMENT_IMAGES, "weakValues,maximumWeight=" + 16 * MB);
+    specs.put(AVATARS, "weakValues,maximumWeight=" + 16 * MB);
+    // The size of a preview isn't known until its image has been loaded, so the number of previews is limited instead
+    specs.put(URL_PREVIEW, "weakValues,maximumSize=100,expireAfterAccess=30m");
+    specs.put(COUNTRY_FLAGS, "weakValues,maximumWeight=" + 8 * MB);
+    specs.put(THEME_IMAGES, "weakValues,maximumWeight=" + 32 * MB);
+    specs.put(MOD_THUMBNAIL, "weakValues,maximumWeight=" + 32 * MB);
+
+    // Map previews are shown in long, scrollable lists and would be loaded again and again if they were only weakly
+    // referenced. Instead, keep them up to a budget of decoded pixels.
+    specs.put(MAP_PREVIEW, "maximumWeight=" + (long) clientProperties.getCache().getMapPreviewMaxPixels() * 4);
+    return specs;
+  }
+
+  private static CaffeineCache createCache(String name, String spec) {
+    Caffeine<Object, Object> builder = Caffeine.from(spec).recordStats();
+    boolean weighted = Arrays.stream(spec.split(","))
+        .map(option -> option.split("=")[0].trim())
+        .anyMatch("maximumWeight"::equals);
+    if (!weighted) {
+      return new CaffeineCache(name, builder.build());
+    }
+    builder.weigher(new CacheWeigher());
+    return new ReweighingCaffeineCache(name, builder.build());
+  }
+
   @Override
   public CacheResolver cacheResolver() {
     return null;
@@ -10,8 +10,6 @@ public final class CacheNames {
   public static final String ACHIEVEMENT_IMAGES = "achievementImages";
   public static final String ACHIEVEMENTS = "achievements";
   public static final String MODS = "mods";
-  public static final String LADDER_1V1_LEADERBOARD = "ladder1v1Leaderboard";
-  public static final String GLOBAL_LEADERBOARD = "globalLeaderboard";
   public static final String MAPS = "maps";
   public static final String THEME_IMAGES = "themeImages";
   public static final String MOD_THUMBNAIL = "modThumbnail";
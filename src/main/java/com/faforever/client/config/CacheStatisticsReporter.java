@@ -0,0 +1,105 @@
+package com.faforever.client.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the statistics of the in-memory caches and regularly logs them, so that their policies (see {@link
+ * ClientProperties.Cache#getSpecs()}) can be tuned, for instance to save memory on machines with little RAM.
+ */
+@Slf4j
+@Component
+public class CacheStatisticsReporter implements DisposableBean {
+
+  private final CacheManager cacheManager;
+
+  @Inject
+  public CacheStatisticsReporter(CacheManager cacheManager) {
+    this.cacheManager = cacheManager;
+  }
+
+  /**
+   * Returns the statistics of each cache, by cache name.
+   */
+  public Map<String, CacheStatistics> getCacheStatistics() {
+    Map<String, CacheStatistics> statisticsByName = new TreeMap<>();
+    for (String name : cacheManager.getCacheNames()) {
+      org.springframework.cache.Cache cache = cacheManager.getCache(name);
+      if (cache instanceof CaffeineCache) {
+        statisticsByName.put(name, new CacheStatistics(((CaffeineCache) cache).getNativeCache()));
+      }
+    }
+    return Collections.unmodifiableMap(statisticsByName);
+  }
+
+  @Scheduled(fixedRate = 10 * 60_000, initialDelay = 10 * 60_000)
+  public void logCacheStatistics() {
+    if (!log.isDebugEnabled()) {
+      return;
+    }
+    getCacheStatistics().forEach((name, statistics) -> log.debug("Cache '{}': {}", name, statistics));
+  }
+
+  @Override
+  public void destroy() {
+    getCacheStatistics().forEach((name, statistics) -> log.info("Cache '{}': {}", name, statistics));
+  }
+
+  public static final class CacheStatistics {
+    private final long size;
+    private final long estimatedBytes;
+    private final CacheStats stats;
+
+    private CacheStatistics(Cache<Object, Object> cache) {
+      long bytes = 0;
+      for (Object value : cache.asMap().values()) {
+        bytes += CacheWeigher.estimateBytes(value);
+      }
+      size = cache.estimatedSize();
+      estimatedBytes = bytes;
+      stats = cache.stats();
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    /** Rough estimate of the memory retained by the cached values. */
+    public long getEstimatedBytes() {
+      return estimatedBytes;
+    }
+
+    public long getHits() {
+      return stats.hitCount();
+    }
+
+    public long getMisses() {
+      return stats.missCount();
+    }
+
+    public double getHitRate() {
+      return stats.hitRate();
+    }
+
+    public long getEvictions() {
+      return stats.evictionCount();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("size=%d, estimatedBytes=%d, hits=%d, misses=%d, hitRate=%.2f, evictions=%d",
+          getSize(), getEstimatedBytes(), getHits(), getMisses(), getHitRate(), getEvictions());
+    }
+  }
+}
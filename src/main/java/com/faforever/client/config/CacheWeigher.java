@@ -0,0 +1,73 @@
+package com.faforever.client.config;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import javafx.scene.image.Image;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Weighs cache entries by a rough estimate of the memory they retain, in bytes. Images are weighed by their decoded
+ * pixels, collections by their elements and anything else, typically an API resource with a handful of attributes, by
+ * a fixed size. The estimate only needs to be good enough to compare caches with each other and to keep their memory
+ * within a budget.
+ */
+class CacheWeigher implements Weigher<Object, Object> {
+
+  private static final int BYTES_PER_PIXEL = 4;
+  private static final long OBJECT_BYTES = 512;
+  private static final long COLLECTION_BYTES = 64;
+  private static final long STRING_BYTES = 40;
+
+  static long estimateBytes(Object value) {
+    if (value == null) {
+      return 0;
+    }
+    if (value instanceof Image) {
+      return pixelsOf((Image) value) * BYTES_PER_PIXEL;
+    }
+    if (value instanceof CharSequence) {
+      return STRING_BYTES + 2L * ((CharSequence) value).length();
+    }
+    if (value instanceof Optional) {
+      return ((Optional<?>) value).map(CacheWeigher::estimateBytes).orElse(0L);
+    }
+    if (value instanceof CompletableFuture) {
+      // Results of @Async methods are cached as futures, which are weighed again once they're complete
+      CompletableFuture<?> future = (CompletableFuture<?>) value;
+      return future.isDone() && !future.isCompletedExceptionally() ? estimateBytes(future.join()) : OBJECT_BYTES;
+    }
+    if (value instanceof Collection) {
+      long bytes = COLLECTION_BYTES;
+      for (Object element : (Collection<?>) value) {
+        bytes += estimateBytes(element);
+      }
+      return bytes;
+    }
+    if (value instanceof Map) {
+      long bytes = COLLECTION_BYTES;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        bytes += estimateBytes(entry.getKey()) + estimateBytes(entry.getValue());
+      }
+      return bytes;
+    }
+    return OBJECT_BYTES;
+  }
+
+  /**
+   * Returns the number of pixels of the specified image. If it's still loading in the background, its dimensions are
+   * not yet known so the requested ones are used instead, until it's weighed again once it has been loaded.
+   */
+  private static long pixelsOf(Image image) {
+    double width = image.getWidth() > 0 ? image.getWidth() : image.getRequestedWidth();
+    double height = image.getHeight() > 0 ? image.getHeight() : image.getRequestedHeight();
+    return Math.max(1, (long) (width * height));
+  }
+
+  @Override
+  public int weigh(Object key, Object value) {
+    return (int) Math.min(Integer.MAX_VALUE, estimateBytes(value));
+  }
+}
@@ -4,6 +4,11 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Data
 @ConfigurationProperties(prefix = "faf-client", ignoreUnknownFields = false)
@@ -23,6 +28,12 @@ public class ClientProperties {
   private MapGenerator mapGenerator = new MapGenerator();
   private Website website = new Website();
   private Discord discord = new Discord();
+  private Cache cache = new Cache();
+  private Transfer transfer = new Transfer();
+  private Http http = new Http();
+  private Threads threads = new Threads();
+  private Tasks tasks = new Tasks();
+  private Startup startup = new Startup();
   private String translationProjectUrl;
   private String clientConfigUrl;
   private boolean useRemotePreferences;
@@ -128,6 +139,27 @@ public class ClientProperties {
     private String clientId;
     private String clientSecret;
     private int maxPageSize = 10_000;
+    /** The size of the first page of a query, subsequent pages are sized by how fast the first ones loaded. */
+    private int initialPageSize = 1000;
+    private int maxConcurrentPageRequests = 4;
+    /** The size of the pages vault search results are loaded in, so that the first ones can be shown early on. */
+    private int searchPageSize = 25;
+    /** Maximum size of API responses cached on disk. */
+    private long responseCacheMaxDiskBytes = 64L * 1024 * 1024;
+    /**
+     * Paths of read-only endpoints whose cached responses are used right away while they're revalidated. Each response
+     * is revalidated on its own, so paged collections whose pages must match each other, like leaderboards, must not be
+     * listed here.
+     */
+    private List<String> staleWhileRevalidatePaths = new ArrayList<>(Arrays.asList(
+        "/data/achievement", "/data/clan", "/data/coopMission", "/data/coopResult",
+        "/data/featuredMod", "/featuredMods/", "/data/ladder1v1Map", "/data/mapStatistics"
+    ));
+    /** How old a cached response may be to still be used while it's revalidated. */
+    private Duration maxStale = Duration.ofDays(1);
+    /** How long to wait for more lookups of the same kind, so that they can be merged into a single request. */
+    private Duration batchDelay = Duration.ofMillis(5);
+    private int maxBatchSize = 100;
   }
 
   @Data
@@ -147,4 +179,83 @@ public class ClientProperties {
     private String smallImageKey;
     private String bigImageKey;
   }
+
+  @Data
+  public static class Cache {
+    /** Number of pixels of decoded map previews to keep in memory, about 4 bytes each. */
+    private int mapPreviewMaxPixels = 16 * 512 * 512;
+    /** Maximum size of downloaded images (map previews, mod thumbnails, avatars etc.) on disk. */
+    private long imageMaxDiskBytes = 256L * 1024 * 1024;
+    /**
+     * Caffeine specifications that replace the default policy of in-memory caches, by cache name (see {@code
+     * CacheNames}), e.g. {@code maximumWeight=8388608,expireAfterWrite=5m}. The weight of an entry is its estimated
+     * size in bytes.
+     */
+    private Map<String, String> specs = new HashMap<>();
+  }
+
+  @Data
+  public static class Transfer {
+    private int maxTransfers = 8;
+    private int maxTransfersPerHost = 4;
+    /** Zero means unlimited. */
+    private long maxDownloadBytesPerSecond;
+    /** Zero means unlimited. */
+    private long maxUploadBytesPerSecond;
+  }
+
+  @Data
+  public static class Http {
+    private int maxConnections = 32;
+    private int maxConnectionsPerHost = 8;
+    private Duration connectTimeout = Duration.ofSeconds(30);
+    /** Maximum time to wait for data once connected. */
+    private Duration socketTimeout = Duration.ofSeconds(60);
+    /** Maximum time to wait for a connection from the pool. */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(60);
+    /** Pooled connections that have been idle for longer than this are closed. */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+  }
+
+  @Data
+  public static class Threads {
+    /** Maximum number of threads for blocking I/O like HTTP requests, file transfers and disk access. */
+    private int maxIoThreads = 128;
+    /**
+     * Whether to run blocking I/O on virtual threads, if the JVM supports them (Java 21 and later). Otherwise, or if
+     * it doesn't, platform threads are used.
+     */
+    private boolean virtualIoThreads;
+    /** Maximum number of virtual threads for blocking I/O, if enabled. */
+    private int maxVirtualIoThreads = 4096;
+    /** Maximum number of I/O tasks that wait for a thread once all of them are busy. Further tasks are rejected. */
+    private int ioQueueCapacity = 1024;
+    /** Number of threads for CPU-bound work. Zero means one per available processor. */
+    private int cpuThreads;
+    /** Maximum number of threads that live as long as the process they serve, like the ICE adapter and replay server. */
+    private int maxDaemonThreads = 32;
+  }
+
+  @Data
+  public static class Tasks {
+    /** Maximum number of background tasks that mainly use the network, like downloads and uploads, at a time. */
+    private int maxNetworkTasks = 16;
+    /** Maximum number of background tasks that mainly read or write files, like installing or loading maps. */
+    private int maxDiskTasks = 2;
+    /** Maximum number of CPU-bound background tasks, like generating maps. Zero means one per available processor. */
+    private int maxCpuTasks;
+    /** A waiting task is treated as if its priority was one level higher for every interval it has waited. */
+    private Duration agingInterval = Duration.ofSeconds(30);
+  }
+
+  @Data
+  public static class Startup {
+    /** Exits the client once warm-up has finished, for the training run that records the classes to share. */
+    private boolean exitAfterWarmUp;
+    /**
+     * Creates the class data sharing archive the client has been launched with, in background, if it's missing or
+     * can't be used (e.g. after an update).
+     */
+    private boolean createSharedArchive = true;
+  }
 }
@@ -0,0 +1,21 @@
+package com.faforever.client.config;
+
+import com.faforever.client.io.HttpClientStatistics;
+import com.faforever.client.io.PooledHttpClients;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HttpClientConfig {
+
+  @Bean
+  public HttpClientStatistics httpClientStatistics() {
+    return new HttpClientStatistics();
+  }
+
+  @Bean
+  public CloseableHttpClient httpClient(ClientProperties clientProperties, HttpClientStatistics httpClientStatistics) {
+    return PooledHttpClients.create(clientProperties.getHttp(), httpClientStatistics);
+  }
+}
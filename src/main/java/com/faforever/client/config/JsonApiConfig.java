@@ -1,5 +1,6 @@
 package com.faforever.client.config;
 
+import com.faforever.client.api.StreamingJsonApiReader;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.jasminb.jsonapi.ResourceConverter;
@@ -18,10 +19,17 @@ import static java.lang.Class.forName;
 @Configuration
 public class JsonApiConfig {
 
+  private static final String DTO_PACKAGE = "com.faforever.client.api.dto";
+
   @Bean
   public ResourceConverter resourceConverter(ObjectMapper objectMapper) {
     objectMapper.setSerializationInclusion(Include.NON_NULL);
-    return new ResourceConverter(objectMapper, findJsonApiTypes("com.faforever.client.api.dto"));
+    return new ResourceConverter(objectMapper, findJsonApiTypes(DTO_PACKAGE));
+  }
+
+  @Bean
+  public StreamingJsonApiReader streamingJsonApiReader(ObjectMapper objectMapper) {
+    return new StreamingJsonApiReader(objectMapper, findJsonApiTypes(DTO_PACKAGE));
   }
 
   private Class<?>[] findJsonApiTypes(String scanPackage) {
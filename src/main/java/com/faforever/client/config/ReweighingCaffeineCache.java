@@ -0,0 +1,65 @@
+package com.faforever.client.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.image.Image;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A weighted cache whose values may not be loaded yet when they're put, like images that are loaded in the background
+ * or the futures returned by {@code @Async} methods. Since Caffeine weighs a value only when it's put, such a value is
+ * put again once it has been loaded, so that its weight reflects its actual size.
+ */
+class ReweighingCaffeineCache extends CaffeineCache {
+
+  ReweighingCaffeineCache(String name, Cache<Object, Object> cache) {
+    super(name, cache);
+  }
+
+  @Override
+  public void put(Object key, @Nullable Object value) {
+    super.put(key, value);
+    reweighWhenLoaded(key, value);
+  }
+
+  @Override
+  @Nullable
+  public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+    ValueWrapper existingValue = super.putIfAbsent(key, value);
+    if (existingValue == null) {
+      reweighWhenLoaded(key, value);
+    }
+    return existingValue;
+  }
+
+  private void reweighWhenLoaded(Object key, @Nullable Object value) {
+    if (value instanceof CompletableFuture) {
+      CompletableFuture<?> future = (CompletableFuture<?>) value;
+      if (!future.isDone()) {
+        future.whenComplete((result, throwable) -> reweigh(key, value));
+      }
+    } else if (value instanceof Image) {
+      Image image = (Image) value;
+      if (image.getProgress() < 1) {
+        image.progressProperty().addListener(new ChangeListener<Number>() {
+          @Override
+          public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
+            if (newValue.doubleValue() >= 1) {
+              observable.removeListener(this);
+              reweigh(key, value);
+            }
+          }
+        });
+      }
+    }
+  }
+
+  private void reweigh(Object key, Object value) {
+    // Replacing a value by itself makes Caffeine weigh it again, unless it has been replaced or evicted meanwhile
+    getNativeCache().asMap().replace(key, value, value);
+  }
+}
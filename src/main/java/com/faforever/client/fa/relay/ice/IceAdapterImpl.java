@@ -38,6 +38,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.SocketUtils;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.net.ConnectException;
@@ -51,6 +52,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static java.util.Arrays.asList;
 
@@ -69,6 +71,7 @@ public class IceAdapterImpl implements IceAdapter, InitializingBean, DisposableB
   private final FafService fafService;
   private final IceAdapterApi iceAdapterProxy;
   private final PreferencesService preferencesService;
+  private final Executor daemonExecutor;
 
   private CompletableFuture<Integer> iceAdapterClientFuture;
   private Process process;
@@ -77,13 +80,15 @@ public class IceAdapterImpl implements IceAdapter, InitializingBean, DisposableB
 
   @Inject
   public IceAdapterImpl(ApplicationContext applicationContext, ClientProperties clientProperties, PlayerService playerService,
-                        EventBus eventBus, FafService fafService, PreferencesService preferencesService) {
+                        EventBus eventBus, FafService fafService, PreferencesService preferencesService,
+                        @Named("daemonExecutor") Executor daemonExecutor) {
     this.applicationContext = applicationContext;
     this.clientProperties = clientProperties;
     this.playerService = playerService;
     this.eventBus = eventBus;
     this.fafService = fafService;
     this.preferencesService = preferencesService;
+    this.daemonExecutor = daemonExecutor;
 
     iceAdapterProxy = newIceAdapterProxy();
   }
@@ -159,7 +164,7 @@ public class IceAdapterImpl implements IceAdapter, InitializingBean, DisposableB
   @Override
   public CompletableFuture<Integer> start() {
     iceAdapterClientFuture = new CompletableFuture<>();
-    Thread thread = new Thread(() -> {
+    daemonExecutor.execute(() -> {
       String nativeDir = System.getProperty("nativeDir", "lib");
 
       int adapterPort = SocketUtils.findAvailableTcpPort();
@@ -203,9 +208,9 @@ public class IceAdapterImpl implements IceAdapter, InitializingBean, DisposableB
         log.debug("Starting ICE adapter with command: {}", cmd);
         process = processBuilder.start();
         Logger logger = LoggerFactory.getLogger("faf-ice-adapter");
-        OsUtils.gobbleLines(process.getInputStream(), s -> {
+        OsUtils.gobbleLines(process.getInputStream(), daemonExecutor, s -> {
         });
-        OsUtils.gobbleLines(process.getErrorStream(), s -> {
+        OsUtils.gobbleLines(process.getErrorStream(), daemonExecutor, s -> {
         });
 
         IceAdapterCallbacks iceAdapterCallbacks = applicationContext.getBean(IceAdapterCallbacks.class);
@@ -242,8 +247,6 @@ public class IceAdapterImpl implements IceAdapter, InitializingBean, DisposableB
         iceAdapterClientFuture.completeExceptionally(e);
       }
     });
-    thread.setDaemon(true);
-    thread.start();
 
     return iceAdapterClientFuture;
   }
@@ -43,6 +43,8 @@ import java.lang.reflect.Field;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static com.github.nocatch.NoCatch.noCatch;
 import static com.sun.jna.platform.win32.WinUser.GWL_STYLE;
@@ -181,19 +183,32 @@ public final class JavaFxUtil {
     if (image == null) {
       return;
     }
+    runWhenLoaded(image, loadedImage -> writeImage(loadedImage, path, format));
+  }
+
+  /**
+   * Calls {@code callback} once the specified image has finished loading, successfully or not. If it has already
+   * finished loading, the callback is called immediately on the calling thread. Otherwise, it's called on the thread
+   * that updates the image's progress, which is usually the application thread.
+   */
+  public static void runWhenLoaded(Image image, Consumer<Image> callback) {
+    AtomicBoolean called = new AtomicBoolean();
     if (image.isBackgroundLoading() && image.getProgress() < 1) {
-      // Let's hope that loading doesn't finish before the listener is added
-      JavaFxUtil.addListener(image.progressProperty(), new ChangeListener<Number>() {
+      addListener(image.progressProperty(), new ChangeListener<Number>() {
         @Override
         public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
-          if (newValue.intValue() >= 1) {
-            writeImage(image, path, format);
+          if (newValue.doubleValue() >= 1) {
             image.progressProperty().removeListener(this);
+            if (called.compareAndSet(false, true)) {
+              callback.accept(image);
+            }
           }
         }
       });
-    } else {
-      writeImage(image, path, format);
+    }
+    // Loading may have finished before the listener was added
+    if ((!image.isBackgroundLoading() || image.getProgress() >= 1) && called.compareAndSet(false, true)) {
+      callback.accept(image);
     }
   }
 
@@ -0,0 +1,168 @@
+package com.faforever.client.io;
+
+import com.google.common.hash.Hashing;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Describes a file as a sequence of fixed size blocks, each with a weak rolling checksum and a strong checksum. A client
+ * that has an older version of the file can use it to find the blocks it already has (at whatever offset) and only
+ * download the others, similar to rsync or zsync. The manifest of a file is expected at the file's URL plus {@link
+ * #URL_SUFFIX}.
+ */
+public final class BlockManifest {
+
+  public static final String URL_SUFFIX = ".blocks";
+  public static final int DEFAULT_BLOCK_SIZE = 16 * 1024;
+
+  private static final int MAGIC = 0x46414642;
+  private static final int FORMAT_VERSION = 1;
+  /**
+   * Manifests are read from the network, so their size must be bounded before anything is allocated for them. With the
+   * default block size, this allows for files of up to 16 GiB.
+   */
+  static final int MAX_BLOCK_COUNT = 1024 * 1024;
+
+  private final int blockSize;
+  private final long length;
+  private final int[] weakChecksums;
+  private final long[] strongChecksums;
+
+  private BlockManifest(int blockSize, long length, int[] weakChecksums, long[] strongChecksums) {
+    this.blockSize = blockSize;
+    this.length = length;
+    this.weakChecksums = weakChecksums;
+    this.strongChecksums = strongChecksums;
+  }
+
+  /**
+   * Creates the manifest of the specified file. This is what the server side needs to do for every file it publishes.
+   */
+  public static BlockManifest create(Path file, int blockSize) throws IOException {
+    long length = Files.size(file);
+    int blockCount = blockCount(length, blockSize);
+    int[] weakChecksums = new int[blockCount];
+    long[] strongChecksums = new long[blockCount];
+
+    byte[] block = new byte[blockSize];
+    try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      for (int i = 0; i < blockCount; i++) {
+        int blockLength = (int) Math.min(blockSize, length - (long) i * blockSize);
+        inputStream.readFully(block, 0, blockLength);
+        weakChecksums[i] = RollingChecksum.of(block, 0, blockLength);
+        strongChecksums[i] = strongChecksum(block, 0, blockLength);
+      }
+    }
+    return new BlockManifest(blockSize, length, weakChecksums, strongChecksums);
+  }
+
+  public static BlockManifest read(InputStream inputStream) throws IOException {
+    DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(inputStream));
+    if (dataInputStream.readInt() != MAGIC || dataInputStream.readInt() != FORMAT_VERSION) {
+      throw new IOException("Not a block manifest");
+    }
+    int blockSize = dataInputStream.readInt();
+    long length = dataInputStream.readLong();
+    if (blockSize <= 0 || length < 0 || (length + blockSize - 1) / blockSize > MAX_BLOCK_COUNT) {
+      throw new IOException("Invalid block manifest: blockSize=" + blockSize + ", length=" + length);
+    }
+    int blockCount = blockCount(length, blockSize);
+    int[] weakChecksums = new int[blockCount];
+    long[] strongChecksums = new long[blockCount];
+    for (int i = 0; i < blockCount; i++) {
+      weakChecksums[i] = dataInputStream.readInt();
+      strongChecksums[i] = dataInputStream.readLong();
+    }
+    return new BlockManifest(blockSize, length, weakChecksums, strongChecksums);
+  }
+
+  public void write(OutputStream outputStream) throws IOException {
+    DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+    dataOutputStream.writeInt(MAGIC);
+    dataOutputStream.writeInt(FORMAT_VERSION);
+    dataOutputStream.writeInt(blockSize);
+    dataOutputStream.writeLong(length);
+    for (int i = 0; i < weakChecksums.length; i++) {
+      dataOutputStream.writeInt(weakChecksums[i]);
+      dataOutputStream.writeLong(strongChecksums[i]);
+    }
+    dataOutputStream.flush();
+  }
+
+  static long strongChecksum(byte[] bytes, int offset, int length) {
+    return Hashing.md5().hashBytes(bytes, offset, length).asLong();
+  }
+
+  private static int blockCount(long length, int blockSize) {
+    return (int) ((length + blockSize - 1) / blockSize);
+  }
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  public int getBlockCount() {
+    return weakChecksums.length;
+  }
+
+  /** Returns the length of the specified block, which is only less than the block size for the last block. */
+  public int getBlockLength(int block) {
+    return (int) Math.min(blockSize, length - (long) block * blockSize);
+  }
+
+  int getWeakChecksum(int block) {
+    return weakChecksums[block];
+  }
+
+  long getStrongChecksum(int block) {
+    return strongChecksums[block];
+  }
+
+  @Override
+  public String toString() {
+    return "BlockManifest{blockSize=" + blockSize + ", length=" + length + ", blocks=" + weakChecksums.length + "}";
+  }
+
+  /**
+   * The rsync rolling checksum: can be updated in constant time when the window moves by one byte.
+   */
+  static final class RollingChecksum {
+    private final int windowSize;
+    private int a;
+    private int b;
+
+    RollingChecksum(byte[] bytes, int offset, int windowSize) {
+      this.windowSize = windowSize;
+      for (int i = 0; i < windowSize; i++) {
+        int value = bytes[offset + i] & 0xFF;
+        a += value;
+        b += (windowSize - i) * value;
+      }
+    }
+
+    static int of(byte[] bytes, int offset, int length) {
+      return new RollingChecksum(bytes, offset, length).getValue();
+    }
+
+    /** Moves the window by one byte, from {@code removed} being its first byte to {@code added} being its last. */
+    void roll(byte removed, byte added) {
+      a += (added & 0xFF) - (removed & 0xFF);
+      b += a - windowSize * (removed & 0xFF);
+    }
+
+    int getValue() {
+      return (a & 0xFFFF) | (b << 16);
+    }
+  }
+}
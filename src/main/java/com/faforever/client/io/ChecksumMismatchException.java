@@ -0,0 +1,24 @@
+package com.faforever.client.io;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Thrown if a downloaded file doesn't match the checksum it's expected to have.
+ */
+@Getter
+public class ChecksumMismatchException extends IOException {
+
+  private final URL url;
+  private final String expected;
+  private final String actual;
+
+  public ChecksumMismatchException(URL url, String expected, String actual) {
+    super("Checksum of file downloaded from " + url + " was " + actual + " but expected " + expected);
+    this.url = url;
+    this.expected = expected;
+    this.actual = actual;
+  }
+}
@@ -0,0 +1,343 @@
+package com.faforever.client.io;
+
+import com.faforever.client.io.BlockManifest.RollingChecksum;
+import com.faforever.client.io.TransferScheduler.Direction;
+import com.faforever.client.io.TransferScheduler.Permit;
+import com.faforever.client.task.CompletableTask.Priority;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Updates a file to a new version by reusing the blocks of the old version it still has in common with the new one,
+ * and downloading only the rest using range requests. Which blocks the new version consists of is described by a
+ * {@link BlockManifest} published next to it. If there's no manifest, or if too little of the old version can be reused
+ * to be worth it, the caller is expected to download the whole file instead.
+ */
+@Lazy
+@Service
+@Slf4j
+public class DeltaDownloader {
+
+  /** If more than this fraction of the new file would need to be downloaded anyway, a full download is preferred. */
+  private static final double MAX_DOWNLOAD_FRACTION = 0.75;
+  private static final int SCAN_BUFFER_SIZE = 1024 * 1024;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final String DELTA_SUFFIX = ".delta";
+
+  private final TransferScheduler transferScheduler;
+  private final HttpClient httpClient;
+  /** Hosts that didn't provide a manifest, which aren't asked again during this session. */
+  private final Set<String> hostsWithoutManifests;
+
+  @Inject
+  public DeltaDownloader(TransferScheduler transferScheduler, HttpClient httpClient) {
+    this.transferScheduler = transferScheduler;
+    this.httpClient = httpClient;
+    hostsWithoutManifests = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * Tries to update {@code targetFile}, whose current content is used as the base, to the file at {@code url}.
+   *
+   * @return {@code true} if the target file has been updated and matches {@code expectedMd5}, {@code false} if it has
+   * been left untouched and the file needs to be downloaded in full
+   */
+  public boolean download(URL url, Path targetFile, String expectedMd5, Priority priority) throws IOException {
+    if (Files.notExists(targetFile)) {
+      return false;
+    }
+    String host = Strings.nullToEmpty(url.getHost());
+    if (hostsWithoutManifests.contains(host)) {
+      return false;
+    }
+
+    Path tempFile = targetFile.resolveSibling(targetFile.getFileName() + DELTA_SUFFIX);
+    try {
+      BlockManifest manifest;
+      try (Permit permit = transferScheduler.acquire(Direction.DOWNLOAD, Strings.emptyToNull(host), priority)) {
+        manifest = fetchManifest(getManifestUrl(url), host, permit);
+      }
+      if (manifest == null) {
+        return false;
+      }
+
+      // Scanning the base file doesn't need the network, so other transfers may proceed meanwhile
+      long[] sourceOffsets = findExistingBlocks(targetFile, manifest);
+      long bytesToDownload = 0;
+      for (int block = 0; block < sourceOffsets.length; block++) {
+        if (sourceOffsets[block] < 0) {
+          bytesToDownload += manifest.getBlockLength(block);
+        }
+      }
+      if (bytesToDownload > manifest.getLength() * MAX_DOWNLOAD_FRACTION) {
+        log.debug("Only {} of {} bytes of {} can be reused, downloading it in full",
+            manifest.getLength() - bytesToDownload, manifest.getLength(), targetFile);
+        return false;
+      }
+
+      log.debug("Updating {} by downloading {} of {} bytes", targetFile, bytesToDownload, manifest.getLength());
+      try (Permit permit = transferScheduler.acquire(Direction.DOWNLOAD, Strings.emptyToNull(host), priority)) {
+        assemble(url, targetFile, tempFile, manifest, sourceOffsets, permit);
+      }
+
+      String actualMd5 = MoreFiles.asByteSource(tempFile).hash(Hashing.md5()).toString();
+      if (!actualMd5.equalsIgnoreCase(expectedMd5)) {
+        log.warn("Checksum of patched file {} was {} but expected {}, downloading it in full", targetFile, actualMd5, expectedMd5);
+        return false;
+      }
+      Files.move(tempFile, targetFile, REPLACE_EXISTING, ATOMIC_MOVE);
+      return true;
+    } catch (InterruptedIOException e) {
+      throw e;
+    } catch (IOException e) {
+      log.warn("Could not patch {}, downloading it in full", targetFile, e);
+      return false;
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Returns the URL of the manifest of the file at the specified URL, which is published at the same path with {@link
+   * BlockManifest#URL_SUFFIX} appended, keeping the query.
+   */
+  static URL getManifestUrl(URL url) throws MalformedURLException {
+    String file = url.getPath() + BlockManifest.URL_SUFFIX;
+    if (url.getQuery() != null) {
+      file += "?" + url.getQuery();
+    }
+    return new URL(url.getProtocol(), url.getHost(), url.getPort(), file);
+  }
+
+  private BlockManifest fetchManifest(URL manifestUrl, String host, Permit permit) throws IOException {
+    HttpGet request = DownloadService.prepare(new HttpGet(), manifestUrl);
+    HttpResponse response = httpClient.execute(request);
+    HttpEntity entity = response.getEntity();
+    int statusCode = response.getStatusLine().getStatusCode();
+    if (statusCode != HttpStatus.SC_OK || entity == null) {
+      EntityUtils.consumeQuietly(entity);
+      // Servers either publish manifests for all files or for none (or deny access to all of them, e.g. for signed
+      // URLs), don't ask again for every file
+      log.debug("No block manifest available at {} (HTTP {}), not asking {} again", manifestUrl, statusCode, host);
+      hostsWithoutManifests.add(host);
+      return null;
+    }
+    InputStream inputStream = permit.wrap(entity.getContent());
+    try {
+      BlockManifest manifest = BlockManifest.read(inputStream);
+      inputStream.close();
+      return manifest;
+    } catch (IOException | RuntimeException e) {
+      request.abort();
+      throw e;
+    }
+  }
+
+  /**
+   * Searches the base file for blocks of the new version, at any offset.
+   *
+   * @return the offset in {@code baseFile} of each block, or {@code -1} if it's not contained
+   */
+  static long[] findExistingBlocks(Path baseFile, BlockManifest manifest) throws IOException {
+    int blockSize = manifest.getBlockSize();
+    long[] sourceOffsets = new long[manifest.getBlockCount()];
+    Arrays.fill(sourceOffsets, -1);
+
+    // Only full blocks are searched for, a shorter last block is simply downloaded
+    Map<Integer, List<Integer>> blocksByWeakChecksum = new HashMap<>();
+    for (int block = 0; block < manifest.getBlockCount(); block++) {
+      if (manifest.getBlockLength(block) == blockSize) {
+        blocksByWeakChecksum.computeIfAbsent(manifest.getWeakChecksum(block), checksum -> new ArrayList<>()).add(block);
+      }
+    }
+    if (blocksByWeakChecksum.isEmpty()) {
+      return sourceOffsets;
+    }
+
+    try (FileChannel channel = FileChannel.open(baseFile, READ)) {
+      ScanWindow window = new ScanWindow(channel, Math.max(SCAN_BUFFER_SIZE, 2 * blockSize));
+      RollingChecksum checksum = null;
+      while (window.ensureAvailable(blockSize)) {
+        if (checksum == null) {
+          checksum = new RollingChecksum(window.buffer, window.position, blockSize);
+        }
+
+        List<Integer> candidates = blocksByWeakChecksum.get(checksum.getValue());
+        boolean matched = false;
+        if (candidates != null) {
+          long strongChecksum = BlockManifest.strongChecksum(window.buffer, window.position, blockSize);
+          for (int block : candidates) {
+            if (manifest.getStrongChecksum(block) == strongChecksum) {
+              matched = true;
+              if (sourceOffsets[block] < 0) {
+                sourceOffsets[block] = window.getFileOffset();
+              }
+            }
+          }
+        }
+
+        if (matched) {
+          window.position += blockSize;
+          checksum = null;
+          continue;
+        }
+        if (!window.ensureAvailable(blockSize + 1)) {
+          break;
+        }
+        checksum.roll(window.buffer[window.position], window.buffer[window.position + blockSize]);
+        window.position++;
+      }
+    }
+    return sourceOffsets;
+  }
+
+  private void assemble(URL url, Path baseFile, Path tempFile, BlockManifest manifest, long[] sourceOffsets, Permit permit) throws IOException {
+    int blockSize = manifest.getBlockSize();
+    try (FileChannel base = FileChannel.open(baseFile, READ);
+         FileChannel target = FileChannel.open(tempFile, CREATE, TRUNCATE_EXISTING, WRITE)) {
+      int block = 0;
+      while (block < sourceOffsets.length) {
+        long targetOffset = (long) block * blockSize;
+        if (sourceOffsets[block] >= 0) {
+          copy(base, sourceOffsets[block], target, targetOffset, manifest.getBlockLength(block));
+          block++;
+          continue;
+        }
+
+        // Consecutive missing blocks are downloaded with a single request
+        int end = block;
+        long length = 0;
+        while (end < sourceOffsets.length && sourceOffsets[end] < 0) {
+          length += manifest.getBlockLength(end);
+          end++;
+        }
+        downloadRange(url, targetOffset, length, target, permit);
+        block = end;
+      }
+    }
+  }
+
+  private static void copy(FileChannel source, long sourceOffset, FileChannel target, long targetOffset, long length) throws IOException {
+    long copied = 0;
+    while (copied < length) {
+      long transferred = source.transferTo(sourceOffset + copied, length - copied, target.position(targetOffset + copied));
+      if (transferred <= 0) {
+        throw new IOException("Base file ended unexpectedly");
+      }
+      copied += transferred;
+    }
+  }
+
+  private void downloadRange(URL url, long offset, long length, FileChannel target, Permit permit) throws IOException {
+    HttpGet request = DownloadService.prepare(new HttpGet(), url);
+    request.setHeader(HttpHeaders.RANGE, "bytes=" + offset + "-" + (offset + length - 1));
+    HttpResponse response = httpClient.execute(request);
+    try {
+      int statusCode = response.getStatusLine().getStatusCode();
+      if (statusCode != HttpStatus.SC_PARTIAL_CONTENT || response.getEntity() == null) {
+        throw new IOException("Server did not respond with a partial content to a range request: HTTP " + statusCode);
+      }
+      InputStream inputStream = permit.wrap(response.getEntity().getContent());
+      byte[] buffer = new byte[BUFFER_SIZE];
+      long position = offset;
+      long end = offset + length;
+      int read;
+      while (position < end && (read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, end - position))) != -1) {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+        while (byteBuffer.hasRemaining()) {
+          position += target.write(byteBuffer, position);
+        }
+      }
+      if (position != end) {
+        throw new IOException("Range " + offset + "-" + (end - 1) + " of " + url + " ended after " + (position - offset) + " bytes");
+      }
+      inputStream.close();
+    } catch (IOException | RuntimeException e) {
+      request.abort();
+      throw e;
+    }
+  }
+
+  /**
+   * A window into a file that's read in large chunks, while allowing to look at any {@code n} bytes starting at {@link
+   * #position}.
+   */
+  private static final class ScanWindow {
+    private final FileChannel channel;
+    private final byte[] buffer;
+    private long bufferOffset;
+    private int length;
+    private int position;
+    private boolean endOfFile;
+
+    private ScanWindow(FileChannel channel, int bufferSize) {
+      this.channel = channel;
+      this.buffer = new byte[bufferSize];
+    }
+
+    /** Makes sure that {@code count} bytes starting at the current position are in the buffer, if the file has them. */
+    private boolean ensureAvailable(int count) throws IOException {
+      if (position + count <= length) {
+        return true;
+      }
+      if (endOfFile) {
+        return false;
+      }
+
+      System.arraycopy(buffer, position, buffer, 0, length - position);
+      bufferOffset += position;
+      length -= position;
+      position = 0;
+
+      ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, length, buffer.length - length);
+      while (byteBuffer.hasRemaining()) {
+        if (channel.read(byteBuffer) == -1) {
+          endOfFile = true;
+          break;
+        }
+      }
+      length = byteBuffer.position();
+      return count <= length;
+    }
+
+    private long getFileOffset() {
+      return bufferOffset + position;
+    }
+  }
+}
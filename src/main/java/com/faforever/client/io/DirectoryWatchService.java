@@ -0,0 +1,264 @@
+package com.faforever.client.io;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches directories like the maps or mods directory for entries (usually folders) being created, modified or
+ * deleted. Besides the directory itself, each of its sub directories is watched so that files being copied into a map
+ * or mod folder are reported as a change of that folder. Changes are debounced per entry: a listener is only called
+ * once an entry didn't change for {@link #DEFAULT_DEBOUNCE}, so copying a map folder by hand results in a single
+ * notification after it's complete.
+ * <p>
+ * All watched directories share a single watcher thread, on which listeners are called one after another. Listeners
+ * should therefore not block for long.
+ */
+@Lazy
+@Service
+@Slf4j
+public class DirectoryWatchService implements DisposableBean {
+
+  static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(500);
+
+  private final ThreadPoolExecutor threadPoolExecutor;
+  private final long debounceNanos;
+  private final Map<WatchKey, WatchedPath> watchedPaths;
+  /** Entries that changed, in order of their last change. Only accessed by the watcher thread. */
+  private final Map<Path, PendingChange> pendingChanges;
+
+  private WatchService watchService;
+
+  @Inject
+  public DirectoryWatchService(@Named("daemonExecutor") ThreadPoolExecutor threadPoolExecutor) {
+    this(threadPoolExecutor, DEFAULT_DEBOUNCE);
+  }
+
+  DirectoryWatchService(ThreadPoolExecutor threadPoolExecutor, Duration debounce) {
+    this.threadPoolExecutor = threadPoolExecutor;
+    this.debounceNanos = debounce.toNanos();
+    watchedPaths = new ConcurrentHashMap<>();
+    pendingChanges = new LinkedHashMap<>();
+  }
+
+  /**
+   * Starts watching the specified directory. The listener is called with the path of each entry of {@code directory}
+   * that has been created, modified or deleted, and is responsible to check which of these it was.
+   */
+  public Registration watch(Path directory, DirectoryChangeListener listener) throws IOException {
+    Registration registration = new Registration(directory, listener);
+    register(directory, null, registration);
+
+    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, Files::isDirectory)) {
+      for (Path entry : directoryStream) {
+        register(entry, entry, registration);
+      }
+    }
+    return registration;
+  }
+
+  private synchronized WatchService getWatchService() throws IOException {
+    if (watchService == null) {
+      watchService = FileSystems.getDefault().newWatchService();
+      WatchService startedWatchService = watchService;
+      threadPoolExecutor.execute(() -> processEvents(startedWatchService));
+    }
+    return watchService;
+  }
+
+  private void register(Path path, Path entry, Registration registration) throws IOException {
+    WatchService watchService = getWatchService();
+    // Prevents the watcher thread from seeing events of a key before it's known
+    synchronized (watchedPaths) {
+      WatchKey watchKey = path.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+      watchedPaths.put(watchKey, new WatchedPath(entry, registration));
+      registration.watchKeys.add(watchKey);
+    }
+  }
+
+  private void processEvents(WatchService watchService) {
+    try {
+      while (!Thread.interrupted()) {
+        WatchKey key = pendingChanges.isEmpty()
+            ? watchService.take()
+            : watchService.poll(nanosUntilNextChangeIsDue(), TimeUnit.NANOSECONDS);
+
+        if (key != null) {
+          onWatchEvents(key);
+        }
+        notifyDueChanges();
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      log.debug("Directory watcher terminated");
+    }
+  }
+
+  private void onWatchEvents(WatchKey key) {
+    WatchedPath watchedPath;
+    synchronized (watchedPaths) {
+      watchedPath = watchedPaths.get(key);
+    }
+    if (watchedPath == null) {
+      // Registration has been cancelled in the meantime
+      key.pollEvents();
+      return;
+    }
+
+    Registration registration = watchedPath.registration;
+    for (WatchEvent<?> watchEvent : key.pollEvents()) {
+      if (watchEvent.kind() == OVERFLOW) {
+        log.debug("Events have been lost, rescanning: {}", registration.directory);
+        rescan(registration);
+        continue;
+      }
+      if (watchedPath.entry != null) {
+        // Something changed within a watched entry
+        schedule(watchedPath.entry, registration);
+        continue;
+      }
+
+      Path entry = registration.directory.resolve((Path) watchEvent.context());
+      if (watchEvent.kind() == ENTRY_CREATE && Files.isDirectory(entry)) {
+        try {
+          register(entry, entry, registration);
+        } catch (IOException e) {
+          log.warn("Could not watch directory: " + entry, e);
+        }
+      }
+      schedule(entry, registration);
+    }
+
+    if (!key.reset()) {
+      watchedPaths.remove(key);
+      registration.watchKeys.remove(key);
+    }
+  }
+
+  private void rescan(Registration registration) {
+    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(registration.directory)) {
+      for (Path entry : directoryStream) {
+        schedule(entry, registration);
+      }
+    } catch (IOException e) {
+      log.warn("Could not rescan directory: " + registration.directory, e);
+    }
+  }
+
+  private void schedule(Path entry, Registration registration) {
+    // Remove first so that the entry moves to the end of the iteration order
+    pendingChanges.remove(entry);
+    pendingChanges.put(entry, new PendingChange(registration, System.nanoTime() + debounceNanos));
+  }
+
+  private long nanosUntilNextChangeIsDue() {
+    return Math.max(0, pendingChanges.values().iterator().next().dueNanos - System.nanoTime());
+  }
+
+  private void notifyDueChanges() {
+    long now = System.nanoTime();
+    Iterator<Map.Entry<Path, PendingChange>> iterator = pendingChanges.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Path, PendingChange> pendingChange = iterator.next();
+      PendingChange change = pendingChange.getValue();
+      if (change.dueNanos - now > 0) {
+        return;
+      }
+      iterator.remove();
+      if (change.registration.cancelled) {
+        continue;
+      }
+      try {
+        change.registration.listener.onChange(pendingChange.getKey());
+      } catch (RuntimeException e) {
+        log.warn("Directory change listener failed for: " + pendingChange.getKey(), e);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void destroy() throws IOException {
+    if (watchService != null) {
+      watchService.close();
+    }
+  }
+
+  public interface DirectoryChangeListener {
+
+    /**
+     * @param entry the path of the created, modified or deleted entry.
+     */
+    void onChange(Path entry);
+  }
+
+  /**
+   * Represents a watched directory. Call {@link #cancel()} to stop watching it.
+   */
+  public final class Registration {
+    private final Path directory;
+    private final DirectoryChangeListener listener;
+    private final Set<WatchKey> watchKeys;
+    private volatile boolean cancelled;
+
+    private Registration(Path directory, DirectoryChangeListener listener) {
+      this.directory = directory;
+      this.listener = listener;
+      watchKeys = ConcurrentHashMap.newKeySet();
+    }
+
+    public void cancel() {
+      cancelled = true;
+      for (WatchKey watchKey : watchKeys) {
+        watchKey.cancel();
+        watchedPaths.remove(watchKey);
+      }
+      watchKeys.clear();
+    }
+  }
+
+  private static final class WatchedPath {
+    /** The directory entry the watched path belongs to, or {@code null} if it's the watched directory itself. */
+    private final Path entry;
+    private final Registration registration;
+
+    private WatchedPath(Path entry, Registration registration) {
+      this.entry = entry;
+      this.registration = registration;
+    }
+  }
+
+  private static final class PendingChange {
+    private final Registration registration;
+    private final long dueNanos;
+
+    private PendingChange(Registration registration, long dueNanos) {
+      this.registration = registration;
+      this.dueNanos = dueNanos;
+    }
+  }
+}
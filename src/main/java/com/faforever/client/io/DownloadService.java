@@ -1,49 +1,530 @@
 package com.faforever.client.io;
 
-import com.faforever.client.task.ResourceLocks;
-import com.faforever.commons.io.ByteCopier;
+import com.faforever.client.io.TransferScheduler.Direction;
+import com.faforever.client.io.TransferScheduler.Permit;
+import com.faforever.client.task.CompletableTask.Priority;
 import com.faforever.commons.io.ByteCountListener;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.util.EntityUtils;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import javax.inject.Inject;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Downloads files over HTTP, using the shared pooled HTTP client (or any other protocol supported by {@link URL}). If the server supports range requests,
+ * large files are downloaded in multiple segments in parallel, and a download that has been interrupted - even by a
+ * crash - continues where it stopped instead of starting over. This works by downloading each segment into its own
+ * {@code .part<n>} file next to the target file, and by writing the remote file's size and ETag (or last modified date)
+ * into a {@code .part} file, which tells whether the partial files still belong to the same remote file.
+ * <p>
+ * The target file is only replaced once the download is complete and, if a checksum is known, has been verified.
+ * Concurrent downloads to the same target file wait for each other, so that they don't share partial files.
+ */
 @Service
 @Lazy
 @Slf4j
 public class DownloadService {
 
+  private static final long DEFAULT_MIN_SEGMENT_SIZE = 4 * 1024 * 1024;
+  private static final int DEFAULT_MAX_SEGMENTS = 4;
+  private static final int MAX_ATTEMPTS = 3;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final String PART_SUFFIX = ".part";
+  private static final Pattern PART_FILE_PATTERN = Pattern.compile("(.+)" + Pattern.quote(PART_SUFFIX) + "\\d*");
+  /** Partial downloads that haven't been resumed for this long are deleted by {@link #deleteStalePartialDownloads}. */
+  private static final Duration STALE_PARTIAL_DOWNLOAD_AGE = Duration.ofDays(7);
+  private static final int TARGET_LOCK_STRIPES = 256;
+
+  private final ThreadPoolExecutor threadPoolExecutor;
+  private final TransferScheduler transferScheduler;
+  private final HttpClient httpClient;
+  private final long minSegmentSize;
+  private final int maxSegments;
+  private final Striped<Lock> targetLocks;
+
+  @Inject
+  public DownloadService(ThreadPoolExecutor threadPoolExecutor, TransferScheduler transferScheduler, HttpClient httpClient) {
+    this(threadPoolExecutor, transferScheduler, httpClient, DEFAULT_MIN_SEGMENT_SIZE, DEFAULT_MAX_SEGMENTS);
+  }
+
+  DownloadService(ThreadPoolExecutor threadPoolExecutor, TransferScheduler transferScheduler, HttpClient httpClient, long minSegmentSize, int maxSegments) {
+    this.threadPoolExecutor = threadPoolExecutor;
+    this.transferScheduler = transferScheduler;
+    this.httpClient = httpClient;
+    this.minSegmentSize = minSegmentSize;
+    this.maxSegments = maxSegments;
+    targetLocks = Striped.lazyWeakLock(TARGET_LOCK_STRIPES);
+  }
+
+  /**
+   * Returns the lock that downloads to the specified file hold. Callers that use the downloaded file afterwards, e.g.
+   * to install it, can hold it across the download and their use, so that a concurrent download to the same file
+   * doesn't replace it in the meantime. The lock is reentrant.
+   */
+  public Lock getTargetLock(Path targetFile) {
+    return targetLocks.get(targetFile.toAbsolutePath().normalize());
+  }
+
   public void downloadFile(URL url, Path targetFile, ByteCountListener progressListener) throws IOException {
-    Path tempFile = Files.createTempFile(targetFile.getParent(), "download", null);
+    downloadFile(url, targetFile, progressListener, null, Priority.MEDIUM);
+  }
+
+  /**
+   * @param expectedMd5 the hex encoded MD5 checksum the downloaded file is expected to have, or {@code null} if it's
+   * not known. If the checksum doesn't match, a {@link ChecksumMismatchException} is thrown and the target file is left
+   * untouched.
+   * @param priority the priority with which the {@link TransferScheduler} lets this download start
+   */
+  public void downloadFile(URL url, Path targetFile, ByteCountListener progressListener, @Nullable String expectedMd5, Priority priority) throws IOException {
+    Lock targetLock = getTargetLock(targetFile);
+    try {
+      targetLock.lockInterruptibly();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Download of " + url + " has been interrupted");
+    }
+    try {
+      download(url, targetFile, progressListener, expectedMd5, priority);
+    } finally {
+      targetLock.unlock();
+    }
+  }
 
-    HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+  /**
+   * Deletes the partial files of downloads into the specified directory that haven't been resumed for a while, e.g.
+   * because a newer version of the file has been downloaded under a different name since. Partial files of downloads
+   * that are in progress are kept.
+   */
+  public void deleteStalePartialDownloads(Path directory) {
+    if (Files.notExists(directory)) {
+      return;
+    }
+    FileTime staleBefore = FileTime.from(Instant.now().minus(STALE_PARTIAL_DOWNLOAD_AGE));
+    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+      for (Path file : directoryStream) {
+        Matcher matcher = PART_FILE_PATTERN.matcher(file.getFileName().toString());
+        if (!matcher.matches() || Files.getLastModifiedTime(file).compareTo(staleBefore) >= 0) {
+          continue;
+        }
+        Lock targetLock = getTargetLock(file.resolveSibling(matcher.group(1)));
+        if (!targetLock.tryLock()) {
+          continue;
+        }
+        try {
+          Files.deleteIfExists(file);
+          log.debug("Deleted stale partial download: {}", file);
+        } finally {
+          targetLock.unlock();
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Could not delete stale partial downloads in: " + directory, e);
+    }
+  }
 
-    ResourceLocks.acquireDownloadLock();
-    try (InputStream inputStream = url.openStream();
-         OutputStream outputStream = Files.newOutputStream(tempFile)) {
+  private void download(URL url, Path targetFile, ByteCountListener progressListener, @Nullable String expectedMd5, Priority priority) throws IOException {
+    Path targetDirectory = targetFile.toAbsolutePath().getParent();
+    Files.createDirectories(targetDirectory);
 
-      ByteCopier.from(inputStream)
-          .to(outputStream)
-          .totalBytes(urlConnection.getContentLength())
-          .listener(progressListener)
-          .copy();
+    RemoteFile remoteFile = probe(url);
+    List<Segment> segments = prepareSegments(url, targetFile, remoteFile);
 
-      Files.move(tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
+    AtomicLong bytesWritten = new AtomicLong(segments.stream().mapToLong(Segment::getBytesWritten).sum());
+    Runnable progressUpdater = () -> progressListener.updateBytesWritten(bytesWritten.get(), remoteFile.length);
+    try {
+      downloadSegments(url, remoteFile, segments, priority, bytesWritten, progressUpdater);
+    } catch (IOException e) {
+      if (!remoteFile.isResumable()) {
+        deletePartFiles(targetFile);
+      }
+      throw e;
+    }
+
+    Path downloadedFile = joinSegments(segments);
+    if (expectedMd5 != null) {
+      verifyMd5(url, downloadedFile, expectedMd5);
+    }
+    Files.move(downloadedFile, targetFile, REPLACE_EXISTING);
+    Files.deleteIfExists(stateFile(targetFile));
+  }
+
+  /**
+   * Returns the size of the file at the specified URL in bytes without downloading it, or {@code -1} if the server
+   * doesn't tell.
+   */
+  public long getContentLength(URL url) throws IOException {
+    return probe(url).length;
+  }
+
+  private RemoteFile probe(URL url) throws IOException {
+    if (!isHttp(url)) {
+      URLConnection urlConnection = url.openConnection();
+      return new RemoteFile(urlConnection.getContentLengthLong(), false, null);
+    }
+
+    HttpResponse response = httpClient.execute(prepare(new HttpHead(), url));
+    try {
+      int statusCode = response.getStatusLine().getStatusCode();
+      if (statusCode == HttpStatus.SC_METHOD_NOT_ALLOWED) {
+        return new RemoteFile(-1, false, null);
+      }
+      if (statusCode >= 400) {
+        throw new IOException("Server returned HTTP " + statusCode + " for " + url);
+      }
+      String validator = getHeader(response, HttpHeaders.ETAG);
+      if (validator == null) {
+        validator = getHeader(response, HttpHeaders.LAST_MODIFIED);
+      }
+      boolean acceptsRanges = "bytes".equalsIgnoreCase(getHeader(response, HttpHeaders.ACCEPT_RANGES));
+      String contentLength = getHeader(response, HttpHeaders.CONTENT_LENGTH);
+      return new RemoteFile(contentLength == null ? -1 : Long.parseLong(contentLength), acceptsRanges, validator);
+    } catch (NumberFormatException e) {
+      throw new IOException("Server returned an invalid content length for " + url, e);
     } finally {
-      ResourceLocks.freeDownloadLock();
-      try {
-        Files.deleteIfExists(tempFile);
+      EntityUtils.consumeQuietly(response.getEntity());
+    }
+  }
+
+  /**
+   * Returns the segments to download, reusing the partial files of a previous attempt if they belong to the same remote
+   * file.
+   */
+  private List<Segment> prepareSegments(URL url, Path targetFile, RemoteFile remoteFile) throws IOException {
+    Path stateFile = stateFile(targetFile);
+    Properties state = new Properties();
+    state.setProperty("url", url.toString());
+    state.setProperty("length", String.valueOf(remoteFile.length));
+    state.setProperty("validator", Objects.toString(remoteFile.validator, ""));
+
+    int segmentCount = 1;
+    if (remoteFile.isResumable()) {
+      segmentCount = (int) Math.max(1, Math.min(maxSegments, remoteFile.length / minSegmentSize));
+    }
+    state.setProperty("segments", String.valueOf(segmentCount));
+
+    boolean resume = remoteFile.isResumable() && state.equals(readState(stateFile));
+    if (!resume) {
+      deletePartFiles(targetFile);
+      if (remoteFile.isResumable()) {
+        try (Writer writer = Files.newBufferedWriter(stateFile, UTF_8)) {
+          state.store(writer, null);
+        }
+      }
+    }
+
+    List<Segment> segments = new ArrayList<>(segmentCount);
+    long segmentSize = remoteFile.length / segmentCount;
+    for (int index = 0; index < segmentCount; index++) {
+      long start = index * segmentSize;
+      long end = index == segmentCount - 1 ? remoteFile.length : start + segmentSize;
+      Path partFile = partFile(targetFile, index);
+      segments.add(new Segment(partFile, start, end, resume && Files.exists(partFile) ? Files.size(partFile) : 0));
+    }
+    if (resume) {
+      log.debug("Resuming download of {} at {} bytes", url, segments.stream().mapToLong(Segment::getBytesWritten).sum());
+    }
+    return segments;
+  }
+
+  private void downloadSegments(URL url, RemoteFile remoteFile, List<Segment> segments, Priority priority, AtomicLong bytesWritten, Runnable progressUpdater) throws IOException {
+    if (segments.size() == 1) {
+      downloadSegment(url, remoteFile, segments.get(0), priority, bytesWritten, progressUpdater);
+      return;
+    }
+
+    List<Future<?>> futures = new ArrayList<>();
+    for (Segment segment : segments.subList(1, segments.size())) {
+      futures.add(threadPoolExecutor.submit(() -> {
+        downloadSegment(url, remoteFile, segment, priority, bytesWritten, progressUpdater);
+        return null;
+      }));
+    }
+    try {
+      downloadSegment(url, remoteFile, segments.get(0), priority, bytesWritten, progressUpdater);
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      throw new InterruptedIOException("Download of " + url + " has been interrupted");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Download of " + url + " failed", e.getCause());
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  private void downloadSegment(URL url, RemoteFile remoteFile, Segment segment, Priority priority, AtomicLong bytesWritten, Runnable progressUpdater) throws IOException {
+    for (int attempt = 1; ; attempt++) {
+      try (Permit permit = transferScheduler.acquire(Direction.DOWNLOAD, Strings.emptyToNull(url.getHost()), priority)) {
+        transferSegment(url, remoteFile, segment, permit, bytesWritten, progressUpdater);
+        return;
+      } catch (InterruptedIOException e) {
+        throw e;
       } catch (IOException e) {
-        log.warn("Could not delete temporary file: " + tempFile.toAbsolutePath(), e);
+        if (attempt >= MAX_ATTEMPTS) {
+          throw e;
+        }
+        log.debug("Download of {} failed (attempt {} of {}), retrying", url, attempt, MAX_ATTEMPTS, e);
+      }
+    }
+  }
+
+  private void transferSegment(URL url, RemoteFile remoteFile, Segment segment, Permit permit, AtomicLong bytesWritten, Runnable progressUpdater) throws IOException {
+    if (!remoteFile.isResumable() && segment.bytesWritten > 0) {
+      // Partial content can't be requested, so start over
+      bytesWritten.addAndGet(-segment.bytesWritten);
+      segment.bytesWritten = 0;
+    }
+    if (segment.isComplete()) {
+      return;
+    }
+
+    if (!isHttp(url)) {
+      try (InputStream inputStream = permit.wrap(url.openStream())) {
+        writeSegment(url, segment, inputStream, bytesWritten, progressUpdater);
+      }
+    } else {
+      HttpGet request = prepare(new HttpGet(), url);
+      if (remoteFile.isResumable()) {
+        request.setHeader(HttpHeaders.RANGE, "bytes=" + segment.getOffset() + "-" + (segment.end - 1));
+        if (remoteFile.validator != null) {
+          request.setHeader(HttpHeaders.IF_RANGE, remoteFile.validator);
+        }
+      }
+      HttpResponse response = httpClient.execute(request);
+      int statusCode = response.getStatusLine().getStatusCode();
+      HttpEntity entity = response.getEntity();
+      if (remoteFile.isResumable() && statusCode != HttpStatus.SC_PARTIAL_CONTENT) {
+        // The file has changed since it was probed, or the server ignores ranges after all
+        request.abort();
+        throw new IOException("Server returned HTTP " + statusCode + " instead of partial content for " + url);
+      }
+      if (statusCode >= 400 || entity == null) {
+        EntityUtils.consumeQuietly(entity);
+        throw new IOException("Server returned HTTP " + statusCode + " for " + url);
+      }
+      InputStream inputStream = permit.wrap(entity.getContent());
+      try {
+        writeSegment(url, segment, inputStream, bytesWritten, progressUpdater);
+      } catch (IOException | RuntimeException e) {
+        // Closing the stream would read the rest of the response so that the connection can be reused, so drop it instead
+        request.abort();
+        throw e;
+      }
+      inputStream.close();
+    }
+
+    if (segment.end >= 0 && !segment.isComplete()) {
+      throw new IOException("Connection closed after " + segment.bytesWritten + " of " + segment.getLength()
+          + " bytes of " + url);
+    }
+  }
+
+  private static void writeSegment(URL url, Segment segment, InputStream inputStream, AtomicLong bytesWritten, Runnable progressUpdater) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    try (FileChannel fileChannel = FileChannel.open(segment.partFile, CREATE, WRITE,
+        segment.bytesWritten == 0 ? TRUNCATE_EXISTING : APPEND)) {
+      int read;
+      while ((read = inputStream.read(buffer.array())) != -1) {
+        if (Thread.interrupted()) {
+          throw new InterruptedIOException("Download of " + url + " has been interrupted");
+        }
+        buffer.limit(read);
+        while (buffer.hasRemaining()) {
+          fileChannel.write(buffer);
+        }
+        buffer.clear();
+        segment.bytesWritten += read;
+        bytesWritten.addAndGet(read);
+        progressUpdater.run();
+      }
+    }
+  }
+
+  private Path joinSegments(List<Segment> segments) throws IOException {
+    Path firstPart = segments.get(0).partFile;
+    if (segments.size() == 1) {
+      if (Files.notExists(firstPart)) {
+        // Empty files don't need to be downloaded
+        Files.createFile(firstPart);
+      }
+      return firstPart;
+    }
+    try (FileChannel target = FileChannel.open(firstPart, WRITE, APPEND)) {
+      for (Segment segment : segments.subList(1, segments.size())) {
+        try (FileChannel source = FileChannel.open(segment.partFile, READ)) {
+          long size = source.size();
+          long position = 0;
+          while (position < size) {
+            position += source.transferTo(position, size - position, target);
+          }
+        }
+        Files.delete(segment.partFile);
       }
     }
+    return firstPart;
+  }
+
+  private void verifyMd5(URL url, Path file, String expectedMd5) throws IOException {
+    String actualMd5 = com.google.common.io.Files.asByteSource(file.toFile()).hash(Hashing.md5()).toString();
+    if (!actualMd5.equalsIgnoreCase(expectedMd5)) {
+      Files.delete(file);
+      throw new ChecksumMismatchException(url, expectedMd5, actualMd5);
+    }
+  }
+
+  private void deletePartFiles(Path targetFile) throws IOException {
+    Files.deleteIfExists(stateFile(targetFile));
+    for (int index = 0; index < maxSegments; index++) {
+      Files.deleteIfExists(partFile(targetFile, index));
+    }
+  }
+
+  @Nullable
+  private static Properties readState(Path stateFile) {
+    if (Files.notExists(stateFile)) {
+      return null;
+    }
+    Properties state = new Properties();
+    try (Reader reader = Files.newBufferedReader(stateFile, UTF_8)) {
+      state.load(reader);
+      return state;
+    } catch (IOException e) {
+      log.debug("Could not read download state: {}", stateFile, e);
+      return null;
+    }
+  }
+
+  static boolean isHttp(URL url) {
+    return "http".equalsIgnoreCase(url.getProtocol()) || "https".equalsIgnoreCase(url.getProtocol());
+  }
+
+  /**
+   * Sets the URL of the request and asks for the file as it is, since a compressed response would be of a different
+   * length and its byte ranges wouldn't match those of the file.
+   */
+  static <T extends HttpRequestBase> T prepare(T request, URL url) throws IOException {
+    try {
+      request.setURI(url.toURI());
+    } catch (URISyntaxException e) {
+      throw new IOException("Invalid URL: " + url, e);
+    }
+    request.setHeader(HttpHeaders.ACCEPT_ENCODING, "identity");
+    return request;
+  }
+
+  @Nullable
+  private static String getHeader(HttpResponse response, String name) {
+    Header header = response.getFirstHeader(name);
+    return header == null ? null : header.getValue();
+  }
+
+  private static Path stateFile(Path targetFile) {
+    return targetFile.resolveSibling(targetFile.getFileName() + PART_SUFFIX);
+  }
+
+  private static Path partFile(Path targetFile, int index) {
+    return targetFile.resolveSibling(targetFile.getFileName() + PART_SUFFIX + index);
+  }
+
+  private static final class RemoteFile {
+    /** The file's size in bytes, or {@code -1} if unknown. */
+    private final long length;
+    private final boolean acceptsRanges;
+    @Nullable
+    private final String validator;
+
+    private RemoteFile(long length, boolean acceptsRanges, @Nullable String validator) {
+      this.length = length;
+      this.acceptsRanges = acceptsRanges;
+      this.validator = validator;
+    }
+
+    private boolean isResumable() {
+      return acceptsRanges && length > 0;
+    }
+  }
+
+  private static final class Segment {
+    private final Path partFile;
+    private final long start;
+    /** Exclusive end of this segment, or {@code -1} if the file's size is unknown. */
+    private final long end;
+    private long bytesWritten;
+
+    private Segment(Path partFile, long start, long end, long bytesWritten) {
+      this.partFile = partFile;
+      this.start = start;
+      this.end = end;
+      this.bytesWritten = bytesWritten;
+    }
+
+    private long getBytesWritten() {
+      return bytesWritten;
+    }
+
+    private long getOffset() {
+      return start + bytesWritten;
+    }
+
+    private long getLength() {
+      return end - start;
+    }
+
+    private boolean isComplete() {
+      return end >= 0 && getOffset() >= end;
+    }
   }
 }
@@ -0,0 +1,175 @@
+package com.faforever.client.io;
+
+import com.faforever.client.preferences.PreferencesService;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Remembers the MD5 hashes of files so that they don't need to be hashed again as long as their size and modification
+ * time haven't changed. The hashes are persisted in the cache directory, so that unchanged files aren't rehashed after
+ * a restart either.
+ */
+@Lazy
+@Service
+@Slf4j
+public class FileHashCache implements DisposableBean {
+
+  private static final String STORE_FILE_NAME = "file-hashes.txt";
+  private static final char SEPARATOR = '\t';
+
+  private final Path storeFile;
+  private final Map<String, CachedHash> hashes;
+  private boolean loaded;
+  private volatile boolean dirty;
+
+  @Inject
+  public FileHashCache(PreferencesService preferencesService) {
+    this(preferencesService.getCacheDirectory().resolve(STORE_FILE_NAME));
+  }
+
+  FileHashCache(Path storeFile) {
+    this.storeFile = storeFile;
+    hashes = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the MD5 hash of the specified file, which is only computed if the file has changed since it was last
+   * hashed.
+   *
+   * @return the hex encoded hash, or {@code null} if the file doesn't exist
+   */
+  @Nullable
+  public String getMd5(Path file) throws IOException {
+    ensureLoaded();
+    String key = toKey(file);
+
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    } catch (NoSuchFileException e) {
+      if (hashes.remove(key) != null) {
+        dirty = true;
+      }
+      return null;
+    }
+
+    CachedHash cachedHash = hashes.get(key);
+    if (cachedHash != null && cachedHash.matches(attributes)) {
+      return cachedHash.md5;
+    }
+
+    String md5 = MoreFiles.asByteSource(file).hash(Hashing.md5()).toString();
+    hashes.put(key, new CachedHash(attributes.size(), attributes.lastModifiedTime().toMillis(), md5));
+    dirty = true;
+    return md5;
+  }
+
+  /**
+   * Records the hash of a file whose content is already known to match, e.g. because it has just been downloaded and
+   * verified.
+   */
+  public void put(Path file, String md5) throws IOException {
+    ensureLoaded();
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    hashes.put(toKey(file), new CachedHash(attributes.size(), attributes.lastModifiedTime().toMillis(), md5));
+    dirty = true;
+  }
+
+  /**
+   * Writes all hashes to disk, if any changed.
+   */
+  public synchronized void save() {
+    if (!loaded || !dirty) {
+      return;
+    }
+    dirty = false;
+
+    try {
+      Files.createDirectories(storeFile.getParent());
+      Path tempFile = storeFile.resolveSibling(STORE_FILE_NAME + ".tmp");
+      try (BufferedWriter writer = Files.newBufferedWriter(tempFile, UTF_8)) {
+        for (Map.Entry<String, CachedHash> entry : hashes.entrySet()) {
+          CachedHash cachedHash = entry.getValue();
+          writer.write(cachedHash.md5 + SEPARATOR + cachedHash.size + SEPARATOR + cachedHash.lastModified + SEPARATOR + entry.getKey());
+          writer.newLine();
+        }
+      }
+      Files.move(tempFile, storeFile, REPLACE_EXISTING, ATOMIC_MOVE);
+    } catch (IOException e) {
+      dirty = true;
+      log.warn("Could not save file hashes to: {}", storeFile, e);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    save();
+  }
+
+  private synchronized void ensureLoaded() {
+    if (loaded) {
+      return;
+    }
+    loaded = true;
+    if (Files.notExists(storeFile)) {
+      return;
+    }
+
+    try (BufferedReader reader = Files.newBufferedReader(storeFile, UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] parts = line.split(String.valueOf(SEPARATOR), 4);
+        if (parts.length != 4) {
+          continue;
+        }
+        try {
+          hashes.put(parts[3], new CachedHash(Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[0]));
+        } catch (NumberFormatException e) {
+          log.debug("Ignoring invalid file hash entry: {}", line);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Could not read file hashes from: {}", storeFile, e);
+    }
+  }
+
+  private static String toKey(Path file) {
+    return file.toAbsolutePath().normalize().toString();
+  }
+
+  private static final class CachedHash {
+    private final long size;
+    private final long lastModified;
+    private final String md5;
+
+    private CachedHash(long size, long lastModified, String md5) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.md5 = md5;
+    }
+
+    private boolean matches(BasicFileAttributes attributes) {
+      return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+    }
+  }
+}
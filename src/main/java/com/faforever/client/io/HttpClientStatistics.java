@@ -0,0 +1,64 @@
+package com.faforever.client.io;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the requests sent by the shared HTTP client and the connections it had to open for them, which tells how well
+ * connections are reused, as well as how long it took until the response headers were received.
+ */
+@Slf4j
+public class HttpClientStatistics implements DisposableBean {
+
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder connectionsOpened = new LongAdder();
+  private final LongAdder totalLatencyNanos = new LongAdder();
+  private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+  void connectionOpened() {
+    connectionsOpened.increment();
+  }
+
+  void responseReceived(long latencyNanos) {
+    requests.increment();
+    totalLatencyNanos.add(latencyNanos);
+    maxLatencyNanos.accumulate(latencyNanos);
+  }
+
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  public long getConnectionsOpened() {
+    return connectionsOpened.sum();
+  }
+
+  /** Fraction of requests that have been sent over an already open connection. */
+  public double getConnectionReuseRate() {
+    long requests = getRequests();
+    return requests == 0 ? 0 : Math.max(0, 1 - (double) getConnectionsOpened() / requests);
+  }
+
+  public double getAverageLatencyMillis() {
+    long requests = getRequests();
+    return requests == 0 ? 0 : totalLatencyNanos.sum() / 1_000_000d / requests;
+  }
+
+  public double getMaxLatencyMillis() {
+    return maxLatencyNanos.get() / 1_000_000d;
+  }
+
+  @Override
+  public void destroy() {
+    log.info("HTTP client statistics: {}", this);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("requests=%d, connectionsOpened=%d, connectionReuseRate=%.2f, averageLatency=%.1fms, maxLatency=%.1fms",
+        getRequests(), getConnectionsOpened(), getConnectionReuseRate(), getAverageLatencyMillis(), getMaxLatencyMillis());
+  }
+}
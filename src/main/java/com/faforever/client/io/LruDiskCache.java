@@ -0,0 +1,189 @@
+package com.faforever.client.io;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the total size of the files in one or more cache directories below a limit by deleting the least recently
+ * used files. Files are tracked once they are added or when their directory is scanned by {@link
+ * #track(Path)}. Since the last access is persisted as the file's modification time, the order survives restarts.
+ */
+@Slf4j
+public class LruDiskCache {
+
+  /** Suffix of files that are still being written, which are not tracked when scanning. */
+  public static final String TEMP_FILE_SUFFIX = ".tmp";
+
+  private final long maxBytes;
+  /** Tracked files and their sizes in order of their last access, least recently used first. */
+  private final Map<Path, Long> fileSizes;
+  private final Set<Path> trackedDirectories;
+  private long totalBytes;
+
+  public LruDiskCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+    fileSizes = new LinkedHashMap<>(16, 0.75f, true);
+    trackedDirectories = new HashSet<>();
+  }
+
+  /**
+   * Scans the specified directory for files unless it has been scanned before, so that they are taken into account for
+   * the size limit. Since this accesses the disk, it should not be called on the application thread.
+   */
+  public void track(Path directory) {
+    synchronized (this) {
+      if (!trackedDirectories.add(directory)) {
+        return;
+      }
+    }
+    if (Files.notExists(directory)) {
+      return;
+    }
+
+    List<CachedFile> cachedFiles = new ArrayList<>();
+    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+      for (Path file : directoryStream) {
+        if (file.getFileName().toString().endsWith(TEMP_FILE_SUFFIX)) {
+          // Being written; the file it's renamed to is added once it's complete
+          continue;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (attributes.isRegularFile()) {
+          cachedFiles.add(new CachedFile(file, attributes.size(), attributes.lastModifiedTime()));
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Could not scan cache directory: " + directory, e);
+    }
+    cachedFiles.sort(Comparator.comparing(cachedFile -> cachedFile.lastModified));
+
+    List<Path> evictedFiles;
+    synchronized (this) {
+      LinkedHashMap<Path, Long> recentlyUsed = new LinkedHashMap<>(fileSizes);
+      fileSizes.clear();
+      // Files that have been accessed while scanning are more recent than any of the scanned ones
+      for (CachedFile cachedFile : cachedFiles) {
+        if (!recentlyUsed.containsKey(cachedFile.path)) {
+          fileSizes.put(cachedFile.path, cachedFile.size);
+          totalBytes += cachedFile.size;
+        }
+      }
+      fileSizes.putAll(recentlyUsed);
+      evictedFiles = evict();
+    }
+    delete(evictedFiles);
+  }
+
+  /**
+   * Marks the specified file as recently used.
+   *
+   * @return the size of the file, or {@code -1} if it's not known to this cache
+   */
+  public long touch(Path file) {
+    Long size;
+    synchronized (this) {
+      size = fileSizes.get(file);
+    }
+    if (size == null) {
+      return -1;
+    }
+    try {
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      log.debug("Could not update last modified time of: {}", file, e);
+    }
+    return size;
+  }
+
+  /**
+   * Returns whether the specified file is known to this cache, without marking it as used.
+   */
+  public synchronized boolean contains(Path file) {
+    return fileSizes.containsKey(file);
+  }
+
+  /**
+   * Forgets about the specified file, e.g. because it turned out to be unreadable. The file itself is not deleted.
+   */
+  public synchronized void remove(Path file) {
+    Long size = fileSizes.remove(file);
+    if (size != null) {
+      totalBytes -= size;
+    }
+  }
+
+  /**
+   * Adds or updates the specified file, which may cause other files to be evicted.
+   */
+  public void add(Path file, long size) {
+    List<Path> evictedFiles;
+    synchronized (this) {
+      Long previousSize = fileSizes.put(file, size);
+      totalBytes += size - (previousSize != null ? previousSize : 0);
+      evictedFiles = evict();
+    }
+    delete(evictedFiles);
+  }
+
+  public synchronized long getTotalBytes() {
+    return totalBytes;
+  }
+
+  /**
+   * Forgets about the least recently used files until the limit is met and returns them, so that they can be deleted
+   * after releasing the lock; {@link #contains(Path)} is called from the application thread.
+   */
+  private List<Path> evict() {
+    List<Path> evictedFiles = new ArrayList<>();
+    Iterator<Map.Entry<Path, Long>> iterator = fileSizes.entrySet().iterator();
+    // Never evict the most recently used file, even if it exceeds the limit on its own
+    while (totalBytes > maxBytes && fileSizes.size() > 1) {
+      Map.Entry<Path, Long> eldest = iterator.next();
+      iterator.remove();
+      totalBytes -= eldest.getValue();
+      evictedFiles.add(eldest.getKey());
+    }
+    return evictedFiles;
+  }
+
+  private void delete(List<Path> evictedFiles) {
+    for (Path file : evictedFiles) {
+      if (contains(file)) {
+        // Has been written again in the meantime
+        continue;
+      }
+      try {
+        Files.deleteIfExists(file);
+        log.trace("Evicted cached file: {}", file);
+      } catch (IOException e) {
+        log.warn("Could not delete cached file: " + file, e);
+      }
+    }
+  }
+
+  private static final class CachedFile {
+    private final Path path;
+    private final long size;
+    private final FileTime lastModified;
+
+    private CachedFile(Path path, long size, FileTime lastModified) {
+      this.path = path;
+      this.size = size;
+      this.lastModified = lastModified;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.faforever.client.io;
+
+import com.faforever.client.config.ClientProperties.Http;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the HTTP client that is shared by everything that talks HTTP, so that connections to the same host are pooled
+ * and reused instead of being opened for every request. Responses are transparently decompressed if the server sent
+ * them gzip or deflate encoded, redirects are followed and all requests use the same timeouts.
+ */
+public final class PooledHttpClients {
+
+  private static final String REQUEST_STARTED_ATTRIBUTE = PooledHttpClients.class.getName() + ".requestStarted";
+
+  private PooledHttpClients() {
+    throw new AssertionError("Not instantiatable");
+  }
+
+  public static CloseableHttpClient create(Http http, HttpClientStatistics statistics) {
+    HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> connectionFactory = (route, config) -> {
+      statistics.connectionOpened();
+      return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+    };
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(connectionFactory);
+    connectionManager.setMaxTotal(http.getMaxConnections());
+    connectionManager.setDefaultMaxPerRoute(http.getMaxConnectionsPerHost());
+
+    RequestConfig requestConfig = RequestConfig.custom()
+        .setConnectTimeout((int) http.getConnectTimeout().toMillis())
+        .setSocketTimeout((int) http.getSocketTimeout().toMillis())
+        .setConnectionRequestTimeout((int) http.getConnectionRequestTimeout().toMillis())
+        .build();
+
+    HttpRequestInterceptor requestStarted = (request, context) ->
+        context.setAttribute(REQUEST_STARTED_ATTRIBUTE, System.nanoTime());
+    HttpResponseInterceptor responseReceived = (response, context) -> {
+      Object startTime = context.getAttribute(REQUEST_STARTED_ATTRIBUTE);
+      if (startTime instanceof Long) {
+        statistics.responseReceived(System.nanoTime() - (Long) startTime);
+      }
+    };
+
+    return HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .evictExpiredConnections()
+        .evictIdleConnections(http.getMaxIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+        .addInterceptorFirst(requestStarted)
+        .addInterceptorLast(responseReceived)
+        .useSystemProperties()
+        .build();
+  }
+}
@@ -0,0 +1,47 @@
+package com.faforever.client.io;
+
+import java.util.Arrays;
+
+/**
+ * Measures the average throughput over the last few seconds.
+ */
+class ThroughputMeter {
+
+  private static final int WINDOW_SECONDS = 3;
+
+  /** Bytes per second, indexed by the second modulo the array's length. */
+  private final long[] bytesPerSecond = new long[WINDOW_SECONDS + 1];
+  private long currentSecond;
+
+  synchronized void record(long bytes) {
+    advanceTo(System.nanoTime() / 1_000_000_000L);
+    bytesPerSecond[slot(currentSecond)] += bytes;
+  }
+
+  /**
+   * Returns the average number of bytes per second over the last completed seconds.
+   */
+  synchronized long getBytesPerSecond() {
+    advanceTo(System.nanoTime() / 1_000_000_000L);
+    long sum = 0;
+    for (int i = 1; i <= WINDOW_SECONDS; i++) {
+      sum += bytesPerSecond[slot(currentSecond - i)];
+    }
+    return sum / WINDOW_SECONDS;
+  }
+
+  private int slot(long second) {
+    return (int) Math.floorMod(second, (long) bytesPerSecond.length);
+  }
+
+  private void advanceTo(long second) {
+    if (second - currentSecond >= bytesPerSecond.length) {
+      Arrays.fill(bytesPerSecond, 0);
+    } else {
+      for (long s = currentSecond + 1; s <= second; s++) {
+        bytesPerSecond[slot(s)] = 0;
+      }
+    }
+    currentSecond = Math.max(currentSecond, second);
+  }
+}
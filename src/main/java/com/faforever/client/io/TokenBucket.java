@@ -0,0 +1,47 @@
+package com.faforever.client.io;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits a rate, like bytes per second, by handing out tokens that are refilled continuously. Callers may take more
+ * tokens than available, in which case they wait until the deficit has been refilled. This allows bursts of up to one
+ * second's worth of tokens.
+ */
+class TokenBucket {
+
+  private final long tokensPerSecond;
+  private double tokens;
+  private long lastRefillNanos;
+
+  /**
+   * @param tokensPerSecond the rate at which tokens are refilled. If zero or negative, the rate is unlimited.
+   */
+  TokenBucket(long tokensPerSecond) {
+    this.tokensPerSecond = tokensPerSecond;
+    this.tokens = tokensPerSecond;
+    this.lastRefillNanos = System.nanoTime();
+  }
+
+  void take(long count) throws InterruptedIOException {
+    if (tokensPerSecond <= 0) {
+      return;
+    }
+    long waitNanos;
+    synchronized (this) {
+      long now = System.nanoTime();
+      tokens = Math.min(tokensPerSecond, tokens + (now - lastRefillNanos) * tokensPerSecond / 1e9);
+      lastRefillNanos = now;
+      tokens -= count;
+      waitNanos = tokens >= 0 ? 0 : (long) (-tokens * 1e9 / tokensPerSecond);
+    }
+    if (waitNanos > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for bandwidth");
+      }
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package com.faforever.client.io;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.config.ClientProperties.Transfer;
+import com.faforever.client.task.CompletableTask.Priority;
+import com.faforever.commons.io.ByteCountListener;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when network transfers may start and how fast they may go. Every transfer needs a {@link Permit}, which is
+ * handed out as long as neither the total number of transfers nor the number of transfers to the same host exceeds its
+ * limit. Waiting transfers are started by priority, so that e.g. files needed to start a game are downloaded before a
+ * map somebody is browsing in the vault. Downloads and uploads don't wait for each other, but each direction can be
+ * capped to a number of bytes per second.
+ */
+@Lazy
+@Service
+public class TransferScheduler {
+
+  private final int maxTransfers;
+  private final int maxTransfersPerHost;
+  private final Map<Direction, TokenBucket> bandwidthLimits;
+  private final Map<Direction, ThroughputMeter> throughputMeters;
+  private final PriorityQueue<Permit> waitingPermits;
+  private final Map<String, Integer> activeTransfersByHost;
+  private final AtomicLong sequence;
+  private int activeTransfers;
+
+  @Inject
+  public TransferScheduler(ClientProperties clientProperties) {
+    Transfer transfer = clientProperties.getTransfer();
+    maxTransfers = transfer.getMaxTransfers();
+    maxTransfersPerHost = transfer.getMaxTransfersPerHost();
+
+    bandwidthLimits = new EnumMap<>(Direction.class);
+    bandwidthLimits.put(Direction.DOWNLOAD, new TokenBucket(transfer.getMaxDownloadBytesPerSecond()));
+    bandwidthLimits.put(Direction.UPLOAD, new TokenBucket(transfer.getMaxUploadBytesPerSecond()));
+    throughputMeters = new EnumMap<>(Direction.class);
+    throughputMeters.put(Direction.DOWNLOAD, new ThroughputMeter());
+    throughputMeters.put(Direction.UPLOAD, new ThroughputMeter());
+
+    waitingPermits = new PriorityQueue<>(Comparator.comparing((Permit permit) -> permit.priority).reversed()
+        .thenComparingLong(permit -> permit.sequenceNumber));
+    activeTransfersByHost = new HashMap<>();
+    sequence = new AtomicLong();
+  }
+
+  /**
+   * Waits until a transfer to or from the specified host may start. The returned permit must be closed once the
+   * transfer is done.
+   *
+   * @param host the remote host, or {@code null} if it's unknown (in which case only the total limit applies)
+   */
+  public Permit acquire(Direction direction, @Nullable String host, Priority priority) throws InterruptedIOException {
+    Permit permit = new Permit(direction, host, priority, sequence.incrementAndGet());
+    synchronized (this) {
+      waitingPermits.add(permit);
+      grantPermits();
+      try {
+        while (!permit.granted) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        if (permit.granted) {
+          permit.close();
+        } else {
+          waitingPermits.remove(permit);
+        }
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for a transfer slot");
+      }
+    }
+    return permit;
+  }
+
+  /** Returns the number of bytes per second downloaded or uploaded over the last few seconds. */
+  public long getBytesPerSecond(Direction direction) {
+    return throughputMeters.get(direction).getBytesPerSecond();
+  }
+
+  public synchronized int getActiveTransfers() {
+    return activeTransfers;
+  }
+
+  public synchronized int getWaitingTransfers() {
+    return waitingPermits.size();
+  }
+
+  private void grantPermits() {
+    // Permits for hosts that are busy are skipped, so that transfers from other hosts can start in the meantime
+    List<Permit> skipped = new ArrayList<>();
+    boolean granted = false;
+    while (activeTransfers < maxTransfers && !waitingPermits.isEmpty()) {
+      Permit permit = waitingPermits.poll();
+      if (permit.host != null && activeTransfersByHost.getOrDefault(permit.host, 0) >= maxTransfersPerHost) {
+        skipped.add(permit);
+        continue;
+      }
+      permit.granted = true;
+      granted = true;
+      activeTransfers++;
+      if (permit.host != null) {
+        activeTransfersByHost.merge(permit.host, 1, Integer::sum);
+      }
+    }
+    waitingPermits.addAll(skipped);
+    if (granted) {
+      notifyAll();
+    }
+  }
+
+  private synchronized void release(Permit permit) {
+    activeTransfers--;
+    if (permit.host != null) {
+      activeTransfersByHost.computeIfPresent(permit.host, (host, count) -> count > 1 ? count - 1 : null);
+    }
+    grantPermits();
+  }
+
+  public enum Direction {
+    DOWNLOAD, UPLOAD
+  }
+
+  /**
+   * Allows a transfer to run. Every transferred byte must be reported via {@link #transferred(long)} (or by reading
+   * through {@link #wrap(InputStream)}), which blocks as long as needed to keep within the bandwidth limit.
+   */
+  public final class Permit implements AutoCloseable {
+    private final Direction direction;
+    private final String host;
+    private final Priority priority;
+    private final long sequenceNumber;
+    private boolean granted;
+    private boolean closed;
+
+    private Permit(Direction direction, @Nullable String host, Priority priority, long sequenceNumber) {
+      this.direction = direction;
+      this.host = host;
+      this.priority = priority;
+      this.sequenceNumber = sequenceNumber;
+    }
+
+    public void transferred(long bytes) throws InterruptedIOException {
+      throughputMeters.get(direction).record(bytes);
+      bandwidthLimits.get(direction).take(bytes);
+    }
+
+    public InputStream wrap(InputStream inputStream) {
+      return new FilterInputStream(inputStream) {
+        @Override
+        public int read() throws IOException {
+          int read = super.read();
+          if (read != -1) {
+            transferred(1);
+          }
+          return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+          int read = super.read(buffer, offset, length);
+          if (read > 0) {
+            transferred(read);
+          }
+          return read;
+        }
+      };
+    }
+
+    /**
+     * Returns a listener that reports the progress of a transfer to this permit before passing it on to {@code
+     * delegate}. This is for transfers whose streams aren't accessible, like uploads through the API.
+     */
+    public ByteCountListener countingListener(ByteCountListener delegate) {
+      AtomicLong previouslyWritten = new AtomicLong();
+      return (written, total) -> {
+        long bytes = written - previouslyWritten.getAndSet(written);
+        if (bytes > 0) {
+          try {
+            transferred(bytes);
+          } catch (InterruptedIOException e) {
+            // The thread's interrupted flag is still set, so the transfer will notice
+          }
+        }
+        delegate.updateBytesWritten(written, total);
+      };
+    }
+
+    @Override
+    public void close() {
+      synchronized (TransferScheduler.this) {
+        if (closed) {
+          return;
+        }
+        closed = true;
+        release(this);
+      }
+    }
+  }
+}
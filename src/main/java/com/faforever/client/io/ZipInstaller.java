@@ -0,0 +1,243 @@
+package com.faforever.client.io;
+
+import com.faforever.client.task.ResourceLocks;
+import com.faforever.commons.io.ByteCountListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Installs the content of a zip file (like a map or mod) into a directory. The zip file's central directory is read
+ * once, after which its entries are extracted in parallel into a staging folder next to the target directory. Every
+ * entry is checked against the CRC-32 and size recorded in the zip file. Only if all entries have been extracted
+ * successfully, each top level folder is moved into the target directory, replacing a previously installed version.
+ * Since the staging folder is not inside the target directory, directory scanners never see partially extracted
+ * content.
+ */
+@Lazy
+@Service
+@Slf4j
+public class ZipInstaller {
+
+  private static final int MAX_PARALLEL_ENTRIES = 4;
+  private static final long TRANSFER_CHUNK_SIZE = 256 * 1024;
+
+  private final ThreadPoolExecutor threadPoolExecutor;
+
+  @Inject
+  public ZipInstaller(ThreadPoolExecutor threadPoolExecutor) {
+    this.threadPoolExecutor = threadPoolExecutor;
+  }
+
+  /**
+   * Extracts the specified zip file into {@code targetDirectory}. Top level entries that already exist in the target
+   * directory are replaced.
+   *
+   * @return the installed top level entries, e.g. the folder of a map
+   */
+  public Set<Path> install(Path zipFile, Path targetDirectory, ByteCountListener listener) throws IOException {
+    Files.createDirectories(targetDirectory);
+    Path stagingRoot = targetDirectory.resolveSibling("." + targetDirectory.getFileName() + ".staging");
+    Path stagingDirectory = stagingRoot.resolve(UUID.randomUUID().toString());
+    Path contentDirectory = stagingDirectory.resolve("content");
+    Files.createDirectories(contentDirectory);
+
+    try {
+      ResourceLocks.acquireDiskLock();
+      try (ZipFile zip = new ZipFile(zipFile.toFile())) {
+        extract(zip, contentDirectory, listener);
+      } finally {
+        ResourceLocks.freeDiskLock();
+      }
+      return swapIn(contentDirectory, stagingDirectory.resolve("replaced"), targetDirectory);
+    } finally {
+      deleteQuietly(stagingDirectory);
+      try {
+        Files.deleteIfExists(stagingRoot);
+      } catch (IOException e) {
+        // Another installation is still using it
+      }
+    }
+  }
+
+  private void extract(ZipFile zip, Path contentDirectory, ByteCountListener listener) throws IOException {
+    Queue<ZipEntry> fileEntries = new ConcurrentLinkedQueue<>();
+    Map<ZipEntry, Path> entryPaths = new ConcurrentHashMap<>();
+    long totalBytes = 0;
+
+    Enumeration<? extends ZipEntry> entries = zip.entries();
+    while (entries.hasMoreElements()) {
+      ZipEntry entry = entries.nextElement();
+      Path path = resolveEntry(contentDirectory, entry);
+      if (entry.isDirectory()) {
+        Files.createDirectories(path);
+        continue;
+      }
+      Files.createDirectories(path.getParent());
+      entryPaths.put(entry, path);
+      fileEntries.add(entry);
+      totalBytes += Math.max(entry.getSize(), 0);
+    }
+
+    AtomicLong bytesWritten = new AtomicLong();
+    long finalTotalBytes = totalBytes;
+    Extractor extractor = () -> {
+      ZipEntry entry;
+      while ((entry = fileEntries.poll()) != null) {
+        try {
+          extractEntry(zip, entry, entryPaths.get(entry), bytes -> listener.updateBytesWritten(bytesWritten.addAndGet(bytes), finalTotalBytes));
+        } catch (IOException e) {
+          // Stop the other workers from picking up more entries
+          fileEntries.clear();
+          throw e;
+        }
+      }
+      return null;
+    };
+
+    int workers = Math.min(MAX_PARALLEL_ENTRIES, Math.max(1, fileEntries.size()));
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 1; i < workers; i++) {
+      futures.add(threadPoolExecutor.submit(extractor::extract));
+    }
+    try {
+      extractor.extract();
+    } finally {
+      awaitAll(futures);
+    }
+  }
+
+  private static void awaitAll(List<Future<Void>> futures) throws IOException {
+    IOException failure = null;
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        futures.forEach(f -> f.cancel(true));
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while extracting");
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private static void extractEntry(ZipFile zip, ZipEntry entry, Path path, LongConsumer progressCallback) throws IOException {
+    try (CheckedInputStream inputStream = new CheckedInputStream(zip.getInputStream(entry), new CRC32());
+         ReadableByteChannel source = Channels.newChannel(inputStream);
+         FileChannel target = FileChannel.open(path, CREATE_NEW, WRITE)) {
+      long position = 0;
+      long transferred;
+      while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) > 0) {
+        position += transferred;
+        progressCallback.accept(transferred);
+        if (Thread.currentThread().isInterrupted()) {
+          throw new InterruptedIOException("Interrupted while extracting " + entry.getName());
+        }
+      }
+      if (entry.getSize() >= 0 && position != entry.getSize()) {
+        throw new ZipException("Entry " + entry.getName() + " has " + position + " bytes but expected " + entry.getSize());
+      }
+      if (entry.getCrc() >= 0 && inputStream.getChecksum().getValue() != entry.getCrc()) {
+        throw new ZipException("CRC-32 mismatch of entry " + entry.getName());
+      }
+    }
+  }
+
+  /**
+   * Moves each top level entry of {@code contentDirectory} into {@code targetDirectory}. An existing entry is moved out
+   * of the way first, and restored if the new one can't be moved in.
+   */
+  private static Set<Path> swapIn(Path contentDirectory, Path replacedDirectory, Path targetDirectory) throws IOException {
+    List<Path> topLevelEntries;
+    try (Stream<Path> stream = Files.list(contentDirectory)) {
+      topLevelEntries = new ArrayList<>();
+      stream.forEach(topLevelEntries::add);
+    }
+    Files.createDirectories(replacedDirectory);
+
+    Set<Path> installed = new LinkedHashSet<>();
+    for (Path source : topLevelEntries) {
+      Path target = targetDirectory.resolve(source.getFileName().toString());
+      Path replaced = null;
+      if (Files.exists(target)) {
+        replaced = replacedDirectory.resolve(source.getFileName().toString());
+        Files.move(target, replaced, ATOMIC_MOVE);
+      }
+      try {
+        Files.move(source, target, ATOMIC_MOVE);
+      } catch (IOException e) {
+        if (replaced != null) {
+          Files.move(replaced, target, ATOMIC_MOVE);
+        }
+        throw e;
+      }
+      log.debug("Installed {}", target);
+      installed.add(target);
+    }
+    return Collections.unmodifiableSet(installed);
+  }
+
+  private static Path resolveEntry(Path contentDirectory, ZipEntry entry) throws ZipException {
+    Path path = contentDirectory.resolve(entry.getName()).normalize();
+    if (!path.startsWith(contentDirectory) || path.equals(contentDirectory)) {
+      throw new ZipException("Illegal entry name: " + entry.getName());
+    }
+    return path;
+  }
+
+  private static void deleteQuietly(Path directory) {
+    if (Files.notExists(directory)) {
+      return;
+    }
+    try {
+      FileUtils.deleteRecursively(directory);
+    } catch (IOException e) {
+      log.warn("Could not delete staging directory: {}", directory, e);
+    }
+  }
+
+  private interface Extractor {
+    Void extract() throws IOException;
+  }
+}
@@ -0,0 +1,178 @@
+package com.faforever.client.leaderboard;
+
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A leaderboard whose entries are loaded page by page, as far as they're needed: to show the rows the user scrolled
+ * to, to look up a rank or, for searching a player by name and for the rating distribution, completely. Loaded
+ * entries are kept in a {@link LeaderboardIndex}; {@link #getEntries()} is a view of it for table views.
+ * <p>
+ * If more than one page is missing, up to {@code maxConcurrentPages} of them are requested at the same time, since a
+ * complete load would otherwise take one round trip per page. Pages are added to the index in order, by the UI
+ * executor, so that the view's changes are fired on the JavaFX application thread.
+ */
+public class Leaderboard {
+
+  /** How many of the rows that have been looked at most recently are kept, so that table cells don't recreate them. */
+  private static final int RECENT_ENTRIES = 256;
+
+  private final PageLoader pageLoader;
+  private final int pageSize;
+  private final int maxConcurrentPages;
+  private final Executor uiExecutor;
+  private final LeaderboardIndex index;
+  private final EntryList entries;
+
+  /** The loading of the pages requested so far. */
+  private CompletableFuture<Void> loading;
+  private int requestedCount;
+  private int loadedPages;
+  private volatile boolean complete;
+
+  public Leaderboard(PageLoader pageLoader, int pageSize, Executor uiExecutor) {
+    this(pageLoader, pageSize, 1, uiExecutor);
+  }
+
+  public Leaderboard(PageLoader pageLoader, int pageSize, int maxConcurrentPages, Executor uiExecutor) {
+    this.pageLoader = pageLoader;
+    this.pageSize = pageSize;
+    this.maxConcurrentPages = Math.max(1, maxConcurrentPages);
+    this.uiExecutor = uiExecutor;
+    index = new LeaderboardIndex();
+    entries = new EntryList();
+    loading = CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Loads pages until at least the specified number of entries, or all of them, have been loaded. The returned future
+   * completes once they have been added to the index.
+   */
+  public synchronized CompletableFuture<Void> loadUntil(int count) {
+    if (!complete && count > requestedCount) {
+      requestedCount = count;
+      // A failed page must not prevent loading it again later on
+      loading = loading
+          .handle((aVoid, throwable) -> null)
+          .thenCompose(aVoid -> loadMissingPages());
+    }
+    return loading;
+  }
+
+  public CompletableFuture<Void> loadAll() {
+    return loadUntil(Integer.MAX_VALUE);
+  }
+
+  /** Returns whether all entries have been loaded. */
+  public boolean isComplete() {
+    return complete;
+  }
+
+  public LeaderboardIndex getIndex() {
+    return index;
+  }
+
+  /**
+   * Returns the loaded entries. Looking at one of the last entries loads the next page. Since entries are created on
+   * demand, the list can't be modified or sorted.
+   */
+  public ObservableList<LeaderboardEntry> getEntries() {
+    return entries;
+  }
+
+  private CompletableFuture<Void> loadMissingPages() {
+    int firstPage;
+    int pageCount;
+    synchronized (this) {
+      long missingEntries = requestedCount - (long) loadedPages * pageSize;
+      if (complete || missingEntries <= 0) {
+        return CompletableFuture.completedFuture(null);
+      }
+      firstPage = loadedPages + 1;
+      pageCount = (int) Math.min(maxConcurrentPages, (missingEntries + pageSize - 1) / pageSize);
+    }
+
+    // All pages are requested right away, but added one after another
+    CompletableFuture<Void> added = CompletableFuture.completedFuture(null);
+    for (int page = firstPage; page < firstPage + pageCount; page++) {
+      CompletableFuture<List<LeaderboardEntry>> pageFuture = pageLoader.load(pageSize, page);
+      added = added
+          .thenCompose(aVoid -> pageFuture)
+          .thenCompose(pageEntries -> CompletableFuture.runAsync(() -> addPage(pageEntries), uiExecutor));
+    }
+
+    return added
+        .whenComplete((aVoid, throwable) -> {
+          if (throwable != null) {
+            synchronized (this) {
+              requestedCount = loadedPages * pageSize;
+            }
+          }
+        })
+        .thenCompose(aVoid -> loadMissingPages());
+  }
+
+  private void addPage(List<LeaderboardEntry> pageEntries) {
+    synchronized (this) {
+      if (complete) {
+        // Requested along with the last page
+        return;
+      }
+    }
+    int from = index.size();
+    index.addAll(pageEntries);
+    synchronized (this) {
+      loadedPages++;
+      // A bigger page means that the server doesn't support paging and returned the whole leaderboard
+      complete = pageEntries.size() != pageSize;
+    }
+    entries.added(from, index.size());
+  }
+
+  /**
+   * Loads a page of a leaderboard, sorted by rank. Page numbers start at 1.
+   */
+  @FunctionalInterface
+  public interface PageLoader {
+    CompletableFuture<List<LeaderboardEntry>> load(int pageSize, int page);
+  }
+
+  private final class EntryList extends ObservableListBase<LeaderboardEntry> {
+
+    private final Map<Integer, LeaderboardEntry> recentEntries = new LinkedHashMap<Integer, LeaderboardEntry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, LeaderboardEntry> eldest) {
+        return size() > RECENT_ENTRIES;
+      }
+    };
+
+    @Override
+    public LeaderboardEntry get(int position) {
+      int size = index.size();
+      if (position >= size - pageSize / 2) {
+        loadUntil(size + pageSize);
+      }
+      return recentEntries.computeIfAbsent(position, index::get);
+    }
+
+    @Override
+    public int size() {
+      return index.size();
+    }
+
+    private void added(int from, int to) {
+      if (from == to) {
+        return;
+      }
+      beginChange();
+      nextAdd(from, to);
+      endChange();
+    }
+  }
+}
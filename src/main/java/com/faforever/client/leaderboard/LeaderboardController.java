@@ -1,6 +1,7 @@
 package com.faforever.client.leaderboard;
 
 import com.faforever.client.fx.AbstractViewController;
+import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.fx.StringCell;
 import com.faforever.client.game.KnownFeaturedMod;
 import com.faforever.client.i18n.I18n;
@@ -25,8 +26,6 @@ import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import java.lang.invoke.MethodHandles;
 
-import static javafx.collections.FXCollections.observableList;
-
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -48,6 +47,7 @@ public class LeaderboardController extends AbstractViewController<Node> {
   public Pane connectionProgressPane;
   public Pane contentPane;
   private KnownFeaturedMod ratingType;
+  private Leaderboard leaderboard;
 
   @Inject
   public LeaderboardController(LeaderboardService leaderboardService, NotificationService notificationService, I18n i18n, ReportingService reportingService) {
@@ -79,33 +79,10 @@ public class LeaderboardController extends AbstractViewController<Node> {
     connectionProgressPane.managedProperty().bind(connectionProgressPane.visibleProperty());
     connectionProgressPane.visibleProperty().bind(contentPane.visibleProperty().not());
 
-    searchTextField.textProperty().addListener((observable, oldValue, newValue) -> {
-      if (Validator.isInt(newValue)) {
-        ratingTable.scrollTo(Integer.parseInt(newValue) - 1);
-      } else {
-        LeaderboardEntry foundPlayer = null;
-        for (LeaderboardEntry leaderboardEntry : ratingTable.getItems()) {
-          if (leaderboardEntry.getUsername().toLowerCase().startsWith(newValue.toLowerCase())) {
-            foundPlayer = leaderboardEntry;
-            break;
-          }
-        }
-        if (foundPlayer == null) {
-          for (LeaderboardEntry leaderboardEntry : ratingTable.getItems()) {
-            if (leaderboardEntry.getUsername().toLowerCase().contains(newValue.toLowerCase())) {
-              foundPlayer = leaderboardEntry;
-              break;
-            }
-          }
-        }
-        if (foundPlayer != null) {
-          ratingTable.scrollTo(foundPlayer);
-          ratingTable.getSelectionModel().select(foundPlayer);
-        } else {
-          ratingTable.getSelectionModel().select(null);
-        }
-      }
-    });
+    // Entries are loaded page by page in the order of their rank, which is the only order they can be shown in
+    ratingTable.getColumns().forEach(column -> column.setSortable(false));
+
+    searchTextField.textProperty().addListener((observable, oldValue, newValue) -> search(newValue));
   }
 
   @Override
@@ -113,10 +90,11 @@ public class LeaderboardController extends AbstractViewController<Node> {
     Assert.checkNullIllegalState(ratingType, "ratingType must not be null");
 
     contentPane.setVisible(false);
-    leaderboardService.getEntries(ratingType).thenAccept(leaderboardEntryBeans -> {
-      ratingTable.setItems(observableList(leaderboardEntryBeans));
+    leaderboardService.getLeaderboard(ratingType).thenAccept(leaderboard -> JavaFxUtil.runLater(() -> {
+      this.leaderboard = leaderboard;
+      ratingTable.setItems(leaderboard.getEntries());
       contentPane.setVisible(true);
-    }).exceptionally(throwable -> {
+    })).exceptionally(throwable -> {
       contentPane.setVisible(false);
       logger.warn("Error while loading leaderboard entries", throwable);
       notificationService.addNotification(new ImmediateErrorNotification(
@@ -127,6 +105,48 @@ public class LeaderboardController extends AbstractViewController<Node> {
     });
   }
 
+  /**
+   * Scrolls to the player with the specified rank or selects the best ranked player whose name matches the specified
+   * text. Ranks are searched in the entries loaded up to that rank, names in the whole leaderboard.
+   */
+  private void search(String text) {
+    Leaderboard leaderboard = this.leaderboard;
+    if (leaderboard == null) {
+      return;
+    }
+
+    if (Validator.isInt(text)) {
+      int rank = Integer.parseInt(text);
+      leaderboard.loadUntil(rank).thenRun(() -> JavaFxUtil.runLater(() -> {
+        if (!text.equals(searchTextField.getText())) {
+          return;
+        }
+        LeaderboardIndex index = leaderboard.getIndex();
+        int position = index.indexOfRank(rank);
+        ratingTable.scrollTo(position != -1 ? position : index.size() - 1);
+      })).exceptionally(throwable -> {
+        logger.warn("Leaderboard could not be loaded up to rank " + rank, throwable);
+        return null;
+      });
+    } else {
+      leaderboard.loadAll().thenRun(() -> JavaFxUtil.runLater(() -> {
+        if (!text.equals(searchTextField.getText())) {
+          return;
+        }
+        int position = leaderboard.getIndex().indexOfName(text);
+        if (position != -1) {
+          ratingTable.scrollTo(position);
+          ratingTable.getSelectionModel().select(position);
+        } else {
+          ratingTable.getSelectionModel().clearSelection();
+        }
+      })).exceptionally(throwable -> {
+        logger.warn("Leaderboard could not be loaded to search for '" + text + "'", throwable);
+        return null;
+      });
+    }
+  }
+
   public Node getRoot() {
     return leaderboardRoot;
   }
@@ -0,0 +1,169 @@
+package com.faforever.client.leaderboard;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * The entries of a leaderboard that have been loaded so far, in order of rank. Instead of keeping an object with five
+ * properties per player, the values are stored in one array per column, and {@link LeaderboardEntry} objects are only
+ * created for the entries that are actually looked at. Players can be looked up by rank using a binary search, and by
+ * the beginning of their name using an index sorted by name, which is rebuilt on the first lookup after entries have
+ * been added. The rating distribution is counted as entries are added.
+ */
+public class LeaderboardIndex {
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private final RatingHistogram ratingHistogram;
+
+  private int size;
+  private String[] names;
+  private int[] ranks;
+  private float[] ratings;
+  private int[] gamesPlayed;
+  private float[] winLossRatios;
+  /** Indices of the entries sorted by name, case insensitive, or {@code null} if it needs to be rebuilt. */
+  private int[] nameOrder;
+
+  public LeaderboardIndex() {
+    ratingHistogram = new RatingHistogram();
+    names = new String[INITIAL_CAPACITY];
+    ranks = new int[INITIAL_CAPACITY];
+    ratings = new float[INITIAL_CAPACITY];
+    gamesPlayed = new int[INITIAL_CAPACITY];
+    winLossRatios = new float[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Adds entries that rank after all entries that have been added before.
+   */
+  public synchronized void addAll(List<LeaderboardEntry> entries) {
+    ensureCapacity(size + entries.size());
+    for (LeaderboardEntry entry : entries) {
+      names[size] = entry.getUsername();
+      // Ranks must be ascending for the binary search, fall back to the position if the server didn't send one
+      ranks[size] = entry.getRank() > 0 ? entry.getRank() : size + 1;
+      ratings[size] = (float) entry.getRating();
+      gamesPlayed[size] = entry.getGamesPlayed();
+      winLossRatios[size] = entry.getWinLossRatio();
+      ratingHistogram.add(entry.getRating(), entry.getGamesPlayed());
+      size++;
+    }
+    nameOrder = null;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Creates an entry with the values stored at the specified index.
+   */
+  public synchronized LeaderboardEntry get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+    LeaderboardEntry entry = new LeaderboardEntry();
+    entry.setUsername(names[index]);
+    entry.setRank(ranks[index]);
+    entry.setRating(ratings[index]);
+    entry.setGamesPlayed(gamesPlayed[index]);
+    entry.setWinLossRatio(winLossRatios[index]);
+    return entry;
+  }
+
+  /**
+   * Returns the index of the first entry with the specified or a worse rank, or {@code -1} if all entries rank better.
+   */
+  public synchronized int indexOfRank(int rank) {
+    int index = Arrays.binarySearch(ranks, 0, size, rank);
+    if (index < 0) {
+      index = -index - 1;
+    } else {
+      // Players with the same rating share a rank
+      while (index > 0 && ranks[index - 1] == rank) {
+        index--;
+      }
+    }
+    return index < size ? index : -1;
+  }
+
+  /**
+   * Returns the index of the best ranked player whose name starts with the specified text, ignoring case, or of the
+   * best ranked player whose name contains it if there is none, or {@code -1} if there is neither.
+   */
+  public synchronized int indexOfName(String text) {
+    if (nameOrder == null) {
+      nameOrder = IntStream.range(0, size)
+          .boxed()
+          .sorted((first, second) -> compareNames(names[first], names[second]))
+          .mapToInt(Integer::intValue)
+          .toArray();
+    }
+
+    int bestIndex = -1;
+    for (int i = firstNameNotBefore(text); i < size && startsWithIgnoreCase(names[nameOrder[i]], text); i++) {
+      if (bestIndex == -1 || nameOrder[i] < bestIndex) {
+        bestIndex = nameOrder[i];
+      }
+    }
+    if (bestIndex != -1) {
+      return bestIndex;
+    }
+
+    String lowerCaseText = text.toLowerCase(Locale.US);
+    for (int i = 0; i < size; i++) {
+      if (names[i] != null && names[i].toLowerCase(Locale.US).contains(lowerCaseText)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the number of players per rating of the entries that have been added so far, by ascending rating.
+   */
+  public synchronized List<RatingStat> getRatingStats() {
+    return ratingHistogram.toRatingStats();
+  }
+
+  /** Returns the position in {@link #nameOrder} of the first name that isn't sorted before the specified text. */
+  private int firstNameNotBefore(String text) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (compareNames(names[nameOrder[middle]], text) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static int compareNames(String first, String second) {
+    if (first == null) {
+      return second == null ? 0 : -1;
+    }
+    return second == null ? 1 : String.CASE_INSENSITIVE_ORDER.compare(first, second);
+  }
+
+  private static boolean startsWithIgnoreCase(String name, String prefix) {
+    return name != null && name.regionMatches(true, 0, prefix, 0, prefix.length());
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= names.length) {
+      return;
+    }
+    int newCapacity = Math.max(capacity, names.length * 2);
+    names = Arrays.copyOf(names, newCapacity);
+    ranks = Arrays.copyOf(ranks, newCapacity);
+    ratings = Arrays.copyOf(ratings, newCapacity);
+    gamesPlayed = Arrays.copyOf(gamesPlayed, newCapacity);
+    winLossRatios = Arrays.copyOf(winLossRatios, newCapacity);
+  }
+}
@@ -12,5 +12,9 @@ public interface LeaderboardService {
 
   CompletableFuture<LeaderboardEntry> getEntryForPlayer(int playerId);
 
-  CompletableFuture<List<LeaderboardEntry>> getEntries(KnownFeaturedMod ratingType);
+  /**
+   * Returns the leaderboard of the specified rating type as soon as its first page has been loaded. Further pages are
+   * loaded as they're needed.
+   */
+  CompletableFuture<Leaderboard> getLeaderboard(KnownFeaturedMod ratingType);
 }
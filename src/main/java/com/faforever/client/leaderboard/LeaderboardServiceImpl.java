@@ -1,53 +1,55 @@
 package com.faforever.client.leaderboard;
 
 import com.faforever.client.FafClientApplication;
+import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.game.KnownFeaturedMod;
 import com.faforever.client.remote.FafService;
-import com.faforever.client.util.RatingUtil;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.Executor;
 
 
 @Lazy
 @Service
 @Profile("!" + FafClientApplication.PROFILE_OFFLINE)
 public class LeaderboardServiceImpl implements LeaderboardService {
+
+  static final int PAGE_SIZE = 500;
+  /** How many pages are requested at the same time when a whole leaderboard is loaded. */
+  static final int MAX_CONCURRENT_PAGES = 4;
+
+  /** Leaderboards that haven't been looked at for this long are loaded anew, like the cache used to expire them. */
+  private static final long MAX_IDLE_NANOS = Duration.ofMinutes(5).toNanos();
+
   private final FafService fafService;
+  private final Executor uiExecutor;
+  private final Map<KnownFeaturedMod, Leaderboard> leaderboards;
+  private final Map<KnownFeaturedMod, Long> lastAccessNanos;
 
   @Inject
   public LeaderboardServiceImpl(FafService fafService) {
+    this(fafService, JavaFxUtil::runLater);
+  }
+
+  LeaderboardServiceImpl(FafService fafService, Executor uiExecutor) {
     this.fafService = fafService;
+    this.uiExecutor = uiExecutor;
+    leaderboards = new EnumMap<>(KnownFeaturedMod.class);
+    lastAccessNanos = new EnumMap<>(KnownFeaturedMod.class);
   }
 
   @Override
   public CompletableFuture<List<RatingStat>> getLadder1v1Stats() {
-    return fafService.getLadder1v1Leaderboard().thenApply(this::toRatingStats);
-  }
-
-  private List<RatingStat> toRatingStats(List<LeaderboardEntry> entries) {
-    Map<Integer, Long> totalCount = countByRating(entries.stream());
-    Map<Integer, Long> countWithoutFewGames = countByRating(entries.stream()
-        .filter(entry -> entry.gamesPlayedProperty().get() >= MINIMUM_GAMES_PLAYED_TO_BE_SHOWN));
-
-    return totalCount.entrySet().stream()
-        .map(entry -> new RatingStat(
-            entry.getKey(),
-            entry.getValue().intValue(),
-            countWithoutFewGames.getOrDefault(entry.getKey(), 0L).intValue()))
-        .collect(Collectors.toList());
-  }
-
-  private Map<Integer, Long> countByRating(Stream<LeaderboardEntry> entries) {
-    return entries.collect(Collectors.groupingBy(leaderboardEntry ->
-        RatingUtil.roundRatingToNextLowest100(leaderboardEntry.getRating()), Collectors.counting()));
+    Leaderboard leaderboard = getOrCreateLeaderboard(KnownFeaturedMod.LADDER_1V1);
+    return leaderboard.loadAll().thenApply(aVoid -> leaderboard.getIndex().getRatingStats());
   }
 
   @Override
@@ -56,12 +58,28 @@ public class LeaderboardServiceImpl implements LeaderboardService {
   }
 
   @Override
-  public CompletableFuture<List<LeaderboardEntry>> getEntries(KnownFeaturedMod ratingType) {
+  public CompletableFuture<Leaderboard> getLeaderboard(KnownFeaturedMod ratingType) {
+    Leaderboard leaderboard = getOrCreateLeaderboard(ratingType);
+    return leaderboard.loadUntil(1).thenApply(aVoid -> leaderboard);
+  }
+
+  private synchronized Leaderboard getOrCreateLeaderboard(KnownFeaturedMod ratingType) {
+    long now = System.nanoTime();
+    Long lastAccess = lastAccessNanos.put(ratingType, now);
+    Leaderboard leaderboard = leaderboards.get(ratingType);
+    if (leaderboard == null || now - lastAccess > MAX_IDLE_NANOS) {
+      leaderboard = new Leaderboard(getPageLoader(ratingType), PAGE_SIZE, MAX_CONCURRENT_PAGES, uiExecutor);
+      leaderboards.put(ratingType, leaderboard);
+    }
+    return leaderboard;
+  }
+
+  private Leaderboard.PageLoader getPageLoader(KnownFeaturedMod ratingType) {
     switch (ratingType) {
       case FAF:
-        return fafService.getGlobalLeaderboard();
+        return fafService::getGlobalLeaderboard;
       case LADDER_1V1:
-        return fafService.getLadder1v1Leaderboard();
+        return fafService::getLadder1v1Leaderboard;
       default:
         throw new IllegalArgumentException("Not supported: " + ratingType);
     }
@@ -1,6 +1,7 @@
 package com.faforever.client.leaderboard;
 
 import com.faforever.client.FafClientApplication;
+import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.game.KnownFeaturedMod;
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.task.CompletableTask;
@@ -24,6 +25,9 @@ import static com.faforever.client.task.CompletableTask.Priority.HIGH;
 @Profile(FafClientApplication.PROFILE_OFFLINE)
 public class MockLeaderboardService implements LeaderboardService {
 
+  private static final int PAGE_SIZE = 500;
+  private static final int NUMBER_OF_ENTRIES = 10000;
+
   private final TaskService taskService;
   private final I18n i18n;
 
@@ -44,14 +48,19 @@ public class MockLeaderboardService implements LeaderboardService {
   }
 
   @Override
-  public CompletableFuture<List<LeaderboardEntry>> getEntries(KnownFeaturedMod ratingType) {
+  public CompletableFuture<Leaderboard> getLeaderboard(KnownFeaturedMod ratingType) {
+    Leaderboard leaderboard = new Leaderboard(this::createPage, PAGE_SIZE, JavaFxUtil::runLater);
+    return leaderboard.loadUntil(1).thenApply(aVoid -> leaderboard);
+  }
+
+  private CompletableFuture<List<LeaderboardEntry>> createPage(int pageSize, int page) {
     return taskService.submitTask(new CompletableTask<List<LeaderboardEntry>>(HIGH) {
       @Override
       protected List<LeaderboardEntry> call() throws Exception {
         updateTitle("Reading ladder");
 
         List<LeaderboardEntry> list = new ArrayList<>();
-        for (int i = 1; i <= 10000; i++) {
+        for (int i = (page - 1) * pageSize + 1; i <= Math.min(page * pageSize, NUMBER_OF_ENTRIES); i++) {
           String name = RandomStringUtils.random(10);
           int rating = (int) (Math.random() * 2500);
           int gamecount = (int) (Math.random() * 10000);
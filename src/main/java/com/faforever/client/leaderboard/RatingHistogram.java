@@ -0,0 +1,79 @@
+package com.faforever.client.leaderboard;
+
+import com.faforever.client.util.RatingUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.faforever.client.leaderboard.LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN;
+
+/**
+ * Counts players by rating, rounded down to the next lowest 100, as they're added. Counts are kept in arrays indexed by
+ * bucket, which grow in both directions as ratings outside of the current range are added.
+ */
+final class RatingHistogram {
+
+  private static final int BUCKET_SIZE = 100;
+
+  /** Rating of the bucket at index 0. */
+  private int lowestRating;
+  private int[] totalCounts;
+  private int[] countsWithEnoughGamesPlayed;
+
+  RatingHistogram() {
+    totalCounts = new int[0];
+    countsWithEnoughGamesPlayed = new int[0];
+  }
+
+  void add(double rating, int gamesPlayed) {
+    int index = bucketIndex(RatingUtil.roundRatingToNextLowest100(rating));
+    totalCounts[index]++;
+    if (gamesPlayed >= MINIMUM_GAMES_PLAYED_TO_BE_SHOWN) {
+      countsWithEnoughGamesPlayed[index]++;
+    }
+  }
+
+  /**
+   * Returns the statistics of all ratings that have been added at least once, by ascending rating.
+   */
+  List<RatingStat> toRatingStats() {
+    List<RatingStat> ratingStats = new ArrayList<>();
+    for (int i = 0; i < totalCounts.length; i++) {
+      if (totalCounts[i] > 0) {
+        ratingStats.add(new RatingStat(lowestRating + i * BUCKET_SIZE, totalCounts[i], countsWithEnoughGamesPlayed[i]));
+      }
+    }
+    return ratingStats;
+  }
+
+  /** Returns the index of the bucket of the specified rating, after growing the arrays if necessary. */
+  private int bucketIndex(int roundedRating) {
+    if (totalCounts.length == 0) {
+      lowestRating = roundedRating;
+      totalCounts = new int[1];
+      countsWithEnoughGamesPlayed = new int[1];
+      return 0;
+    }
+
+    if (roundedRating < lowestRating) {
+      int additionalBuckets = (lowestRating - roundedRating) / BUCKET_SIZE;
+      totalCounts = prepend(totalCounts, additionalBuckets);
+      countsWithEnoughGamesPlayed = prepend(countsWithEnoughGamesPlayed, additionalBuckets);
+      lowestRating = roundedRating;
+    }
+
+    int index = (roundedRating - lowestRating) / BUCKET_SIZE;
+    if (index >= totalCounts.length) {
+      totalCounts = Arrays.copyOf(totalCounts, index + 1);
+      countsWithEnoughGamesPlayed = Arrays.copyOf(countsWithEnoughGamesPlayed, index + 1);
+    }
+    return index;
+  }
+
+  private static int[] prepend(int[] counts, int additionalBuckets) {
+    int[] result = new int[counts.length + additionalBuckets];
+    System.arraycopy(counts, 0, result, additionalBuckets, counts.length);
+    return result;
+  }
+}
@@ -1,9 +1,10 @@
 package com.faforever.client.map;
 
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.io.ZipInstaller;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.CompletableTask;
-import com.faforever.commons.io.Unzipper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
@@ -11,13 +12,12 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import java.io.BufferedInputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Objects;
-import java.util.zip.ZipInputStream;
+import java.util.concurrent.locks.Lock;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -27,16 +27,20 @@ public class DownloadMapTask extends CompletableTask<Void> {
 
   private final PreferencesService preferencesService;
   private final I18n i18n;
+  private final DownloadService downloadService;
+  private final ZipInstaller zipInstaller;
 
   private URL mapUrl;
   private String folderName;
 
   @Inject
-  public DownloadMapTask(PreferencesService preferencesService, I18n i18n) {
+  public DownloadMapTask(PreferencesService preferencesService, I18n i18n, DownloadService downloadService, ZipInstaller zipInstaller) {
     super(Priority.HIGH);
 
     this.preferencesService = preferencesService;
     this.i18n = i18n;
+    this.downloadService = downloadService;
+    this.zipInstaller = zipInstaller;
   }
 
   @Override
@@ -47,17 +51,23 @@ public class DownloadMapTask extends CompletableTask<Void> {
     updateTitle(i18n.get("mapDownloadTask.title", folderName));
     logger.info("Downloading map {} from {}", folderName, mapUrl);
 
-    URLConnection urlConnection = mapUrl.openConnection();
-    int bytesToRead = urlConnection.getContentLength();
+    Path downloadsDirectory = preferencesService.getCacheDirectory().resolve("downloads");
+    downloadService.deleteStalePartialDownloads(downloadsDirectory);
+    // Partially downloaded files are kept so that a failed download can be resumed
+    Path zipFile = downloadsDirectory.resolve(folderName + ".zip");
 
-    Path targetDirectory = preferencesService.getPreferences().getForgedAlliance().getCustomMapsDirectory();
+    // Another download of the same map must neither share the partial files nor replace the file while installing
+    Lock lock = downloadService.getTargetLock(zipFile);
+    lock.lockInterruptibly();
+    try {
+      downloadService.downloadFile(mapUrl, zipFile, this::updateProgress);
 
-    try (ZipInputStream inputStream = new ZipInputStream(new BufferedInputStream(urlConnection.getInputStream()))) {
-      Unzipper.from(inputStream)
-          .to(targetDirectory)
-          .totalBytes(bytesToRead)
-          .listener(this::updateProgress)
-          .unzip();
+      Path targetDirectory = preferencesService.getPreferences().getForgedAlliance().getCustomMapsDirectory();
+
+      zipInstaller.install(zipFile, targetDirectory, this::updateProgress);
+      Files.delete(zipFile);
+    } finally {
+      lock.unlock();
     }
 
     return null;
@@ -6,6 +6,9 @@ import com.faforever.client.config.ClientProperties.Vault;
 import com.faforever.client.fa.FaStrings;
 import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DirectoryWatchService;
+import com.faforever.client.io.DirectoryWatchService.Registration;
+import com.faforever.client.io.DownloadService;
 import com.faforever.client.map.MapBean.Type;
 import com.faforever.client.map.generator.MapGeneratedEvent;
 import com.faforever.client.map.generator.MapGeneratorService;
@@ -13,8 +16,10 @@ import com.faforever.client.preferences.ForgedAlliancePrefs;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.remote.AssetService;
 import com.faforever.client.remote.FafService;
+import com.faforever.client.startup.WarmUp;
 import com.faforever.client.task.CompletableTask;
 import com.faforever.client.task.CompletableTask.Priority;
+import com.faforever.client.task.CompletableTask.ResourceClass;
 import com.faforever.client.task.TaskService;
 import com.faforever.client.theme.UiService;
 import com.faforever.client.util.ProgrammingError;
@@ -50,30 +55,30 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
-import static com.faforever.client.util.LuaUtil.loadFile;
+import static com.faforever.client.util.LuaUtil.loadDataFile;
 import static com.github.nocatch.NoCatch.noCatch;
 import static com.google.common.net.UrlEscapers.urlFragmentEscaper;
 import static java.lang.String.format;
 import static java.nio.file.Files.list;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.util.stream.Collectors.toCollection;
 
 
 @Lazy
 @Service
-public class MapService implements InitializingBean, DisposableBean {
+public class MapService implements InitializingBean, DisposableBean, WarmUp {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
@@ -86,6 +91,8 @@ public class MapService implements InitializingBean, DisposableBean {
   private final UiService uiService;
   private final MapGeneratorService mapGeneratorService;
   private final EventBus eventBus;
+  private final DirectoryWatchService directoryWatchService;
+  private final DownloadService downloadService;
 
   private final String mapDownloadUrlFormat;
   private final String mapPreviewUrlFormat;
@@ -93,15 +100,20 @@ public class MapService implements InitializingBean, DisposableBean {
 
   private Map<Path, MapBean> pathToMap;
   private ObservableList<MapBean> installedSkirmishMaps;
+  /**
+   * Index of {@link #installedSkirmishMaps} by lower case folder name, maintained by a list listener. Both must only be
+   * accessed while holding the monitor of {@link #installedSkirmishMaps}.
+   */
   private Map<String, MapBean> mapsByFolderName;
-  private Thread directoryWatcherThread;
+  private Registration directoryWatchRegistration;
   private Path customMapsDirectory;
 
   @Inject
   public MapService(PreferencesService preferencesService, TaskService taskService,
                     ApplicationContext applicationContext,
                     FafService fafService, AssetService assetService,
-                    I18n i18n, UiService uiService, ClientProperties clientProperties, MapGeneratorService mapGeneratorService, EventBus eventBus) {
+                    I18n i18n, UiService uiService, ClientProperties clientProperties, MapGeneratorService mapGeneratorService, EventBus eventBus,
+                    DirectoryWatchService directoryWatchService, DownloadService downloadService) {
     this.preferencesService = preferencesService;
     this.forgedAlliancePreferences = preferencesService.getPreferences().getForgedAlliance();
     this.taskService = taskService;
@@ -112,6 +124,8 @@ public class MapService implements InitializingBean, DisposableBean {
     this.uiService = uiService;
     this.mapGeneratorService = mapGeneratorService;
     this.eventBus = eventBus;
+    this.directoryWatchService = directoryWatchService;
+    this.downloadService = downloadService;
 
     Vault vault = clientProperties.getVault();
     this.mapDownloadUrlFormat = vault.getMapDownloadUrlFormat();
@@ -124,15 +138,19 @@ public class MapService implements InitializingBean, DisposableBean {
     installedSkirmishMaps.addListener((ListChangeListener<MapBean>) change -> {
       while (change.next()) {
         for (MapBean mapBean : change.getRemoved()) {
-          mapsByFolderName.remove(mapBean.getFolderName().toLowerCase());
+          mapsByFolderName.remove(toFolderNameKey(mapBean.getFolderName()));
         }
         for (MapBean mapBean : change.getAddedSubList()) {
-          mapsByFolderName.put(mapBean.getFolderName().toLowerCase(), mapBean);
+          mapsByFolderName.put(toFolderNameKey(mapBean.getFolderName()), mapBean);
         }
       }
     });
   }
 
+  private static String toFolderNameKey(String folderName) {
+    return folderName.toLowerCase(Locale.US);
+  }
+
   private static URL getDownloadUrl(String mapName, String baseUrl) {
     return noCatch(() -> new URL(format(baseUrl, urlFragmentEscaper().escape(mapName).toLowerCase(Locale.US))));
   }
@@ -146,20 +164,26 @@ public class MapService implements InitializingBean, DisposableBean {
     eventBus.register(this);
     JavaFxUtil.addListener(forgedAlliancePreferences.pathProperty(), observable -> tryLoadMaps());
     JavaFxUtil.addListener(forgedAlliancePreferences.customMapsDirectoryProperty(), observable -> tryLoadMaps());
+  }
+
+  /**
+   * Starts reading the installed maps, which isn't needed to show the main window.
+   */
+  @Override
+  public void warmUp() {
     tryLoadMaps();
   }
 
-  private void tryLoadMaps() {
+  private synchronized void tryLoadMaps() {
     customMapsDirectory = forgedAlliancePreferences.getCustomMapsDirectory();
     if (forgedAlliancePreferences.getPath() == null
         || customMapsDirectory == null) {
       return;
     }
-    installedSkirmishMaps.clear();
     try {
       Files.createDirectories(customMapsDirectory);
-      Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
-      directoryWatcherThread = startDirectoryWatcher(customMapsDirectory);
+      Optional.ofNullable(directoryWatchRegistration).ifPresent(Registration::cancel);
+      directoryWatchRegistration = directoryWatchService.watch(customMapsDirectory, this::onMapDirectoryChanged);
     } catch (IOException e) {
       logger.warn("Could not start map directory watcher", e);
       // TODO notify user
@@ -167,29 +191,22 @@ public class MapService implements InitializingBean, DisposableBean {
     loadInstalledMaps();
   }
 
-  private Thread startDirectoryWatcher(Path mapsDirectory) {
-    Thread thread = new Thread(() -> noCatch(() -> {
-      WatchService watcher = mapsDirectory.getFileSystem().newWatchService();
-      customMapsDirectory.register(watcher, ENTRY_DELETE);
-
-      try {
-        while (!Thread.interrupted()) {
-          WatchKey key = watcher.take();
-          key.pollEvents().stream()
-              .filter(event -> event.kind() == ENTRY_DELETE)
-              .forEach(event -> removeMap(mapsDirectory.resolve((Path) event.context())));
-          key.reset();
-        }
-      } catch (InterruptedException e) {
-        logger.debug("Watcher terminated ({})", e.getMessage());
-      }
-    }));
-    thread.start();
-    return thread;
+  private void onMapDirectoryChanged(Path mapPath) {
+    if (Files.isDirectory(mapPath)) {
+      logger.debug("Map directory has been added or changed: {}", mapPath);
+      addSkirmishMap(mapPath);
+    } else {
+      logger.debug("Map directory has been removed: {}", mapPath);
+      removeMap(mapPath);
+    }
   }
 
+  /**
+   * Reads all maps that are not yet known and removes known maps that are no longer in any of the maps directories,
+   * e.g. after the game or custom maps directory has changed.
+   */
   private void loadInstalledMaps() {
-    taskService.submitTask(new CompletableTask<Void>(Priority.LOW) {
+    taskService.submitTask(new CompletableTask<Void>(Priority.LOW, ResourceClass.DISK) {
 
       protected Void call() {
         updateTitle(i18n.get("mapVault.loadingMaps"));
@@ -202,11 +219,23 @@ public class MapService implements InitializingBean, DisposableBean {
               .map(map -> officialMapsPath.resolve(map.name()))
               .collect(toCollection(() -> mapPaths));
 
+          Set<Path> mapPathSet = new HashSet<>(mapPaths);
+          Set<Path> knownMapPaths;
+          synchronized (installedSkirmishMaps) {
+            knownMapPaths = new HashSet<>(pathToMap.keySet());
+          }
+          knownMapPaths.stream()
+              .filter(path -> !mapPathSet.contains(path))
+              .forEach(MapService.this::removeMap);
+
           long totalMaps = mapPaths.size();
           long mapsRead = 0;
           for (Path mapPath : mapPaths) {
+            checkCancelled();
             updateProgress(++mapsRead, totalMaps);
-            addSkirmishMap(mapPath);
+            if (!knownMapPaths.contains(mapPath)) {
+              addSkirmishMap(mapPath);
+            }
           }
         } catch (IOException e) {
           logger.warn("Maps could not be read from: " + customMapsDirectory, e);
@@ -217,15 +246,22 @@ public class MapService implements InitializingBean, DisposableBean {
   }
 
   private void removeMap(Path path) {
-    installedSkirmishMaps.remove(pathToMap.remove(path));
+    synchronized (installedSkirmishMaps) {
+      installedSkirmishMaps.remove(pathToMap.remove(path));
+    }
   }
 
   private void addSkirmishMap(Path path) throws MapLoadException {
     try {
       MapBean mapBean = readMap(path);
-      pathToMap.put(path, mapBean);
-      if (!mapsByFolderName.containsKey(mapBean.getFolderName()) && mapBean.getType() == Type.SKIRMISH) {
-        installedSkirmishMaps.add(mapBean);
+      synchronized (installedSkirmishMaps) {
+        MapBean previousMapBean = pathToMap.put(path, mapBean);
+        if (previousMapBean != null) {
+          installedSkirmishMaps.remove(previousMapBean);
+        }
+        if (!mapsByFolderName.containsKey(toFolderNameKey(mapBean.getFolderName())) && mapBean.getType() == Type.SKIRMISH) {
+          installedSkirmishMaps.add(mapBean);
+        }
       }
     } catch (MapLoadException e) {
       logger.warn("Map could not be read: " + path.getFileName(), e);
@@ -250,7 +286,7 @@ public class MapService implements InitializingBean, DisposableBean {
           .findFirst()
           .orElseThrow(() -> new MapLoadException("Map folder does not contain a *_scenario.lua: " + mapFolder.toAbsolutePath()));
 
-      LuaValue luaRoot = noCatch(() -> loadFile(scenarioLuaPath), MapLoadException.class);
+      LuaValue luaRoot = noCatch(() -> loadDataFile(scenarioLuaPath), MapLoadException.class);
       LuaValue scenarioInfo = luaRoot.get("ScenarioInfo");
       LuaValue size = scenarioInfo.get("size");
 
@@ -292,16 +328,14 @@ public class MapService implements InitializingBean, DisposableBean {
 
   public Optional<MapBean> getMapLocallyFromName(String mapFolderName) {
     logger.debug("Trying to find map '{}' locally", mapFolderName);
-    ObservableList<MapBean> installedMaps = getInstalledMaps();
-    synchronized (installedMaps) {
-      for (MapBean mapBean : installedMaps) {
-        if (mapFolderName.equalsIgnoreCase(mapBean.getFolderName())) {
-          logger.debug("Found map {} locally", mapFolderName);
-          return Optional.of(mapBean);
-        }
-      }
+    MapBean mapBean;
+    synchronized (installedSkirmishMaps) {
+      mapBean = mapsByFolderName.get(toFolderNameKey(mapFolderName));
+    }
+    if (mapBean != null) {
+      logger.debug("Found map {} locally", mapFolderName);
     }
-    return Optional.empty();
+    return Optional.ofNullable(mapBean);
   }
 
 
@@ -315,7 +349,9 @@ public class MapService implements InitializingBean, DisposableBean {
    */
 
   public boolean isInstalled(String mapFolderName) {
-    return mapsByFolderName.containsKey(mapFolderName.toLowerCase());
+    synchronized (installedSkirmishMaps) {
+      return mapsByFolderName.containsKey(toFolderNameKey(mapFolderName));
+    }
   }
 
 
@@ -374,7 +410,7 @@ public class MapService implements InitializingBean, DisposableBean {
   @Cacheable(CacheNames.MAP_PREVIEW)
   public Image loadPreview(URL url, PreviewSize previewSize) {
     return assetService.loadAndCacheImage(url, Paths.get("maps").resolve(previewSize.folderName),
-        () -> uiService.getThemeImage(UiService.UNKNOWN_MAP_IMAGE));
+        () -> uiService.getThemeImage(UiService.UNKNOWN_MAP_IMAGE), previewSize.pixels, previewSize.pixels);
   }
 
 
@@ -434,14 +470,15 @@ public class MapService implements InitializingBean, DisposableBean {
 
   @Async
   public CompletableFuture<Integer> getFileSize(URL downloadUrl) {
-    return CompletableFuture.completedFuture(noCatch(() -> downloadUrl
-        .openConnection()
-        .getContentLength()));
+    return CompletableFuture.completedFuture(noCatch(() -> (int) downloadService.getContentLength(downloadUrl)));
   }
 
 
-  public CompletableFuture<List<MapBean>> findByQuery(SearchConfig searchConfig, int page, int count) {
-    return fafService.findMapsByQuery(searchConfig, page, count);
+  /**
+   * Searches a page of maps and passes them to {@code mapsConsumer} in smaller chunks as soon as they are loaded.
+   */
+  public CompletableFuture<Void> findByQuery(SearchConfig searchConfig, int page, int count, Consumer<List<MapBean>> mapsConsumer) {
+    return fafService.findMapsByQuery(searchConfig, page, count, mapsConsumer);
   }
 
 
@@ -491,7 +528,7 @@ public class MapService implements InitializingBean, DisposableBean {
 
   @Override
   public void destroy() {
-    Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
+    Optional.ofNullable(directoryWatchRegistration).ifPresent(Registration::cancel);
   }
 
   public enum OfficialMap {
@@ -517,12 +554,15 @@ public class MapService implements InitializingBean, DisposableBean {
 
   public enum PreviewSize {
     // These must match the preview URLs
-    SMALL("small"), LARGE("large");
+    SMALL("small", 128), LARGE("large", 512);
 
     String folderName;
+    /** Width and height a preview of this size is decoded at. */
+    int pixels;
 
-    PreviewSize(String folderName) {
+    PreviewSize(String folderName, int pixels) {
       this.folderName = folderName;
+      this.pixels = pixels;
     }
   }
 }
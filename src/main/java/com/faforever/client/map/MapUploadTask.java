@@ -2,9 +2,11 @@ package com.faforever.client.map;
 
 import com.faforever.client.api.FafApiAccessor;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.TransferScheduler;
+import com.faforever.client.io.TransferScheduler.Direction;
+import com.faforever.client.io.TransferScheduler.Permit;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.CompletableTask;
-import com.faforever.client.task.ResourceLocks;
 import com.faforever.client.util.Validator;
 import com.faforever.commons.io.ByteCountListener;
 import com.faforever.commons.io.Zipper;
@@ -36,16 +38,18 @@ public class MapUploadTask extends CompletableTask<Void> implements Initializing
   private final PreferencesService preferencesService;
   private final FafApiAccessor fafApiAccessor;
   private final I18n i18n;
+  private final TransferScheduler transferScheduler;
 
   private Path mapPath;
   private Boolean isRanked;
 
   @Inject
-  public MapUploadTask(PreferencesService preferencesService, FafApiAccessor fafApiAccessor, I18n i18n) {
+  public MapUploadTask(PreferencesService preferencesService, FafApiAccessor fafApiAccessor, I18n i18n, TransferScheduler transferScheduler) {
     super(Priority.HIGH);
     this.preferencesService = preferencesService;
     this.fafApiAccessor = fafApiAccessor;
     this.i18n = i18n;
+    this.transferScheduler = transferScheduler;
   }
 
   @Override
@@ -58,7 +62,6 @@ public class MapUploadTask extends CompletableTask<Void> implements Initializing
     Validator.notNull(mapPath, "mapPath must not be null");
     Validator.notNull(isRanked, "isRanked must not be null");
 
-    ResourceLocks.acquireUploadLock();
     Path cacheDirectory = preferencesService.getCacheDirectory();
     Files.createDirectories(cacheDirectory);
     Path tmpFile = createTempFile(cacheDirectory, "map", ".zip");
@@ -83,11 +86,12 @@ public class MapUploadTask extends CompletableTask<Void> implements Initializing
       logger.debug("Uploading map {} as {}", mapPath, tmpFile);
       updateTitle(i18n.get("mapVault.upload.uploading"));
 
-      fafApiAccessor.uploadMap(tmpFile, isRanked, byteListener);
+      try (Permit permit = transferScheduler.acquire(Direction.UPLOAD, null, Priority.MEDIUM)) {
+        fafApiAccessor.uploadMap(tmpFile, isRanked, permit.countingListener(byteListener));
+      }
       return null;
     } finally {
       Files.delete(tmpFile);
-      ResourceLocks.freeUploadLock();
     }
   }
 
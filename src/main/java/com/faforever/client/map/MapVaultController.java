@@ -46,6 +46,8 @@ import java.lang.invoke.MethodHandles;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -93,7 +95,10 @@ public class MapVaultController extends AbstractViewController<Node> {
   public Button ownedMoreButton;
   private MapDetailController mapDetailController;
   private int currentPage;
-  private Supplier<CompletableFuture<List<MapBean>>> currentSupplier;
+  /** Loads the next page of maps and passes them on, possibly in several chunks. */
+  private Function<Consumer<List<MapBean>>, CompletableFuture<Void>> currentLoader;
+  /** The loading of the page that is currently being shown, so that it can be cancelled for another one. */
+  private CompletableFuture<Void> currentLoad;
 
   public MapVaultController(MapService mapService, I18n i18n, EventBus eventBus, PreferencesService preferencesService,
                             UiService uiService, NotificationService notificationService, ReportingService reportingService,
@@ -144,7 +149,7 @@ public class MapVaultController extends AbstractViewController<Node> {
   private void searchByQuery(SearchConfig searchConfig) {
     SearchConfig newSearchConfig = new SearchConfig(searchConfig.getSortConfig(), searchConfig.getSearchQuery() + ";latestVersion.hidden==\"false\"");
     enterLoadingState();
-    displayMapsFromSupplier(() -> mapService.findByQuery(newSearchConfig, ++currentPage, MAX_SEARCH_RESULTS));
+    displayMapsFromLoader(mapsConsumer -> mapService.findByQuery(newSearchConfig, ++currentPage, MAX_SEARCH_RESULTS, mapsConsumer));
   }
 
   @Override
@@ -256,16 +261,8 @@ public class MapVaultController extends AbstractViewController<Node> {
         break;
       case SEARCH_RESULT:
         currentPage--;
-        currentSupplier.get()
-            .thenAccept(this::displayMaps)
-            .exceptionally(throwable -> {
-              notificationService.addNotification(new ImmediateErrorNotification(
-                  i18n.get("errorTitle"), i18n.get("vault.mods.searchError"),
-                  throwable, i18n, reportingService
-              ));
-              enterShowroomState();
-              return null;
-            });
+        Platform.runLater(() -> searchResultPane.getChildren().clear());
+        loadNextPage();
         break;
       default:
         // Do nothing
@@ -273,6 +270,7 @@ public class MapVaultController extends AbstractViewController<Node> {
   }
 
   public void onBackButtonClicked() {
+    cancelCurrentLoad();
     enterShowroomState();
   }
 
@@ -333,11 +331,35 @@ public class MapVaultController extends AbstractViewController<Node> {
   }
 
   private void displayMapsFromSupplier(Supplier<CompletableFuture<List<MapBean>>> mapsSupplier) {
+    displayMapsFromLoader(mapsConsumer -> mapsSupplier.get().thenAccept(mapsConsumer));
+  }
+
+  private void displayMapsFromLoader(Function<Consumer<List<MapBean>>, CompletableFuture<Void>> mapsLoader) {
+    cancelCurrentLoad();
     currentPage = 0;
-    this.currentSupplier = mapsSupplier;
-    mapsSupplier.get()
-        .thenAccept(this::displayMaps)
+    this.currentLoader = mapsLoader;
+    Platform.runLater(() -> searchResultPane.getChildren().clear());
+    loadNextPage();
+  }
+
+  /**
+   * Loads the next page of maps and shows each chunk of it as soon as it arrives.
+   */
+  private void loadNextPage() {
+    CompletableFuture<Void> load = currentLoader.apply(maps -> {
+      appendSearchResult(maps, searchResultPane);
+      Platform.runLater(() -> {
+        showroomGroup.setVisible(false);
+        searchResultGroup.setVisible(true);
+      });
+    });
+    currentLoad = load;
+    load
+        .thenRun(() -> Platform.runLater(this::enterSearchResultState))
         .exceptionally(throwable -> {
+          if (load.isCancelled()) {
+            return null;
+          }
           notificationService.addNotification(new ImmediateErrorNotification(
               i18n.get("errorTitle"),
               i18n.get("vault.maps.searchError"),
@@ -350,29 +372,16 @@ public class MapVaultController extends AbstractViewController<Node> {
         });
   }
 
-  private void displayMaps(List<MapBean> maps) {
-    Platform.runLater(() -> searchResultPane.getChildren().clear());
-    appendSearchResult(maps, searchResultPane);
-    Platform.runLater(this::enterSearchResultState);
+  private void cancelCurrentLoad() {
+    if (currentLoad != null) {
+      currentLoad.cancel(true);
+    }
   }
 
   public void onLoadMoreButtonClicked() {
     moreButton.setVisible(false);
     loadingLabel.setVisible(true);
-
-    currentSupplier.get()
-        .thenAccept(maps -> {
-          appendSearchResult(maps, searchResultPane);
-          enterSearchResultState();
-        })
-        .exceptionally(throwable -> {
-          notificationService.addNotification(new ImmediateErrorNotification(
-              i18n.get("errorTitle"), i18n.get("vault.maps.searchError"),
-              throwable, i18n, reportingService
-          ));
-          enterShowroomState();
-          return null;
-        });
+    loadNextPage();
   }
 
   private enum State {
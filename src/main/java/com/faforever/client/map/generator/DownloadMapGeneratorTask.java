@@ -3,9 +3,8 @@ package com.faforever.client.map.generator;
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
 import com.faforever.client.task.CompletableTask;
-import com.faforever.client.task.ResourceLocks;
-import com.faforever.commons.io.ByteCopier;
 import com.google.common.annotations.VisibleForTesting;
 import lombok.Getter;
 import lombok.Setter;
@@ -16,15 +15,9 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.URL;
-import java.net.URLConnection;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.Objects;
 
 @Component
@@ -36,6 +29,7 @@ public class DownloadMapGeneratorTask extends CompletableTask<Void> {
   private final ClientProperties clientProperties;
   private final I18n i18n;
   private final PlatformService platformService;
+  private final DownloadService downloadService;
 
   @Setter
   @Getter
@@ -43,13 +37,14 @@ public class DownloadMapGeneratorTask extends CompletableTask<Void> {
   private String version;
 
   @Inject
-  public DownloadMapGeneratorTask(MapGeneratorService mapGeneratorService, ClientProperties clientProperties, I18n i18n, PlatformService platformService) {
+  public DownloadMapGeneratorTask(MapGeneratorService mapGeneratorService, ClientProperties clientProperties, I18n i18n, PlatformService platformService, DownloadService downloadService) {
     super(Priority.HIGH);
 
     this.mapGeneratorService = mapGeneratorService;
     this.clientProperties = clientProperties;
     this.i18n = i18n;
     this.platformService = platformService;
+    this.downloadService = downloadService;
   }
 
   @Override
@@ -60,28 +55,9 @@ public class DownloadMapGeneratorTask extends CompletableTask<Void> {
 
     URL url = new URL(String.format(clientProperties.getMapGenerator().getMapGeneratorReleaseUrl(), version));
 
-    URLConnection urlConnection = url.openConnection();
-
     Path targetFile = mapGeneratorService.getGeneratorExecutablePath().resolve(String.format(MapGeneratorService.GENERATOR_EXECUTABLE_FILENAME, version));
-    Path tempFile = Files.createTempFile(targetFile.getParent(), "generator", null);
-
-    ResourceLocks.acquireDownloadLock();
-    try (InputStream inputStream = url.openStream(); OutputStream outputStream = Files.newOutputStream(tempFile)) {
-      ByteCopier.from(inputStream)
-          .to(outputStream)
-          .totalBytes(urlConnection.getContentLength())
-          .listener(this::updateProgress)
-          .copy();
-
-      Files.move(tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
-    } finally {
-      ResourceLocks.freeDownloadLock();
-      try {
-        Files.deleteIfExists(tempFile);
-      } catch (IOException e) {
-        logger.warn("Could not delete temporary file: " + tempFile.toAbsolutePath(), e);
-      }
-    }
+    logger.info("Downloading map generator from {} to {}", url, targetFile);
+    downloadService.downloadFile(url, targetFile, this::updateProgress, null, Priority.HIGH);
 
     platformService.setUnixExecutableAndWritableBits(targetFile);
 
@@ -2,6 +2,7 @@ package com.faforever.client.map.generator;
 
 import com.faforever.client.io.FileUtils;
 import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.startup.WarmUp;
 import com.faforever.client.task.TaskService;
 import com.google.common.annotations.VisibleForTesting;
 import javafx.scene.image.Image;
@@ -12,7 +13,6 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -27,7 +27,7 @@ import static com.github.nocatch.NoCatch.noCatch;
 @Lazy
 @Service
 @Slf4j
-public class MapGeneratorService {
+public class MapGeneratorService implements WarmUp {
 
   /**
    * Naming template for generated maps. It is all lower case because server expects lower case names for maps.
@@ -79,8 +79,11 @@ public class MapGeneratorService {
     }
   }
 
-  @PostConstruct
-  public void postConstruct() {
+  /**
+   * Deletes the maps generated in previous sessions, which isn't needed to show the main window.
+   */
+  @Override
+  public void warmUp() {
     deleteGeneratedMaps();
   }
 
@@ -1,12 +1,10 @@
 package com.faforever.client.mod;
 
 import com.faforever.client.i18n.I18n;
-import com.faforever.client.io.FileUtils;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.io.ZipInstaller;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.CompletableTask;
-import com.faforever.client.task.ResourceLocks;
-import com.faforever.commons.io.ByteCopier;
-import com.faforever.commons.io.Unzipper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
@@ -15,17 +13,12 @@ import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.URL;
-import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Objects;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.concurrent.locks.Lock;
 
 import static com.faforever.client.task.CompletableTask.Priority.HIGH;
 
@@ -37,49 +30,50 @@ public class InstallModTask extends CompletableTask<Void> {
 
   private final PreferencesService preferencesService;
   private final I18n i18n;
+  private final DownloadService downloadService;
+  private final ZipInstaller zipInstaller;
 
   private URL url;
 
   @Inject
-  public InstallModTask(PreferencesService preferencesService, I18n i18n) {
+  public InstallModTask(PreferencesService preferencesService, I18n i18n, DownloadService downloadService, ZipInstaller zipInstaller) {
     super(HIGH);
 
     this.preferencesService = preferencesService;
     this.i18n = i18n;
+    this.downloadService = downloadService;
+    this.zipInstaller = zipInstaller;
   }
 
   @Override
   protected Void call() throws Exception {
     Objects.requireNonNull(url, "url has not been set");
 
-    Path tempFile = Files.createTempFile(preferencesService.getCacheDirectory(), "mod", null);
+    String urlPath = url.getPath();
+    Path downloadsDirectory = preferencesService.getCacheDirectory().resolve("downloads");
+    downloadService.deleteStalePartialDownloads(downloadsDirectory);
+    // Partially downloaded files are kept so that a failed download can be resumed
+    Path tempFile = downloadsDirectory.resolve(urlPath.substring(urlPath.lastIndexOf('/') + 1));
 
-    logger.info("Downloading mod {} to {}", url, tempFile);
-    updateTitle(i18n.get("downloadingModTask.downloading", url));
+    // Another installation of the same mod must neither share the partial files nor replace the file while extracting
+    Lock lock = downloadService.getTargetLock(tempFile);
+    lock.lockInterruptibly();
+    try {
+      logger.info("Downloading mod {} to {}", url, tempFile);
+      updateTitle(i18n.get("downloadingModTask.downloading", url));
 
-    Files.createDirectories(tempFile.getParent());
-
-    URLConnection urlConnection = url.openConnection();
-    int contentLength = urlConnection.getContentLength();
-
-    ResourceLocks.acquireDownloadLock();
-    try (InputStream inputStream = urlConnection.getInputStream();
-         OutputStream outputStream = Files.newOutputStream(tempFile)) {
-
-      ByteCopier.from(inputStream)
-          .to(outputStream)
-          .listener(this::updateProgress)
-          .totalBytes(contentLength)
-          .copy();
-
-      extractMod(tempFile);
-    } finally {
-      ResourceLocks.freeDownloadLock();
+      downloadService.downloadFile(url, tempFile, this::updateProgress);
       try {
-        Files.deleteIfExists(tempFile);
-      } catch (IOException e) {
-        logger.warn("Could not delete temporary file: " + tempFile.toAbsolutePath(), e);
+        extractMod(tempFile);
+      } finally {
+        try {
+          Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+          logger.warn("Could not delete temporary file: " + tempFile.toAbsolutePath(), e);
+        }
       }
+    } finally {
+      lock.unlock();
     }
     return null;
   }
@@ -89,44 +83,9 @@ public class InstallModTask extends CompletableTask<Void> {
 
     updateTitle(i18n.get("downloadingModTask.unzipping", modsDirectory));
 
-    deleteOldModIfExisting(tempFile, modsDirectory);
-
     logger.info("Unzipping {} to {}", tempFile, modsDirectory);
-    try (ZipInputStream zipInputStream = new ZipInputStream(Files.newInputStream(tempFile))) {
-      ResourceLocks.acquireDiskLock();
-
-      Unzipper.from(zipInputStream)
-          .to(modsDirectory)
-          .listener(this::updateProgress)
-          .totalBytes(Files.size(tempFile))
-          .unzip();
-
-    } finally {
-      ResourceLocks.freeDiskLock();
-    }
-  }
-
-  private void deleteOldModIfExisting(Path tempFile, Path modsDirectory) {
-    try (ZipInputStream zipInputStream = new ZipInputStream(Files.newInputStream(tempFile))) {
-      ZipEntry zipEntry = zipInputStream.getNextEntry();
-      Path pathToEntry = Paths.get(zipEntry.getName());
-      Path topLevelDirectory = getTopLevelDirectory(pathToEntry);
-      Path modDirectory = modsDirectory.resolve(topLevelDirectory);
-      if (Files.isDirectory(modDirectory)) {
-        FileUtils.deleteRecursively(modDirectory);
-        logger.trace("Deleting old version of the mod stored in {}", modDirectory);
-      }
-    } catch (Exception e) {
-      logger.warn("Could not delete directory of old mod", e);
-    }
-  }
-
-  private Path getTopLevelDirectory(Path pathToEntry) {
-    Path cutOffPath = pathToEntry;
-    while (cutOffPath.getParent() != null) {
-      cutOffPath = pathToEntry.getParent();
-    }
-    return cutOffPath;
+    // Replaces an older version of the mod, if installed
+    zipInstaller.install(tempFile, modsDirectory, this::updateProgress);
   }
 
   public void setUrl(URL url) {
@@ -4,6 +4,8 @@ import com.faforever.client.config.CacheNames;
 import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DirectoryWatchService;
+import com.faforever.client.io.DirectoryWatchService.Registration;
 import com.faforever.client.mod.ModVersion.ModType;
 import com.faforever.client.notification.Action;
 import com.faforever.client.notification.NotificationService;
@@ -12,15 +14,17 @@ import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.query.SearchablePropertyMappings;
 import com.faforever.client.remote.AssetService;
 import com.faforever.client.remote.FafService;
+import com.faforever.client.startup.WarmUp;
 import com.faforever.client.task.CompletableTask;
 import com.faforever.client.task.TaskService;
 import com.faforever.client.util.IdenticonUtil;
+import com.faforever.client.util.LuaLiteralParser;
 import com.faforever.client.vault.search.SearchController.SearchConfig;
 import com.faforever.client.vault.search.SearchController.SortConfig;
 import com.faforever.client.vault.search.SearchController.SortOrder;
 import com.faforever.commons.mod.ModLoadException;
 import com.faforever.commons.mod.ModReader;
-import javafx.beans.InvalidationListener;
+import com.google.common.io.ByteStreams;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
@@ -30,6 +34,7 @@ import lombok.SneakyThrows;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.luaj.vm2.LuaTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
@@ -42,6 +47,7 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
@@ -51,31 +57,28 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static com.faforever.client.notification.Severity.WARN;
-import static com.github.nocatch.NoCatch.noCatch;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.file.Files.createDirectories;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.util.Collections.singletonList;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
 @Lazy
 @Service
-public class ModService implements InitializingBean, DisposableBean {
+public class ModService implements InitializingBean, DisposableBean, WarmUp {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
@@ -91,20 +94,30 @@ public class ModService implements InitializingBean, DisposableBean {
   private final PlatformService platformService;
   private final AssetService assetService;
   private final ModReader modReader;
+  private final DirectoryWatchService directoryWatchService;
 
   private Path modsDirectory;
   private Map<Path, ModVersion> pathToMod;
   private ObservableList<ModVersion> installedModVersions;
+  /**
+   * Indexes of {@link #installedModVersions} by mod UID. Like {@link #pathToMod}, these must only be accessed while
+   * holding the monitor of {@link #installedModVersions}.
+   */
+  private Map<String, ModVersion> modVersionsByUid;
+  private Map<String, Path> modPathsByUid;
   private ObservableList<ModVersion> readOnlyInstalledModVersions;
-  private Thread directoryWatcherThread;
+  private Registration directoryWatchRegistration;
 
   @Inject
   // TODO divide and conquer
   public ModService(TaskService taskService, FafService fafService, PreferencesService preferencesService,
                     ApplicationContext applicationContext,
                     NotificationService notificationService, I18n i18n,
-                    PlatformService platformService, AssetService assetService) {
+                    PlatformService platformService, AssetService assetService,
+                    DirectoryWatchService directoryWatchService) {
     pathToMod = new HashMap<>();
+    modVersionsByUid = new HashMap<>();
+    modPathsByUid = new HashMap<>();
     modReader = new ModReader();
     installedModVersions = FXCollections.observableArrayList();
     readOnlyInstalledModVersions = FXCollections.unmodifiableObservableList(installedModVersions);
@@ -116,26 +129,35 @@ public class ModService implements InitializingBean, DisposableBean {
     this.i18n = i18n;
     this.platformService = platformService;
     this.assetService = assetService;
+    this.directoryWatchService = directoryWatchService;
   }
 
   @Override
   public void afterPropertiesSet() {
-    InvalidationListener modDirectoryChangedListener = observable -> {
-      modsDirectory = preferencesService.getPreferences().getForgedAlliance().getModsDirectory();
-      if (modsDirectory != null) {
-        installedModVersions.clear();
-        onModDirectoryReady();
-      }
-    };
-    modDirectoryChangedListener.invalidated(preferencesService.getPreferences().getForgedAlliance().modsDirectoryProperty());
-    JavaFxUtil.addListener(preferencesService.getPreferences().getForgedAlliance().modsDirectoryProperty(), modDirectoryChangedListener);
+    JavaFxUtil.addListener(preferencesService.getPreferences().getForgedAlliance().modsDirectoryProperty(),
+        observable -> tryLoadMods());
+  }
+
+  /**
+   * Reads the installed mods, which isn't needed to show the main window.
+   */
+  @Override
+  public void warmUp() {
+    tryLoadMods();
+  }
+
+  private synchronized void tryLoadMods() {
+    modsDirectory = preferencesService.getPreferences().getForgedAlliance().getModsDirectory();
+    if (modsDirectory != null) {
+      onModDirectoryReady();
+    }
   }
 
   private void onModDirectoryReady() {
     try {
       createDirectories(modsDirectory);
-      Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
-      directoryWatcherThread = startDirectoryWatcher(modsDirectory);
+      Optional.ofNullable(directoryWatchRegistration).ifPresent(Registration::cancel);
+      directoryWatchRegistration = directoryWatchService.watch(modsDirectory, this::onModDirectoryChanged);
     } catch (IOException e) {
       logger.warn("Could not start mod directory watcher", e);
       // TODO notify user
@@ -143,35 +165,40 @@ public class ModService implements InitializingBean, DisposableBean {
     loadInstalledMods();
   }
 
-  private Thread startDirectoryWatcher(Path modsDirectory) {
-    Thread thread = new Thread(() -> noCatch(() -> {
-      WatchService watcher = modsDirectory.getFileSystem().newWatchService();
-      modsDirectory.register(watcher, ENTRY_DELETE);
-
-      try {
-        while (!Thread.interrupted()) {
-          WatchKey key = watcher.take();
-          key.pollEvents().stream()
-              .filter(event -> event.kind() == ENTRY_DELETE)
-              .forEach(event -> removeMod(modsDirectory.resolve((Path) event.context())));
-          key.reset();
-        }
-      } catch (InterruptedException e) {
-        logger.debug("Watcher terminated ({})", e.getMessage());
-      }
-    }));
-    thread.start();
-    return thread;
+  private void onModDirectoryChanged(Path modPath) {
+    if (Files.isDirectory(modPath)) {
+      addMod(modPath);
+    } else {
+      removeMod(modPath);
+    }
   }
 
+  /**
+   * Reads all mods that are not yet known and removes known mods that are no longer in the mods directory, e.g. after
+   * it has changed.
+   */
   public void loadInstalledMods() {
+    Set<Path> knownModPaths;
+    synchronized (installedModVersions) {
+      knownModPaths = new HashSet<>(pathToMod.keySet());
+    }
+
+    Set<Path> modPaths = new HashSet<>();
     try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(modsDirectory, entry -> Files.isDirectory(entry))) {
       for (Path path : directoryStream) {
-        addMod(path);
+        modPaths.add(path);
+        if (!knownModPaths.contains(path)) {
+          addMod(path);
+        }
       }
     } catch (IOException e) {
       logger.warn("Mods could not be read from: " + modsDirectory, e);
+      return;
     }
+
+    knownModPaths.stream()
+        .filter(path -> !modPaths.contains(path))
+        .forEach(this::removeMod);
   }
 
   public ObservableList<ModVersion> getInstalledModVersions() {
@@ -210,10 +237,13 @@ public class ModService implements InitializingBean, DisposableBean {
     return downloadAndInstallMod(modVersion.getDownloadUrl(), progressProperty, titleProperty);
   }
 
+  /**
+   * Returns a snapshot of the UIDs of all installed mods.
+   */
   public Set<String> getInstalledModUids() {
-    return getInstalledModVersions().stream()
-        .map(ModVersion::getUid)
-        .collect(Collectors.toSet());
+    synchronized (installedModVersions) {
+      return new HashSet<>(modVersionsByUid.keySet());
+    }
   }
 
   public Set<String> getInstalledUiModsUids() {
@@ -244,7 +274,9 @@ public class ModService implements InitializingBean, DisposableBean {
   }
 
   public boolean isModInstalled(String uid) {
-    return getInstalledModUids().contains(uid);
+    synchronized (installedModVersions) {
+      return modVersionsByUid.containsKey(uid);
+    }
   }
 
   public CompletableFuture<Void> uninstallMod(ModVersion modVersion) {
@@ -254,11 +286,9 @@ public class ModService implements InitializingBean, DisposableBean {
   }
 
   public Path getPathForMod(ModVersion modVersionToFind) {
-    return pathToMod.entrySet().stream()
-        .filter(pathModEntry -> pathModEntry.getValue().getUid().equals(modVersionToFind.getUid()))
-        .findFirst()
-        .map(Entry::getKey)
-        .orElse(null);
+    synchronized (installedModVersions) {
+      return modPathsByUid.get(modVersionToFind.getUid());
+    }
   }
 
   public CompletableFuture<List<ModVersion>> getNewestMods(int count, int page) {
@@ -274,14 +304,29 @@ public class ModService implements InitializingBean, DisposableBean {
       throw new ModLoadException("Missing mod_info.lua in: " + path.toAbsolutePath());
     }
 
-    try (InputStream inputStream = Files.newInputStream(modInfoLua)) {
-      return extractModInfo(inputStream, path);
-    }
+    return extractModInfo(Files.readAllBytes(modInfoLua), path);
   }
 
   @NotNull
+  @SneakyThrows
   public ModVersion extractModInfo(InputStream inputStream, Path basePath) {
-    return ModVersion.fromModInfo(modReader.readModInfo(inputStream, basePath), basePath);
+    return extractModInfo(ByteStreams.toByteArray(inputStream), basePath);
+  }
+
+  /**
+   * Reads mod infos that consist of plain data without starting a Lua VM. Mods that declare mount points or hooks, like
+   * featured mods, and mod infos that contain actual code are read by the {@link ModReader}.
+   */
+  private ModVersion extractModInfo(byte[] modInfoBytes, Path basePath) {
+    LuaTable modInfo = LuaLiteralParser.parse(modInfoBytes);
+    if (modInfo == null
+        || modInfo.get("uid").isnil()
+        || modInfo.get("name").isnil()
+        || !modInfo.get("mountpoints").isnil()
+        || !modInfo.get("hooks").isnil()) {
+      return ModVersion.fromModInfo(modReader.readModInfo(new ByteArrayInputStream(modInfoBytes), basePath), basePath);
+    }
+    return ModVersion.fromModInfo(modInfo, basePath);
   }
 
   public CompletableTask<Void> uploadMod(Path modPath) {
@@ -338,6 +383,14 @@ public class ModService implements InitializingBean, DisposableBean {
     return fafService.findModsByQuery(searchConfig, page, count);
   }
 
+  /**
+   * Like {@link #findByQuery(SearchConfig, int, int)}, but passes the found mods to {@code modsConsumer} in smaller
+   * chunks as soon as they are loaded.
+   */
+  public CompletableFuture<Void> findByQuery(SearchConfig searchConfig, int page, int count, Consumer<List<ModVersion>> modsConsumer) {
+    return fafService.findModsByQuery(searchConfig, page, count, modsConsumer);
+  }
+
   @CacheEvict(value = CacheNames.MODS, allEntries = true)
   public void evictCache() {
     // Nothing to see here
@@ -422,16 +475,44 @@ public class ModService implements InitializingBean, DisposableBean {
 
   private void removeMod(Path path) {
     logger.debug("Removing mod: {}", path);
-    installedModVersions.remove(pathToMod.remove(path));
+    synchronized (installedModVersions) {
+      removeInstalledMod(path);
+    }
+  }
+
+  private void removeInstalledMod(Path path) {
+    ModVersion modVersion = pathToMod.remove(path);
+    if (modVersion == null || !path.equals(modPathsByUid.get(modVersion.getUid()))) {
+      return;
+    }
+    installedModVersions.remove(modVersion);
+    modVersionsByUid.remove(modVersion.getUid());
+    modPathsByUid.remove(modVersion.getUid());
+
+    // The same mod may be installed in another directory as well, which is now the one to use
+    pathToMod.entrySet().stream()
+        .filter(entry -> entry.getValue().getUid().equals(modVersion.getUid()))
+        .findFirst()
+        .ifPresent(entry -> indexInstalledMod(entry.getKey(), entry.getValue()));
+  }
+
+  private void indexInstalledMod(Path path, ModVersion modVersion) {
+    installedModVersions.add(modVersion);
+    modVersionsByUid.put(modVersion.getUid(), modVersion);
+    modPathsByUid.put(modVersion.getUid(), path);
   }
 
   private void addMod(Path path) {
     logger.debug("Adding mod: {}", path);
     try {
       ModVersion modVersion = extractModInfo(path);
-      pathToMod.put(path, modVersion);
-      if (!installedModVersions.contains(modVersion)) {
-        installedModVersions.add(modVersion);
+      String uid = modVersion.getUid();
+      synchronized (installedModVersions) {
+        removeInstalledMod(path);
+        pathToMod.put(path, modVersion);
+        if (!modVersionsByUid.containsKey(uid)) {
+          indexInstalledMod(path, modVersion);
+        }
       }
     } catch (ModLoadException e) {
       logger.debug("Corrupt mod: " + path, e);
@@ -444,6 +525,6 @@ public class ModService implements InitializingBean, DisposableBean {
 
   @Override
   public void destroy() {
-    Optional.ofNullable(directoryWatcherThread).ifPresent(Thread::interrupt);
+    Optional.ofNullable(directoryWatchRegistration).ifPresent(Registration::cancel);
   }
 }
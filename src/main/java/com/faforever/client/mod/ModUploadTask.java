@@ -1,10 +1,12 @@
 package com.faforever.client.mod;
 
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.TransferScheduler;
+import com.faforever.client.io.TransferScheduler.Direction;
+import com.faforever.client.io.TransferScheduler.Permit;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.remote.FafService;
 import com.faforever.client.task.CompletableTask;
-import com.faforever.client.task.ResourceLocks;
 import com.faforever.client.util.Validator;
 import com.faforever.commons.io.ByteCountListener;
 import com.faforever.commons.io.Zipper;
@@ -35,23 +37,24 @@ public class ModUploadTask extends CompletableTask<Void> {
   private final PreferencesService preferencesService;
   private final FafService fafService;
   private final I18n i18n;
+  private final TransferScheduler transferScheduler;
 
   private Path modPath;
 
   @Inject
-  public ModUploadTask(PreferencesService preferencesService, FafService fafService, I18n i18n) {
+  public ModUploadTask(PreferencesService preferencesService, FafService fafService, I18n i18n, TransferScheduler transferScheduler) {
     super(Priority.HIGH);
 
     this.preferencesService = preferencesService;
     this.fafService = fafService;
     this.i18n = i18n;
+    this.transferScheduler = transferScheduler;
   }
 
   @Override
   protected Void call() throws Exception {
     Validator.notNull(modPath, "modPath must not be null");
 
-    ResourceLocks.acquireUploadLock();
     Path cacheDirectory = preferencesService.getCacheDirectory();
     Files.createDirectories(cacheDirectory);
     Path tmpFile = createTempFile(cacheDirectory, "mod", ".zip");
@@ -76,11 +79,12 @@ public class ModUploadTask extends CompletableTask<Void> {
       logger.debug("Uploading mod {} as {}", modPath, tmpFile);
       updateTitle(i18n.get("modVault.upload.uploading"));
 
-      fafService.uploadMod(tmpFile, byteListener);
+      try (Permit permit = transferScheduler.acquire(Direction.UPLOAD, null, Priority.MEDIUM)) {
+        fafService.uploadMod(tmpFile, permit.countingListener(byteListener));
+      }
       return null;
     } finally {
       Files.delete(tmpFile);
-      ResourceLocks.freeUploadLock();
     }
   }
 
@@ -43,6 +43,8 @@ import java.lang.invoke.MethodHandles;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -85,7 +87,10 @@ public class ModVaultController extends AbstractViewController<Node> {
   private ModDetailController modDetailController;
   private final ObjectProperty<ModVaultController.State> state;
   private int currentPage;
-  private Supplier<CompletableFuture<List<ModVersion>>> currentSupplier;
+  /** Loads the next page of mods and passes them on, possibly in several chunks. */
+  private Function<Consumer<List<ModVersion>>, CompletableFuture<Void>> currentLoader;
+  /** The loading of the page that is currently being shown, so that it can be cancelled for another one. */
+  private CompletableFuture<Void> currentLoad;
 
   public ModVaultController(ModService modService, I18n i18n, EventBus eventBus, PreferencesService preferencesService,
                             UiService uiService, NotificationService notificationService, ReportingService reportingService) {
@@ -134,7 +139,7 @@ public class ModVaultController extends AbstractViewController<Node> {
     SearchConfig newSearchConfig = new SearchConfig(searchConfig.getSortConfig(), searchConfig.getSearchQuery() + ";latestVersion.hidden==\"false\"");
     currentPage = 0;
     enterLoadingState();
-    displayModsFromSupplier(() -> modService.findByQuery(newSearchConfig, ++currentPage, MAX_SEARCH_RESULTS));
+    displayModsFromLoader(modsConsumer -> modService.findByQuery(newSearchConfig, ++currentPage, MAX_SEARCH_RESULTS, modsConsumer));
   }
 
   @Override
@@ -233,16 +238,8 @@ public class ModVaultController extends AbstractViewController<Node> {
         break;
       case SEARCH_RESULT:
         currentPage--;
-        currentSupplier.get()
-            .thenAccept(this::displayMods)
-            .exceptionally(throwable -> {
-              notificationService.addNotification(new ImmediateErrorNotification(
-                  i18n.get("errorTitle"), i18n.get("vault.mods.searchError"),
-                  throwable, i18n, reportingService
-              ));
-              enterShowroomState();
-              return null;
-            });
+        Platform.runLater(() -> searchResultPane.getChildren().clear());
+        loadNextPage();
         break;
       default:
         // Do nothing
@@ -250,6 +247,7 @@ public class ModVaultController extends AbstractViewController<Node> {
   }
 
   public void onBackButtonClicked() {
+    cancelCurrentLoad();
     enterShowroomState();
   }
 
@@ -293,11 +291,35 @@ public class ModVaultController extends AbstractViewController<Node> {
   }
 
   private void displayModsFromSupplier(Supplier<CompletableFuture<List<ModVersion>>> modsSupplier) {
+    displayModsFromLoader(modsConsumer -> modsSupplier.get().thenAccept(modsConsumer));
+  }
+
+  private void displayModsFromLoader(Function<Consumer<List<ModVersion>>, CompletableFuture<Void>> modsLoader) {
+    cancelCurrentLoad();
     currentPage = 0;
-    this.currentSupplier = modsSupplier;
-    modsSupplier.get()
-        .thenAccept(this::displayMods)
+    this.currentLoader = modsLoader;
+    Platform.runLater(() -> searchResultPane.getChildren().clear());
+    loadNextPage();
+  }
+
+  /**
+   * Loads the next page of mods and shows each chunk of it as soon as it arrives.
+   */
+  private void loadNextPage() {
+    CompletableFuture<Void> load = currentLoader.apply(mods -> {
+      appendSearchResult(mods, searchResultPane);
+      Platform.runLater(() -> {
+        showroomGroup.setVisible(false);
+        searchResultGroup.setVisible(true);
+      });
+    });
+    currentLoad = load;
+    load
+        .thenRun(() -> Platform.runLater(this::enterSearchResultState))
         .exceptionally(throwable -> {
+          if (load.isCancelled()) {
+            return null;
+          }
           notificationService.addNotification(new ImmediateErrorNotification(
               i18n.get("errorTitle"),
               i18n.get("vault.mods.searchError"),
@@ -310,29 +332,16 @@ public class ModVaultController extends AbstractViewController<Node> {
         });
   }
 
-  private void displayMods(List<ModVersion> modVersions) {
-    Platform.runLater(() -> searchResultPane.getChildren().clear());
-    appendSearchResult(modVersions, searchResultPane);
-    Platform.runLater(this::enterSearchResultState);
+  private void cancelCurrentLoad() {
+    if (currentLoad != null) {
+      currentLoad.cancel(true);
+    }
   }
 
   public void onLoadMoreButtonClicked() {
     moreButton.setVisible(false);
     loadingLabel.setVisible(true);
-
-    currentSupplier.get()
-        .thenAccept(mods -> {
-          appendSearchResult(mods, searchResultPane);
-          enterSearchResultState();
-        })
-        .exceptionally(throwable -> {
-          notificationService.addNotification(new ImmediateErrorNotification(
-              i18n.get("errorTitle"), i18n.get("vault.mods.searchError"),
-              throwable, i18n, reportingService
-          ));
-          enterShowroomState();
-          return null;
-        });
+    loadNextPage();
   }
 
   private enum State {
@@ -18,6 +18,7 @@ import javafx.collections.ObservableList;
 import lombok.Getter;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.jetbrains.annotations.Nullable;
+import org.luaj.vm2.LuaValue;
 
 import java.net.URL;
 import java.nio.file.Path;
@@ -106,13 +107,42 @@ public class ModVersion {
     modVersion.setModType(modInfo.isUiOnly() ? ModType.UI : ModType.SIM);
     modVersion.getMountInfos().setAll(modInfo.getMountInfos());
     modVersion.getHookDirectories().setAll(modInfo.getHookDirectories());
-    Optional.ofNullable(modInfo.getIcon())
-        .map(icon -> Paths.get(icon))
-        .filter(iconPath -> iconPath.getNameCount() > 2)
-        .ifPresent(iconPath -> modVersion.setImagePath(basePath.resolve(iconPath.subpath(2, iconPath.getNameCount()))));
+    modVersion.setImagePath(resolveIconPath(modInfo.getIcon(), basePath));
     return modVersion;
   }
 
+  /**
+   * Creates a mod version from a {@code mod_info.lua} that has been read as plain data, see {@link
+   * com.faforever.client.util.LuaLiteralParser}. Mount points and hook directories are not read; mods that declare them
+   * have to be read by the {@link com.faforever.commons.mod.ModReader}.
+   *
+   * @param basePath path to the directory where all the mod files are, used to resolve the path of the icon file.
+   */
+  static ModVersion fromModInfo(LuaValue modInfo, Path basePath) {
+    ModVersion modVersion = new ModVersion();
+    modVersion.setUid(modInfo.get("uid").tojstring());
+    modVersion.setDisplayName(modInfo.get("name").tojstring());
+    modVersion.setDescription(modInfo.get("description").optjstring(null));
+    modVersion.setUploader(modInfo.get("author").optjstring(null));
+    LuaValue version = modInfo.get("version");
+    if (!version.isnil()) {
+      modVersion.setVersion(new ComparableVersion(version.tojstring()));
+    }
+    modVersion.setSelectable(modInfo.get("selectable").toboolean());
+    modVersion.setModType(modInfo.get("ui_only").toboolean() ? ModType.UI : ModType.SIM);
+    modVersion.setImagePath(resolveIconPath(modInfo.get("icon").optjstring(null), basePath));
+    return modVersion;
+  }
+
+  @Nullable
+  private static Path resolveIconPath(@Nullable String icon, Path basePath) {
+    return Optional.ofNullable(icon)
+        .map(iconString -> Paths.get(iconString))
+        .filter(iconPath -> iconPath.getNameCount() > 2)
+        .map(iconPath -> basePath.resolve(iconPath.subpath(2, iconPath.getNameCount())))
+        .orElse(null);
+  }
+
   public static ModVersion fromDto(com.faforever.client.api.dto.ModVersion dto, Mod parent) {
     ModVersion modVersionVersion = new ModVersion();
     modVersionVersion.setVersion(dto.getVersion());
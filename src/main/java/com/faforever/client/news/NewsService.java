@@ -7,13 +7,16 @@ import com.rometools.rome.feed.synd.SyndCategory;
 import com.rometools.rome.feed.synd.SyndEntry;
 import com.rometools.rome.io.SyndFeedInput;
 import com.rometools.rome.io.XmlReader;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.methods.HttpGet;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.InitializingBean;
 
-import java.net.URL;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Comparator;
@@ -37,14 +40,16 @@ public class NewsService implements InitializingBean {
   private final PreferencesService preferencesService;
   private final EventBus eventBus;
   private final TaskScheduler taskScheduler;
+  private final HttpClient httpClient;
 
   public NewsService(ClientProperties clientProperties, PreferencesService preferencesService, EventBus eventBus,
-                     TaskScheduler taskScheduler) {
+                     TaskScheduler taskScheduler, HttpClient httpClient) {
     this.newsFeedUrl = clientProperties.getNews().getFeedUrl();
 
     this.preferencesService = preferencesService;
     this.eventBus = eventBus;
     this.taskScheduler = taskScheduler;
+    this.httpClient = httpClient;
   }
 
   @Override
@@ -66,7 +71,16 @@ public class NewsService implements InitializingBean {
   @Async
   public CompletableFuture<List<NewsItem>> fetchNews() {
     return CompletableFuture.completedFuture(
-        noCatch(() -> new SyndFeedInput().build(new XmlReader(new URL(newsFeedUrl)))).getEntries().stream()
+        noCatch(() -> httpClient.execute(new HttpGet(newsFeedUrl), response -> {
+          HttpEntity entity = response.getEntity();
+          if (response.getStatusLine().getStatusCode() >= 300 || entity == null) {
+            throw new HttpResponseException(response.getStatusLine().getStatusCode(), "Could not fetch news from " + newsFeedUrl);
+          }
+          XmlReader xmlReader = entity.getContentType() == null
+              ? new XmlReader(entity.getContent())
+              : new XmlReader(entity.getContent(), entity.getContentType().getValue());
+          return noCatch(() -> new SyndFeedInput().build(xmlReader));
+        })).getEntries().stream()
             .map(this::toNewsItem)
             .sorted(Comparator.comparing(NewsItem::getDate).reversed())
             .collect(Collectors.toList()));
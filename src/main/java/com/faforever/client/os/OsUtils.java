@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.Scanner;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 import static com.github.nocatch.NoCatch.noCatch;
@@ -23,8 +24,11 @@ public final class OsUtils {
     return scanner.hasNext() ? scanner.next().trim() : "";
   }
 
-  public static void gobbleLines(InputStream stream, Consumer<String> lineConsumer) {
-    Thread thread = new Thread(() -> noCatch(() -> {
+  /**
+   * Reads the specified stream line by line until it ends, using a thread of the specified executor.
+   */
+  public static void gobbleLines(InputStream stream, Executor executor, Consumer<String> lineConsumer) {
+    executor.execute(() -> noCatch(() -> {
       try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(stream))) {
         String line;
         while ((line = bufferedReader.readLine()) != null) {
@@ -32,7 +36,5 @@ public final class OsUtils {
         }
       }
     }));
-    thread.setDaemon(true);
-    thread.start();
   }
 }
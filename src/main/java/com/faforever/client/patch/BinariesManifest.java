@@ -0,0 +1,112 @@
+package com.faforever.client.patch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Remembers which game binaries have been copied to the FAF bin directory, and which version the game executable has
+ * been patched to, so that unchanged files don't need to be copied or patched again. Each file is described by its
+ * size and modification time; copied files additionally by the hash of their source.
+ */
+@Slf4j
+class BinariesManifest {
+
+  private final Path manifestFile;
+  private final Properties properties;
+
+  private BinariesManifest(Path manifestFile, Properties properties) {
+    this.manifestFile = manifestFile;
+    this.properties = properties;
+  }
+
+  static BinariesManifest load(Path manifestFile) {
+    Properties properties = new Properties();
+    if (Files.exists(manifestFile)) {
+      try (Reader reader = Files.newBufferedReader(manifestFile, UTF_8)) {
+        properties.load(reader);
+      } catch (IOException | IllegalArgumentException e) {
+        log.warn("Could not read binaries manifest, all binaries will be updated: {}", manifestFile, e);
+        properties.clear();
+      }
+    }
+    return new BinariesManifest(manifestFile, properties);
+  }
+
+  void save() throws IOException {
+    Path tempFile = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+    try (Writer writer = Files.newBufferedWriter(tempFile, UTF_8)) {
+      properties.store(writer, null);
+    }
+    Files.move(tempFile, manifestFile, REPLACE_EXISTING, ATOMIC_MOVE);
+  }
+
+  /**
+   * Returns {@code true} if {@code source} hasn't changed since it has last been copied to {@code destination}.
+   */
+  boolean isSourceUnchanged(Path source, Path destination) throws IOException {
+    return matches("file." + destination.getFileName() + ".source", source);
+  }
+
+  /**
+   * Returns {@code true} if {@code destination} exists and hasn't been modified since it has last been copied.
+   */
+  boolean isTargetUnchanged(Path destination) throws IOException {
+    return matches("file." + destination.getFileName() + ".target", destination);
+  }
+
+  /**
+   * Returns the hash of the source from which {@code destination} has been copied, if any.
+   */
+  String getSourceMd5(Path destination) {
+    return properties.getProperty("file." + destination.getFileName() + ".md5");
+  }
+
+  void recordCopy(Path source, Path destination, String sourceMd5) throws IOException {
+    String name = destination.getFileName().toString();
+    record("file." + name + ".source", source);
+    record("file." + name + ".target", destination);
+    properties.setProperty("file." + name + ".md5", sourceMd5);
+  }
+
+  /**
+   * Returns {@code true} if the executable has been patched to the specified version and not been modified since.
+   */
+  boolean isPatched(Path exePath, int version) throws IOException {
+    return Objects.equals(properties.getProperty("exe.version"), String.valueOf(version)) && matches("exe", exePath);
+  }
+
+  void recordPatch(Path exePath, int version) throws IOException {
+    properties.setProperty("exe.version", String.valueOf(version));
+    record("exe", exePath);
+  }
+
+  private boolean matches(String prefix, Path file) throws IOException {
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+    return String.valueOf(attributes.size()).equals(properties.getProperty(prefix + ".size"))
+        && String.valueOf(attributes.lastModifiedTime().toMillis()).equals(properties.getProperty(prefix + ".modified"));
+  }
+
+  private void record(String prefix, Path file) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    properties.setProperty(prefix + ".size", String.valueOf(attributes.size()));
+    properties.setProperty(prefix + ".modified", String.valueOf(attributes.lastModifiedTime().toMillis()));
+  }
+}
@@ -1,5 +1,6 @@
 package com.faforever.client.patch;
 
+import com.faforever.client.task.CompletableTask.Priority;
 import com.faforever.commons.io.ByteCountListener;
 import com.google.common.io.Resources;
 import net.brutus5000.bireus.service.DownloadException;
@@ -21,7 +22,7 @@ public class BireusDownloadServiceAdapter implements DownloadService {
   @Override
   public void download(URL url, Path targetFile) throws DownloadException {
     try {
-      downloadService.downloadFile(url, targetFile, progressListener);
+      downloadService.downloadFile(url, targetFile, progressListener, null, Priority.HIGH);
     } catch (IOException e) {
       throw new DownloadException(e, url);
     }
@@ -3,13 +3,13 @@ package com.faforever.client.patch;
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.io.FileHashCache;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.CompletableTask;
-import com.faforever.client.task.ResourceLocks;
 import com.faforever.client.util.Assert;
 import com.faforever.client.util.Validator;
 import com.faforever.commons.fa.ForgedAllianceExePatcher;
-import com.faforever.commons.io.ByteCopier;
 import com.google.common.annotations.VisibleForTesting;
 
 import org.apache.maven.artifact.versioning.ComparableVersion;
@@ -22,23 +22,27 @@ import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.faforever.client.preferences.PreferencesService.FORGED_ALLIANCE_EXE;
-import static com.github.nocatch.NoCatch.noCatch;
-import static java.nio.file.Files.copy;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.setAttribute;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -60,23 +64,28 @@ public class GameBinariesUpdateTaskImpl extends CompletableTask<Void> implements
       "wxmsw24u-vs80.dll",
       "zlibwapi.dll"
   );
+  private static final String MANIFEST_FILE_NAME = "binaries.manifest";
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   private final I18n i18n;
   private final PreferencesService preferencesService;
   private final PlatformService platformService;
+  private final DownloadService downloadService;
+  private final FileHashCache fileHashCache;
 
   private final String fafExeUrl;
 
   private Integer version;
 
   @Inject
-  public GameBinariesUpdateTaskImpl(I18n i18n, PreferencesService preferencesService, PlatformService platformService, ClientProperties clientProperties) {
-    super(Priority.HIGH);
+  public GameBinariesUpdateTaskImpl(I18n i18n, PreferencesService preferencesService, PlatformService platformService, ClientProperties clientProperties, DownloadService downloadService, FileHashCache fileHashCache) {
+    super(Priority.HIGH, ResourceClass.DISK);
 
     this.i18n = i18n;
     this.preferencesService = preferencesService;
     this.platformService = platformService;
+    this.downloadService = downloadService;
+    this.fileHashCache = fileHashCache;
 
     this.fafExeUrl = clientProperties.getForgedAlliance().getExeUrl();
   }
@@ -88,40 +97,49 @@ public class GameBinariesUpdateTaskImpl extends CompletableTask<Void> implements
     logger.info("Updating binaries to {}", version);
 
     Path exePath = preferencesService.getFafBinDirectory().resolve(FORGED_ALLIANCE_EXE);
+    BinariesManifest manifest = loadManifest();
 
-    copyGameFilesToFafBinDirectory();
+    copyGameFilesToFafBinDirectory(manifest);
     downloadFafExeIfNecessary(exePath);
-    ForgedAllianceExePatcher.patchVersion(exePath, version);
+    if (manifest.isPatched(exePath, version)) {
+      logger.debug("'{}' has already been patched to version {}", exePath, version);
+    } else {
+      ForgedAllianceExePatcher.patchVersion(exePath, version);
+      manifest.recordPatch(exePath, version);
+    }
+    manifest.save();
+    fileHashCache.save();
     logger.debug("Binaries have been updated successfully");
     return null;
   }
 
+  private BinariesManifest loadManifest() {
+    return BinariesManifest.load(preferencesService.getCacheDirectory().resolve(MANIFEST_FILE_NAME));
+  }
+
   @VisibleForTesting
   void downloadFafExeIfNecessary(Path exePath) throws IOException {
     if (Files.exists(exePath)) {
       platformService.setUnixExecutableAndWritableBits(exePath);
       return;
     }
-    ResourceLocks.acquireDownloadLock();
-    try {
-      logger.debug("Downloading {} to {}", fafExeUrl, exePath);
-      URLConnection urlConnection = new URL(fafExeUrl).openConnection();
-      try (InputStream inputStream = urlConnection.getInputStream();
-           OutputStream outputStream = Files.newOutputStream(exePath)) {
-        ByteCopier.from(inputStream)
-            .to(outputStream)
-            .totalBytes(urlConnection.getContentLength())
-            .listener(this::updateProgress)
-            .copy();
-      }
-      platformService.setUnixExecutableAndWritableBits(exePath);
-    } finally {
-      ResourceLocks.freeDownloadLock();
-    }
+    logger.debug("Downloading {} to {}", fafExeUrl, exePath);
+    downloadService.downloadFile(new URL(fafExeUrl), exePath, this::updateProgress, null, Priority.HIGH);
+    platformService.setUnixExecutableAndWritableBits(exePath);
   }
 
   @VisibleForTesting
   void copyGameFilesToFafBinDirectory() throws IOException {
+    BinariesManifest manifest = loadManifest();
+    copyGameFilesToFafBinDirectory(manifest);
+    manifest.save();
+  }
+
+  /**
+   * Copies the game's binaries to the FAF bin directory, except those whose copy is still up to date according to the
+   * manifest. A source file whose size or modification time changed but whose content didn't isn't copied either.
+   */
+  private void copyGameFilesToFafBinDirectory(BinariesManifest manifest) throws IOException {
     logger.debug("Copying Forged Alliance binaries FAF folder");
 
     Path fafBinDirectory = preferencesService.getFafBinDirectory();
@@ -129,20 +147,61 @@ public class GameBinariesUpdateTaskImpl extends CompletableTask<Void> implements
 
     Path faBinPath = preferencesService.getPreferences().getForgedAlliance().getPath().resolve("bin");
 
+    List<Path> sources;
     try (Stream<Path> faBinPathStream = Files.list(faBinPath)) {
-      faBinPathStream
+      sources = faBinPathStream
           .filter(path -> BINARIES_TO_COPY.contains(path.getFileName().toString()))
-          .forEach(source -> {
-            Path destination = fafBinDirectory.resolve(source.getFileName());
+          .collect(Collectors.toList());
+    }
 
-            logger.debug("Copying file '{}' to '{}'", source, destination);
-            noCatch(() -> createDirectories(destination.getParent()));
-            noCatch(() -> copy(source, destination, REPLACE_EXISTING));
+    for (Path source : sources) {
+      checkCancelled();
+      Path destination = fafBinDirectory.resolve(source.getFileName());
 
-            if (org.bridj.Platform.isWindows()) {
-              noCatch(() -> setAttribute(destination, "dos:readonly", false));
-            }
-          });
+      boolean targetUnchanged = manifest.isTargetUnchanged(destination);
+      if (targetUnchanged && manifest.isSourceUnchanged(source, destination)) {
+        logger.trace("'{}' is up to date", destination);
+        continue;
+      }
+
+      String sourceMd5 = fileHashCache.getMd5(source);
+      if (!targetUnchanged || !Objects.equals(sourceMd5, manifest.getSourceMd5(destination))) {
+        logger.debug("Copying file '{}' to '{}'", source, destination);
+        copyFile(source, destination);
+      }
+      manifest.recordCopy(source, destination, sourceMd5);
+    }
+  }
+
+  /**
+   * Copies a file by letting the OS transfer the bytes between the channels, and only replaces the destination once
+   * the copy is complete. The destination is never made a hard link of the source, since the game installation must
+   * not be affected by changes to the FAF bin directory (like the attribute change below).
+   */
+  private static void copyFile(Path source, Path destination) throws IOException {
+    Path tempFile = destination.resolveSibling(destination.getFileName() + ".tmp");
+    try {
+      try (FileChannel sourceChannel = FileChannel.open(source, READ);
+           FileChannel destinationChannel = FileChannel.open(tempFile, CREATE, TRUNCATE_EXISTING, WRITE)) {
+        long size = sourceChannel.size();
+        long position = 0;
+        while (position < size) {
+          long transferred = sourceChannel.transferTo(position, size - position, destinationChannel);
+          if (transferred <= 0) {
+            throw new IOException("'" + source + "' ended unexpectedly");
+          }
+          position += transferred;
+        }
+      }
+      if (org.bridj.Platform.isWindows()) {
+        setAttribute(tempFile, "dos:readonly", false);
+        if (Files.exists(destination)) {
+          setAttribute(destination, "dos:readonly", false);
+        }
+      }
+      Files.move(tempFile, destination, REPLACE_EXISTING, ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
     }
   }
 
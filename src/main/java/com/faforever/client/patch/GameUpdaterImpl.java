@@ -27,7 +27,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -72,32 +74,54 @@ public class GameUpdaterImpl implements GameUpdater {
     return this;
   }
 
+  /**
+   * Runs all update steps that don't depend on each other in parallel: the featured mod and the sim mods are updated
+   * at the same time, and the game binaries as soon as the version they need to be patched to is known. The FAF base mod
+   * (if needed) is only updated once the featured mod has been, since both write into the same directory and the base
+   * mod's files have to win. Once everything is done, the init file is written. Cancelling the returned future cancels
+   * all steps that are still running.
+   */
   @Override
   public CompletableFuture<Void> update(FeaturedMod featuredMod, Integer version, Map<String, Integer> featuredModVersions, Set<String> simModUids) {
+    // Everything that has been started, so that it can be cancelled
+    List<CompletableFuture<?>> runningSteps = new CopyOnWriteArrayList<>();
+
     // The following ugly code is sponsored by the featured-mod-mess. FAF and Coop are both featured mods - but others,
     // (except fafbeta and fafdevelop) implicitly depend on FAF. So if a non-base mod is being played, make sure FAF is
     // installed.
-    List<PatchResult> patchResults = new ArrayList<>();
-
-    CompletableFuture<Void> future = updateFeaturedMod(featuredMod, version)
-        .thenAccept(patchResults::add)
-        .thenCompose(s -> downloadMissingSimMods(simModUids));
-
+    List<CompletableFuture<PatchResult>> patchResultFutures = new ArrayList<>();
+    CompletableFuture<PatchResult> featuredModFuture = track(runningSteps, updateFeaturedMod(featuredMod, version));
+    patchResultFutures.add(featuredModFuture);
     if (!NAMES_OF_FEATURED_BASE_MODS.contains(featuredMod.getTechnicalName())) {
-      future = future.thenCompose(aVoid -> modService.getFeaturedMod(FAF.getTechnicalName()))
-          .thenCompose(baseMod -> updateFeaturedMod(baseMod, null))
-          .thenAccept(patchResults::add);
+      // Both mods may contain the same files, so they must not be patched at the same time
+      patchResultFutures.add(featuredModFuture
+          .thenCombine(modService.getFeaturedMod(FAF.getTechnicalName()), (patchResult, baseMod) -> baseMod)
+          .thenCompose(baseMod -> track(runningSteps, updateFeaturedMod(baseMod, null))));
     }
 
-    verifyUniformModFormat(patchResults);
+    // The binaries are patched to the version of the base mod, which is the last one
+    CompletableFuture<Void> gameBinariesFuture = patchResultFutures.get(patchResultFutures.size() - 1)
+        .thenCompose(patchResult -> track(runningSteps, updateGameBinaries(patchResult.getVersion())));
+
+    List<CompletableFuture<?>> steps = new ArrayList<>(patchResultFutures);
+    steps.add(downloadMissingSimMods(simModUids, runningSteps));
+    steps.add(gameBinariesFuture);
 
-    return future
-        .thenCompose(s -> updateGameBinaries(patchResults.get(patchResults.size() - 1).getVersion()))
+    CompletableFuture<Void> future = CompletableFuture.allOf(steps.toArray(new CompletableFuture<?>[0]))
         .exceptionally(throwable -> {
-          notificationService.addImmediateErrorNotification(throwable, "error.game.notTerminatedCorrectly");
+          if (!(throwable.getCause() instanceof CancellationException)) {
+            notificationService.addImmediateErrorNotification(throwable, "error.game.notTerminatedCorrectly");
+          }
           return null;
         })
         .thenRun(() -> {
+          List<PatchResult> patchResults = patchResultFutures.stream()
+              .filter(patchResultFuture -> !patchResultFuture.isCompletedExceptionally())
+              .map(CompletableFuture::join)
+              .collect(Collectors.toList());
+
+          verifyUniformModFormat(patchResults);
+
           if (patchResults.stream().noneMatch(patchResult -> patchResult.getLegacyInitFile() != null)) {
             generateInitFile(patchResults);
           } else {
@@ -111,6 +135,15 @@ public class GameUpdaterImpl implements GameUpdater {
             copyLegacyInitFile(initFile);
           }
         });
+
+    future.whenComplete((aVoid, throwable) -> {
+      if (future.isCancelled()) {
+        log.debug("Game update has been cancelled");
+        steps.forEach(step -> step.cancel(true));
+        runningSteps.forEach(step -> step.cancel(true));
+      }
+    });
+    return future;
   }
 
   @SneakyThrows
@@ -154,7 +187,12 @@ public class GameUpdaterImpl implements GameUpdater {
     return fafService.getFeaturedMods();
   }
 
-  private CompletableFuture<Void> downloadMissingSimMods(Set<String> simModUids) {
+  private static <T> CompletableFuture<T> track(List<CompletableFuture<?>> runningSteps, CompletableFuture<T> step) {
+    runningSteps.add(step);
+    return step;
+  }
+
+  private CompletableFuture<Void> downloadMissingSimMods(Set<String> simModUids, List<CompletableFuture<?>> runningSteps) {
     if (simModUids == null || simModUids.isEmpty()) {
       return CompletableFuture.completedFuture(null);
     }
@@ -162,8 +200,9 @@ public class GameUpdaterImpl implements GameUpdater {
     List<CompletableFuture<Void>> simModFutures = simModUids.stream()
         .filter(uid -> !modService.isModInstalled(uid))
         .map(modService::downloadAndInstallMod)
+        .map(simModFuture -> track(runningSteps, simModFuture))
         .collect(Collectors.toList());
-    return CompletableFuture.allOf(simModFutures.toArray(new CompletableFuture[simModFutures.size()]));
+    return CompletableFuture.allOf(simModFutures.toArray(new CompletableFuture<?>[0]));
   }
 
   private CompletableFuture<PatchResult> updateFeaturedMod(FeaturedMod featuredMod, Integer version) {
@@ -2,12 +2,15 @@ package com.faforever.client.patch;
 
 import com.faforever.client.api.dto.FeaturedModFile;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DeltaDownloader;
 import com.faforever.client.io.DownloadService;
+import com.faforever.client.io.FileHashCache;
 import com.faforever.client.mod.FeaturedMod;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.remote.FafService;
 import com.faforever.client.task.CompletableTask;
-import com.google.common.hash.Hashing;
+import com.faforever.client.util.BoundedExecutor;
+import com.google.common.base.Throwables;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,33 +19,49 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResult> {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  /** Number of files that are checked or downloaded at the same time, on threads of the shared I/O pool. */
+  private static final int PARALLELISM = 4;
 
   private final FafService fafService;
   private final PreferencesService preferencesService;
   private final DownloadService downloadService;
   private final I18n i18n;
+  private final FileHashCache fileHashCache;
+  private final DeltaDownloader deltaDownloader;
+  private final ThreadPoolExecutor threadPoolExecutor;
 
   private FeaturedMod featuredMod;
   private Integer version;
 
-  public SimpleHttpFeaturedModUpdaterTask(FafService fafService, PreferencesService preferencesService, DownloadService downloadService, I18n i18n) {
+  public SimpleHttpFeaturedModUpdaterTask(FafService fafService, PreferencesService preferencesService, DownloadService downloadService, I18n i18n, FileHashCache fileHashCache, DeltaDownloader deltaDownloader, ThreadPoolExecutor threadPoolExecutor) {
     super(Priority.HIGH);
 
     this.fafService = fafService;
     this.preferencesService = preferencesService;
     this.downloadService = downloadService;
     this.i18n = i18n;
+    this.fileHashCache = fileHashCache;
+    this.deltaDownloader = deltaDownloader;
+    this.threadPoolExecutor = threadPoolExecutor;
   }
 
   @Override
@@ -56,22 +75,36 @@ public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResul
 
     Path initFile = null;
     for (FeaturedModFile featuredModFile : featuredModFiles) {
-      Path targetPath = preferencesService.getFafDataDirectory()
-          .resolve(featuredModFile.getGroup())
-          .resolve(featuredModFile.getName());
-
-      if (Files.exists(targetPath)
-          && featuredModFile.getMd5().equals(com.google.common.io.Files.hash(targetPath.toFile(), Hashing.md5()).toString())) {
-        logger.debug("Already up to date: {}", targetPath);
-      } else {
-        Files.createDirectories(targetPath.getParent());
-        updateMessage(i18n.get("updater.downloadingFile", targetPath.getFileName()));
-        downloadService.downloadFile(new URL(featuredModFile.getUrl()), targetPath, this::updateProgress);
+      if ("bin".equals(featuredModFile.getGroup()) && initFileName.equalsIgnoreCase(featuredModFile.getName())) {
+        initFile = getTargetPath(featuredModFile);
       }
+    }
 
-      if ("bin".equals(featuredModFile.getGroup()) && initFileName.equalsIgnoreCase(featuredModFile.getName())) {
-        initFile = targetPath;
+    AtomicInteger filesDone = new AtomicInteger();
+    Executor executor = new BoundedExecutor(threadPoolExecutor, PARALLELISM);
+    List<CompletableFuture<Void>> updates = featuredModFiles.stream()
+        .map(featuredModFile -> CompletableFuture.runAsync(() -> {
+          try {
+            updateFile(featuredModFile);
+          } catch (IOException e) {
+            throw new CompletionException(e);
+          }
+          updateProgress(filesDone.incrementAndGet(), featuredModFiles.size());
+        }, executor))
+        .collect(Collectors.toList());
+
+    try {
+      for (CompletableFuture<Void> update : updates) {
+        try {
+          update.get();
+        } catch (ExecutionException e) {
+          Throwables.throwIfInstanceOf(e.getCause(), Exception.class);
+          throw e;
+        }
       }
+    } finally {
+      updates.forEach(update -> update.cancel(true));
+      fileHashCache.save();
     }
 
     Assert.isTrue(initFile != null && Files.exists(initFile), "'" + initFileName + "' could be found.");
@@ -84,6 +117,32 @@ public class SimpleHttpFeaturedModUpdaterTask extends CompletableTask<PatchResul
     return PatchResult.withLegacyInitFile(new ComparableVersion(String.valueOf(maxVersion)), initFile);
   }
 
+  private void updateFile(FeaturedModFile featuredModFile) throws IOException {
+    Path targetPath = getTargetPath(featuredModFile);
+
+    // Hashes of files that didn't change since the last update are taken from the cache
+    if (featuredModFile.getMd5().equals(fileHashCache.getMd5(targetPath))) {
+      logger.debug("Already up to date: {}", targetPath);
+      return;
+    }
+
+    Files.createDirectories(targetPath.getParent());
+    updateMessage(i18n.get("updater.downloadingFile", targetPath.getFileName()));
+    URL url = new URL(featuredModFile.getUrl());
+    // The outdated file is used as the base of a delta update, if there is one
+    if (!deltaDownloader.download(url, targetPath, featuredModFile.getMd5(), Priority.HIGH)) {
+      downloadService.downloadFile(url, targetPath, (written, total) -> {
+      }, featuredModFile.getMd5(), Priority.HIGH);
+    }
+    fileHashCache.put(targetPath, featuredModFile.getMd5());
+  }
+
+  private Path getTargetPath(FeaturedModFile featuredModFile) {
+    return preferencesService.getFafDataDirectory()
+        .resolve(featuredModFile.getGroup())
+        .resolve(featuredModFile.getName());
+  }
+
   public void setFeaturedMod(FeaturedMod featuredMod) {
     this.featuredMod = featuredMod;
   }
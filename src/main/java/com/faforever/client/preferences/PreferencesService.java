@@ -23,14 +23,15 @@ import javafx.scene.paint.Color;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.bridge.SLF4JBridgeHandler;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.Writer;
 import java.lang.invoke.MethodHandles;
 import java.lang.ref.WeakReference;
 import java.net.HttpURLConnection;
@@ -41,18 +42,17 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.MessageFormat;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Collection;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 
 import static com.github.nocatch.NoCatch.noCatch;
 
 @Lazy
 @Service
-public class PreferencesService implements InitializingBean {
+public class PreferencesService implements InitializingBean, DisposableBean {
 
   public static final String SUPREME_COMMANDER_EXE = "SupremeCommander.exe";
   public static final String FORGED_ALLIANCE_EXE = "ForgedAlliance.exe";
@@ -63,7 +63,9 @@ public class PreferencesService implements InitializingBean {
    */
   private static final Path FAF_DATA_DIRECTORY;
   private static final Logger logger;
-  private static final long STORE_DELAY = 1000;
+  private static final Duration STORE_DELAY = Duration.ofSeconds(1);
+  /** Preferences that keep changing are stored at least this often. */
+  private static final Duration STORE_MAX_DELAY = Duration.ofSeconds(10);
   private static final Charset CHARSET = StandardCharsets.UTF_8;
   private static final String PREFS_FILE_NAME = "client.prefs";
   private static final String APP_DATA_SUB_FOLDER = "Forged Alliance Forever";
@@ -99,19 +101,23 @@ public class PreferencesService implements InitializingBean {
   /**
    * @see #storeInBackground()
    */
-  private final Timer timer;
+  private final PreferencesWriter preferencesWriter;
   private final Collection<WeakReference<PreferenceUpdateListener>> updateListeners;
   private final ClientProperties clientProperties;
 
   private Preferences preferences;
-  private TimerTask storeInBackgroundTask;
 
-  public PreferencesService(ClientProperties clientProperties) {
+  public PreferencesService(ClientProperties clientProperties, TaskScheduler taskScheduler) {
     this.clientProperties = clientProperties;
-    updateListeners = new ArrayList<>();
+    updateListeners = new CopyOnWriteArrayList<>();
     this.preferencesFilePath = getPreferencesDirectory().resolve(PREFS_FILE_NAME);
-    timer = new Timer("PrefTimer", true);
-    gson = new GsonBuilder()
+    gson = createGson();
+    preferencesWriter = new PreferencesWriter(preferencesFilePath, () -> gson.toJson(preferences),
+        this::notifyUpdateListeners, STORE_DELAY, STORE_MAX_DELAY, taskScheduler);
+  }
+
+  static Gson createGson() {
+    return new GsonBuilder()
         .setPrettyPrinting()
         .addDeserializationExclusionStrategy(new ExcludeFieldsWithExcludeAnnotationStrategy())
         .addSerializationExclusionStrategy(new ExcludeFieldsWithExcludeAnnotationStrategy())
@@ -134,7 +140,13 @@ public class PreferencesService implements InitializingBean {
   public void afterPropertiesSet() throws IOException {
     if (Files.exists(preferencesFilePath)) {
       deleteFileIfEmpty();
+    }
+    Path backupFile = PreferencesWriter.getBackupFile(preferencesFilePath);
+    if (Files.exists(preferencesFilePath)) {
       readExistingFile(preferencesFilePath);
+    } else if (Files.exists(backupFile)) {
+      logger.warn("Preferences file {} is missing, reading its backup", preferencesFilePath.toAbsolutePath());
+      readExistingFile(backupFile);
     } else {
       preferences = new Preferences();
     }
@@ -206,6 +218,12 @@ public class PreferencesService implements InitializingBean {
       preferences = gson.fromJson(reader, Preferences.class);
     } catch (Exception e) {
       logger.warn("Preferences file " + path.toAbsolutePath() + " could not be read", e);
+      Path backupFile = PreferencesWriter.getBackupFile(preferencesFilePath);
+      if (!path.equals(backupFile) && Files.exists(backupFile)) {
+        logger.info("Reading backup of preferences file {}", backupFile.toAbsolutePath());
+        readExistingFile(backupFile);
+        return;
+      }
       CountDownLatch waitForUser = new CountDownLatch(1);
       Platform.runLater(() -> {
         Alert errorReading = new Alert(AlertType.ERROR, "Error reading setting. Reset settings? ", ButtonType.YES, ButtonType.CANCEL);
@@ -240,20 +258,12 @@ public class PreferencesService implements InitializingBean {
     return preferences;
   }
 
+  /**
+   * Stores the preferences right away, in the calling thread. Prefer {@link #storeInBackground()}.
+   */
   public void store() {
-    Path parent = preferencesFilePath.getParent();
     try {
-      if (!Files.exists(parent)) {
-        Files.createDirectories(parent);
-      }
-    } catch (IOException e) {
-      logger.warn("Could not create directory " + parent.toAbsolutePath(), e);
-      return;
-    }
-
-    try (Writer writer = Files.newBufferedWriter(preferencesFilePath, CHARSET)) {
-      logger.debug("Writing preferences file {}", preferencesFilePath.toAbsolutePath());
-      gson.toJson(preferences, writer);
+      preferencesWriter.write();
     } catch (IOException e) {
       logger.warn("Preferences file " + preferencesFilePath.toAbsolutePath() + " could not be written", e);
     }
@@ -261,35 +271,27 @@ public class PreferencesService implements InitializingBean {
 
   /**
    * Stores the preferences in background, with a delay of {@link #STORE_DELAY}. Each subsequent call to this method
-   * during that delay causes the delay to be reset. This ensures that the prefs file is written only once if multiple
-   * calls occur within a short time.
+   * during that delay causes the delay to be reset, up to {@link #STORE_MAX_DELAY}. This ensures that the prefs file is
+   * written only once if multiple calls occur within a short time.
    */
   public void storeInBackground() {
-    if (storeInBackgroundTask != null) {
-      storeInBackgroundTask.cancel();
-    }
-
-    storeInBackgroundTask = new TimerTask() {
-      @Override
-      public void run() {
-        store();
-        ArrayList<WeakReference<PreferenceUpdateListener>> toBeRemoved = new ArrayList<>();
-        for (WeakReference<PreferenceUpdateListener> updateListener : updateListeners) {
-          PreferenceUpdateListener preferenceUpdateListener = updateListener.get();
-          if (preferenceUpdateListener == null) {
-            toBeRemoved.add(updateListener);
-            continue;
-          }
-          preferenceUpdateListener.onPreferencesUpdated(preferences);
-        }
+    preferencesWriter.scheduleWrite();
+  }
 
-        for (WeakReference<PreferenceUpdateListener> preferenceUpdateListenerWeakReference : toBeRemoved) {
-          updateListeners.remove(preferenceUpdateListenerWeakReference);
-        }
+  private void notifyUpdateListeners() {
+    for (WeakReference<PreferenceUpdateListener> updateListener : updateListeners) {
+      PreferenceUpdateListener preferenceUpdateListener = updateListener.get();
+      if (preferenceUpdateListener == null) {
+        updateListeners.remove(updateListener);
+        continue;
       }
-    };
+      preferenceUpdateListener.onPreferencesUpdated(preferences);
+    }
+  }
 
-    timer.schedule(storeInBackgroundTask, STORE_DELAY);
+  @Override
+  public void destroy() throws IOException {
+    preferencesWriter.close();
   }
 
   /**
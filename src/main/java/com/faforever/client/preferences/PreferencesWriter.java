@@ -0,0 +1,194 @@
+package com.faforever.client.preferences;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ConcurrentModificationException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes the preferences file in background, so that changing a preference never waits for the disk.
+ * <p>
+ * Changes that are made in quick succession are written once, after no further change has been made for a short delay
+ * but no later than a maximum delay after the first of them. The preferences are serialized by the application's task
+ * scheduler, and nothing is written if the result is the same as last time. The file is written to a temporary file first which
+ * then replaces the actual file, so that a crash while writing can't leave a truncated file behind. The first write of
+ * a session moves the file of the previous session to a backup, to which the client can fall back if the file can't
+ * be read.
+ */
+class PreferencesWriter implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /**
+   * The preferences are modified on the application thread while they're being serialized, which fails if a collection
+   * is modified at that time. This is rare enough that simply retrying is the best option.
+   */
+  private static final int SERIALIZATION_ATTEMPTS = 3;
+
+  private final Path file;
+  private final Path tempFile;
+  private final Path backupFile;
+  private final Supplier<String> serializer;
+  private final Runnable writeListener;
+  private final long delayNanos;
+  private final long maxDelayNanos;
+  private final TaskScheduler taskScheduler;
+  private final Object writeLock;
+
+  private ScheduledFuture<?> scheduledWrite;
+  private boolean changesPending;
+  private long firstPendingChange;
+
+  // Guarded by writeLock
+  private String writtenContent;
+  private boolean backupRotated;
+
+  /**
+   * @param serializer returns the content to write
+   * @param writeListener called after changes have been written in background
+   * @param taskScheduler writes changes in background
+   */
+  PreferencesWriter(Path file, Supplier<String> serializer, Runnable writeListener, Duration delay, Duration maxDelay,
+                    TaskScheduler taskScheduler) {
+    this.file = file;
+    this.tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+    this.backupFile = getBackupFile(file);
+    this.serializer = serializer;
+    this.writeListener = writeListener;
+    this.delayNanos = delay.toNanos();
+    this.maxDelayNanos = maxDelay.toNanos();
+    this.taskScheduler = taskScheduler;
+    this.writeLock = new Object();
+  }
+
+  static Path getBackupFile(Path file) {
+    return file.resolveSibling(file.getFileName() + ".bak");
+  }
+
+  /**
+   * Writes the preferences in background after a delay, unless this method is called again during that delay.
+   */
+  synchronized void scheduleWrite() {
+    long now = System.nanoTime();
+    if (changesPending) {
+      scheduledWrite.cancel(false);
+    } else {
+      changesPending = true;
+      firstPendingChange = now;
+    }
+    long delay = Math.max(0, Math.min(delayNanos, firstPendingChange + maxDelayNanos - now));
+    scheduledWrite = taskScheduler.schedule(this::writePendingChanges, Instant.now().plusNanos(delay));
+  }
+
+  synchronized boolean hasPendingChanges() {
+    return changesPending;
+  }
+
+  /**
+   * Writes the preferences right away, in the calling thread.
+   */
+  void write() throws IOException {
+    synchronized (this) {
+      if (changesPending) {
+        scheduledWrite.cancel(false);
+        changesPending = false;
+      }
+    }
+
+    synchronized (writeLock) {
+      String content = serialize();
+      if (content.equals(writtenContent)) {
+        logger.trace("Preferences are unchanged, not writing {}", file);
+        return;
+      }
+      logger.debug("Writing preferences file {}", file.toAbsolutePath());
+      Files.createDirectories(file.getParent());
+      try (FileChannel channel = FileChannel.open(tempFile, CREATE, TRUNCATE_EXISTING, WRITE)) {
+        ByteBuffer buffer = UTF_8.encode(content);
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(true);
+      }
+      rotateBackup();
+      replace(tempFile, file);
+      writtenContent = content;
+    }
+  }
+
+  /**
+   * Writes pending changes, if any, right away.
+   */
+  @Override
+  public void close() throws IOException {
+    if (hasPendingChanges()) {
+      write();
+    }
+  }
+
+  private void writePendingChanges() {
+    synchronized (this) {
+      if (!changesPending) {
+        return;
+      }
+      changesPending = false;
+    }
+    try {
+      write();
+    } catch (IOException e) {
+      logger.warn("Preferences file " + file.toAbsolutePath() + " could not be written", e);
+      return;
+    }
+    writeListener.run();
+  }
+
+  private String serialize() {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return serializer.get();
+      } catch (ConcurrentModificationException e) {
+        if (attempt == SERIALIZATION_ATTEMPTS) {
+          throw e;
+        }
+        logger.debug("Preferences have been modified while serializing them, retrying");
+      }
+    }
+  }
+
+  private void rotateBackup() throws IOException {
+    if (backupRotated) {
+      return;
+    }
+    if (Files.exists(file) && Files.size(file) > 0) {
+      replace(file, backupFile);
+    }
+    backupRotated = true;
+  }
+
+  private static void replace(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, REPLACE_EXISTING, ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, REPLACE_EXISTING);
+    }
+  }
+}
@@ -1,35 +1,78 @@
 package com.faforever.client.remote;
 
+import com.faforever.client.config.ClientProperties;
 import com.faforever.client.fx.JavaFxUtil;
+import com.faforever.client.io.LruDiskCache;
 import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.util.BoundedExecutor;
+import com.google.common.hash.Hashing;
+import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.image.Image;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import javax.imageio.ImageIO;
 import javax.inject.Inject;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 import static com.github.nocatch.NoCatch.noCatch;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 
+/**
+ * Loads images from URLs and caches them on disk. Images are decoded in the background by JavaFX, while everything
+ * else that touches the disk cache is done by a few threads of the shared I/O pool at a time. Concurrent requests for
+ * the same image (same URL and size) share a single {@link Image} instance for as long as it's loading.
+ */
 @Lazy
 @Service
-public class AssetService {
+public class AssetService implements DisposableBean {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final String DEFAULT_IMAGE_FORMAT = "png";
+  private static final int IO_THREADS = 2;
 
   private final PreferencesService preferencesService;
+  /** Runs the disk cache's I/O on the shared I/O pool, but only a few tasks at a time. */
+  private final Executor ioExecutor;
+  /** Limits the size of all image cache folders together. */
+  private final LruDiskCache diskCache;
+  /** Cache folders whose scan has been started. */
+  private final Set<Path> trackedCacheDirectories;
+  /** Cache folders whose content is known to {@link #diskCache}, so that it can tell whether a file exists. */
+  private final Set<Path> indexedCacheDirectories;
+  private final Map<String, Image> loadingImages;
+  private final Map<String, CacheStatistics> statisticsByCategory;
 
   @Inject
-  public AssetService(PreferencesService preferencesService) {
+  public AssetService(PreferencesService preferencesService, ClientProperties clientProperties, ThreadPoolExecutor threadPoolExecutor) {
     this.preferencesService = preferencesService;
+    ioExecutor = new BoundedExecutor(threadPoolExecutor, IO_THREADS);
+    diskCache = new LruDiskCache(clientProperties.getCache().getImageMaxDiskBytes());
+    trackedCacheDirectories = ConcurrentHashMap.newKeySet();
+    indexedCacheDirectories = ConcurrentHashMap.newKeySet();
+    loadingImages = new ConcurrentHashMap<>();
+    statisticsByCategory = new ConcurrentHashMap<>();
   }
 
   @Nullable
@@ -46,18 +89,188 @@ public class AssetService {
       return defaultSupplier.get();
     }
 
-    String urlString = url.toString();
-    String filename = urlString.substring(urlString.lastIndexOf('/') + 1);
-    Path cachePath = preferencesService.getCacheDirectory().resolve(cacheSubFolder).resolve(filename);
-    if (Files.exists(cachePath)) {
+    CacheStatistics statistics = statisticsByCategory.computeIfAbsent(toCategory(cacheSubFolder), category -> new CacheStatistics());
+    String key = url + "@" + width + "x" + height;
+    Image loadingImage = loadingImages.get(key);
+    if (loadingImage != null) {
+      statistics.coalesced.increment();
+      return loadingImage;
+    }
+
+    Path cacheDirectory = preferencesService.getCacheDirectory().resolve(cacheSubFolder);
+    String format = getImageFormat(url);
+    Path cachePath = cacheDirectory.resolve(toCacheFileName(url, format));
+    boolean cached = isCached(cacheDirectory, cachePath);
+
+    Image image;
+    if (cached) {
       logger.debug("Using cached image: {}", cachePath);
-      return new Image(noCatch(() -> cachePath.toUri().toURL().toExternalForm()), width, height, true, true);
+      image = new Image(noCatch(() -> cachePath.toUri().toURL().toExternalForm()), width, height, true, true, true);
+    } else {
+      logger.debug("Fetching image {}", url);
+      image = new Image(url.toString(), width, height, true, true, true);
     }
 
-    logger.debug("Fetching image {}", url);
+    loadingImage = loadingImages.putIfAbsent(key, image);
+    if (loadingImage != null) {
+      image.cancel();
+      statistics.coalesced.increment();
+      return loadingImage;
+    }
 
-    Image image = new Image(url.toString(), width, height, true, true, true);
-    JavaFxUtil.persistImage(image, cachePath, filename.substring(filename.lastIndexOf('.') + 1));
+    if (cached) {
+      statistics.hits.increment();
+      ioExecutor.execute(() -> {
+        long size = diskCache.touch(cachePath);
+        if (size > 0) {
+          statistics.bytesRead.add(size);
+        }
+      });
+    } else {
+      statistics.misses.increment();
+    }
+
+    JavaFxUtil.runWhenLoaded(image, loadedImage -> {
+      loadingImages.remove(key, loadedImage);
+      if (loadedImage.isError()) {
+        logger.debug("Could not load image: {}", cached ? cachePath : url, loadedImage.getException());
+        if (cached) {
+          diskCache.remove(cachePath);
+        }
+      } else if (!cached) {
+        ioExecutor.execute(() -> writeToCache(loadedImage, cachePath, format, statistics));
+      }
+    });
     return image;
   }
+
+  /**
+   * Returns the cache statistics per category, which is the cache sub folder images are stored in.
+   */
+  public Map<String, CacheStatistics> getCacheStatistics() {
+    return Collections.unmodifiableMap(statisticsByCategory);
+  }
+
+  private boolean isCached(Path cacheDirectory, Path cachePath) {
+    if (indexedCacheDirectories.contains(cacheDirectory)) {
+      return diskCache.contains(cachePath);
+    }
+    if (trackedCacheDirectories.add(cacheDirectory)) {
+      ioExecutor.execute(() -> {
+        diskCache.track(cacheDirectory);
+        indexedCacheDirectories.add(cacheDirectory);
+      });
+    }
+    // Until the directory has been scanned, there's no way around asking the file system
+    return Files.exists(cachePath);
+  }
+
+  private void writeToCache(Image image, Path cachePath, String format, CacheStatistics statistics) {
+    BufferedImage bufferedImage = SwingFXUtils.fromFXImage(image, null);
+    if (bufferedImage == null) {
+      return;
+    }
+
+    Path tempFile = null;
+    try {
+      Files.createDirectories(cachePath.getParent());
+      tempFile = Files.createTempFile(cachePath.getParent(), cachePath.getFileName().toString(), LruDiskCache.TEMP_FILE_SUFFIX);
+      try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+        if (!ImageIO.write(bufferedImage, format, outputStream)) {
+          logger.debug("No image writer for format '{}', not caching: {}", format, cachePath);
+          return;
+        }
+      }
+      // Readers never see a partially written image
+      Files.move(tempFile, cachePath, REPLACE_EXISTING, ATOMIC_MOVE);
+      tempFile = null;
+
+      long size = Files.size(cachePath);
+      diskCache.add(cachePath, size);
+      statistics.bytesWritten.add(size);
+    } catch (IOException e) {
+      logger.warn("Could not cache image: " + cachePath, e);
+    } finally {
+      deleteTempFile(tempFile);
+    }
+  }
+
+  private static void deleteTempFile(@Nullable Path tempFile) {
+    if (tempFile == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(tempFile);
+    } catch (IOException e) {
+      logger.debug("Could not delete temporary file: {}", tempFile, e);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    statisticsByCategory.forEach((category, statistics) -> logger.debug("Image cache '{}': {}", category, statistics));
+  }
+
+  private static String toCategory(Path cacheSubFolder) {
+    return cacheSubFolder.toString().replace('\\', '/');
+  }
+
+  /**
+   * Derives the file name of a cached image from the full URL, since different URLs may share the same last segment
+   * (e.g. {@code small/foo.png} and {@code large/foo.png}).
+   */
+  private static String toCacheFileName(URL url, String format) {
+    return Hashing.sha256().hashString(url.toString(), UTF_8) + "." + format;
+  }
+
+  private static String getImageFormat(URL url) {
+    String path = url.getPath();
+    String filename = path.substring(path.lastIndexOf('/') + 1);
+    int extensionIndex = filename.lastIndexOf('.');
+    if (extensionIndex < 0 || extensionIndex == filename.length() - 1) {
+      return DEFAULT_IMAGE_FORMAT;
+    }
+    return filename.substring(extensionIndex + 1).toLowerCase();
+  }
+
+  public static final class CacheStatistics {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    public long getHits() {
+      return hits.sum();
+    }
+
+    public long getMisses() {
+      return misses.sum();
+    }
+
+    /** Number of requests that have been served by an image that was still loading for a previous request. */
+    public long getCoalesced() {
+      return coalesced.sum();
+    }
+
+    public long getBytesRead() {
+      return bytesRead.sum();
+    }
+
+    public long getBytesWritten() {
+      return bytesWritten.sum();
+    }
+
+    public double getHitRate() {
+      long hits = getHits();
+      long requests = hits + getMisses();
+      return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("hits=%d, misses=%d, coalesced=%d, hitRate=%.2f, bytesRead=%d, bytesWritten=%d",
+          getHits(), getMisses(), getCoalesced(), getHitRate(), getBytesRead(), getBytesWritten());
+    }
+  }
 }
@@ -241,15 +241,15 @@ public class FafService {
   }
 
   @Async
-  public CompletableFuture<List<LeaderboardEntry>> getLadder1v1Leaderboard() {
-    return CompletableFuture.completedFuture(fafApiAccessor.getLadder1v1Leaderboard().parallelStream()
+  public CompletableFuture<List<LeaderboardEntry>> getLadder1v1Leaderboard(int pageSize, int page) {
+    return CompletableFuture.completedFuture(fafApiAccessor.getLadder1v1Leaderboard(pageSize, page).stream()
         .map(LeaderboardEntry::fromLadder1v1)
         .collect(toList()));
   }
 
   @Async
-  public CompletableFuture<List<LeaderboardEntry>> getGlobalLeaderboard() {
-    return CompletableFuture.completedFuture(fafApiAccessor.getGlobalLeaderboard().parallelStream()
+  public CompletableFuture<List<LeaderboardEntry>> getGlobalLeaderboard(int pageSize, int page) {
+    return CompletableFuture.completedFuture(fafApiAccessor.getGlobalLeaderboard(pageSize, page).stream()
         .map(LeaderboardEntry::fromGlobalRating)
         .collect(toList()));
   }
@@ -297,12 +297,10 @@ public class FafService {
         .collect(toList()));
   }
 
-  @Async
-  public CompletableFuture<List<MapBean>> findMapsByQuery(SearchConfig query, int page, int count) {
-    return CompletableFuture.completedFuture(fafApiAccessor.findMapsByQuery(query, page, count)
-        .parallelStream()
+  public CompletableFuture<Void> findMapsByQuery(SearchConfig query, int page, int count, Consumer<List<MapBean>> pageConsumer) {
+    return fafApiAccessor.findMapsByQuery(query, page, count, maps -> pageConsumer.accept(maps.stream()
         .map(MapBean::fromMapDto)
-        .collect(toList()));
+        .collect(toList())));
   }
 
   public CompletableFuture<Optional<MapBean>> findMapByFolderName(String folderName) {
@@ -425,6 +423,12 @@ public class FafService {
         .collect(toList()));
   }
 
+  public CompletableFuture<Void> findModsByQuery(SearchConfig query, int page, int count, Consumer<List<ModVersion>> pageConsumer) {
+    return fafApiAccessor.findModsByQuery(query, page, count, mods -> pageConsumer.accept(mods.stream()
+        .map(ModVersion::fromModDto)
+        .collect(toList())));
+  }
+
   @Async
   public CompletableFuture<List<MapBean>> getLadder1v1Maps(int count, int page) {
     List<MapBean> maps = fafApiAccessor.getLadder1v1Maps(count, page).stream()
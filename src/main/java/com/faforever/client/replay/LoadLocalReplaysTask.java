@@ -18,7 +18,7 @@ public class LoadLocalReplaysTask extends CompletableTask<Collection<Replay>> {
 
   @Inject
   public LoadLocalReplaysTask(ReplayService replayService, I18n i18n) {
-    super(Priority.HIGH);
+    super(Priority.HIGH, ResourceClass.DISK);
     this.replayService = replayService;
     this.i18n = i18n;
   }
@@ -2,9 +2,9 @@ package com.faforever.client.replay;
 
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.CompletableTask;
-import com.faforever.commons.io.ByteCopier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
@@ -12,14 +12,8 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
-import java.net.HttpURLConnection;
 import java.net.URL;
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 @Component
@@ -32,16 +26,18 @@ public class ReplayDownloadTask extends CompletableTask<Path> {
   private final I18n i18n;
   private final ClientProperties clientProperties;
   private final PreferencesService preferencesService;
+  private final DownloadService downloadService;
 
   private int replayId;
 
   @Inject
-  public ReplayDownloadTask(I18n i18n, ClientProperties clientProperties, PreferencesService preferencesService) {
+  public ReplayDownloadTask(I18n i18n, ClientProperties clientProperties, PreferencesService preferencesService, DownloadService downloadService) {
     super(Priority.HIGH);
 
     this.i18n = i18n;
     this.clientProperties = clientProperties;
     this.preferencesService = preferencesService;
+    this.downloadService = downloadService;
   }
 
   @Override
@@ -52,25 +48,9 @@ public class ReplayDownloadTask extends CompletableTask<Path> {
 
     logger.info("Downloading replay {} from {}", replayId, replayUrl);
 
-    HttpURLConnection urlConnection = (HttpURLConnection) new URL(replayUrl).openConnection();
-    urlConnection.setInstanceFollowRedirects(true);
-    int bytesToRead = urlConnection.getContentLength();
-
     Path tempSupComReplayFile = preferencesService.getCacheDirectory().resolve(TEMP_FAF_REPLAY_FILE_NAME);
-
-    Files.createDirectories(tempSupComReplayFile.getParent());
-
-    try (InputStream inputStream = new BufferedInputStream(urlConnection.getInputStream());
-         OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempSupComReplayFile))) {
-
-      ByteCopier.from(inputStream)
-          .to(outputStream)
-          .totalBytes(bytesToRead)
-          .listener(this::updateProgress)
-          .copy();
-
-      return tempSupComReplayFile;
-    }
+    downloadService.downloadFile(new URL(replayUrl), tempSupComReplayFile, this::updateProgress);
+    return tempSupComReplayFile;
   }
 
 
@@ -18,6 +18,7 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
@@ -31,6 +32,7 @@ import java.net.SocketException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static com.github.nocatch.NoCatch.noCatch;
 
@@ -59,6 +61,7 @@ public class ReplayServerImpl implements ReplayServer {
   private final UserService userService;
   private final ReplayFileWriter replayFileWriter;
   private final ClientUpdateService clientUpdateService;
+  private final Executor daemonExecutor;
 
   private LocalReplayInfo replayInfo;
   private ServerSocket serverSocket;
@@ -67,7 +70,7 @@ public class ReplayServerImpl implements ReplayServer {
   @Inject
   public ReplayServerImpl(ClientProperties clientProperties, NotificationService notificationService, I18n i18n,
                           GameService gameService, UserService userService, ReplayFileWriter replayFileWriter,
-                          ClientUpdateService clientUpdateService) {
+                          ClientUpdateService clientUpdateService, @Named("daemonExecutor") Executor daemonExecutor) {
     this.clientProperties = clientProperties;
     this.notificationService = notificationService;
     this.i18n = i18n;
@@ -75,6 +78,7 @@ public class ReplayServerImpl implements ReplayServer {
     this.userService = userService;
     this.replayFileWriter = replayFileWriter;
     this.clientUpdateService = clientUpdateService;
+    this.daemonExecutor = daemonExecutor;
   }
 
   /**
@@ -97,7 +101,7 @@ public class ReplayServerImpl implements ReplayServer {
   public CompletableFuture<Integer> start(int gameId) {
     stoppedGracefully = false;
     CompletableFuture<Integer> future = new CompletableFuture<>();
-    new Thread(() -> {
+    daemonExecutor.execute(() -> {
       String remoteReplayServerHost = clientProperties.getReplay().getRemoteHost();
       Integer remoteReplayServerPort = clientProperties.getReplay().getRemotePort();
 
@@ -127,7 +131,7 @@ public class ReplayServerImpl implements ReplayServer {
             Severity.WARN, Collections.singletonList(new Action(i18n.get("replayServer.retry"), event -> start(gameId)))
         ));
       }
-    }).start();
+    });
     return future;
   }
 
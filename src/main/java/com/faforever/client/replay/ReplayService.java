@@ -7,6 +7,7 @@ import com.faforever.client.game.Game;
 import com.faforever.client.game.GameService;
 import com.faforever.client.game.KnownFeaturedMod;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
 import com.faforever.client.map.MapService;
 import com.faforever.client.mod.FeaturedMod;
 import com.faforever.client.mod.ModService;
@@ -111,6 +112,7 @@ public class ReplayService {
   private final FafService fafService;
   private final ModService modService;
   private final MapService mapService;
+  private final DownloadService downloadService;
 
   @Inject
   public ReplayService(ClientProperties clientProperties, PreferencesService preferencesService,
@@ -118,7 +120,7 @@ public class ReplayService {
                        GameService gameService, TaskService taskService, I18n i18n,
                        ReportingService reportingService, ApplicationContext applicationContext,
                        PlatformService platformService, ReplayServer replayServer, FafService fafService,
-                       ModService modService, MapService mapService) {
+                       ModService modService, MapService mapService, DownloadService downloadService) {
     this.clientProperties = clientProperties;
     this.preferencesService = preferencesService;
     this.replayFileReader = replayFileReader;
@@ -133,6 +135,7 @@ public class ReplayService {
     this.fafService = fafService;
     this.modService = modService;
     this.mapService = mapService;
+    this.downloadService = downloadService;
   }
 
   @VisibleForTesting
@@ -347,9 +350,8 @@ public class ReplayService {
 
   @SneakyThrows
   public CompletableFuture<Integer> getSize(int id) {
-    return CompletableFuture.supplyAsync(() -> noCatch(() -> new URL(String.format(clientProperties.getVault().getReplayDownloadUrlFormat(), id))
-        .openConnection()
-        .getContentLength()));
+    return CompletableFuture.supplyAsync(() -> noCatch(() -> (int) downloadService.getContentLength(
+        new URL(String.format(clientProperties.getVault().getReplayDownloadUrlFormat(), id)))));
   }
 
 
@@ -0,0 +1,172 @@
+package com.faforever.client.startup;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.preferences.PreferencesService;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Creates the class data sharing (AppCDS) archive that the packaged client is launched with. Sharing the classes
+ * loaded during startup saves loading and verifying them on every launch, but an archive is only valid for the class
+ * path it was created with, and thus can't be created at build time. Instead, the build records the classes to share
+ * in a training run and ships the list next to the client's libraries. If the archive is missing or can't be used
+ * (e.g. after an update changed the libraries), it's created from that list by a separate JVM, and used from the next
+ * launch on. The archive is kept in the user's home directory, since the installation directory usually isn't
+ * writable.
+ */
+@Lazy
+@Service
+public class ClassDataSharingService implements WarmUp {
+
+  static final String CLASS_LIST_FILE_NAME = "faf-client.classlist";
+
+  private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final String SHARED_ARCHIVE_FILE_OPTION = "-XX:SharedArchiveFile=";
+  /** Required for sharing application classes on Java 10, obsolete since Java 11. */
+  private static final String USE_APP_CDS_OPTION = "-XX:+UseAppCDS";
+
+  private final ClientProperties clientProperties;
+  private final PreferencesService preferencesService;
+
+  @Inject
+  public ClassDataSharingService(ClientProperties clientProperties, PreferencesService preferencesService) {
+    this.clientProperties = clientProperties;
+    this.preferencesService = preferencesService;
+  }
+
+  static Optional<Path> getSharedArchiveFile(List<String> inputArguments) {
+    return inputArguments.stream()
+        .filter(argument -> argument.startsWith(SHARED_ARCHIVE_FILE_OPTION))
+        .map(argument -> Paths.get(argument.substring(SHARED_ARCHIVE_FILE_OPTION.length())).toAbsolutePath())
+        .reduce((first, second) -> second);
+  }
+
+  static List<String> getDumpCommand(Path classList, Path archive, String classPath, List<String> inputArguments) {
+    String javaExecutable = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+
+    List<String> command = new ArrayList<>();
+    command.add(javaExecutable);
+    if (inputArguments.contains(USE_APP_CDS_OPTION)) {
+      command.add(USE_APP_CDS_OPTION);
+    }
+    command.add("-Xshare:dump");
+    command.add("-XX:SharedClassListFile=" + classList);
+    command.add(SHARED_ARCHIVE_FILE_OPTION + archive);
+    command.add("-cp");
+    command.add(classPath);
+    return command;
+  }
+
+  /**
+   * Returns the class list that is shipped in the directory of the client's jar.
+   */
+  private static Optional<Path> getClassListFile() {
+    CodeSource codeSource = ClassDataSharingService.class.getProtectionDomain().getCodeSource();
+    if (codeSource == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Paths.get(codeSource.getLocation().toURI()).resolveSibling(CLASS_LIST_FILE_NAME));
+    } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+      logger.debug("Location of the client's jar could not be determined", e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Returns whether the JVM uses a shared archive. If the archive it has been launched with doesn't exist or doesn't
+   * match the class path, it silently runs without.
+   */
+  private static boolean isSharingEnabled() {
+    try {
+      return Boolean.parseBoolean(ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class)
+          .getVMOption("UseSharedSpaces").getValue());
+    } catch (IllegalArgumentException e) {
+      // The option has been removed in later Java versions, don't create archives over and over again
+      return true;
+    }
+  }
+
+  @Override
+  public void warmUp() throws IOException {
+    if (!clientProperties.getStartup().isCreateSharedArchive()) {
+      return;
+    }
+
+    List<String> inputArguments = ManagementFactory.getRuntimeMXBean().getInputArguments();
+    Optional<Path> optionalArchive = getSharedArchiveFile(inputArguments);
+    if (!optionalArchive.isPresent()) {
+      logger.debug("Client has not been launched with a shared archive");
+      return;
+    }
+    if (isSharingEnabled()) {
+      logger.debug("Client has been launched with a usable shared archive");
+      return;
+    }
+
+    Path archive = optionalArchive.get();
+    Optional<Path> classList = getClassListFile();
+    if (!classList.isPresent() || Files.notExists(classList.get())) {
+      logger.info("Not creating shared archive {} since there is no class list {}", archive, classList.orElse(null));
+      return;
+    }
+    Files.createDirectories(archive.getParent());
+    if (!Files.isWritable(archive.getParent())) {
+      logger.info("Not creating shared archive {} since its directory is not writable", archive);
+      return;
+    }
+
+    createSharedArchive(classList.get(), archive, inputArguments);
+  }
+
+  private void createSharedArchive(Path classList, Path archive, List<String> inputArguments) throws IOException {
+    Path tempArchive = archive.resolveSibling(archive.getFileName() + ".tmp");
+    Path logFile = preferencesService.getFafLogDirectory().resolve("shared-archive.log");
+    Files.createDirectories(logFile.getParent());
+
+    List<String> command = getDumpCommand(classList, tempArchive, System.getProperty("java.class.path"), inputArguments);
+    logger.info("Creating shared archive {}, see {}", archive, logFile);
+    long startNanos = System.nanoTime();
+
+    Process process = new ProcessBuilder(command)
+        .redirectErrorStream(true)
+        .redirectOutput(Redirect.to(logFile.toFile()))
+        .start();
+
+    // Don't keep the warm-up waiting, dumping takes a while and isn't needed for this session
+    process.onExit().thenAccept(exitedProcess -> {
+      long millis = (System.nanoTime() - startNanos) / 1_000_000;
+      if (exitedProcess.exitValue() != 0) {
+        logger.warn("Creating shared archive failed with exit code {} after {} ms, see {}",
+            exitedProcess.exitValue(), millis, logFile);
+        return;
+      }
+      try {
+        Files.move(tempArchive, archive, REPLACE_EXISTING);
+        logger.info("Created shared archive {} in {} ms, it will be used from the next start on", archive, millis);
+      } catch (IOException e) {
+        logger.warn("Shared archive could not be moved to " + archive, e);
+      }
+    });
+  }
+}
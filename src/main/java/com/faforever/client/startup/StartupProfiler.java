@@ -0,0 +1,196 @@
+package com.faforever.client.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a timeline of the client's startup: how long the initialization of each bean took ({@code afterPropertiesSet},
+ * {@code @PostConstruct} and so on) and when milestones, like showing the main window, were reached. The timeline is
+ * logged once {@link #finish()} has been called, after which nothing is recorded anymore.
+ * <p>
+ * Beans that are initialized while another bean is being initialized (e.g. by looking them up in its {@code
+ * afterPropertiesSet}) count towards the time of both.
+ */
+@Component
+public class StartupProfiler implements BeanPostProcessor, PriorityOrdered {
+
+  private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /** Beans that are listed at info level, the others are only logged at debug level. */
+  private static final int SLOWEST_BEANS_TO_LOG = 15;
+
+  /** The beans being initialized by the current thread, innermost first. */
+  private final ThreadLocal<Deque<Initialization>> initializations;
+  private final Map<String, BeanTiming> beanTimings;
+  private final Map<String, Long> milestones;
+
+  private volatile boolean finished;
+
+  public StartupProfiler() {
+    initializations = ThreadLocal.withInitial(ArrayDeque::new);
+    beanTimings = new HashMap<>();
+    milestones = new LinkedHashMap<>();
+  }
+
+  @Override
+  public int getOrder() {
+    // Runs before any other post processor, so that @PostConstruct methods are included
+    return Ordered.HIGHEST_PRECEDENCE;
+  }
+
+  @Override
+  public Object postProcessBeforeInitialization(Object bean, String beanName) {
+    initializations.get().push(new Initialization(beanName, System.nanoTime()));
+    return bean;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    Deque<Initialization> stack = initializations.get();
+    // Objects created by factory beans are only post processed after initialization
+    if (stack.isEmpty() || !stack.peek().beanName.equals(beanName)) {
+      return bean;
+    }
+    record(beanName, System.nanoTime() - stack.pop().startNanos);
+    if (stack.isEmpty()) {
+      initializations.remove();
+    }
+    return bean;
+  }
+
+  /**
+   * Records that initializing something, e.g. warming up a bean, took the specified time.
+   */
+  public void record(String name, long nanos) {
+    if (finished) {
+      return;
+    }
+    synchronized (beanTimings) {
+      beanTimings.computeIfAbsent(name, BeanTiming::new).add(nanos);
+    }
+  }
+
+  /**
+   * Records that a milestone of the startup has been reached, at the current time since the JVM has been started.
+   */
+  public void mark(String milestone) {
+    if (finished) {
+      return;
+    }
+    long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+    synchronized (milestones) {
+      milestones.putIfAbsent(milestone, uptime);
+    }
+    logger.info("Startup milestone '{}' reached after {} ms", milestone, uptime);
+  }
+
+  /**
+   * Logs the timeline and stops recording. Calling this method more than once has no effect.
+   */
+  public void finish() {
+    synchronized (this) {
+      if (finished) {
+        return;
+      }
+      finished = true;
+    }
+
+    synchronized (milestones) {
+      milestones.forEach((milestone, uptime) -> logger.info("Startup timeline: {} ms {}", uptime, milestone));
+    }
+
+    List<BeanTiming> timings = getBeanTimings();
+    for (int i = 0; i < timings.size(); i++) {
+      if (i < SLOWEST_BEANS_TO_LOG) {
+        logger.info("Startup timeline: {}", timings.get(i));
+      } else {
+        logger.debug("Startup timeline: {}", timings.get(i));
+      }
+    }
+  }
+
+  /** Returns the initialization times recorded so far, slowest first. */
+  public List<BeanTiming> getBeanTimings() {
+    List<BeanTiming> timings = new ArrayList<>();
+    synchronized (beanTimings) {
+      beanTimings.values().forEach(beanTiming -> timings.add(beanTiming.copy()));
+    }
+    timings.sort(Comparator.comparingLong(BeanTiming::getTotalNanos).reversed());
+    return timings;
+  }
+
+  public Map<String, Long> getMilestones() {
+    synchronized (milestones) {
+      return new LinkedHashMap<>(milestones);
+    }
+  }
+
+  /**
+   * The time that initializing all instances of a bean took; there is more than one for prototypes like controllers.
+   */
+  public static final class BeanTiming {
+    private final String beanName;
+    private int count;
+    private long totalNanos;
+
+    private BeanTiming(String beanName) {
+      this.beanName = beanName;
+    }
+
+    private BeanTiming copy() {
+      BeanTiming copy = new BeanTiming(beanName);
+      copy.count = count;
+      copy.totalNanos = totalNanos;
+      return copy;
+    }
+
+    private void add(long nanos) {
+      count++;
+      totalNanos += nanos;
+    }
+
+    public String getBeanName() {
+      return beanName;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s initialized %d time(s) in %d ms", beanName, count,
+          TimeUnit.NANOSECONDS.toMillis(totalNanos));
+    }
+  }
+
+  private static final class Initialization {
+    private final String beanName;
+    private final long startNanos;
+
+    private Initialization(String beanName, long startNanos) {
+      this.beanName = beanName;
+      this.startNanos = startNanos;
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.faforever.client.startup;
+
+/**
+ * Implemented by beans with initialization that isn't needed to show the first window, like reading the installed
+ * maps and mods. Instead of initializing eagerly, such beans do it in {@link #warmUp()}, which {@link WarmUpService}
+ * calls in background once the main window is shown. All warm-ups run in parallel, so they must not depend on each
+ * other.
+ */
+public interface WarmUp {
+
+  /**
+   * Runs the initialization. Called once, in a background thread.
+   */
+  void warmUp() throws Exception;
+}
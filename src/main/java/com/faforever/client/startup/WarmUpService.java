@@ -0,0 +1,73 @@
+package com.faforever.client.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the {@link WarmUp}s of all beans in parallel, after the main window has been shown, and logs the startup
+ * timeline once all of them have finished.
+ */
+@Lazy
+@Service
+public class WarmUpService {
+
+  private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final ApplicationContext applicationContext;
+  private final Executor executor;
+  private final StartupProfiler startupProfiler;
+
+  private CompletableFuture<Void> warmUpFuture;
+
+  @Inject
+  public WarmUpService(ApplicationContext applicationContext, Executor executor, StartupProfiler startupProfiler) {
+    this.applicationContext = applicationContext;
+    this.executor = executor;
+    this.startupProfiler = startupProfiler;
+  }
+
+  /**
+   * Starts all warm-ups, unless they've been started before. Failing warm-ups are logged but don't fail the returned
+   * future, which completes once all of them have finished.
+   */
+  public synchronized CompletableFuture<Void> warmUp() {
+    if (warmUpFuture != null) {
+      return warmUpFuture;
+    }
+
+    Map<String, WarmUp> warmUps = applicationContext.getBeansOfType(WarmUp.class);
+    logger.debug("Starting {} warm-ups", warmUps.size());
+
+    warmUpFuture = CompletableFuture.allOf(warmUps.entrySet().stream()
+        .map(entry -> CompletableFuture.runAsync(() -> warmUp(entry.getKey(), entry.getValue()), executor))
+        .toArray(CompletableFuture[]::new))
+        .whenComplete((aVoid, throwable) -> {
+          startupProfiler.mark("Warm-up finished");
+          startupProfiler.finish();
+        });
+    return warmUpFuture;
+  }
+
+  private void warmUp(String beanName, WarmUp warmUp) {
+    long startNanos = System.nanoTime();
+    try {
+      warmUp.warmUp();
+    } catch (Exception e) {
+      logger.warn("Warm-up of '" + beanName + "' failed", e);
+    } finally {
+      long nanos = System.nanoTime() - startNanos;
+      logger.debug("Warm-up of '{}' finished after {} ms", beanName, TimeUnit.NANOSECONDS.toMillis(nanos));
+      startupProfiler.record(beanName + " (warm-up)", nanos);
+    }
+  }
+}
@@ -3,19 +3,32 @@ package com.faforever.client.task;
 import javafx.concurrent.Task;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 
 public abstract class CompletableTask<V> extends Task<V> implements PrioritizedCompletableTask<V> {
 
   private final CompletableFuture<V> future;
+  private final ResourceClass resourceClass;
   private Priority priority;
 
   public CompletableTask(Priority priority) {
+    this(priority, ResourceClass.NETWORK);
+  }
+
+  public CompletableTask(Priority priority, ResourceClass resourceClass) {
     this.priority = priority;
+    this.resourceClass = resourceClass;
     this.future = new CompletableFuture<>();
     setOnCancelled(event -> future.cancel(true));
     setOnFailed(event -> future.completeExceptionally(getException()));
     setOnSucceeded(event -> future.complete(getValue()));
+    // Whoever only holds the future should be able to stop the task, too
+    future.whenComplete((value, throwable) -> {
+      if (future.isCancelled()) {
+        super.cancel(true);
+      }
+    });
   }
 
   public CompletableFuture<V> getFuture() {
@@ -27,6 +40,16 @@ public abstract class CompletableTask<V> extends Task<V> implements PrioritizedC
     return priority.compareTo(other.priority);
   }
 
+  @Override
+  public Priority getPriority() {
+    return priority;
+  }
+
+  @Override
+  public ResourceClass getResourceClass() {
+    return resourceClass;
+  }
+
   public void setPriority(Priority priority) {
     if (this.priority != null) {
       throw new IllegalStateException("Priority has already been set");
@@ -40,9 +63,28 @@ public abstract class CompletableTask<V> extends Task<V> implements PrioritizedC
     return super.cancel(mayInterruptIfRunning);
   }
 
+  /**
+   * Stops the task if it has been cancelled. Tasks that take long should call this between their steps, since they
+   * can't be stopped otherwise unless they happen to wait for something interruptible.
+   */
+  protected void checkCancelled() {
+    if (isCancelled()) {
+      throw new CancellationException("Task has been cancelled: " + getTitle());
+    }
+  }
+
   public enum Priority {
     LOW,
     MEDIUM,
     HIGH
   }
+
+  /**
+   * The resource a task mainly uses, which limits how many tasks of its kind may run at the same time.
+   */
+  public enum ResourceClass {
+    NETWORK,
+    DISK,
+    CPU
+  }
 }
@@ -1,5 +1,9 @@
 package com.faforever.client.task;
 
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.config.ClientProperties.Tasks;
+import com.faforever.client.task.CompletableTask.Priority;
+import com.faforever.client.task.CompletableTask.ResourceClass;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Worker;
@@ -10,13 +14,24 @@ import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Enqueues and runs tasks in background. Services that need to run a task (tasks that finish, not long-running
  * background jobs) in background should always submit them to this service.
  * <p>
- * There are different queues for different kind of tasks. For every queue, only one task is executed at a time.
+ * There is a queue for every {@link ResourceClass}, and only a limited number of tasks of each queue run at a time.
+ * Waiting tasks are started by priority, so that e.g. files needed to start a game are downloaded before a map somebody
+ * is browsing in the vault. The priority of a waiting task increases the longer it waits, so that tasks of low priority
+ * are started eventually even if tasks of higher priority keep coming in. Running tasks can't be suspended; instead, a
+ * task of high priority may start even if the queue is full, as long as no other task of high priority is running in
+ * it. Tasks that are cancelled while waiting are never started.
  */
 @Lazy
 @Service
@@ -25,14 +40,26 @@ public class TaskService {
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   private final Executor executor;
+  private final long agingIntervalNanos;
+  private final Map<ResourceClass, TaskQueue> queues;
+  private final AtomicLong sequence;
   private final ObservableList<Worker<?>> activeTasks;
 
   private ObservableList<Worker<?>> unmodifiableObservableList;
 
   @Inject
-  public TaskService(Executor executor) {
+  public TaskService(Executor executor, ClientProperties clientProperties) {
     this.executor = executor;
 
+    Tasks tasks = clientProperties.getTasks();
+    int processors = Runtime.getRuntime().availableProcessors();
+    agingIntervalNanos = tasks.getAgingInterval().toNanos();
+    queues = new EnumMap<>(ResourceClass.class);
+    queues.put(ResourceClass.NETWORK, new TaskQueue(tasks.getMaxNetworkTasks()));
+    queues.put(ResourceClass.DISK, new TaskQueue(tasks.getMaxDiskTasks()));
+    queues.put(ResourceClass.CPU, new TaskQueue(tasks.getMaxCpuTasks() > 0 ? tasks.getMaxCpuTasks() : processors));
+    sequence = new AtomicLong();
+
     activeTasks = FXCollections.synchronizedObservableList(FXCollections.observableArrayList());
     unmodifiableObservableList = FXCollections.unmodifiableObservableList(activeTasks);
   }
@@ -44,15 +71,19 @@ public class TaskService {
    */
   @SuppressWarnings("unchecked")
   public <T extends PrioritizedCompletableTask> T submitTask(T task) {
+    TaskQueue queue = queues.get(task.getResourceClass());
+    QueuedTask queuedTask = new QueuedTask(task, sequence.incrementAndGet());
+
     task.getFuture().whenComplete((o, throwable) -> {
       activeTasks.remove(task);
+      queue.remove(queuedTask);
       if (throwable != null) {
         logger.warn("Task failed", (Throwable) throwable);
       }
     });
 
     activeTasks.add(task);
-    executor.execute(task);
+    queue.add(queuedTask);
 
     return task;
   }
@@ -60,4 +91,119 @@ public class TaskService {
   public ObservableList<Worker<?>> getActiveWorkers() {
     return unmodifiableObservableList;
   }
+
+  /** Returns the number of tasks of the specified class that have been submitted but not yet started. */
+  public int getWaitingTasks(ResourceClass resourceClass) {
+    return queues.get(resourceClass).getWaitingTasks();
+  }
+
+  public int getRunningTasks(ResourceClass resourceClass) {
+    return queues.get(resourceClass).getRunningTasks();
+  }
+
+  private final class TaskQueue {
+    private final int maxConcurrency;
+    private final List<QueuedTask> waiting;
+    private final List<QueuedTask> running;
+
+    private TaskQueue(int maxConcurrency) {
+      this.maxConcurrency = maxConcurrency;
+      waiting = new ArrayList<>();
+      running = new ArrayList<>();
+    }
+
+    private void add(QueuedTask queuedTask) {
+      List<QueuedTask> startable;
+      synchronized (this) {
+        waiting.add(queuedTask);
+        startable = pollStartable();
+      }
+      start(startable);
+    }
+
+    /** Removes a task that has been cancelled before it was started. */
+    private synchronized void remove(QueuedTask queuedTask) {
+      waiting.remove(queuedTask);
+    }
+
+    private void finished(QueuedTask queuedTask) {
+      List<QueuedTask> startable;
+      synchronized (this) {
+        running.remove(queuedTask);
+        startable = pollStartable();
+      }
+      start(startable);
+    }
+
+    private synchronized int getWaitingTasks() {
+      return waiting.size();
+    }
+
+    private synchronized int getRunningTasks() {
+      return running.size();
+    }
+
+    /**
+     * Moves the tasks that may start now from {@link #waiting} to {@link #running}. They're started by the caller once
+     * it has left the lock, since the executor may run them in the calling thread.
+     */
+    private List<QueuedTask> pollStartable() {
+      List<QueuedTask> startable = new ArrayList<>();
+      long now = System.nanoTime();
+      while (!waiting.isEmpty()) {
+        QueuedTask next = Collections.max(waiting, (first, second) -> {
+          int result = Integer.compare(first.getEffectivePriority(now), second.getEffectivePriority(now));
+          return result != 0 ? result : Long.compare(second.sequenceNumber, first.sequenceNumber);
+        });
+        if (!mayStart(next)) {
+          break;
+        }
+        waiting.remove(next);
+        running.add(next);
+        startable.add(next);
+      }
+      return startable;
+    }
+
+    private boolean mayStart(QueuedTask queuedTask) {
+      if (running.size() < maxConcurrency) {
+        return true;
+      }
+      return queuedTask.task.getPriority() == Priority.HIGH
+          && running.size() == maxConcurrency
+          && running.stream().noneMatch(runningTask -> runningTask.task.getPriority() == Priority.HIGH);
+    }
+
+    private void start(List<QueuedTask> startable) {
+      for (QueuedTask queuedTask : startable) {
+        executor.execute(() -> {
+          try {
+            if (!queuedTask.task.isDone()) {
+              queuedTask.task.run();
+            }
+          } finally {
+            finished(queuedTask);
+          }
+        });
+      }
+    }
+  }
+
+  private final class QueuedTask {
+    private final PrioritizedCompletableTask<?> task;
+    private final long sequenceNumber;
+    private final long enqueuedAt;
+
+    private QueuedTask(PrioritizedCompletableTask<?> task, long sequenceNumber) {
+      this.task = task;
+      this.sequenceNumber = sequenceNumber;
+      this.enqueuedAt = System.nanoTime();
+    }
+
+    /** Returns the ordinal of the task's priority, increased by one for every aging interval it has been waiting. */
+    private int getEffectivePriority(long now) {
+      long age = agingIntervalNanos > 0 ? (now - enqueuedAt) / agingIntervalNanos : 0;
+      return (int) Math.min(Priority.HIGH.ordinal(), task.getPriority().ordinal() + age);
+    }
+  }
 }
@@ -4,10 +4,15 @@ import com.faforever.client.chat.ChatService;
 import com.faforever.client.fx.Controller;
 import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.TransferScheduler;
+import com.faforever.client.io.TransferScheduler.Direction;
 import com.faforever.client.remote.FafService;
 import com.faforever.client.task.TaskService;
 import com.faforever.client.update.Version;
+import com.faforever.commons.io.Bytes;
 import com.google.common.base.Strings;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.beans.Observable;
 import javafx.beans.binding.Bindings;
 import javafx.concurrent.Worker;
@@ -17,6 +22,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.MenuButton;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.Pane;
+import javafx.util.Duration;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
@@ -36,6 +42,7 @@ public class StatusBarController implements Controller<Node> {
   private final I18n i18n;
   private final ChatService chatService;
   private final TaskService taskService;
+  private final TransferScheduler transferScheduler;
 
   public Label chatConnectionStatusIcon;
   public Label fafConnectionStatusIcon;
@@ -45,16 +52,25 @@ public class StatusBarController implements Controller<Node> {
   public Pane taskPane;
   public Label taskProgressLabel;
   public Label versionLabel;
+  public Label transferRateLabel;
+  private Timeline transferRateTimeline;
 
   @Inject
-  public StatusBarController(FafService fafService, I18n i18n, ChatService chatService, TaskService taskService) {
+  public StatusBarController(FafService fafService, I18n i18n, ChatService chatService, TaskService taskService, TransferScheduler transferScheduler) {
     this.fafService = fafService;
     this.i18n = i18n;
     this.chatService = chatService;
     this.taskService = taskService;
+    this.transferScheduler = transferScheduler;
   }
 
   public void initialize() {
+    transferRateTimeline = new Timeline(
+        new KeyFrame(Duration.ZERO, event -> updateTransferRate()),
+        new KeyFrame(Duration.seconds(1))
+    );
+    transferRateTimeline.setCycleCount(Timeline.INDEFINITE);
+
     setCurrentWorkerInStatusBar(null);
     versionLabel.setText(Version.VERSION);
 
@@ -120,10 +136,12 @@ public class StatusBarController implements Controller<Node> {
         taskPane.setVisible(false);
         taskProgressBar.progressProperty().unbind();
         taskProgressLabel.textProperty().unbind();
+        transferRateTimeline.stop();
         return;
       }
 
       taskPane.setVisible(true);
+      transferRateTimeline.play();
       taskProgressBar.progressProperty().bind(worker.progressProperty());
       taskProgressLabel.textProperty().bind(Bindings.createStringBinding(
           () -> {
@@ -139,6 +157,19 @@ public class StatusBarController implements Controller<Node> {
     });
   }
 
+  private void updateTransferRate() {
+    long downloadRate = transferScheduler.getBytesPerSecond(Direction.DOWNLOAD);
+    long uploadRate = transferScheduler.getBytesPerSecond(Direction.UPLOAD);
+    if (downloadRate == 0 && uploadRate == 0) {
+      transferRateLabel.setVisible(false);
+      return;
+    }
+    transferRateLabel.setText(i18n.get("statusBar.transferRate.format",
+        Bytes.formatSize(downloadRate, i18n.getUserSpecificLocale()),
+        Bytes.formatSize(uploadRate, i18n.getUserSpecificLocale())));
+    transferRateLabel.setVisible(true);
+  }
+
   public void onFafReconnectClicked() {
     fafService.reconnect();
   }
@@ -3,6 +3,7 @@ package com.faforever.client.ui.taskbar;
 import com.faforever.client.FafClientApplication;
 import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.task.TaskService;
+import com.faforever.client.util.InstrumentedThreadPoolExecutor;
 import javafx.beans.Observable;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.WeakChangeListener;
@@ -17,11 +18,11 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadPoolExecutor.AbortPolicy;
 
 import static com.github.nocatch.NoCatch.noCatch;
 
@@ -41,7 +42,8 @@ public class WindowsTaskbarProgressUpdater implements InitializingBean {
 
   public WindowsTaskbarProgressUpdater(TaskService taskService) {
     this.taskService = taskService;
-    this.threadPoolExecutor = new ThreadPoolExecutor(0, 1, 10L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    this.threadPoolExecutor = new InstrumentedThreadPoolExecutor("taskbar", 0, 1, Duration.ofSeconds(10),
+        new LinkedBlockingQueue<>(), true, new AbortPolicy());
     progressUpdateListener = (observable1, oldValue, newValue) -> updateTaskbarProgress(newValue.doubleValue());
   }
 
@@ -1,10 +1,9 @@
 package com.faforever.client.update;
 
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.task.CompletableTask;
-import com.faforever.client.task.ResourceLocks;
-import com.faforever.commons.io.ByteCopier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
@@ -12,14 +11,9 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.URL;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -29,15 +23,17 @@ public class DownloadUpdateTask extends CompletableTask<Path> {
 
   private final I18n i18n;
   private final PreferencesService preferencesService;
+  private final DownloadService downloadService;
 
   private UpdateInfo updateInfo;
 
   @Inject
-  public DownloadUpdateTask(I18n i18n, PreferencesService preferencesService) {
+  public DownloadUpdateTask(I18n i18n, PreferencesService preferencesService, DownloadService downloadService) {
     super(Priority.MEDIUM);
 
     this.i18n = i18n;
     this.preferencesService = preferencesService;
+    this.downloadService = downloadService;
   }
 
   @Override
@@ -47,27 +43,8 @@ public class DownloadUpdateTask extends CompletableTask<Path> {
 
     Path updateDirectory = preferencesService.getCacheDirectory().resolve("update");
     Path targetFile = updateDirectory.resolve(updateInfo.getFileName());
-    Files.createDirectories(targetFile.getParent());
-
-    Path tempFile = Files.createTempFile(targetFile.getParent(), "update", null);
-
-      ResourceLocks.acquireDownloadLock();
-    try (InputStream inputStream = url.openStream(); OutputStream outputStream = Files.newOutputStream(tempFile)) {
-      ByteCopier.from(inputStream)
-          .to(outputStream)
-          .totalBytes(updateInfo.getSize())
-          .listener(this::updateProgress)
-          .copy();
-
-      Files.move(tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
-    } finally {
-      ResourceLocks.freeDownloadLock();
-      try {
-        Files.deleteIfExists(tempFile);
-      } catch (IOException e) {
-        logger.warn("Could not delete temporary file: " + tempFile.toAbsolutePath(), e);
-      }
-    }
+    logger.info("Downloading update from {} to {}", url, targetFile);
+    downloadService.downloadFile(url, targetFile, this::updateProgress, null, Priority.LOW);
 
     return targetFile;
   }
@@ -3,8 +3,10 @@ package com.faforever.client.uploader.imgur;
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.config.ClientProperties.Imgur.Upload;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.TransferScheduler;
+import com.faforever.client.io.TransferScheduler.Direction;
+import com.faforever.client.io.TransferScheduler.Permit;
 import com.faforever.client.task.CompletableTask;
-import com.faforever.client.task.ResourceLocks;
 import com.faforever.commons.io.ByteCopier;
 import com.google.common.io.BaseEncoding;
 import com.google.gson.Gson;
@@ -40,6 +42,7 @@ public class ImgurUploadTask extends CompletableTask<String> implements Initiali
 
   private final I18n i18n;
   private final ClientProperties clientProperties;
+  private final TransferScheduler transferScheduler;
 
   private Image image;
   private int maxUploadSize;
@@ -47,12 +50,13 @@ public class ImgurUploadTask extends CompletableTask<String> implements Initiali
   private String clientId;
 
   @Inject
-  public ImgurUploadTask(I18n i18n, ClientProperties clientProperties) {
+  public ImgurUploadTask(I18n i18n, ClientProperties clientProperties, TransferScheduler transferScheduler) {
     super(Priority.HIGH);
     gson = new GsonBuilder().create();
 
     this.i18n = i18n;
     this.clientProperties = clientProperties;
+    this.transferScheduler = transferScheduler;
   }
 
   @Override
@@ -89,16 +93,14 @@ public class ImgurUploadTask extends CompletableTask<String> implements Initiali
     urlConnection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
     urlConnection.connect();
 
-    ResourceLocks.acquireUploadLock();
-    try (OutputStream outputStream = urlConnection.getOutputStream()) {
+    try (Permit permit = transferScheduler.acquire(Direction.UPLOAD, url.getHost(), Priority.HIGH);
+         OutputStream outputStream = urlConnection.getOutputStream()) {
       byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
       ByteCopier.from(new ByteArrayInputStream(bytes))
           .to(outputStream)
           .totalBytes(bytes.length)
-          .listener(this::updateProgress)
+          .listener(permit.countingListener(this::updateProgress))
           .copy();
-    } finally {
-      ResourceLocks.freeUploadLock();
     }
 
     StringBuilder stringBuilder = new StringBuilder();
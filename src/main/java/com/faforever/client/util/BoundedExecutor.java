@@ -0,0 +1,70 @@
+package com.faforever.client.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs tasks on a shared executor, but no more than a fixed number of them at a time. Further tasks are queued here
+ * rather than occupying threads of the shared executor, and submitting a task never blocks, so that a component can
+ * limit its own parallelism without starting a pool of its own.
+ */
+@Slf4j
+public class BoundedExecutor implements Executor {
+
+  private final Executor delegate;
+  private final int maxParallelism;
+  private final Queue<Runnable> queue;
+  private int running;
+
+  public BoundedExecutor(Executor delegate, int maxParallelism) {
+    if (maxParallelism < 1) {
+      throw new IllegalArgumentException("maxParallelism must be at least 1: " + maxParallelism);
+    }
+    this.delegate = delegate;
+    this.maxParallelism = maxParallelism;
+    queue = new ArrayDeque<>();
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    synchronized (this) {
+      queue.add(command);
+      if (running >= maxParallelism) {
+        return;
+      }
+      running++;
+    }
+
+    try {
+      delegate.execute(this::runQueuedTasks);
+    } catch (RejectedExecutionException e) {
+      synchronized (this) {
+        running--;
+        queue.remove(command);
+      }
+      throw e;
+    }
+  }
+
+  private void runQueuedTasks() {
+    while (true) {
+      Runnable task;
+      synchronized (this) {
+        task = queue.poll();
+        if (task == null) {
+          running--;
+          return;
+        }
+      }
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        log.warn("Task threw an exception", e);
+      }
+    }
+  }
+}
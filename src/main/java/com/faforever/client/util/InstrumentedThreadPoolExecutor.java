@@ -0,0 +1,129 @@
+package com.faforever.client.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ThreadPoolExecutor} whose threads are named after the pool, and which measures how long tasks wait before
+ * they start and how long they run, as well as how often the pool was saturated and had to reject a task.
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+  private final String name;
+  private final LongAdder rejectedTasks;
+  private final LongAdder timedTasks = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+  private final LongAdder totalRunNanos = new LongAdder();
+  /** Tasks that have been submitted but haven't finished yet. */
+  private final AtomicInteger unfinishedTasks = new AtomicInteger();
+
+  /**
+   * @param name the prefix of the names of this pool's threads
+   * @param daemon whether this pool's threads are daemon threads, which don't keep the application alive
+   * @param rejectedExecutionHandler handles tasks for which neither a thread nor room in the queue is available
+   */
+  public InstrumentedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, Duration keepAliveTime,
+                                        BlockingQueue<Runnable> workQueue, boolean daemon,
+                                        RejectedExecutionHandler rejectedExecutionHandler) {
+    this(name, corePoolSize, maximumPoolSize, keepAliveTime, workQueue,
+        new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(daemon).build(), rejectedExecutionHandler);
+  }
+
+  /**
+   * @param name the name of this pool, which should also be the prefix of the names of the threads created by {@code
+   * threadFactory}
+   */
+  public InstrumentedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, Duration keepAliveTime,
+                                        BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
+                                        RejectedExecutionHandler rejectedExecutionHandler) {
+    this(name, corePoolSize, maximumPoolSize, keepAliveTime, workQueue, threadFactory, rejectedExecutionHandler, new LongAdder());
+  }
+
+  private InstrumentedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, Duration keepAliveTime,
+                                         BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
+                                         RejectedExecutionHandler rejectedExecutionHandler, LongAdder rejectedTasks) {
+    super(corePoolSize, maximumPoolSize, keepAliveTime.toNanos(), TimeUnit.NANOSECONDS, workQueue, threadFactory,
+        (runnable, executor) -> {
+          rejectedTasks.increment();
+          rejectedExecutionHandler.rejectedExecution(runnable, executor);
+        });
+    this.name = name;
+    this.rejectedTasks = rejectedTasks;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    long submittedAt = System.nanoTime();
+    unfinishedTasks.incrementAndGet();
+    try {
+      super.execute(() -> {
+        long startedAt = System.nanoTime();
+        long waitNanos = startedAt - submittedAt;
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulate(waitNanos);
+        try {
+          command.run();
+        } finally {
+          totalRunNanos.add(System.nanoTime() - startedAt);
+          timedTasks.increment();
+          unfinishedTasks.decrementAndGet();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      unfinishedTasks.decrementAndGet();
+      throw e;
+    }
+  }
+
+  /** Number of tasks that have been submitted but haven't finished yet, whether they're running or waiting. */
+  public int getUnfinishedTaskCount() {
+    return unfinishedTasks.get();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /** Number of tasks that didn't get a thread or a place in the queue, and have been handed to the rejection handler. */
+  public long getRejectedTaskCount() {
+    return rejectedTasks.sum();
+  }
+
+  public int getQueueSize() {
+    return getQueue().size();
+  }
+
+  /** Average time between submitting a task and it being started. */
+  public double getAverageWaitMillis() {
+    long tasks = timedTasks.sum();
+    return tasks == 0 ? 0 : totalWaitNanos.sum() / 1_000_000d / tasks;
+  }
+
+  public double getMaxWaitMillis() {
+    return maxWaitNanos.get() / 1_000_000d;
+  }
+
+  public double getAverageRunMillis() {
+    long tasks = timedTasks.sum();
+    return tasks == 0 ? 0 : totalRunNanos.sum() / 1_000_000d / tasks;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: poolSize=%d, largestPoolSize=%d, active=%d, queued=%d, completed=%d, rejected=%d, "
+            + "averageWait=%.1fms, maxWait=%.1fms, averageRun=%.1fms",
+        name, getPoolSize(), getLargestPoolSize(), getActiveCount(), getQueueSize(), getCompletedTaskCount(),
+        getRejectedTaskCount(), getAverageWaitMillis(), getMaxWaitMillis(), getAverageRunMillis());
+  }
+}
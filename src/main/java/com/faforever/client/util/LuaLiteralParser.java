@@ -0,0 +1,487 @@
+package com.faforever.client.util;
+
+import org.jetbrains.annotations.Nullable;
+import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Reads Lua files that consist of nothing but global assignments of literal values, like a map's {@code _scenario.lua}
+ * or a mod's {@code mod_info.lua}, without compiling and executing them in a Lua VM. The supported subset is:
+ * <ul>
+ * <li>statements of the form {@code Name = value}, optionally separated by {@code ;}</li>
+ * <li>{@code nil}, {@code true}, {@code false}, (negative) numbers, short and long strings</li>
+ * <li>table constructors with positional, {@code Name = value} and {@code [value] = value} fields</li>
+ * <li>the identity wrappers {@code STRING(value)}, {@code FLOAT(value)} and {@code BOOLEAN(value)}</li>
+ * <li>line and block comments</li>
+ * </ul>
+ * Everything else (variables, operators, function definitions, ...) is considered "real code" and makes {@link
+ * #parse(byte[])} return {@code null}, in which case the caller needs to fall back to LuaJ. This includes syntax
+ * errors, so that LuaJ gets to report them.
+ * <p>
+ * The parser works directly on the raw bytes and, like LuaJ, produces {@link LuaString}s that are backed by the source
+ * array where no escape sequences need to be resolved. The returned table therefore keeps the source array reachable
+ * and should not be held on to longer than necessary.
+ */
+public final class LuaLiteralParser {
+
+  private static final NotALiteralException NOT_A_LITERAL = new NotALiteralException();
+
+  private static final LuaString NIL = LuaString.valueOf("nil");
+  private static final LuaString TRUE = LuaString.valueOf("true");
+  private static final LuaString FALSE = LuaString.valueOf("false");
+  private static final LuaString STRING = LuaString.valueOf("STRING");
+  private static final LuaString FLOAT = LuaString.valueOf("FLOAT");
+  private static final LuaString BOOLEAN = LuaString.valueOf("BOOLEAN");
+  private static final LuaString[] RESERVED_WORDS = {
+      LuaString.valueOf("and"), LuaString.valueOf("break"), LuaString.valueOf("do"), LuaString.valueOf("else"),
+      LuaString.valueOf("elseif"), LuaString.valueOf("end"), FALSE, LuaString.valueOf("for"),
+      LuaString.valueOf("function"), LuaString.valueOf("goto"), LuaString.valueOf("if"), LuaString.valueOf("in"),
+      LuaString.valueOf("local"), NIL, LuaString.valueOf("not"), LuaString.valueOf("or"),
+      LuaString.valueOf("repeat"), LuaString.valueOf("return"), LuaString.valueOf("then"), TRUE,
+      LuaString.valueOf("until"), LuaString.valueOf("while")
+  };
+
+  private final byte[] source;
+  private int position;
+
+  private LuaLiteralParser(byte[] source) {
+    this.source = source;
+  }
+
+  /**
+   * Parses the specified Lua source and returns a table containing all assigned globals, or {@code null} if the source
+   * contains anything but literal assignments.
+   */
+  @Nullable
+  public static LuaTable parse(byte[] source) {
+    try {
+      return new LuaLiteralParser(source).parseChunk();
+    } catch (NotALiteralException | NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static boolean isNameStart(int c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+  }
+
+  private static boolean isNamePart(int c) {
+    return isNameStart(c) || isDigit(c);
+  }
+
+  private static boolean isDigit(int c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isHexDigit(int c) {
+    return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+  private static NotALiteralException notALiteral() {
+    return NOT_A_LITERAL;
+  }
+
+  private LuaTable parseChunk() {
+    LuaTable globals = new LuaTable();
+    skipWhitespaceAndComments();
+    while (position < source.length) {
+      if (peek() == ';') {
+        position++;
+      } else {
+        LuaString name = readIdentifier();
+        expect('=');
+        globals.rawset(name, readValue());
+      }
+      skipWhitespaceAndComments();
+    }
+    return globals;
+  }
+
+  private LuaValue readValue() {
+    skipWhitespaceAndComments();
+    int c = peek();
+    if (c == '{') {
+      return readTable();
+    }
+    if (c == '"' || c == '\'') {
+      return readQuotedString();
+    }
+    if (c == '[' && (peek(1) == '[' || peek(1) == '=')) {
+      return readLongString();
+    }
+    if (c == '-') {
+      position++;
+      skipWhitespaceAndComments();
+      return readNumber().neg();
+    }
+    if (isDigit(c) || (c == '.' && isDigit(peek(1)))) {
+      return readNumber();
+    }
+    if (isNameStart(c)) {
+      return readKeywordOrWrapper();
+    }
+    throw notALiteral();
+  }
+
+  private LuaValue readKeywordOrWrapper() {
+    LuaString name = readName();
+    if (name.raweq(NIL)) {
+      return LuaValue.NIL;
+    }
+    if (name.raweq(TRUE)) {
+      return LuaValue.TRUE;
+    }
+    if (name.raweq(FALSE)) {
+      return LuaValue.FALSE;
+    }
+    if (name.raweq(STRING) || name.raweq(FLOAT) || name.raweq(BOOLEAN)) {
+      expect('(');
+      LuaValue value = readValue();
+      expect(')');
+      return value;
+    }
+    throw notALiteral();
+  }
+
+  private LuaTable readTable() {
+    expect('{');
+    LuaTable table = new LuaTable();
+    int arrayIndex = 1;
+
+    skipWhitespaceAndComments();
+    while (peek() != '}') {
+      int c = peek();
+      if (c == '[' && peek(1) != '[' && peek(1) != '=') {
+        position++;
+        LuaValue key = readValue();
+        if (key.isnil()) {
+          throw notALiteral();
+        }
+        expect(']');
+        expect('=');
+        table.rawset(key, readValue());
+      } else if (isNameStart(c) && isFollowedByAssignment()) {
+        LuaString key = readIdentifier();
+        expect('=');
+        table.rawset(key, readValue());
+      } else {
+        table.rawset(arrayIndex++, readValue());
+      }
+
+      skipWhitespaceAndComments();
+      c = peek();
+      if (c == ',' || c == ';') {
+        position++;
+        skipWhitespaceAndComments();
+      } else if (c != '}') {
+        throw notALiteral();
+      }
+    }
+    position++;
+    return table;
+  }
+
+  /**
+   * Returns {@code true} if the name at the current position is followed by a single {@code =}, which distinguishes
+   * {@code key = value} fields from positional values like {@code true}.
+   */
+  private boolean isFollowedByAssignment() {
+    int start = position;
+    while (isNamePart(peek())) {
+      position++;
+    }
+    skipWhitespaceAndComments();
+    boolean assignment = peek() == '=' && peek(1) != '=';
+    position = start;
+    return assignment;
+  }
+
+  /**
+   * Reads a name that is used as a variable or field name, which must not be a reserved word.
+   */
+  private LuaString readIdentifier() {
+    LuaString name = readName();
+    for (LuaString reservedWord : RESERVED_WORDS) {
+      if (name.raweq(reservedWord)) {
+        throw notALiteral();
+      }
+    }
+    return name;
+  }
+
+  private LuaString readName() {
+    skipWhitespaceAndComments();
+    int start = position;
+    if (!isNameStart(peek())) {
+      throw notALiteral();
+    }
+    while (isNamePart(peek())) {
+      position++;
+    }
+    return LuaString.valueUsing(source, start, position - start);
+  }
+
+  private LuaValue readNumber() {
+    int start = position;
+    if (!isDigit(peek()) && !(peek() == '.' && isDigit(peek(1)))) {
+      throw notALiteral();
+    }
+    if (peek() == '0' && (peek(1) == 'x' || peek(1) == 'X')) {
+      position += 2;
+      long value = 0;
+      if (!isHexDigit(peek())) {
+        throw notALiteral();
+      }
+      while (isHexDigit(peek())) {
+        if (position - start > 15) {
+          // Would overflow; LuaJ's conversion of huge hex literals is not worth replicating
+          throw notALiteral();
+        }
+        value = (value << 4) + Character.digit(source[position++], 16);
+      }
+      assertNotFollowedByName();
+      return LuaValue.valueOf((double) value);
+    }
+
+    int value = 0;
+    boolean integral = true;
+    while (isDigit(peek())) {
+      if (value > (Integer.MAX_VALUE - 9) / 10) {
+        integral = false;
+      }
+      value = value * 10 + (source[position++] - '0');
+    }
+    if (peek() == '.') {
+      integral = false;
+      position++;
+      while (isDigit(peek())) {
+        position++;
+      }
+    }
+    if (peek() == 'e' || peek() == 'E') {
+      integral = false;
+      position++;
+      if (peek() == '+' || peek() == '-') {
+        position++;
+      }
+      if (!isDigit(peek())) {
+        throw notALiteral();
+      }
+      while (isDigit(peek())) {
+        position++;
+      }
+    }
+    assertNotFollowedByName();
+
+    if (integral) {
+      return LuaValue.valueOf(value);
+    }
+    return LuaValue.valueOf(Double.parseDouble(new String(source, start, position - start, US_ASCII)));
+  }
+
+  private void assertNotFollowedByName() {
+    if (isNamePart(peek()) || peek() == '.') {
+      throw notALiteral();
+    }
+  }
+
+  private LuaString readQuotedString() {
+    byte quote = source[position++];
+    int start = position;
+    boolean escaped = false;
+    while (true) {
+      int c = peek();
+      if (c == -1 || c == '\n' || c == '\r') {
+        throw notALiteral();
+      }
+      if (c == quote) {
+        break;
+      }
+      if (c == '\\') {
+        escaped = true;
+        position++;
+      }
+      position++;
+    }
+    int end = position++;
+
+    if (!escaped) {
+      return LuaString.valueUsing(source, start, end - start);
+    }
+    return unescape(start, end);
+  }
+
+  private LuaString unescape(int start, int end) {
+    byte[] bytes = new byte[end - start];
+    int length = 0;
+    int i = start;
+    while (i < end) {
+      byte b = source[i++];
+      if (b != '\\') {
+        bytes[length++] = b;
+        continue;
+      }
+      byte escape = source[i++];
+      switch (escape) {
+        case 'a':
+          bytes[length++] = 7;
+          break;
+        case 'b':
+          bytes[length++] = '\b';
+          break;
+        case 'f':
+          bytes[length++] = '\f';
+          break;
+        case 'n':
+          bytes[length++] = '\n';
+          break;
+        case 'r':
+          bytes[length++] = '\r';
+          break;
+        case 't':
+          bytes[length++] = '\t';
+          break;
+        case 'v':
+          bytes[length++] = 11;
+          break;
+        case '\\':
+        case '"':
+        case '\'':
+          bytes[length++] = escape;
+          break;
+        default:
+          if (!isDigit(escape)) {
+            throw notALiteral();
+          }
+          int value = escape - '0';
+          for (int digits = 1; digits < 3 && i < end && isDigit(source[i]); digits++) {
+            value = value * 10 + (source[i++] - '0');
+          }
+          if (value > 255) {
+            throw notALiteral();
+          }
+          bytes[length++] = (byte) value;
+      }
+    }
+    return LuaString.valueUsing(bytes, 0, length);
+  }
+
+  private LuaString readLongString() {
+    int level = readLongBracketLevel();
+    if (level < 0) {
+      throw notALiteral();
+    }
+    // Like Lua, skip a newline that immediately follows the opening bracket
+    if (peek() == '\n') {
+      position++;
+    }
+    int start = position;
+    while (position < source.length) {
+      int c = source[position];
+      if (c == '\r') {
+        // Lua normalizes line breaks in long strings; leave that to LuaJ
+        throw notALiteral();
+      }
+      if (c == ']' && isClosingLongBracket(level)) {
+        int end = position;
+        position += level + 2;
+        return LuaString.valueUsing(source, start, end - start);
+      }
+      position++;
+    }
+    throw notALiteral();
+  }
+
+  /**
+   * Reads an opening long bracket like {@code [[} or {@code [==[} and returns its level, or {@code -1} if there is
+   * none at the current position.
+   */
+  private int readLongBracketLevel() {
+    if (peek() != '[') {
+      return -1;
+    }
+    int start = position++;
+    int level = 0;
+    while (peek() == '=') {
+      level++;
+      position++;
+    }
+    if (peek() != '[') {
+      position = start;
+      return -1;
+    }
+    position++;
+    return level;
+  }
+
+  private boolean isClosingLongBracket(int level) {
+    int index = position + 1;
+    for (int i = 0; i < level; i++, index++) {
+      if (index >= source.length || source[index] != '=') {
+        return false;
+      }
+    }
+    return index < source.length && source[index] == ']';
+  }
+
+  private void skipWhitespaceAndComments() {
+    while (position < source.length) {
+      int c = source[position];
+      if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 11) {
+        position++;
+      } else if (c == '-' && peek(1) == '-') {
+        position += 2;
+        skipComment();
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void skipComment() {
+    int level = readLongBracketLevel();
+    if (level >= 0) {
+      while (position < source.length) {
+        if (source[position] == ']' && isClosingLongBracket(level)) {
+          position += level + 2;
+          return;
+        }
+        position++;
+      }
+      throw notALiteral();
+    }
+    while (position < source.length && source[position] != '\n') {
+      position++;
+    }
+  }
+
+  private void expect(char c) {
+    skipWhitespaceAndComments();
+    if (peek() != c) {
+      throw notALiteral();
+    }
+    position++;
+  }
+
+  private int peek() {
+    return peek(0);
+  }
+
+  private int peek(int offset) {
+    int index = position + offset;
+    return index < source.length ? source[index] & 0xFF : -1;
+  }
+
+  /**
+   * Unwinds the recursion if the source is not a plain literal file. Never escapes this class, so there is a single,
+   * stackless instance.
+   */
+  private static final class NotALiteralException extends RuntimeException {
+    private NotALiteralException() {
+      super(null, null, false, false);
+    }
+  }
+}
@@ -2,9 +2,11 @@ package com.faforever.client.util;
 
 import com.google.common.io.CharStreams;
 import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.lib.jse.JsePlatform;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -31,4 +33,26 @@ public final class LuaUtil {
     globals.load(inputStream, "@" + inputStream.hashCode(), "bt", globals).invoke();
     return globals;
   }
+
+  /**
+   * Loads a Lua file that only holds data, like a map's {@code _scenario.lua} or a mod's {@code mod_info.lua}. Files
+   * that consist of literal assignments only are read without starting a Lua VM; anything else is executed by LuaJ.
+   *
+   * @see #loadData(byte[])
+   */
+  public static LuaValue loadDataFile(Path file) throws IOException {
+    return loadData(Files.readAllBytes(file));
+  }
+
+  /**
+   * Like {@link #load(InputStream)}, but reads the source with {@link LuaLiteralParser} if possible. The returned value
+   * is either a plain table of globals or, if the source had to be executed, the LuaJ globals.
+   */
+  public static LuaValue loadData(byte[] bytes) throws IOException {
+    LuaTable globals = LuaLiteralParser.parse(bytes);
+    if (globals != null) {
+      return globals;
+    }
+    return load(new ByteArrayInputStream(bytes));
+  }
 }
@@ -0,0 +1,55 @@
+package com.faforever.client.util;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * A bounded work queue that makes a {@link InstrumentedThreadPoolExecutor} start threads up to its maximum pool size
+ * before it queues any task. Only once all threads are busy and no more may be started, tasks wait in this queue for
+ * the next thread that becomes idle. If the queue is full as well, tasks are rejected.
+ * <p>
+ * A plain {@link ThreadPoolExecutor} only starts more than its core threads once its queue is full, so it would rather
+ * queue tasks than start threads. And unlike {@link ThreadPoolExecutor.CallerRunsPolicy}, the submitting thread never
+ * runs a task itself, which could be the JavaFX application thread or a timer thread.
+ * <p>
+ * This queue must be used as the rejection handler of its executor as well, see {@link #setExecutor}.
+ */
+public class OverflowQueue extends LinkedBlockingQueue<Runnable> implements RejectedExecutionHandler {
+
+  private InstrumentedThreadPoolExecutor executor;
+
+  public OverflowQueue(int capacity) {
+    super(capacity);
+  }
+
+  public void setExecutor(InstrumentedThreadPoolExecutor executor) {
+    this.executor = executor;
+  }
+
+  @Override
+  public boolean offer(Runnable runnable) {
+    if (executor.getUnfinishedTaskCount() <= executor.getPoolSize()) {
+      // An idle thread will take it
+      return super.offer(runnable);
+    }
+    if (executor.getPoolSize() < executor.getMaximumPoolSize()) {
+      // Makes the executor start a new thread
+      return false;
+    }
+    return super.offer(runnable);
+  }
+
+  /**
+   * Queues a task if the executor couldn't start a new thread after all, since other threads have been started
+   * meanwhile, or rejects it if the queue is full.
+   */
+  @Override
+  public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+    if (executor.isShutdown() || !super.offer(runnable)) {
+      throw new RejectedExecutionException("All " + executor.getMaximumPoolSize() + " threads are busy and "
+          + size() + " tasks are queued already");
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.faforever.client.util;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads on JVMs that support them (Java 21 and later). Since the client is compiled for an older
+ * Java version, the API is accessed reflectively.
+ */
+public final class VirtualThreads {
+
+  /** Virtual threads are a preview feature in Java 19 and 20, which can't be used without enabling it. */
+  private static final int MIN_JAVA_VERSION = 21;
+  private static final Method OF_VIRTUAL = Runtime.version().feature() >= MIN_JAVA_VERSION
+      ? findMethod(Thread.class, "ofVirtual") : null;
+
+  private VirtualThreads() {
+    throw new AssertionError("Not instantiatable");
+  }
+
+  public static boolean isSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * Returns a factory of virtual threads named {@code name-0}, {@code name-1} and so on, or an empty optional if the
+   * JVM doesn't support virtual threads.
+   */
+  public static Optional<ThreadFactory> newThreadFactory(String name) {
+    if (OF_VIRTUAL == null) {
+      return Optional.empty();
+    }
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = OF_VIRTUAL.invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+      return Optional.of((ThreadFactory) builderClass.getMethod("factory").invoke(builder));
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Virtual threads are supported but could not be created", e);
+    }
+  }
+
+  private static Method findMethod(Class<?> type, String name) {
+    try {
+      return type.getMethod(name);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
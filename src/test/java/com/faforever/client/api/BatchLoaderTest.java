@@ -0,0 +1,123 @@
+package com.faforever.client.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+public class BatchLoaderTest {
+
+  private static final Duration DELAY = Duration.ofMillis(50);
+
+  private ExecutorService executorService;
+  /** The keys of each batch that has been loaded. */
+  private List<List<Integer>> batches;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newCachedThreadPool();
+    batches = new CopyOnWriteArrayList<>();
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testKeysAreLoadedInOneBatch() {
+    BatchLoader<Integer, String> instance = newInstance(100);
+
+    CompletableFuture<Optional<String>> first = instance.load(1);
+    CompletableFuture<List<String>> many = instance.loadMany(Arrays.asList(3, 2, 1));
+
+    assertThat(first.join(), is(Optional.of("1")));
+    assertThat(many.join(), contains("3", "2", "1"));
+    assertThat(batches, contains(containsInAnyOrder(1, 2, 3)));
+  }
+
+  @Test
+  public void testPendingKeyIsNotRequestedAgain() {
+    BatchLoader<Integer, String> instance = newInstance(100);
+
+    CompletableFuture<Optional<String>> first = instance.load(1);
+    CompletableFuture<Optional<String>> second = instance.load(1);
+
+    assertThat(second, sameInstance(first));
+    first.join();
+    instance.load(1).join();
+    assertThat(batches, contains(contains(1), contains(1)));
+  }
+
+  @Test
+  public void testMissingValueIsEmpty() {
+    BatchLoader<Integer, String> instance = newInstance(100);
+
+    CompletableFuture<Optional<String>> existing = instance.load(1);
+    CompletableFuture<Optional<String>> missing = instance.load(-1);
+
+    assertThat(existing.join(), is(Optional.of("1")));
+    assertThat(missing.join(), is(Optional.empty()));
+  }
+
+  @Test
+  public void testFullBatchIsLoadedRightAway() {
+    BatchLoader<Integer, String> instance = newInstance(2);
+
+    List<String> values = instance.loadMany(Arrays.asList(1, 2, 3)).join();
+
+    assertThat(values, contains("1", "2", "3"));
+    assertThat(batches, containsInAnyOrder(contains(1, 2), contains(3)));
+  }
+
+  @Test
+  public void testFailureIsPassedToAllCallers() {
+    BatchLoader<Integer, String> instance = new BatchLoader<>(keys -> {
+      throw new IllegalStateException("Server error");
+    }, Integer::valueOf, executorService, DELAY, 100);
+
+    CompletableFuture<Optional<String>> first = instance.load(1);
+    CompletableFuture<Optional<String>> second = instance.load(2);
+
+    for (CompletableFuture<Optional<String>> future : Arrays.asList(first, second)) {
+      try {
+        future.join();
+        fail("Expected the batch to fail");
+      } catch (CompletionException e) {
+        assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+      }
+    }
+  }
+
+  private BatchLoader<Integer, String> newInstance(int maxBatchSize) {
+    return new BatchLoader<>(this::loadBatch, Integer::valueOf, executorService, DELAY, maxBatchSize);
+  }
+
+  private List<String> loadBatch(Collection<Integer> keys) {
+    batches.add(new ArrayList<>(keys));
+    return keys.stream()
+        .filter(key -> key > 0)
+        .map(String::valueOf)
+        .collect(Collectors.toList());
+  }
+}
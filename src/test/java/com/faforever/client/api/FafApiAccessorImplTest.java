@@ -8,6 +8,7 @@ import com.faforever.client.api.dto.GameReview;
 import com.faforever.client.api.dto.Ladder1v1LeaderboardEntry;
 import com.faforever.client.api.dto.MapVersion;
 import com.faforever.client.api.dto.MapVersionReview;
+import com.faforever.client.api.dto.Mod;
 import com.faforever.client.api.dto.ModVersionReview;
 import com.faforever.client.api.dto.PlayerAchievement;
 import com.faforever.client.api.dto.PlayerEvent;
@@ -16,7 +17,12 @@ import com.faforever.client.game.KnownFeaturedMod;
 import com.faforever.client.leaderboard.LeaderboardEntry;
 import com.faforever.client.mod.ModInfoBeanBuilder;
 import com.faforever.client.mod.ModVersion;
+import com.faforever.client.vault.search.SearchController.SearchConfig;
+import com.faforever.client.vault.search.SearchController.SortConfig;
+import com.faforever.client.vault.search.SearchController.SortOrder;
 import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.http.impl.client.HttpClients;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -33,6 +39,7 @@ import org.springframework.security.oauth2.client.OAuth2RestTemplate;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -41,12 +48,14 @@ import java.util.function.Supplier;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.verify;
@@ -70,6 +79,8 @@ public class FafApiAccessorImplTest {
   private JsonApiMessageConverter jsonApiMessageConverter;
   @Mock
   private JsonApiErrorHandler jsonApiErrorHandler;
+  @Mock
+  private HttpResponseCache httpResponseCache;
 
   @Before
   public void setUp() throws Exception {
@@ -77,11 +88,12 @@ public class FafApiAccessorImplTest {
 
     when(restTemplateBuilder.requestFactory(any(Supplier.class))).thenReturn(restTemplateBuilder);
     when(restTemplateBuilder.additionalMessageConverters(any(JsonApiMessageConverter.class))).thenReturn(restTemplateBuilder);
+    when(restTemplateBuilder.additionalInterceptors(any(HttpResponseCache.class))).thenReturn(restTemplateBuilder);
     when(restTemplateBuilder.rootUri(any())).thenReturn(restTemplateBuilder);
     when(restTemplateBuilder.errorHandler(any())).thenReturn(restTemplateBuilder);
     when(restTemplateBuilder.configure(any(OAuth2RestTemplate.class))).thenReturn(restOperations);
 
-    instance = new FafApiAccessorImpl(eventBus, restTemplateBuilder, new ClientProperties(), jsonApiMessageConverter, jsonApiErrorHandler);
+    instance = new FafApiAccessorImpl(eventBus, restTemplateBuilder, new ClientProperties(), jsonApiMessageConverter, jsonApiErrorHandler, MoreExecutors.newDirectExecutorService(), httpResponseCache, HttpClients.createDefault());
     instance.afterPropertiesSet();
     instance.authorize(123, "junit", "42");
   }
@@ -103,7 +115,7 @@ public class FafApiAccessorImplTest {
 
     assertThat(instance.getPlayerAchievements(123), is(result));
 
-    verify(restOperations).getForObject("/data/playerAchievement?filter=player.id==\"123\"&page[size]=10000&page[number]=1", List.class);
+    verify(restOperations).getForObject("/data/playerAchievement?filter=player.id==\"123\"&page[size]=1000&page[number]=1&page[totals]", List.class);
   }
 
   @Test
@@ -153,8 +165,9 @@ public class FafApiAccessorImplTest {
 
     verify(restOperations).getForObject("/data/playerEvent" +
         "?filter=player.id==\"123\"" +
-        "&page[size]=10000" +
-        "&page[number]=1", List.class);
+        "&page[size]=1000" +
+        "&page[number]=1" +
+        "&page[totals]", List.class);
   }
 
   @Test
@@ -179,18 +192,19 @@ public class FafApiAccessorImplTest {
         Ladder1v1EntryBeanBuilder.create().defaultValues().username("user2").get()
     );
 
-    ArgumentCaptor<Map<String, ?>> captor = ArgumentCaptor.forClass(Map.class);
-    when(restOperations.getForObject(eq("/leaderboards/ladder1v1"), eq(List.class), captor.capture()))
-        .thenReturn(result)
-        .thenReturn(emptyList());
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    when(restOperations.getForObject(captor.capture(), eq(List.class))).thenReturn(result);
 
-    assertThat(instance.getLadder1v1Leaderboard(), equalTo(result));
+    assertThat(instance.getLadder1v1Leaderboard(500, 3), equalTo(result));
 
-    Map<String, ?> params = captor.getValue();
-    assertThat(params.get("sort"), is("-rating"));
-    assertThat(params.get("include"), is("player"));
-    assertThat(params.get("fields[ladder1v1Rating]"), is("rating,numGames,winGames"));
-    assertThat(params.get("fields[player]"), is("login"));
+    String url = captor.getValue();
+    assertThat(url.startsWith("/leaderboards/ladder1v1?"), is(true));
+    assertThat(url, containsString("sort=-rating"));
+    assertThat(url, containsString("include=player"));
+    assertThat(url, containsString("fields[ladder1v1Rating]=rating,numGames,winGames"));
+    assertThat(url, containsString("fields[player]=login"));
+    assertThat(url, containsString("page[size]=500"));
+    assertThat(url, containsString("page[number]=3"));
   }
 
   @Test
@@ -215,8 +229,9 @@ public class FafApiAccessorImplTest {
     assertThat(result, is(gamePlayerStats));
     verify(restOperations).getForObject("/data/gamePlayerStats" +
         "?filter=player.id==\"123\";game.featuredMod.technicalName==\"faf\"" +
-        "&page[size]=10000" +
-        "&page[number]=1", List.class);
+        "&page[size]=1000" +
+        "&page[number]=1" +
+        "&page[totals]", List.class);
   }
 
   @Test
@@ -233,8 +248,9 @@ public class FafApiAccessorImplTest {
     assertThat(result, is(gamePlayerStats));
     verify(restOperations).getForObject("/data/gamePlayerStats" +
         "?filter=player.id==\"123\";game.featuredMod.technicalName==\"ladder1v1\"" +
-        "&page[size]=10000" +
-        "&page[number]=1", List.class);
+        "&page[size]=1000" +
+        "&page[number]=1" +
+        "&page[totals]", List.class);
   }
 
   @Test
@@ -265,7 +281,7 @@ public class FafApiAccessorImplTest {
 
     instance.getCoopMissions();
 
-    verify(restOperations).getForObject(eq("/data/coopMission?page[size]=10000&page[number]=1"), eq(List.class));
+    verify(restOperations).getForObject(eq("/data/coopMission?page[size]=1000&page[number]=1&page[totals]"), eq(List.class));
   }
 
   @Test
@@ -343,4 +359,21 @@ public class FafApiAccessorImplTest {
 
     verify(restOperations).getForObject("/data/game?filter=mapVersion.id==\"42\";playerStats.player.id==\"4\"&sort=-endTime&page[size]=3&page[number]=1", List.class);
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFindModsByQueryPassesOnSmallerPages() throws Exception {
+    List<Mod> fullPage = Collections.nCopies(25, new Mod());
+    List<Mod> lastPage = Collections.nCopies(10, new Mod());
+    when(restOperations.getForObject(startsWith("/data/mod"), eq(List.class)))
+        .thenReturn(fullPage)
+        .thenReturn(lastPage);
+    List<List<Mod>> pages = new ArrayList<>();
+
+    instance.findModsByQuery(new SearchConfig(new SortConfig("name", SortOrder.ASC), ""), 2, 100, pages::add).get();
+
+    assertThat(pages, is(Arrays.asList(fullPage, lastPage)));
+    verify(restOperations).getForObject(endsWith("&page[size]=25&page[number]=5&page[totals]"), eq(List.class));
+    verify(restOperations).getForObject(endsWith("&page[size]=25&page[number]=6"), eq(List.class));
+  }
 }
@@ -0,0 +1,215 @@
+package com.faforever.client.api;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.preferences.PreferencesService;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.when;
+
+public class HttpResponseCacheTest {
+
+  private static final URI MODS_URI = URI.create("https://api.example.com/data/mod?page[size]=10");
+  private static final URI FEATURED_MODS_URI = URI.create("https://api.example.com/data/featuredMod");
+
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
+
+  @Mock
+  private PreferencesService preferencesService;
+
+  private HttpResponseCache instance;
+  /** The {@code If-None-Match} header of each request that has been sent to the "server". */
+  private List<String> sentETags;
+  private List<ClientHttpResponse> serverResponses;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
+
+    sentETags = new ArrayList<>();
+    serverResponses = new ArrayList<>();
+    instance = newInstance();
+  }
+
+  @Test
+  public void testNotModifiedResponseIsServedFromCache() throws Exception {
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "first"));
+    serverResponses.add(response(HttpStatus.NOT_MODIFIED, "\"1\"", ""));
+
+    assertThat(get(MODS_URI), is("first"));
+    assertThat(get(MODS_URI), is("first"));
+    assertThat(sentETags, contains(nullValue(), is("\"1\"")));
+  }
+
+  @Test
+  public void testModifiedResponseReplacesCachedOne() throws Exception {
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "first"));
+    serverResponses.add(response(HttpStatus.OK, "\"2\"", "second"));
+    serverResponses.add(response(HttpStatus.NOT_MODIFIED, "\"2\"", ""));
+
+    assertThat(get(MODS_URI), is("first"));
+    assertThat(get(MODS_URI), is("second"));
+    assertThat(get(MODS_URI), is("second"));
+    assertThat(sentETags, contains(nullValue(), is("\"1\""), is("\"2\"")));
+  }
+
+  @Test
+  public void testResponseWithoutValidatorIsNotCached() throws Exception {
+    serverResponses.add(response(HttpStatus.OK, null, "first"));
+    serverResponses.add(response(HttpStatus.OK, null, "second"));
+
+    assertThat(get(MODS_URI), is("first"));
+    assertThat(get(MODS_URI), is("second"));
+    assertThat(sentETags, contains(nullValue(), nullValue()));
+  }
+
+  @Test
+  public void testNoStoreResponseIsNotCached() throws Exception {
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "first", "no-store"));
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "second"));
+
+    assertThat(get(MODS_URI), is("first"));
+    assertThat(get(MODS_URI), is("second"));
+    assertThat(sentETags, contains(nullValue(), nullValue()));
+  }
+
+  @Test
+  public void testPrivateResponseIsNotCached() throws Exception {
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "first", "private, max-age=0"));
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "second"));
+
+    assertThat(get(MODS_URI), is("first"));
+    assertThat(get(MODS_URI), is("second"));
+    assertThat(sentETags, contains(nullValue(), nullValue()));
+  }
+
+  @Test
+  public void testNoStoreResponseRemovesCachedOne() throws Exception {
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "first"));
+    serverResponses.add(response(HttpStatus.OK, "\"2\"", "second", "no-store"));
+    serverResponses.add(response(HttpStatus.OK, "\"3\"", "third"));
+
+    assertThat(get(MODS_URI), is("first"));
+    assertThat(get(MODS_URI), is("second"));
+    assertThat(get(MODS_URI), is("third"));
+    assertThat(sentETags, contains(nullValue(), is("\"1\""), nullValue()));
+  }
+
+  @Test
+  public void testCacheSurvivesRestart() throws Exception {
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "first"));
+    serverResponses.add(response(HttpStatus.NOT_MODIFIED, "\"1\"", ""));
+
+    assertThat(get(MODS_URI), is("first"));
+    instance = newInstance();
+    assertThat(get(MODS_URI), is("first"));
+    assertThat(sentETags, contains(nullValue(), is("\"1\"")));
+  }
+
+  @Test
+  public void testStaleResponseIsServedWhileRevalidating() throws Exception {
+    serverResponses.add(response(HttpStatus.OK, null, "first"));
+    serverResponses.add(response(HttpStatus.OK, null, "second"));
+    serverResponses.add(response(HttpStatus.OK, null, "third"));
+
+    assertThat(get(FEATURED_MODS_URI), is("first"));
+    // Returns the cached response, while the (here synchronous) revalidation already fetches the next one
+    assertThat(get(FEATURED_MODS_URI), is("first"));
+    assertThat(get(FEATURED_MODS_URI), is("second"));
+    assertThat(sentETags.size(), is(3));
+  }
+
+  @Test
+  public void testResponseClosedBeforeReadCompletelyIsCached() throws Exception {
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "first"));
+    serverResponses.add(response(HttpStatus.NOT_MODIFIED, "\"1\"", ""));
+
+    ClientHttpResponse response = instance.intercept(new MockClientHttpRequest(HttpMethod.GET, MODS_URI), new byte[0], this::execute);
+    assertThat(response.getBody().read(), is((int) 'f'));
+    response.close();
+
+    assertThat(get(MODS_URI), is("first"));
+    assertThat(sentETags, contains(nullValue(), is("\"1\"")));
+  }
+
+  @Test
+  public void testPageWithArbitraryBoundariesIsNotCached() throws Exception {
+    URI uri = URI.create("https://api.example.com/data/mod?page[offset]=15&page[limit]=10");
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "first"));
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "second"));
+
+    assertThat(get(uri), is("first"));
+    assertThat(get(uri), is("second"));
+    assertThat(sentETags, contains(nullValue(), nullValue()));
+  }
+
+  @Test
+  public void testPostIsNotCached() throws Exception {
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "first"));
+    serverResponses.add(response(HttpStatus.OK, "\"1\"", "second"));
+
+    MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, MODS_URI);
+    assertThat(read(instance.intercept(request, new byte[0], this::execute)), is("first"));
+    assertThat(read(instance.intercept(request, new byte[0], this::execute)), is("second"));
+  }
+
+  private HttpResponseCache newInstance() {
+    return new HttpResponseCache(preferencesService, new ClientProperties(), MoreExecutors.newDirectExecutorService());
+  }
+
+  private String get(URI uri) throws IOException {
+    MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, uri);
+    return read(instance.intercept(request, new byte[0], this::execute));
+  }
+
+  private ClientHttpResponse execute(HttpRequest request, byte[] body) {
+    sentETags.add(request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+    return serverResponses.remove(0);
+  }
+
+  private static ClientHttpResponse response(HttpStatus status, String eTag, String body) {
+    return response(status, eTag, body, null);
+  }
+
+  private static ClientHttpResponse response(HttpStatus status, String eTag, String body, String cacheControl) {
+    MockClientHttpResponse response = new MockClientHttpResponse(body.getBytes(UTF_8), status);
+    if (eTag != null) {
+      response.getHeaders().setETag(eTag);
+    }
+    if (cacheControl != null) {
+      response.getHeaders().setCacheControl(cacheControl);
+    }
+    return response;
+  }
+
+  private static String read(ClientHttpResponse response) throws IOException {
+    try (ClientHttpResponse closeable = response) {
+      return new String(ByteStreams.toByteArray(closeable.getBody()), UTF_8);
+    }
+  }
+}
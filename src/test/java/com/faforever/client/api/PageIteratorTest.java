@@ -0,0 +1,223 @@
+package com.faforever.client.api;
+
+import com.faforever.client.api.PageIterator.Page;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+public class PageIteratorTest {
+
+  private ExecutorService executorService;
+  private List<String> requests;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newCachedThreadPool();
+    requests = new ArrayList<>();
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testLoadsAllRecordsInOrder() {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    PageIterator<Integer> instance = new PageIterator<>((offset, limit, countTotal) -> {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(10);
+        return records(offset, limit, 2500, true);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }, executorService, 0, 10_000, 100, 10_000, 3, true);
+
+    assertThat(collect(instance), is(range(0, 2500)));
+    assertThat(maxInFlight.get(), lessThanOrEqualTo(3));
+  }
+
+  @Test
+  public void testFirstPageAsksForTotalOnlyIfMoreRecordsAreWanted() {
+    PageIterator<Integer> instance = new PageIterator<>(this::recordsWithTotal, MoreExecutors.directExecutor(), 0, 50, 100, 10_000, 3, true);
+
+    assertThat(collect(instance), is(range(0, 50)));
+    assertThat(requests, contains("0+50"));
+  }
+
+  @Test
+  public void testRespectsCount() {
+    PageIterator<Integer> instance = new PageIterator<>(this::recordsWithTotal, MoreExecutors.directExecutor(), 0, 250, 100, 10_000, 3, true);
+
+    assertThat(collect(instance), is(range(0, 250)));
+    assertThat(requests.get(0), is("0+100 totals"));
+  }
+
+  @Test
+  public void testPagesSequentiallyWithoutTotal() {
+    PageIterator<Integer> instance = new PageIterator<>((offset, limit, countTotal) -> {
+      requests.add(offset + "+" + limit);
+      return records(offset, limit, 250, false);
+    }, MoreExecutors.directExecutor(), 0, 10_000, 100, 100, 3, true);
+
+    assertThat(collect(instance), is(range(0, 250)));
+    assertThat(requests, contains("0+100", "100+100", "200+100"));
+  }
+
+  @Test
+  public void testStopsIfServerDoesNotPage() {
+    PageIterator<Integer> instance = new PageIterator<>((offset, limit, countTotal) -> {
+      requests.add(offset + "+" + limit);
+      return new Page<>(range(0, 150), null);
+    }, MoreExecutors.directExecutor(), 0, 10_000, 100, 10_000, 3, true);
+
+    assertThat(collect(instance), is(range(0, 150)));
+    assertThat(requests.size(), is(1));
+  }
+
+  @Test
+  public void testCloseDiscardsPendingPages() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    PageIterator<Integer> instance = new PageIterator<>((offset, limit, countTotal) -> {
+      if (offset > 0) {
+        blocked.countDown();
+        try {
+          Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return records(offset, limit, 1000, true);
+    }, executorService, 0, 10_000, 100, 100, 1, true);
+
+    assertThat(instance.next(), is(range(0, 100)));
+    assertThat(blocked.await(5, TimeUnit.SECONDS), is(true));
+    instance.close();
+
+    assertThat(instance.hasNext(), is(false));
+  }
+
+  @Test
+  public void testFixedPageSize() {
+    PageIterator<Integer> instance = new PageIterator<>(this::recordsWithTotal, MoreExecutors.directExecutor(), 0, 10_000, 100, 10_000, 3, false);
+
+    assertThat(collect(instance), is(range(0, 1000)));
+    assertThat(requests, contains("0+100 totals", "100+100", "200+100", "300+100", "400+100", "500+100", "600+100",
+        "700+100", "800+100", "900+100"));
+  }
+
+  @Test
+  public void testStartsAtOffset() {
+    PageIterator<Integer> instance = new PageIterator<>(this::recordsWithTotal, MoreExecutors.directExecutor(), 200, 150, 100, 10_000, 3, false);
+
+    assertThat(collect(instance), is(range(200, 350)));
+    assertThat(requests, contains("200+100 totals", "300+50"));
+  }
+
+  @Test
+  public void testForEachRemainingAsync() throws Exception {
+    PageIterator<Integer> instance = new PageIterator<>((offset, limit, countTotal) -> {
+      try {
+        Thread.sleep(10);
+        return records(offset, limit, 2500, true);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }, executorService, 0, 10_000, 100, 10_000, 3, true);
+    List<Integer> result = new ArrayList<>();
+
+    instance.forEachRemainingAsync(result::addAll).get(10, TimeUnit.SECONDS);
+
+    assertThat(result, is(range(0, 2500)));
+  }
+
+  @Test
+  public void testForEachRemainingAsyncNeverCallsActionOnCallingThread() throws Exception {
+    // Fetches the first page right away, so that it has been loaded before the action is attached
+    AtomicBoolean firstCommand = new AtomicBoolean(true);
+    Executor executor = command -> {
+      if (firstCommand.getAndSet(false)) {
+        command.run();
+      } else {
+        executorService.execute(command);
+      }
+    };
+    PageIterator<Integer> instance = new PageIterator<>((offset, limit, countTotal) -> records(offset, limit, 250, true),
+        executor, 0, 10_000, 100, 100, 3, false);
+    List<Thread> threads = new CopyOnWriteArrayList<>();
+
+    instance.forEachRemainingAsync(page -> threads.add(Thread.currentThread())).get(10, TimeUnit.SECONDS);
+
+    assertThat(threads, hasSize(3));
+    assertThat(threads, not(hasItem(Thread.currentThread())));
+  }
+
+  @Test
+  public void testCancellingForEachRemainingAsyncCancelsPendingPages() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    PageIterator<Integer> instance = new PageIterator<>((offset, limit, countTotal) -> {
+      if (offset > 0) {
+        blocked.countDown();
+        try {
+          Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return records(offset, limit, 1000, true);
+    }, executorService, 0, 10_000, 100, 100, 1, true);
+
+    CompletableFuture<Void> future = instance.forEachRemainingAsync(page -> {
+    });
+    assertThat(blocked.await(5, TimeUnit.SECONDS), is(true));
+    future.cancel(true);
+
+    assertThat(instance.hasNext(), is(false));
+  }
+
+  private Page<Integer> recordsWithTotal(int offset, int limit, boolean countTotal) {
+    requests.add(offset + "+" + limit + (countTotal ? " totals" : ""));
+    return records(offset, limit, 1000, countTotal);
+  }
+
+  private static Page<Integer> records(int offset, int limit, int total, boolean countTotal) {
+    return new Page<>(range(offset, Math.min(offset + limit, total)), countTotal ? total : null);
+  }
+
+  private static List<Integer> range(int from, int to) {
+    return IntStream.range(from, to).boxed().collect(Collectors.toList());
+  }
+
+  private static List<Integer> collect(PageIterator<Integer> pageIterator) {
+    List<Integer> result = new ArrayList<>();
+    pageIterator.forEachRemaining(result::addAll);
+    return result;
+  }
+}
@@ -0,0 +1,99 @@
+package com.faforever.client.api;
+
+import com.faforever.client.api.dto.Mod;
+import com.faforever.client.api.dto.ModVersion;
+import com.faforever.client.api.dto.Player;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jasminb.jsonapi.exceptions.ResourceParseException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class StreamingJsonApiReaderTest {
+
+  private static final String MODS_DOCUMENT = "{" +
+      "\"data\": [" +
+      "  {\"type\": \"mod\", \"id\": \"1\", \"attributes\": {\"displayName\": \"Mod 1\", \"author\": \"junit\"}, \"relationships\": {" +
+      "    \"uploader\": {\"data\": {\"type\": \"player\", \"id\": \"5\"}}," +
+      "    \"versions\": {\"data\": [{\"type\": \"modVersion\", \"id\": \"10\"}, {\"type\": \"modVersion\", \"id\": \"11\"}]}," +
+      "    \"latestVersion\": {\"links\": {\"self\": \"http://localhost\"}, \"data\": {\"type\": \"modVersion\", \"id\": \"11\"}}" +
+      "  }}," +
+      "  {\"relationships\": {\"uploader\": {\"data\": null}}, \"attributes\": {\"displayName\": \"Mod 2\"}, \"id\": \"2\", \"type\": \"mod\"}" +
+      "]," +
+      "\"included\": [" +
+      "  {\"type\": \"player\", \"id\": \"5\", \"attributes\": {\"login\": \"junit\"}}," +
+      "  {\"type\": \"unknownType\", \"id\": \"1\", \"attributes\": {\"foo\": \"bar\"}}," +
+      "  {\"attributes\": {\"uid\": \"uid-11\"}, \"id\": \"11\", \"type\": \"modVersion\", \"relationships\": {\"mod\": {\"data\": {\"type\": \"mod\", \"id\": \"1\"}}}}" +
+      "]," +
+      "\"meta\": {\"page\": {\"number\": 1, \"totalRecords\": 2}}" +
+      "}";
+
+  private StreamingJsonApiReader instance;
+
+  @Before
+  public void setUp() {
+    ObjectMapper objectMapper = new ObjectMapper()
+        .findAndRegisterModules()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    instance = new StreamingJsonApiReader(objectMapper, Mod.class, ModVersion.class, Player.class);
+  }
+
+  @Test
+  public void testReadDocumentCollection() throws Exception {
+    JsonApiList<Mod> mods = instance.readDocumentCollection(stream(MODS_DOCUMENT));
+
+    assertThat(mods, hasSize(2));
+    assertThat(mods.getTotalRecords(), is(2));
+
+    Mod mod1 = mods.get(0);
+    assertThat(mod1.getId(), is("1"));
+    assertThat(mod1.getDisplayName(), is("Mod 1"));
+    assertThat(mod1.getAuthor(), is("junit"));
+    assertThat(mod1.getUploader().getId(), is("5"));
+    assertThat(mod1.getUploader().getLogin(), is("junit"));
+
+    // Version 10 isn't included, so only its ID is known
+    assertThat(mod1.getVersions(), hasSize(2));
+    assertThat(mod1.getVersions().get(0).getId(), is("10"));
+    assertThat(mod1.getVersions().get(0).getUid(), is(nullValue()));
+    assertThat(mod1.getVersions().get(1), sameInstance(mod1.getLatestVersion()));
+    assertThat(mod1.getLatestVersion().getUid(), is("uid-11"));
+    assertThat(mod1.getLatestVersion().getMod(), sameInstance(mod1));
+
+    Mod mod2 = mods.get(1);
+    assertThat(mod2.getId(), is("2"));
+    assertThat(mod2.getDisplayName(), is("Mod 2"));
+    assertThat(mod2.getUploader(), is(nullValue()));
+  }
+
+  @Test
+  public void testReadDocumentPassesResourcesWithoutRelationshipsFirst() throws Exception {
+    List<String> ids = new ArrayList<>();
+    instance.readDocument(stream(MODS_DOCUMENT.replace("\"uploader\": {\"data\": null}", "")),
+        resource -> ids.add(((Mod) resource).getId()));
+
+    assertThat(ids, contains("2", "1"));
+  }
+
+  @Test(expected = ResourceParseException.class)
+  public void testErrors() throws Exception {
+    instance.readDocumentCollection(stream("{\"errors\": [{\"status\": \"400\", \"title\": \"Invalid filter\"}]}"));
+  }
+
+  private static InputStream stream(String json) {
+    return new ByteArrayInputStream(json.getBytes(UTF_8));
+  }
+}
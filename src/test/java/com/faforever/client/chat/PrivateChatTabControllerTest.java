@@ -27,6 +27,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
 import org.testfx.util.WaitForAsyncUtils;
 
 import java.io.IOException;
@@ -83,7 +84,7 @@ public class PrivateChatTabControllerTest extends AbstractPlainJavaFxTest {
 
   @Before
   public void setUp() throws IOException {
-    PreferencesService preferencesService = new PreferencesService(new ClientProperties());
+    PreferencesService preferencesService = new PreferencesService(new ClientProperties(), new ConcurrentTaskScheduler());
     preferencesService.afterPropertiesSet();
     preferencesService.getPreferences().getMainWindow().setLastView(NavigationItem.CHAT.name());
 
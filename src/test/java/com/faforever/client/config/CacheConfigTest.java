@@ -0,0 +1,98 @@
+package com.faforever.client.config;
+
+import com.faforever.client.config.CacheStatisticsReporter.CacheStatistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class CacheConfigTest {
+
+  private ClientProperties clientProperties;
+
+  @Before
+  public void setUp() {
+    clientProperties = new ClientProperties();
+  }
+
+  @Test
+  public void testEveryCacheNameHasACache() throws Exception {
+    SimpleCacheManager cacheManager = createCacheManager();
+
+    for (Field field : CacheNames.class.getDeclaredFields()) {
+      if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+        assertThat(field.getName(), cacheManager.getCache((String) field.get(null)), instanceOf(CaffeineCache.class));
+      }
+    }
+  }
+
+  @Test
+  public void testSpecCanBeOverridden() {
+    clientProperties.getCache().getSpecs().put(CacheNames.MODS, "maximumSize=1");
+    SimpleCacheManager cacheManager = createCacheManager();
+
+    CaffeineCache cache = (CaffeineCache) cacheManager.getCache(CacheNames.MODS);
+    cache.put("a", Arrays.asList("mod1", "mod2"));
+    cache.put("b", Arrays.asList("mod3", "mod4"));
+    cache.getNativeCache().cleanUp();
+
+    CacheStatistics statistics = new CacheStatisticsReporter(cacheManager).getCacheStatistics().get(CacheNames.MODS);
+    assertThat(statistics.getSize(), is(1L));
+    assertThat(statistics.getEvictions(), is(1L));
+  }
+
+  @Test
+  public void testStatistics() {
+    SimpleCacheManager cacheManager = createCacheManager();
+
+    Cache cache = cacheManager.getCache(CacheNames.CLAN);
+    cache.get("FAF");
+    cache.put("FAF", "Forged Alliance Forever");
+    cache.get("FAF");
+
+    CacheStatistics statistics = new CacheStatisticsReporter(cacheManager).getCacheStatistics().get(CacheNames.CLAN);
+    assertThat(statistics.getHits(), is(1L));
+    assertThat(statistics.getMisses(), is(1L));
+    assertThat(statistics.getHitRate(), is(0.5));
+    assertThat(statistics.getEstimatedBytes(), greaterThan(0L));
+  }
+
+  @Test
+  public void testFutureIsWeighedAgainOnceComplete() {
+    SimpleCacheManager cacheManager = createCacheManager();
+    CaffeineCache cache = (CaffeineCache) cacheManager.getCache(CacheNames.MODS);
+    CompletableFuture<List<String>> future = new CompletableFuture<>();
+
+    cache.put("a", future);
+    long weightWhileLoading = weightedSize(cache);
+    future.complete(Collections.nCopies(100, "mod"));
+
+    assertThat(weightedSize(cache), greaterThan(weightWhileLoading));
+  }
+
+  private static long weightedSize(CaffeineCache cache) {
+    cache.getNativeCache().cleanUp();
+    return cache.getNativeCache().policy().eviction()
+        .orElseThrow(() -> new IllegalStateException("Cache is not bounded"))
+        .weightedSize().orElseThrow(() -> new IllegalStateException("Cache is not weighted"));
+  }
+
+  private SimpleCacheManager createCacheManager() {
+    SimpleCacheManager cacheManager = (SimpleCacheManager) new CacheConfig(clientProperties).cacheManager();
+    cacheManager.afterPropertiesSet();
+    return cacheManager;
+  }
+}
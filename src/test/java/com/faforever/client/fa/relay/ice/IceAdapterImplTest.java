@@ -32,7 +32,7 @@ public class IceAdapterImplTest {
 
   @Before
   public void setUp() throws Exception {
-    instance = new IceAdapterImpl(applicationContext, clientProperties, playerService, eventBus, fafService, preferencesService);
+    instance = new IceAdapterImpl(applicationContext, clientProperties, playerService, eventBus, fafService, preferencesService, Runnable::run);
   }
 
   @Test
@@ -13,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.nio.file.Paths;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
@@ -29,7 +30,7 @@ public class GamePathHandlerTest {
   @Before
   public void setUp() throws Exception {
     MockitoAnnotations.initMocks(this);
-    PreferencesService preferenceService = new PreferencesService(new ClientProperties());
+    PreferencesService preferenceService = new PreferencesService(new ClientProperties(), new ConcurrentTaskScheduler());
     instance = new GamePathHandler(notificationService, i18n, eventBus, preferenceService);
   }
 
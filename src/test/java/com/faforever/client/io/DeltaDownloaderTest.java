@@ -0,0 +1,268 @@
+package com.faforever.client.io;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.task.CompletableTask.Priority;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Bytes;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class DeltaDownloaderTest {
+
+  private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(\\d+)-(\\d+)");
+  private static final int BLOCK_SIZE = 1024;
+  private static final int FILE_SIZE = 200 * BLOCK_SIZE + 123;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private DeltaDownloader instance;
+  private HttpServer httpServer;
+  /** Served files by path, e.g. two versions of a featured mod's file set. */
+  private Map<String, byte[]> files;
+  private AtomicLong bytesServed;
+  private AtomicInteger requests;
+  /** The status of responses for files that aren't served. */
+  private int missingFileStatus;
+  private String baseUrl;
+  private byte[] version1;
+  private byte[] version2;
+
+  @Before
+  public void setUp() throws Exception {
+    files = new HashMap<>();
+    bytesServed = new AtomicLong();
+    requests = new AtomicInteger();
+    missingFileStatus = 404;
+
+    version1 = new byte[FILE_SIZE];
+    new Random(1).nextBytes(version1);
+    // Version 2 has some bytes inserted near the start (shifting everything after it) and a modified block
+    byte[] inserted = new byte[100];
+    new Random(2).nextBytes(inserted);
+    version2 = Bytes.concat(Arrays.copyOf(version1, 5000), inserted, Arrays.copyOfRange(version1, 5000, version1.length));
+    Arrays.fill(version2, 100_000, 100_500, (byte) 7);
+
+    publish("/1/gamedata/units.nx2", version1);
+    publish("/2/gamedata/units.nx2", version2);
+
+    httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    httpServer.createContext("/", this::serve);
+    httpServer.start();
+    baseUrl = "http://localhost:" + httpServer.getAddress().getPort();
+
+    instance = new DeltaDownloader(new TransferScheduler(new ClientProperties()), HttpClients.createDefault());
+  }
+
+  @After
+  public void tearDown() {
+    httpServer.stop(0);
+  }
+
+  @Test
+  public void testUpdateFromPreviousVersion() throws Exception {
+    Path targetFile = temporaryFolder.getRoot().toPath().resolve("units.nx2");
+    Files.write(targetFile, version1);
+
+    boolean patched = instance.download(new URL(baseUrl + "/2/gamedata/units.nx2"), targetFile, md5(version2), Priority.HIGH);
+
+    assertThat(patched, is(true));
+    assertThat(Arrays.equals(Files.readAllBytes(targetFile), version2), is(true));
+    assertThat(bytesServed.get(), greaterThan(0L));
+    assertThat(bytesServed.get(), lessThan(version2.length / 10L));
+  }
+
+  @Test
+  public void testNoManifestLeavesFileUntouched() throws Exception {
+    files.remove("/2/gamedata/units.nx2" + BlockManifest.URL_SUFFIX);
+    Path targetFile = temporaryFolder.getRoot().toPath().resolve("units.nx2");
+    Files.write(targetFile, version1);
+
+    boolean patched = instance.download(new URL(baseUrl + "/2/gamedata/units.nx2"), targetFile, md5(version2), Priority.HIGH);
+
+    assertThat(patched, is(false));
+    assertThat(Arrays.equals(Files.readAllBytes(targetFile), version1), is(true));
+  }
+
+  @Test
+  public void testMissingManifestIsNotRequestedAgainFromSameHost() throws Exception {
+    files.remove("/2/gamedata/units.nx2" + BlockManifest.URL_SUFFIX);
+    Path targetFile = temporaryFolder.getRoot().toPath().resolve("units.nx2");
+    Files.write(targetFile, version1);
+    URL url = new URL(baseUrl + "/2/gamedata/units.nx2");
+
+    instance.download(url, targetFile, md5(version2), Priority.HIGH);
+    int requestsAfterFirstDownload = requests.get();
+    boolean patched = instance.download(url, targetFile, md5(version2), Priority.HIGH);
+
+    assertThat(patched, is(false));
+    assertThat(requests.get(), is(requestsAfterFirstDownload));
+  }
+
+  @Test
+  public void testDeniedManifestIsNotRequestedAgainFromSameHost() throws Exception {
+    files.remove("/2/gamedata/units.nx2" + BlockManifest.URL_SUFFIX);
+    missingFileStatus = 403;
+    Path targetFile = temporaryFolder.getRoot().toPath().resolve("units.nx2");
+    Files.write(targetFile, version1);
+    URL url = new URL(baseUrl + "/2/gamedata/units.nx2");
+
+    instance.download(url, targetFile, md5(version2), Priority.HIGH);
+    int requestsAfterFirstDownload = requests.get();
+    boolean patched = instance.download(url, targetFile, md5(version2), Priority.HIGH);
+
+    assertThat(patched, is(false));
+    assertThat(requests.get(), is(requestsAfterFirstDownload));
+  }
+
+  @Test
+  public void testOversizedManifestIsRejected() throws Exception {
+    ByteArrayOutputStream manifest = new ByteArrayOutputStream();
+    DataOutputStream dataOutputStream = new DataOutputStream(manifest);
+    dataOutputStream.writeInt(0x46414642);
+    dataOutputStream.writeInt(1);
+    dataOutputStream.writeInt(1);
+    dataOutputStream.writeLong(BlockManifest.MAX_BLOCK_COUNT + 1L);
+    files.put("/2/gamedata/units.nx2" + BlockManifest.URL_SUFFIX, manifest.toByteArray());
+    Path targetFile = temporaryFolder.getRoot().toPath().resolve("units.nx2");
+    Files.write(targetFile, version1);
+
+    boolean patched = instance.download(new URL(baseUrl + "/2/gamedata/units.nx2"), targetFile, md5(version2), Priority.HIGH);
+
+    assertThat(patched, is(false));
+    assertThat(Arrays.equals(Files.readAllBytes(targetFile), version1), is(true));
+  }
+
+  @Test
+  public void testUppercaseChecksum() throws Exception {
+    Path targetFile = temporaryFolder.getRoot().toPath().resolve("units.nx2");
+    Files.write(targetFile, version1);
+
+    boolean patched = instance.download(new URL(baseUrl + "/2/gamedata/units.nx2"), targetFile, md5(version2).toUpperCase(Locale.US), Priority.HIGH);
+
+    assertThat(patched, is(true));
+  }
+
+  @Test
+  public void testManifestUrlKeepsQuery() throws Exception {
+    URL manifestUrl = DeltaDownloader.getManifestUrl(new URL("https://content.example.com/2/units.nx2?token=abc"));
+
+    assertThat(manifestUrl.toString(), is("https://content.example.com/2/units.nx2" + BlockManifest.URL_SUFFIX + "?token=abc"));
+  }
+
+  @Test
+  public void testNoBaseFile() throws Exception {
+    Path targetFile = temporaryFolder.getRoot().toPath().resolve("units.nx2");
+
+    boolean patched = instance.download(new URL(baseUrl + "/2/gamedata/units.nx2"), targetFile, md5(version2), Priority.HIGH);
+
+    assertThat(patched, is(false));
+    assertThat(Files.exists(targetFile), is(false));
+    assertThat(bytesServed.get(), is(0L));
+  }
+
+  @Test
+  public void testChecksumMismatchLeavesFileUntouched() throws Exception {
+    Path targetFile = temporaryFolder.getRoot().toPath().resolve("units.nx2");
+    Files.write(targetFile, version1);
+
+    boolean patched = instance.download(new URL(baseUrl + "/2/gamedata/units.nx2"), targetFile, "0123456789abcdef0123456789abcdef", Priority.HIGH);
+
+    assertThat(patched, is(false));
+    assertThat(Arrays.equals(Files.readAllBytes(targetFile), version1), is(true));
+    try (Stream<Path> list = Files.list(temporaryFolder.getRoot().toPath())) {
+      assertThat(list.count(), is(1L));
+    }
+  }
+
+  @Test
+  public void testUnrelatedBaseFallsBackToFullDownload() throws Exception {
+    byte[] unrelated = new byte[FILE_SIZE];
+    new Random(3).nextBytes(unrelated);
+    Path targetFile = temporaryFolder.getRoot().toPath().resolve("units.nx2");
+    Files.write(targetFile, unrelated);
+
+    boolean patched = instance.download(new URL(baseUrl + "/2/gamedata/units.nx2"), targetFile, md5(version2), Priority.HIGH);
+
+    assertThat(patched, is(false));
+    assertThat(Arrays.equals(Files.readAllBytes(targetFile), unrelated), is(true));
+  }
+
+  private void publish(String path, byte[] content) throws IOException {
+    files.put(path, content);
+    Path file = temporaryFolder.newFile().toPath();
+    Files.write(file, content);
+    ByteArrayOutputStream manifest = new ByteArrayOutputStream();
+    BlockManifest.create(file, BLOCK_SIZE).write(manifest);
+    files.put(path + BlockManifest.URL_SUFFIX, manifest.toByteArray());
+    Files.delete(file);
+  }
+
+  private void serve(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    String path = exchange.getRequestURI().getPath();
+    byte[] content = files.get(path);
+    if (content == null) {
+      exchange.sendResponseHeaders(missingFileStatus, -1);
+      exchange.close();
+      return;
+    }
+
+    int start = 0;
+    int end = content.length;
+    int status = 200;
+    String range = exchange.getRequestHeaders().getFirst("Range");
+    if (range != null) {
+      Matcher matcher = RANGE_PATTERN.matcher(range);
+      if (!matcher.matches()) {
+        throw new IllegalStateException("Unexpected range: " + range);
+      }
+      start = Integer.parseInt(matcher.group(1));
+      end = Integer.parseInt(matcher.group(2)) + 1;
+      status = 206;
+    }
+
+    exchange.sendResponseHeaders(status, end - start);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(content, start, end - start);
+    }
+    if (!path.endsWith(BlockManifest.URL_SUFFIX)) {
+      bytesServed.addAndGet(end - start);
+    }
+  }
+
+  private static String md5(byte[] content) {
+    return Hashing.md5().hashBytes(content).toString();
+  }
+}
@@ -0,0 +1,89 @@
+package com.faforever.client.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class DirectoryWatchServiceTest {
+
+  private static final long TIMEOUT = 10;
+
+  @Rule
+  public TemporaryFolder directory = new TemporaryFolder();
+
+  private DirectoryWatchService instance;
+  private ThreadPoolExecutor threadPoolExecutor;
+  private BlockingQueue<Path> changes;
+  private Path root;
+
+  @Before
+  public void setUp() throws Exception {
+    threadPoolExecutor = (ThreadPoolExecutor) Executors.newCachedThreadPool();
+    instance = new DirectoryWatchService(threadPoolExecutor, Duration.ofMillis(100));
+    changes = new LinkedBlockingQueue<>();
+    root = directory.getRoot().toPath();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    instance.destroy();
+    threadPoolExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testCreateIsReportedOnceForFolder() throws Exception {
+    instance.watch(root, changes::add);
+
+    Path mapFolder = Files.createDirectory(root.resolve("map"));
+    Files.write(mapFolder.resolve("map_scenario.lua"), new byte[]{1});
+    Files.write(mapFolder.resolve("map_save.lua"), new byte[]{2});
+
+    assertThat(changes.poll(TIMEOUT, TimeUnit.SECONDS), is(mapFolder));
+    assertThat(changes.poll(500, TimeUnit.MILLISECONDS), nullValue());
+  }
+
+  @Test
+  public void testModifyWithinExistingFolderIsReported() throws Exception {
+    Path mapFolder = Files.createDirectory(root.resolve("map"));
+    Path scenario = Files.write(mapFolder.resolve("map_scenario.lua"), new byte[]{1});
+    instance.watch(root, changes::add);
+
+    Files.write(scenario, new byte[]{2});
+
+    assertThat(changes.poll(TIMEOUT, TimeUnit.SECONDS), is(mapFolder));
+  }
+
+  @Test
+  public void testDeleteIsReported() throws Exception {
+    Path mapFolder = Files.createDirectory(root.resolve("map"));
+    instance.watch(root, changes::add);
+
+    Files.delete(mapFolder);
+
+    assertThat(changes.poll(TIMEOUT, TimeUnit.SECONDS), is(mapFolder));
+  }
+
+  @Test
+  public void testCancelledRegistrationIsNotNotified() throws Exception {
+    instance.watch(root, changes::add).cancel();
+
+    Files.createDirectory(root.resolve("map"));
+
+    assertThat(changes.poll(500, TimeUnit.MILLISECONDS), nullValue());
+  }
+}
@@ -0,0 +1,229 @@
+package com.faforever.client.io;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.task.CompletableTask.Priority;
+import com.google.common.hash.Hashing;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class DownloadServiceTest {
+
+  private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(\\d+)-(\\d+)");
+  private static final int FILE_SIZE = 1000;
+
+  @Rule
+  public TemporaryFolder targetDirectory = new TemporaryFolder();
+
+  private DownloadService instance;
+  private HttpClientStatistics httpClientStatistics;
+  private CloseableHttpClient httpClient;
+  private HttpServer httpServer;
+  private byte[] content;
+  private AtomicInteger rangeRequests;
+  private AtomicLong bytesServed;
+  private URL url;
+
+  @Before
+  public void setUp() throws Exception {
+    content = new byte[FILE_SIZE];
+    new Random(1).nextBytes(content);
+    rangeRequests = new AtomicInteger();
+    bytesServed = new AtomicLong();
+
+    httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    httpServer.createContext("/file", this::serveFile);
+    httpServer.setExecutor(Executors.newCachedThreadPool());
+    httpServer.start();
+    url = new URL("http://localhost:" + httpServer.getAddress().getPort() + "/file");
+
+    httpClientStatistics = new HttpClientStatistics();
+    httpClient = PooledHttpClients.create(new ClientProperties().getHttp(), httpClientStatistics);
+    instance = new DownloadService((ThreadPoolExecutor) Executors.newCachedThreadPool(), new TransferScheduler(new ClientProperties()), httpClient, 100, 4);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    httpClient.close();
+    httpServer.stop(0);
+  }
+
+  private void serveFile(HttpExchange exchange) throws IOException {
+    exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+    exchange.getResponseHeaders().add("ETag", "\"1\"");
+
+    int start = 0;
+    int end = content.length;
+    String range = exchange.getRequestHeaders().getFirst("Range");
+    int status = 200;
+    if (range != null) {
+      Matcher matcher = RANGE_PATTERN.matcher(range);
+      if (!matcher.matches()) {
+        throw new IllegalStateException("Unexpected range: " + range);
+      }
+      start = Integer.parseInt(matcher.group(1));
+      end = Integer.parseInt(matcher.group(2)) + 1;
+      status = 206;
+      rangeRequests.incrementAndGet();
+    }
+
+    if ("HEAD".equals(exchange.getRequestMethod())) {
+      exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+      exchange.sendResponseHeaders(200, -1);
+      exchange.close();
+      return;
+    }
+
+    exchange.sendResponseHeaders(status, end - start);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(content, start, end - start);
+    }
+    bytesServed.addAndGet(end - start);
+  }
+
+  @Test
+  public void testDownloadInSegments() throws Exception {
+    Path targetFile = targetDirectory.getRoot().toPath().resolve("target");
+    AtomicLong lastProgress = new AtomicLong();
+
+    instance.downloadFile(url, targetFile, (written, total) -> lastProgress.accumulateAndGet(written, Math::max));
+
+    assertThat(Arrays.equals(Files.readAllBytes(targetFile), content), is(true));
+    assertThat(rangeRequests.get(), is(4));
+    assertThat(lastProgress.get(), is((long) FILE_SIZE));
+    try (Stream<Path> files = Files.list(targetDirectory.getRoot().toPath())) {
+      assertThat(files.count(), is(1L));
+    }
+  }
+
+  @Test
+  public void testResumeDownload() throws Exception {
+    Path targetFile = targetDirectory.getRoot().toPath().resolve("target");
+    instance = new DownloadService((ThreadPoolExecutor) Executors.newCachedThreadPool(), new TransferScheduler(new ClientProperties()), httpClient, FILE_SIZE, 4);
+    Files.write(targetFile.resolveSibling("target.part"), ("url=" + url.toString().replace(":", "\\:") + "\n"
+        + "length=" + FILE_SIZE + "\n"
+        + "validator=\"1\"\n"
+        + "segments=1\n").getBytes());
+    Files.write(targetFile.resolveSibling("target.part0"), Arrays.copyOf(content, 600));
+
+    instance.downloadFile(url, targetFile, (written, total) -> {
+    });
+
+    assertThat(Arrays.equals(Files.readAllBytes(targetFile), content), is(true));
+    assertThat(bytesServed.get(), is(400L));
+  }
+
+  @Test
+  public void testConnectionsAreReused() throws Exception {
+    Path targetFile = targetDirectory.getRoot().toPath().resolve("target");
+    instance = new DownloadService((ThreadPoolExecutor) Executors.newCachedThreadPool(), new TransferScheduler(new ClientProperties()), httpClient, FILE_SIZE, 4);
+
+    for (int i = 0; i < 3; i++) {
+      instance.downloadFile(url, targetFile, (written, total) -> {
+      });
+    }
+
+    assertThat(httpClientStatistics.getRequests(), is(6L));
+    assertThat(httpClientStatistics.getConnectionsOpened(), lessThan(6L));
+  }
+
+  @Test
+  public void testDeleteStalePartialDownloads() throws Exception {
+    Path directory = targetDirectory.getRoot().toPath();
+    Path staleState = Files.write(directory.resolve("old.zip.part"), new byte[0]);
+    Path stalePart = Files.write(directory.resolve("old.zip.part0"), new byte[10]);
+    Path recentPart = Files.write(directory.resolve("new.zip.part0"), new byte[10]);
+    Path otherFile = Files.write(directory.resolve("other.zip"), new byte[10]);
+    FileTime longAgo = FileTime.from(Instant.now().minus(Duration.ofDays(30)));
+    for (Path file : Arrays.asList(staleState, stalePart, otherFile)) {
+      Files.setLastModifiedTime(file, longAgo);
+    }
+
+    instance.deleteStalePartialDownloads(directory);
+
+    assertThat(Files.exists(staleState), is(false));
+    assertThat(Files.exists(stalePart), is(false));
+    assertThat(Files.exists(recentPart), is(true));
+    assertThat(Files.exists(otherFile), is(true));
+  }
+
+  @Test
+  public void testDeleteStalePartialDownloadsKeepsDownloadsInProgress() throws Exception {
+    Path directory = targetDirectory.getRoot().toPath();
+    Path stalePart = Files.write(directory.resolve("old.zip.part0"), new byte[10]);
+    Files.setLastModifiedTime(stalePart, FileTime.from(Instant.now().minus(Duration.ofDays(30))));
+
+    Lock lock = instance.getTargetLock(directory.resolve("old.zip"));
+    lock.lock();
+    try {
+      Executors.newSingleThreadExecutor().submit(() -> instance.deleteStalePartialDownloads(directory)).get();
+    } finally {
+      lock.unlock();
+    }
+
+    assertThat(Files.exists(stalePart), is(true));
+  }
+
+  @Test
+  public void testGetContentLength() throws Exception {
+    assertThat(instance.getContentLength(url), is((long) FILE_SIZE));
+  }
+
+  @Test
+  public void testChecksumMismatch() throws Exception {
+    Path targetFile = targetDirectory.getRoot().toPath().resolve("target");
+    Files.write(targetFile, new byte[]{1});
+
+    try {
+      instance.downloadFile(url, targetFile, (written, total) -> {
+      }, "0123456789abcdef0123456789abcdef", Priority.MEDIUM);
+      fail("Expected checksum mismatch");
+    } catch (ChecksumMismatchException e) {
+      assertThat(e.getActual(), is(Hashing.md5().hashBytes(content).toString()));
+    }
+    assertThat(Files.readAllBytes(targetFile), is(new byte[]{1}));
+  }
+
+  @Test
+  public void testDownloadWithoutHttp() throws Exception {
+    Path sourceFile = targetDirectory.newFile("source").toPath();
+    Files.write(sourceFile, content);
+    Path targetFile = targetDirectory.getRoot().toPath().resolve("target");
+
+    instance.downloadFile(sourceFile.toUri().toURL(), targetFile, (written, total) -> {
+    }, Hashing.md5().hashBytes(content).toString(), Priority.MEDIUM);
+
+    assertThat(Arrays.equals(Files.readAllBytes(targetFile), content), is(true));
+  }
+}
@@ -0,0 +1,78 @@
+package com.faforever.client.io;
+
+import com.google.common.hash.Hashing;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class FileHashCacheTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private FileHashCache instance;
+  private Path storeFile;
+  private Path file;
+
+  @Before
+  public void setUp() throws Exception {
+    storeFile = temporaryFolder.getRoot().toPath().resolve("cache/file-hashes.txt");
+    file = temporaryFolder.newFile("file").toPath();
+    Files.write(file, "content".getBytes(UTF_8));
+    instance = new FileHashCache(storeFile);
+  }
+
+  @Test
+  public void testGetMd5() throws Exception {
+    assertThat(instance.getMd5(file), is(md5("content")));
+  }
+
+  @Test
+  public void testGetMd5OfMissingFile() throws Exception {
+    assertThat(instance.getMd5(file.resolveSibling("missing")), is(nullValue()));
+  }
+
+  @Test
+  public void testUnchangedFileIsNotRehashedAfterRestart() throws Exception {
+    FileTime lastModified = Files.getLastModifiedTime(file);
+    instance.getMd5(file);
+    instance.save();
+
+    // Same size and modification time, but different content: a cache hit returns the stale hash
+    Files.write(file, "CONTENT".getBytes(UTF_8));
+    Files.setLastModifiedTime(file, lastModified);
+
+    assertThat(new FileHashCache(storeFile).getMd5(file), is(md5("content")));
+  }
+
+  @Test
+  public void testModifiedFileIsRehashed() throws Exception {
+    instance.getMd5(file);
+
+    Files.write(file, "changed content".getBytes(UTF_8));
+
+    assertThat(instance.getMd5(file), is(md5("changed content")));
+  }
+
+  @Test
+  public void testPut() throws Exception {
+    instance.put(file, "0123456789abcdef0123456789abcdef");
+    instance.save();
+
+    assertThat(new FileHashCache(storeFile).getMd5(file), is("0123456789abcdef0123456789abcdef"));
+  }
+
+  private static String md5(String content) {
+    return Hashing.md5().hashString(content, UTF_8).toString();
+  }
+}
@@ -0,0 +1,96 @@
+package com.faforever.client.io;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LruDiskCacheTest {
+
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
+
+  private LruDiskCache instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new LruDiskCache(10);
+  }
+
+  private Path createFile(String name, int size, long lastModified) throws Exception {
+    Path file = cacheDirectory.getRoot().toPath().resolve(name);
+    Files.write(file, new byte[size]);
+    Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+    return file;
+  }
+
+  @Test
+  public void testAddEvictsLeastRecentlyUsed() throws Exception {
+    Path a = createFile("a", 4, 1000);
+    Path b = createFile("b", 4, 1000);
+    Path c = createFile("c", 4, 1000);
+
+    instance.add(a, 4);
+    instance.add(b, 4);
+    instance.touch(a);
+    instance.add(c, 4);
+
+    assertThat(Files.exists(a), is(true));
+    assertThat(Files.exists(b), is(false));
+    assertThat(Files.exists(c), is(true));
+    assertThat(instance.getTotalBytes(), is(8L));
+  }
+
+  @Test
+  public void testTrackEvictsOldestFiles() throws Exception {
+    Path old = createFile("old", 6, 1000);
+    Path recent = createFile("recent", 6, 2000);
+
+    instance.track(cacheDirectory.getRoot().toPath());
+
+    assertThat(Files.exists(old), is(false));
+    assertThat(Files.exists(recent), is(true));
+    assertThat(instance.getTotalBytes(), is(6L));
+  }
+
+  @Test
+  public void testTrackKeepsFilesAddedBefore() throws Exception {
+    Path scanned = createFile("scanned", 6, System.currentTimeMillis());
+    Path added = createFile("added", 6, 1000);
+    instance.add(added, 6);
+
+    instance.track(cacheDirectory.getRoot().toPath());
+
+    assertThat(Files.exists(scanned), is(false));
+    assertThat(Files.exists(added), is(true));
+  }
+
+  @Test
+  public void testTrackIgnoresTempFiles() throws Exception {
+    Path file = createFile("file", 4, 1000);
+    Path tempFile = createFile("other" + LruDiskCache.TEMP_FILE_SUFFIX, 8, 2000);
+
+    instance.track(cacheDirectory.getRoot().toPath());
+
+    assertThat(instance.contains(tempFile), is(false));
+    assertThat(instance.contains(file), is(true));
+    assertThat(instance.getTotalBytes(), is(4L));
+  }
+
+  @Test
+  public void testTouchPersistsAccessTime() throws Exception {
+    Path file = createFile("file", 1, 1000);
+    instance.add(file, 1);
+
+    instance.touch(file);
+
+    assertThat(Files.getLastModifiedTime(file).toMillis() > 1000, is(true));
+  }
+}
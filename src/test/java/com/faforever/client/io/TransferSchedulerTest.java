@@ -0,0 +1,113 @@
+package com.faforever.client.io;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.io.TransferScheduler.Direction;
+import com.faforever.client.io.TransferScheduler.Permit;
+import com.faforever.client.task.CompletableTask.Priority;
+import com.faforever.commons.io.ByteCountListener;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TransferSchedulerTest {
+
+  private TransferScheduler instance;
+
+  @Before
+  public void setUp() {
+    ClientProperties clientProperties = new ClientProperties();
+    clientProperties.getTransfer().setMaxTransfers(2);
+    clientProperties.getTransfer().setMaxTransfersPerHost(1);
+    instance = new TransferScheduler(clientProperties);
+  }
+
+  @Test
+  public void testPerHostLimit() throws Exception {
+    Permit first = instance.acquire(Direction.DOWNLOAD, "example.com", Priority.MEDIUM);
+    CompletableFuture<Permit> sameHost = acquireAsync(Direction.DOWNLOAD, "example.com", Priority.MEDIUM, null);
+    waitForWaitingTransfers(1);
+
+    // Another host may start even though a transfer is waiting for the busy one
+    Permit otherHost = instance.acquire(Direction.DOWNLOAD, "example.org", Priority.MEDIUM);
+    assertThat(instance.getActiveTransfers(), is(2));
+    assertThat(sameHost.isDone(), is(false));
+
+    first.close();
+    otherHost.close();
+    sameHost.get(5, TimeUnit.SECONDS).close();
+    assertThat(instance.getActiveTransfers(), is(0));
+  }
+
+  @Test
+  public void testHigherPriorityStartsFirst() throws Exception {
+    Permit first = instance.acquire(Direction.DOWNLOAD, null, Priority.MEDIUM);
+    Permit second = instance.acquire(Direction.DOWNLOAD, null, Priority.MEDIUM);
+
+    List<Priority> startOrder = new CopyOnWriteArrayList<>();
+    CompletableFuture<Permit> low = acquireAsync(Direction.DOWNLOAD, null, Priority.LOW, startOrder);
+    waitForWaitingTransfers(1);
+    CompletableFuture<Permit> high = acquireAsync(Direction.DOWNLOAD, null, Priority.HIGH, startOrder);
+    waitForWaitingTransfers(2);
+
+    first.close();
+    high.get(5, TimeUnit.SECONDS).close();
+    low.get(5, TimeUnit.SECONDS).close();
+    second.close();
+
+    assertThat(startOrder, contains(Priority.HIGH, Priority.LOW));
+  }
+
+  @Test
+  public void testCloseIsIdempotent() throws Exception {
+    Permit permit = instance.acquire(Direction.UPLOAD, null, Priority.MEDIUM);
+    permit.close();
+    permit.close();
+
+    assertThat(instance.getActiveTransfers(), is(0));
+  }
+
+  @Test
+  public void testCountingListenerPassesProgressOn() throws Exception {
+    long[] reported = new long[1];
+    try (Permit permit = instance.acquire(Direction.UPLOAD, null, Priority.MEDIUM)) {
+      ByteCountListener listener = permit.countingListener((written, total) -> reported[0] = written);
+      listener.updateBytesWritten(100, 300);
+      listener.updateBytesWritten(300, 300);
+    }
+
+    assertThat(reported[0], is(300L));
+  }
+
+  private CompletableFuture<Permit> acquireAsync(Direction direction, String host, Priority priority, List<Priority> startOrder) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        Permit permit = instance.acquire(direction, host, priority);
+        if (startOrder != null) {
+          startOrder.add(priority);
+        }
+        return permit;
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+  }
+
+  private void waitForWaitingTransfers(int count) throws Exception {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (instance.getWaitingTransfers() != count) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new TimeoutException("Expected " + count + " waiting transfers but was " + instance.getWaitingTransfers());
+      }
+      Thread.sleep(10);
+    }
+  }
+}
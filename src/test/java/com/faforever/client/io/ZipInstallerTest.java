@@ -0,0 +1,139 @@
+package com.faforever.client.io;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ZipInstallerTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private ZipInstaller instance;
+  private Path targetDirectory;
+  private Path zipFile;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new ZipInstaller((ThreadPoolExecutor) Executors.newCachedThreadPool());
+    targetDirectory = temporaryFolder.newFolder("maps").toPath();
+    zipFile = temporaryFolder.getRoot().toPath().resolve("map.zip");
+  }
+
+  @Test
+  public void testInstallReplacesExistingFolder() throws Exception {
+    Path oldFile = Files.createDirectories(targetDirectory.resolve("map")).resolve("old.lua");
+    Files.write(oldFile, "old".getBytes(UTF_8));
+
+    try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+      zipOutputStream.putNextEntry(new ZipEntry("map/"));
+      for (int i = 0; i < 10; i++) {
+        writeEntry(zipOutputStream, "map/file" + i + ".lua", "content " + i);
+      }
+    }
+
+    AtomicLong lastProgress = new AtomicLong();
+    Set<Path> installed = instance.install(zipFile, targetDirectory, (written, total) -> lastProgress.accumulateAndGet(written, Math::max));
+
+    assertThat(installed, contains(targetDirectory.resolve("map")));
+    assertThat(Files.exists(oldFile), is(false));
+    assertThat(new String(Files.readAllBytes(targetDirectory.resolve("map/file7.lua")), UTF_8), is("content 7"));
+    assertThat(lastProgress.get(), is(10L * "content 0".length()));
+    assertThat(Files.exists(stagingRoot()), is(false));
+  }
+
+  @Test
+  public void testCorruptEntryLeavesTargetUntouched() throws Exception {
+    Path oldFile = Files.createDirectories(targetDirectory.resolve("map")).resolve("old.lua");
+    Files.write(oldFile, "old".getBytes(UTF_8));
+
+    writeZipWithCorruptedEntry();
+
+    try {
+      instance.install(zipFile, targetDirectory, (written, total) -> {
+      });
+      fail("Expected a ZipException");
+    } catch (ZipException e) {
+      // expected
+    }
+
+    try (Stream<Path> files = Files.list(targetDirectory.resolve("map"))) {
+      assertThat(files.count(), is(1L));
+    }
+    assertThat(Files.exists(oldFile), is(true));
+    assertThat(Files.exists(stagingRoot()), is(false));
+  }
+
+  @Test
+  public void testEntryOutsideOfTargetIsRejected() throws Exception {
+    try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+      writeEntry(zipOutputStream, "../evil.lua", "evil");
+    }
+
+    try {
+      instance.install(zipFile, targetDirectory, (written, total) -> {
+      });
+      fail("Expected a ZipException");
+    } catch (ZipException e) {
+      // expected
+    }
+
+    try (Stream<Path> files = Files.list(temporaryFolder.getRoot().toPath())) {
+      assertThat(files.noneMatch(path -> path.getFileName().toString().startsWith("evil")), is(true));
+    }
+  }
+
+  private void writeZipWithCorruptedEntry() throws IOException {
+    byte[] content = "stored content that will be corrupted".getBytes(UTF_8);
+    CRC32 crc32 = new CRC32();
+    crc32.update(content);
+
+    try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+      writeEntry(zipOutputStream, "map/good.lua", "good");
+      ZipEntry entry = new ZipEntry("map/bad.lua");
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(content.length);
+      entry.setCrc(crc32.getValue());
+      zipOutputStream.putNextEntry(entry);
+      zipOutputStream.write(content);
+      zipOutputStream.closeEntry();
+    }
+
+    // Stored entries aren't compressed, so their content can be found in the zip file as is
+    byte[] zipBytes = Files.readAllBytes(zipFile);
+    int index = new String(zipBytes, ISO_8859_1).indexOf("stored content");
+    zipBytes[index] = 'S';
+    Files.write(zipFile, zipBytes);
+  }
+
+  private Path stagingRoot() {
+    return targetDirectory.resolveSibling(".maps.staging");
+  }
+
+  private static void writeEntry(ZipOutputStream zipOutputStream, String name, String content) throws IOException {
+    zipOutputStream.putNextEntry(new ZipEntry(name));
+    zipOutputStream.write(content.getBytes(UTF_8));
+    zipOutputStream.closeEntry();
+  }
+}
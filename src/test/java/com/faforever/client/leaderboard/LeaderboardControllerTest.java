@@ -9,8 +9,10 @@ import com.faforever.client.test.AbstractPlainJavaFxTest;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
+import org.testfx.util.WaitForAsyncUtils;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -45,9 +47,9 @@ public class LeaderboardControllerTest extends AbstractPlainJavaFxTest {
 
   @Test
   public void testOnDisplay() throws Exception {
-    when(leaderboardService.getEntries(KnownFeaturedMod.LADDER_1V1)).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
-        new LeaderboardEntry(), new LeaderboardEntry()
-    )));
+    when(leaderboardService.getLeaderboard(KnownFeaturedMod.LADDER_1V1)).thenReturn(CompletableFuture.completedFuture(
+        createLeaderboard(new LeaderboardEntry(), new LeaderboardEntry())
+    ));
 
     CountDownLatch loadedLatch = new CountDownLatch(1);
     instance.ratingTable.itemsProperty().addListener(observable -> loadedLatch.countDown());
@@ -66,15 +68,17 @@ public class LeaderboardControllerTest extends AbstractPlainJavaFxTest {
     LeaderboardEntry entry2 = new LeaderboardEntry();
     entry2.setUsername("Ab");
 
-    when(leaderboardService.getEntries(KnownFeaturedMod.LADDER_1V1)).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
-        entry1, entry2
-    )));
+    when(leaderboardService.getLeaderboard(KnownFeaturedMod.LADDER_1V1)).thenReturn(CompletableFuture.completedFuture(
+        createLeaderboard(entry1, entry2)
+    ));
     instance.setRatingType(KnownFeaturedMod.LADDER_1V1);
     instance.display(new OpenLadder1v1LeaderboardEvent());
+    WaitForAsyncUtils.waitForFxEvents();
 
     assertThat(instance.ratingTable.getSelectionModel().getSelectedItem(), nullValue());
 
     instance.searchTextField.setText("aa");
+    WaitForAsyncUtils.waitForFxEvents();
     assertThat(instance.ratingTable.getItems(), hasSize(2));
     assertThat(instance.ratingTable.getSelectionModel().getSelectedItem().getUsername(), is("Aa"));
   }
@@ -86,15 +90,17 @@ public class LeaderboardControllerTest extends AbstractPlainJavaFxTest {
     LeaderboardEntry entry2 = new LeaderboardEntry();
     entry2.setUsername("Ab");
 
-    when(leaderboardService.getEntries(KnownFeaturedMod.LADDER_1V1)).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
-        entry1, entry2
-    )));
+    when(leaderboardService.getLeaderboard(KnownFeaturedMod.LADDER_1V1)).thenReturn(CompletableFuture.completedFuture(
+        createLeaderboard(entry1, entry2)
+    ));
     instance.setRatingType(KnownFeaturedMod.LADDER_1V1);
     instance.display(new OpenLadder1v1LeaderboardEvent());
+    WaitForAsyncUtils.waitForFxEvents();
 
     assertThat(instance.ratingTable.getSelectionModel().getSelectedItem(), nullValue());
 
     instance.searchTextField.setText("b");
+    WaitForAsyncUtils.waitForFxEvents();
     assertThat(instance.ratingTable.getItems(), hasSize(2));
     assertThat(instance.ratingTable.getSelectionModel().getSelectedItem().getUsername(), is("Ab"));
   }
@@ -104,4 +110,11 @@ public class LeaderboardControllerTest extends AbstractPlainJavaFxTest {
     assertThat(instance.getRoot(), is(instance.leaderboardRoot));
     assertThat(instance.getRoot().getParent(), is(nullValue()));
   }
+
+  private static Leaderboard createLeaderboard(LeaderboardEntry... entries) {
+    Leaderboard leaderboard = new Leaderboard((pageSize, page) -> CompletableFuture.completedFuture(
+        page == 1 ? Arrays.asList(entries) : Collections.emptyList()), 100, Runnable::run);
+    leaderboard.loadUntil(1);
+    return leaderboard;
+  }
 }
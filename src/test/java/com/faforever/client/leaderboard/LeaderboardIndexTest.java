@@ -0,0 +1,98 @@
+package com.faforever.client.leaderboard;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+public class LeaderboardIndexTest {
+
+  private LeaderboardIndex instance;
+
+  private static LeaderboardEntry entry(String name, int rank, double rating, int gamesPlayed) {
+    LeaderboardEntry entry = new LeaderboardEntry();
+    entry.setUsername(name);
+    entry.setRank(rank);
+    entry.setRating(rating);
+    entry.setGamesPlayed(gamesPlayed);
+    entry.setWinLossRatio(0.5f);
+    return entry;
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new LeaderboardIndex();
+    instance.addAll(Arrays.asList(
+        entry("Zeta", 1, 2150, 300),
+        entry("alpha", 2, 2120, 12),
+        entry("Beta", 2, 2120, 40),
+        entry("AlphaBeta", 4, 1990, 5)
+    ));
+  }
+
+  @Test
+  public void testGet() throws Exception {
+    LeaderboardEntry entry = instance.get(2);
+
+    assertThat(instance.size(), is(4));
+    assertThat(entry.getUsername(), is("Beta"));
+    assertThat(entry.getRank(), is(2));
+    assertThat(entry.getRating(), is(2120.0));
+    assertThat(entry.getGamesPlayed(), is(40));
+    assertThat(entry.getWinLossRatio(), is(0.5f));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfBounds() throws Exception {
+    instance.get(4);
+  }
+
+  @Test
+  public void testIndexOfRank() throws Exception {
+    assertThat(instance.indexOfRank(1), is(0));
+    assertThat(instance.indexOfRank(2), is(1));
+    assertThat(instance.indexOfRank(3), is(3));
+    assertThat(instance.indexOfRank(5), is(-1));
+  }
+
+  @Test
+  public void testIndexOfNamePrefersBestRankedPrefixMatch() throws Exception {
+    assertThat(instance.indexOfName("ALPHA"), is(1));
+    assertThat(instance.indexOfName("alphab"), is(3));
+    assertThat(instance.indexOfName("z"), is(0));
+  }
+
+  @Test
+  public void testIndexOfNameFallsBackToPartialMatch() throws Exception {
+    assertThat(instance.indexOfName("eta"), is(0));
+    assertThat(instance.indexOfName("pha"), is(1));
+    assertThat(instance.indexOfName("gamma"), is(-1));
+  }
+
+  @Test
+  public void testIndexOfNameAfterAddingEntries() throws Exception {
+    assertThat(instance.indexOfName("gamma"), is(-1));
+
+    instance.addAll(Arrays.asList(entry("Gamma", 5, 1800, 20)));
+
+    assertThat(instance.indexOfName("gamma"), is(4));
+  }
+
+  @Test
+  public void testRatingStats() throws Exception {
+    List<RatingStat> result = instance.getRatingStats();
+
+    assertThat(result, hasSize(2));
+    assertThat(result.get(0).getRating(), is(1900));
+    assertThat(result.get(0).getTotalCount(), is(1));
+    assertThat(result.get(0).getCountWithEnoughGamesPlayed(), is(0));
+    assertThat(result.get(1).getRating(), is(2100));
+    assertThat(result.get(1).getTotalCount(), is(3));
+    assertThat(result.get(1).getCountWithEnoughGamesPlayed(), is(3));
+  }
+}
@@ -17,8 +17,11 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,18 +36,35 @@ public class LeaderboardServiceImplTest {
 
   @Before
   public void setUp() throws Exception {
-    instance = new LeaderboardServiceImpl(fafService);
+    instance = new LeaderboardServiceImpl(fafService, Runnable::run);
   }
 
   @Test
-  public void testGetLeaderboardEntries() throws Exception {
-    List<LeaderboardEntry> ladder1V1Entries = Collections.emptyList();
-    when(fafService.getLadder1v1Leaderboard()).thenReturn(CompletableFuture.completedFuture(ladder1V1Entries));
+  public void testGetLeaderboard() throws Exception {
+    LeaderboardEntry entry = new LeaderboardEntry();
+    entry.setUsername("Player");
+    entry.setRank(1);
+    when(fafService.getLadder1v1Leaderboard(LeaderboardServiceImpl.PAGE_SIZE, 1))
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(entry)));
+
+    Leaderboard result = instance.getLeaderboard(KnownFeaturedMod.LADDER_1V1).toCompletableFuture().get(2, TimeUnit.SECONDS);
+
+    verify(fafService).getLadder1v1Leaderboard(LeaderboardServiceImpl.PAGE_SIZE, 1);
+    assertThat(result.isComplete(), is(true));
+    assertThat(result.getEntries(), hasSize(1));
+    assertThat(result.getEntries().get(0).getUsername(), is("Player"));
+  }
+
+  @Test
+  public void testGetLeaderboardLoadsFirstPageOnlyOnce() throws Exception {
+    when(fafService.getGlobalLeaderboard(LeaderboardServiceImpl.PAGE_SIZE, 1))
+        .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
 
-    List<LeaderboardEntry> result = instance.getEntries(KnownFeaturedMod.LADDER_1V1).toCompletableFuture().get(2, TimeUnit.SECONDS);
+    Leaderboard first = instance.getLeaderboard(KnownFeaturedMod.FAF).toCompletableFuture().get(2, TimeUnit.SECONDS);
+    Leaderboard second = instance.getLeaderboard(KnownFeaturedMod.FAF).toCompletableFuture().get(2, TimeUnit.SECONDS);
 
-    verify(fafService).getLadder1v1Leaderboard();
-    assertThat(result, is(ladder1V1Entries));
+    assertThat(second, sameInstance(first));
+    verify(fafService).getGlobalLeaderboard(LeaderboardServiceImpl.PAGE_SIZE, 1);
   }
 
   @Test
@@ -61,12 +81,15 @@ public class LeaderboardServiceImplTest {
     leaderboardEntry3.setRating(221);
     leaderboardEntry3.setGamesPlayed(LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN);
 
-    when(fafService.getLadder1v1Leaderboard()).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
+    // Further pages are requested along with the first one
+    when(fafService.getLadder1v1Leaderboard(eq(LeaderboardServiceImpl.PAGE_SIZE), anyInt()))
+        .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+    when(fafService.getLadder1v1Leaderboard(LeaderboardServiceImpl.PAGE_SIZE, 1)).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
         leaderboardEntry1, leaderboardEntry2, leaderboardEntry3
     )));
 
     List<RatingStat> result = instance.getLadder1v1Stats().toCompletableFuture().get(2, TimeUnit.SECONDS);
-    verify(fafService).getLadder1v1Leaderboard();
+    verify(fafService).getLadder1v1Leaderboard(LeaderboardServiceImpl.PAGE_SIZE, 1);
 
     result.sort(Comparator.comparingInt(RatingStat::getRating));
 
@@ -94,12 +117,15 @@ public class LeaderboardServiceImplTest {
     leaderboardEntry3.setRating(221);
     leaderboardEntry3.setGamesPlayed(LeaderboardService.MINIMUM_GAMES_PLAYED_TO_BE_SHOWN - 1);
 
-    when(fafService.getLadder1v1Leaderboard()).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
+    // Further pages are requested along with the first one
+    when(fafService.getLadder1v1Leaderboard(eq(LeaderboardServiceImpl.PAGE_SIZE), anyInt()))
+        .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+    when(fafService.getLadder1v1Leaderboard(LeaderboardServiceImpl.PAGE_SIZE, 1)).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
         leaderboardEntry1, leaderboardEntry2, leaderboardEntry3
     )));
 
     List<RatingStat> result = instance.getLadder1v1Stats().toCompletableFuture().get(2, TimeUnit.SECONDS);
-    verify(fafService).getLadder1v1Leaderboard();
+    verify(fafService).getLadder1v1Leaderboard(LeaderboardServiceImpl.PAGE_SIZE, 1);
 
     assertThat(result, hasSize(2));
     assertThat(result.get(0).getTotalCount(), is(2));
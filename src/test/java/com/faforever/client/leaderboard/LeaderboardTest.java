@@ -0,0 +1,138 @@
+package com.faforever.client.leaderboard;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+public class LeaderboardTest {
+
+  private static final int PAGE_SIZE = 10;
+
+  private final List<Integer> loadedPages = new ArrayList<>();
+
+  private CompletableFuture<List<LeaderboardEntry>> loadPage(int totalEntries, int pageSize, int page) {
+    loadedPages.add(page);
+    return CompletableFuture.completedFuture(createPage(totalEntries, pageSize, page));
+  }
+
+  private static List<LeaderboardEntry> createPage(int totalEntries, int pageSize, int page) {
+    List<LeaderboardEntry> entries = new ArrayList<>();
+    for (int rank = (page - 1) * pageSize + 1; rank <= Math.min(page * pageSize, totalEntries); rank++) {
+      LeaderboardEntry entry = new LeaderboardEntry();
+      entry.setUsername("Player " + rank);
+      entry.setRank(rank);
+      entries.add(entry);
+    }
+    return entries;
+  }
+
+  @Test
+  public void testLoadUntilLoadsOnlyRequiredPages() throws Exception {
+    Leaderboard instance = new Leaderboard((pageSize, page) -> loadPage(100, pageSize, page), PAGE_SIZE, Runnable::run);
+
+    instance.loadUntil(15).get();
+
+    assertThat(loadedPages, contains(1, 2));
+    assertThat(instance.getIndex().size(), is(20));
+    assertThat(instance.isComplete(), is(false));
+  }
+
+  @Test
+  public void testLoadAllStopsAfterLastPage() throws Exception {
+    Leaderboard instance = new Leaderboard((pageSize, page) -> loadPage(25, pageSize, page), PAGE_SIZE, Runnable::run);
+
+    instance.loadAll().get();
+
+    assertThat(loadedPages, contains(1, 2, 3));
+    assertThat(instance.getEntries(), hasSize(25));
+    assertThat(instance.isComplete(), is(true));
+  }
+
+  @Test
+  public void testLoadAllRequestsPagesConcurrentlyAndAddsThemInOrder() throws Exception {
+    Map<Integer, CompletableFuture<List<LeaderboardEntry>>> pendingPages = new HashMap<>();
+    Leaderboard instance = new Leaderboard((pageSize, page) -> {
+      loadedPages.add(page);
+      CompletableFuture<List<LeaderboardEntry>> future = new CompletableFuture<>();
+      pendingPages.put(page, future);
+      return future;
+    }, PAGE_SIZE, 3, Runnable::run);
+
+    CompletableFuture<Void> future = instance.loadAll();
+    assertThat(loadedPages, contains(1, 2, 3));
+
+    pendingPages.get(2).complete(createPage(25, PAGE_SIZE, 2));
+    assertThat(instance.getIndex().size(), is(0));
+    pendingPages.get(1).complete(createPage(25, PAGE_SIZE, 1));
+    pendingPages.get(3).complete(createPage(25, PAGE_SIZE, 3));
+
+    future.get();
+    assertThat(loadedPages, contains(1, 2, 3));
+    assertThat(instance.getEntries(), hasSize(25));
+    assertThat(instance.getEntries().get(10).getRank(), is(11));
+    assertThat(instance.isComplete(), is(true));
+  }
+
+  @Test
+  public void testPagesAfterLastPageAreIgnored() throws Exception {
+    Leaderboard instance = new Leaderboard((pageSize, page) -> loadPage(15, pageSize, page), PAGE_SIZE, 4, Runnable::run);
+
+    instance.loadAll().get();
+
+    assertThat(loadedPages, contains(1, 2, 3, 4));
+    assertThat(instance.getEntries(), hasSize(15));
+    assertThat(instance.isComplete(), is(true));
+  }
+
+  @Test
+  public void testServerIgnoringPagingIsComplete() throws Exception {
+    Leaderboard instance = new Leaderboard((pageSize, page) -> loadPage(25, 25, page), PAGE_SIZE, Runnable::run);
+
+    instance.loadUntil(1).get();
+    instance.loadAll().get();
+
+    assertThat(loadedPages, contains(1));
+    assertThat(instance.getEntries(), hasSize(25));
+  }
+
+  @Test
+  public void testLookingAtLastEntriesLoadsNextPage() throws Exception {
+    Leaderboard instance = new Leaderboard((pageSize, page) -> loadPage(100, pageSize, page), PAGE_SIZE, Runnable::run);
+    instance.loadUntil(1).get();
+
+    assertThat(instance.getEntries().get(2).getUsername(), is("Player 3"));
+    assertThat(loadedPages, contains(1));
+
+    assertThat(instance.getEntries().get(9).getUsername(), is("Player 10"));
+    assertThat(loadedPages, contains(1, 2));
+    assertThat(instance.getEntries(), hasSize(20));
+  }
+
+  @Test
+  public void testFailedPageIsLoadedAgain() throws Exception {
+    AtomicBoolean failed = new AtomicBoolean();
+    Leaderboard instance = new Leaderboard((pageSize, page) -> {
+      if (!failed.getAndSet(true)) {
+        CompletableFuture<List<LeaderboardEntry>> future = new CompletableFuture<>();
+        future.completeExceptionally(new IllegalStateException("Expected"));
+        return future;
+      }
+      return loadPage(5, pageSize, page);
+    }, PAGE_SIZE, Runnable::run);
+
+    assertThat(instance.loadUntil(1).isCompletedExceptionally(), is(true));
+
+    instance.loadUntil(1).get();
+    assertThat(instance.getEntries(), hasSize(5));
+  }
+}
@@ -1,9 +1,14 @@
 package com.faforever.client.map;
 
+import com.faforever.client.config.ClientProperties;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.io.TransferScheduler;
+import com.faforever.client.io.ZipInstaller;
 import com.faforever.client.preferences.ForgedAlliancePrefs;
 import com.faforever.client.preferences.Preferences;
 import com.faforever.client.preferences.PreferencesService;
+import org.apache.http.impl.client.HttpClients;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -15,6 +20,8 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.net.URL;
 import java.nio.file.Files;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
@@ -26,6 +33,8 @@ public class DownloadMapBeanTaskTest {
   public ExpectedException expectedException = ExpectedException.none();
   @Rule
   public TemporaryFolder customMapsDirectory = new TemporaryFolder();
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
 
   private DownloadMapTask instance;
 
@@ -40,7 +49,8 @@ public class DownloadMapBeanTaskTest {
 
   @Before
   public void setUp() throws Exception {
-    instance = new DownloadMapTask(preferencesService, i18n);
+    ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) Executors.newCachedThreadPool();
+    instance = new DownloadMapTask(preferencesService, i18n, new DownloadService(threadPoolExecutor, new TransferScheduler(new ClientProperties()), HttpClients.createDefault()), new ZipInstaller(threadPoolExecutor));
 
     when(preferencesService.getPreferences()).thenReturn(preferences);
     when(preferences.getForgedAlliance()).thenReturn(forgedAlliance);
@@ -67,6 +77,7 @@ public class DownloadMapBeanTaskTest {
 
   @Test
   public void testCall() throws Exception {
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
     instance.setMapUrl(getClass().getResource("/maps/theta_passage_5.v0001.zip").toURI().toURL());
     instance.setFolderName("");
     instance.call();
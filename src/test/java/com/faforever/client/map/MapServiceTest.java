@@ -2,6 +2,8 @@ package com.faforever.client.map;
 
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DirectoryWatchService;
+import com.faforever.client.io.DownloadService;
 import com.faforever.client.map.MapService.PreviewSize;
 import com.faforever.client.map.generator.MapGeneratorService;
 import com.faforever.client.preferences.ForgedAlliancePrefs;
@@ -35,6 +37,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -92,6 +95,10 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
   private MapGeneratorService mapGeneratorService;
   @Mock
   private EventBus eventBus;
+  @Mock
+  private DirectoryWatchService directoryWatchService;
+  @Mock
+  private DownloadService downloadService;
 
   @Before
   public void setUp() throws Exception {
@@ -108,7 +115,7 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
     when(forgedAlliancePrefs.pathProperty()).thenReturn(new SimpleObjectProperty<>());
 
     instance = new MapService(preferencesService, taskService, applicationContext,
-        fafService, assetService, i18n, uiService, clientProperties, mapGeneratorService, eventBus);
+        fafService, assetService, i18n, uiService, clientProperties, mapGeneratorService, eventBus, directoryWatchService, downloadService);
 
 
     doAnswer(invocation -> {
@@ -120,6 +127,7 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
     }).when(taskService).submitTask(any());
 
     instance.afterPropertiesSet();
+    instance.warmUp();
   }
 
   @Test
@@ -132,7 +140,7 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
     Path scmp001 = Files.createDirectory(mapsDirectory.resolve("SCMP_001"));
     Files.copy(getClass().getResourceAsStream("/maps/SCMP_001/SCMP_001_scenario.lua"), scmp001.resolve("SCMP_001_scenario.lua"));
 
-    instance.afterPropertiesSet();
+    instance.warmUp();
 
     ObservableList<MapBean> localMapBeans = instance.getInstalledMaps();
     assertThat(localMapBeans, hasSize(1));
@@ -180,17 +188,28 @@ public class MapServiceTest extends AbstractPlainJavaFxTest {
     Path scmp001 = Files.createDirectory(mapsDirectory.resolve("SCMP_001"));
     Files.copy(getClass().getResourceAsStream("/maps/SCMP_001/SCMP_001_scenario.lua"), scmp001.resolve("SCMP_001_scenario.lua"));
 
-    instance.afterPropertiesSet();
+    instance.warmUp();
 
     assertTrue(instance.isInstalled("ScMp_001"));
   }
 
+  @Test
+  public void testGetMapLocallyFromNameIgnoreCase() throws Exception {
+    Path scmp001 = Files.createDirectory(mapsDirectory.resolve("SCMP_001"));
+    Files.copy(getClass().getResourceAsStream("/maps/SCMP_001/SCMP_001_scenario.lua"), scmp001.resolve("SCMP_001_scenario.lua"));
+
+    instance.warmUp();
+
+    assertThat(instance.getMapLocallyFromName("ScMp_001").map(MapBean::getFolderName), is(Optional.of("SCMP_001")));
+    assertThat(instance.getMapLocallyFromName("SCMP_002"), is(Optional.empty()));
+  }
+
   @Test
   public void testLoadPreview() {
     for (PreviewSize previewSize : PreviewSize.values()) {
       Path cacheSubDir = Paths.get("maps").resolve(previewSize.folderName);
       instance.loadPreview("preview", previewSize);
-      verify(assetService).loadAndCacheImage(any(URL.class), eq(cacheSubDir), any());
+      verify(assetService).loadAndCacheImage(any(URL.class), eq(cacheSubDir), any(), eq(previewSize.pixels), eq(previewSize.pixels));
     }
   }
 
@@ -3,7 +3,10 @@ package com.faforever.client.map.generator;
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.io.TransferScheduler;
 import com.faforever.client.test.AbstractPlainJavaFxTest;
+import org.apache.http.impl.client.HttpClients;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -16,6 +19,8 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.io.File;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.startsWith;
@@ -49,7 +54,8 @@ public class DownloadMapGeneratorTaskTest extends AbstractPlainJavaFxTest {
 
     ClientProperties clientProperties = new ClientProperties();
     clientProperties.getMapGenerator().setMapGeneratorReleaseUrl(generatorFile.toURI().toURL().toString() + "%1$s");
-    instance = new DownloadMapGeneratorTask(mapGeneratorService, clientProperties, i18n, platformService);
+    instance = new DownloadMapGeneratorTask(mapGeneratorService, clientProperties, i18n, platformService,
+        new DownloadService((ThreadPoolExecutor) Executors.newCachedThreadPool(), new TransferScheduler(clientProperties), HttpClients.createDefault()));
   }
 
   @Test
@@ -79,7 +79,7 @@ public class MapGeneratorServiceTest extends AbstractPlainJavaFxTest {
 
     instance = new MapGeneratorService(applicationContext, preferencesService, taskService);
 
-    instance.postConstruct();
+    instance.warmUp();
     Stream<Path> list = Files.list(customMapsDir);
     assertThat(list.collect(Collectors.toList()), not(contains(testMapNameGenerator)));
     list.close();
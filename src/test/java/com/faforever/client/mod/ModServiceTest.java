@@ -2,6 +2,9 @@ package com.faforever.client.mod;
 
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DirectoryWatchService;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.io.ZipInstaller;
 import com.faforever.client.mod.ModVersion.ModType;
 import com.faforever.client.notification.NotificationService;
 import com.faforever.client.preferences.ForgedAlliancePrefs;
@@ -95,6 +98,12 @@ public class ModServiceTest {
   private AssetService assetService;
   @Mock
   private PlatformService platformService;
+  @Mock
+  private DownloadService downloadService;
+  @Mock
+  private ZipInstaller zipInstaller;
+  @Mock
+  private DirectoryWatchService directoryWatchService;
 
   private ModService instance;
   private Path gamePrefsPath;
@@ -103,7 +112,7 @@ public class ModServiceTest {
   @Before
   public void setUp() throws Exception {
     instance = new ModService(taskService, fafService, preferencesService, applicationContext,
-        notificationService, i18n, platformService, assetService);
+        notificationService, i18n, platformService, assetService, directoryWatchService);
 
     gamePrefsPath = faDataDirectory.getRoot().toPath().resolve("game.prefs");
 
@@ -118,6 +127,7 @@ public class ModServiceTest {
     blackopsSupportPath = copyMod(BLACK_OPS_UNLEASHED_DIRECTORY_NAME, BLACKOPS_UNLEASHED_MOD_INFO);
 
     instance.afterPropertiesSet();
+    instance.warmUp();
   }
 
   private Path copyMod(String directoryName, ClassPathResource classPathResource) throws IOException {
@@ -134,12 +144,29 @@ public class ModServiceTest {
   }
 
   @Test
-  public void testPostConstructLoadInstalledMods() {
+  public void testWarmUpLoadsInstalledMods() {
     ObservableList<ModVersion> installedModVersions = instance.getInstalledModVersions();
 
     assertThat(installedModVersions.size(), is(1));
   }
 
+  @Test
+  public void testRemovingModInstalledTwiceKeepsOtherCopy() throws Exception {
+    Path copy = copyMod(BLACK_OPS_UNLEASHED_DIRECTORY_NAME + "Copy", BLACKOPS_UNLEASHED_MOD_INFO);
+    instance.loadInstalledMods();
+    ModVersion modVersion = instance.getInstalledModVersions().get(0);
+    Path indexedPath = instance.getPathForMod(modVersion);
+    Path otherPath = indexedPath.equals(copy) ? blackopsSupportPath : copy;
+
+    Files.delete(indexedPath.resolve("mod_info.lua"));
+    Files.delete(indexedPath);
+    instance.loadInstalledMods();
+
+    assertThat(instance.getInstalledModVersions().size(), is(1));
+    assertThat(instance.isModInstalled(modVersion.getUid()), is(true));
+    assertThat(instance.getPathForMod(modVersion), is(otherPath));
+  }
+
   @Test
   public void testLoadInstalledModsLoadsMods() throws Exception {
     assertThat(instance.getInstalledModVersions().size(), is(1));
@@ -404,7 +431,7 @@ public class ModServiceTest {
   }
 
   private InstallModTask stubInstallModTask() {
-    return new InstallModTask(preferencesService, i18n) {
+    return new InstallModTask(preferencesService, i18n, downloadService, zipInstaller) {
       @Override
       protected Void call() {
         return null;
@@ -1,6 +1,8 @@
 package com.faforever.client.mod;
 
+import com.faforever.client.config.ClientProperties;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.TransferScheduler;
 import com.faforever.client.notification.NotificationService;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.remote.FafService;
@@ -61,7 +63,7 @@ public class ModUploadControllerTest extends AbstractPlainJavaFxTest {
       return null;
     }).when(threadPoolExecutor).execute(any());
 
-    modUploadTask = new ModUploadTask(preferencesService, fafService, i18n) {
+    modUploadTask = new ModUploadTask(preferencesService, fafService, i18n, new TransferScheduler(new ClientProperties())) {
       @Override
       protected Void call() {
         return null;
@@ -1,6 +1,8 @@
 package com.faforever.client.mod;
 
+import com.faforever.client.config.ClientProperties;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.TransferScheduler;
 import com.faforever.client.preferences.PreferencesService;
 import com.faforever.client.remote.FafService;
 import org.junit.Before;
@@ -35,7 +37,7 @@ public class ModUploadTaskTest {
 
   @Before
   public void setUp() throws Exception {
-    instance = new ModUploadTask(preferencesService, fafService, i18n);
+    instance = new ModUploadTask(preferencesService, fafService, i18n, new TransferScheduler(new ClientProperties()));
 
     when(preferencesService.getCacheDirectory()).thenReturn(tempFolder.getRoot().toPath().resolve("cache"));
     when(i18n.get(any())).thenReturn("");
@@ -12,6 +12,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
 
 import static com.faforever.client.fx.MouseEvents.generateClick;
 import static org.hamcrest.CoreMatchers.is;
@@ -30,7 +31,7 @@ public class TransientNotificationControllerTest extends AbstractPlainJavaFxTest
 
   @Before
   public void setUp() throws Exception {
-    PreferencesService preferencesService = new PreferencesService(new ClientProperties());
+    PreferencesService preferencesService = new PreferencesService(new ClientProperties(), new ConcurrentTaskScheduler());
     preferencesService.afterPropertiesSet();
     instance = new TransientNotificationController(preferencesService);
 
@@ -3,6 +3,8 @@ package com.faforever.client.patch;
 import com.faforever.client.config.ClientProperties;
 import com.faforever.client.fx.PlatformService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.DownloadService;
+import com.faforever.client.io.FileHashCache;
 import com.faforever.client.preferences.Preferences;
 import com.faforever.client.preferences.PreferencesService;
 import org.junit.Before;
@@ -16,6 +18,7 @@ import org.mockito.MockitoAnnotations;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -30,12 +33,16 @@ public class GameBinariesUpdateTaskTest {
   public TemporaryFolder faDirectory = new TemporaryFolder();
   @Rule
   public TemporaryFolder fafBinDirectory = new TemporaryFolder();
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
   @Mock
   private PreferencesService preferencesService;
   @Mock
   private PlatformService platformService;
   @Mock
   private I18n i18n;
+  @Mock
+  private DownloadService downloadService;
 
   private GameBinariesUpdateTaskImpl instance;
 
@@ -43,7 +50,9 @@ public class GameBinariesUpdateTaskTest {
   public void setUp() throws Exception {
     MockitoAnnotations.initMocks(this);
 
-    instance = new GameBinariesUpdateTaskImpl(i18n, preferencesService, platformService, new ClientProperties());
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
+
+    instance = new GameBinariesUpdateTaskImpl(i18n, preferencesService, platformService, new ClientProperties(), downloadService, new FileHashCache(preferencesService));
 
     Path faPath = faDirectory.getRoot().toPath();
     java.nio.file.Files.createDirectories(faPath.resolve("bin"));
@@ -81,6 +90,42 @@ public class GameBinariesUpdateTaskTest {
     }
   }
 
+  @Test
+  public void testUnchangedFilesAreNotCopiedAgain() throws Exception {
+    Path source = faDirectory.getRoot().toPath().resolve("bin").resolve("BugSplat.dll");
+    Path destination = fafBinDirectory.getRoot().toPath().resolve("BugSplat.dll");
+    java.nio.file.Files.write(source, new byte[]{1, 2, 3});
+    instance.copyGameFilesToFafBinDirectory();
+
+    // Alter the copy without the manifest noticing, so that a second copy would be visible
+    FileTime lastModified = java.nio.file.Files.getLastModifiedTime(destination);
+    java.nio.file.Files.write(destination, new byte[]{4, 5, 6});
+    java.nio.file.Files.setLastModifiedTime(destination, lastModified);
+
+    // A source that has only been touched doesn't need to be copied either
+    java.nio.file.Files.setLastModifiedTime(source, FileTime.fromMillis(lastModified.toMillis() - 60_000));
+    instance.copyGameFilesToFafBinDirectory();
+
+    assertThat(java.nio.file.Files.readAllBytes(destination), is(new byte[]{4, 5, 6}));
+  }
+
+  @Test
+  public void testChangedFilesAreCopiedAgain() throws Exception {
+    Path source = faDirectory.getRoot().toPath().resolve("bin").resolve("BugSplat.dll");
+    Path destination = fafBinDirectory.getRoot().toPath().resolve("BugSplat.dll");
+    java.nio.file.Files.write(source, new byte[]{1, 2, 3});
+    instance.copyGameFilesToFafBinDirectory();
+
+    java.nio.file.Files.write(source, new byte[]{1, 2, 3, 4});
+    instance.copyGameFilesToFafBinDirectory();
+    assertThat(java.nio.file.Files.readAllBytes(destination), is(new byte[]{1, 2, 3, 4}));
+
+    // A modified copy is restored even if the source didn't change
+    java.nio.file.Files.write(destination, new byte[]{5});
+    instance.copyGameFilesToFafBinDirectory();
+    assertThat(java.nio.file.Files.readAllBytes(destination), is(new byte[]{1, 2, 3, 4}));
+  }
+
   @Test
   public void testUnixExecutableBitIsSet() throws Exception {
     Path faExePath = fafBinDirectory.newFile("ForgedAlliance.exe").toPath();
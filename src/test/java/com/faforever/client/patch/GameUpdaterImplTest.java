@@ -0,0 +1,126 @@
+package com.faforever.client.patch;
+
+import com.faforever.client.game.FaInitGenerator;
+import com.faforever.client.game.KnownFeaturedMod;
+import com.faforever.client.mod.FeaturedMod;
+import com.faforever.client.mod.ModService;
+import com.faforever.client.notification.NotificationService;
+import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.remote.FafService;
+import com.faforever.client.task.TaskService;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationContext;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GameUpdaterImplTest {
+
+  private GameUpdaterImpl instance;
+
+  @Mock
+  private ModService modService;
+  @Mock
+  private ApplicationContext applicationContext;
+  @Mock
+  private TaskService taskService;
+  @Mock
+  private FafService fafService;
+  @Mock
+  private FaInitGenerator faInitGenerator;
+  @Mock
+  private PreferencesService preferencesService;
+  @Mock
+  private NotificationService notificationService;
+  @Mock
+  private FeaturedModUpdater featuredModUpdater;
+  @Mock
+  private GameBinariesUpdateTaskImpl gameBinariesUpdateTask;
+
+  private FeaturedMod coop;
+  private FeaturedMod faf;
+  private CompletableFuture<PatchResult> coopUpdate;
+  private CompletableFuture<PatchResult> fafUpdate;
+  private CompletableFuture<Void> simModDownload;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new GameUpdaterImpl(modService, applicationContext, taskService, fafService, faInitGenerator, preferencesService, notificationService);
+    instance.addFeaturedModUpdater(featuredModUpdater);
+
+    coop = featuredMod(KnownFeaturedMod.COOP);
+    faf = featuredMod(KnownFeaturedMod.FAF);
+    coopUpdate = new CompletableFuture<>();
+    fafUpdate = new CompletableFuture<>();
+    simModDownload = new CompletableFuture<>();
+
+    when(featuredModUpdater.canUpdate(any())).thenReturn(true);
+    when(featuredModUpdater.updateMod(coop, null)).thenReturn(coopUpdate);
+    when(modService.getFeaturedMod(KnownFeaturedMod.FAF.getTechnicalName())).thenReturn(CompletableFuture.completedFuture(faf));
+    when(modService.downloadAndInstallMod("simMod")).thenReturn(simModDownload);
+  }
+
+  @Test
+  public void testIndependentStepsRunInParallel() throws Exception {
+    when(applicationContext.getBean(GameBinariesUpdateTaskImpl.class)).thenReturn(gameBinariesUpdateTask);
+    when(taskService.submitTask(gameBinariesUpdateTask)).thenReturn(gameBinariesUpdateTask);
+    when(gameBinariesUpdateTask.getFuture()).thenReturn(CompletableFuture.completedFuture(null));
+    when(featuredModUpdater.updateMod(faf, null)).thenReturn(fafUpdate);
+
+    CompletableFuture<Void> future = instance.update(coop, null, Collections.emptyMap(), Collections.singleton("simMod"));
+
+    // The featured mod and the sim mods have been started before any of them completed
+    verify(featuredModUpdater).updateMod(coop, null);
+    verify(modService).downloadAndInstallMod("simMod");
+    verify(taskService, never()).submitTask(any());
+
+    // The base mod writes into the same directory, so it waits for the featured mod
+    verify(featuredModUpdater, never()).updateMod(faf, null);
+    coopUpdate.complete(PatchResult.fromModInfo(new ComparableVersion("1"), Collections.emptyList(), Collections.emptyList()));
+    verify(featuredModUpdater).updateMod(faf, null);
+
+    // The binaries only depend on the version of the base mod
+    fafUpdate.complete(PatchResult.fromModInfo(new ComparableVersion("3700"), Collections.emptyList(), Collections.emptyList()));
+    verify(gameBinariesUpdateTask).setVersion(new ComparableVersion("3700"));
+    assertThat(future.isDone(), is(false));
+
+    simModDownload.complete(null);
+
+    future.get();
+    verify(faInitGenerator).generateInitFile(anyList(), anySet());
+  }
+
+  @Test
+  public void testCancelCancelsRunningSteps() {
+    CompletableFuture<Void> future = instance.update(coop, null, Collections.emptyMap(), Collections.singleton("simMod"));
+
+    future.cancel(true);
+
+    assertThat(coopUpdate.isCancelled(), is(true));
+    assertThat(simModDownload.isCancelled(), is(true));
+    verify(featuredModUpdater, never()).updateMod(faf, null);
+    verify(notificationService, never()).addImmediateErrorNotification(any(), eq("error.game.notTerminatedCorrectly"));
+  }
+
+  private static FeaturedMod featuredMod(KnownFeaturedMod knownFeaturedMod) {
+    FeaturedMod featuredMod = new FeaturedMod();
+    featuredMod.setTechnicalName(knownFeaturedMod.getTechnicalName());
+    return featuredMod;
+  }
+}
@@ -11,6 +11,7 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
 
 public class FriendOnlineNotifierTest {
   @Mock
@@ -31,7 +32,7 @@ public class FriendOnlineNotifierTest {
   @Before
   public void setUp() throws Exception {
     MockitoAnnotations.initMocks(this);
-    preferencesService = new PreferencesService(new ClientProperties());
+    preferencesService = new PreferencesService(new ClientProperties(), new ConcurrentTaskScheduler());
     preferencesService.afterPropertiesSet();
 
     instance = new FriendOnlineNotifier(notificationService, i18n, eventBus, audioService, playerService, preferencesService);
@@ -11,6 +11,7 @@ import org.mockito.Mock;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
@@ -27,7 +28,7 @@ public class PreferencesServiceTest {
 
   @Before
   public void setUp() throws Exception {
-    instance = new PreferencesService(clientProperties);
+    instance = new PreferencesService(clientProperties, new ConcurrentTaskScheduler());
   }
 
   @Test
@@ -0,0 +1,117 @@
+package com.faforever.client.preferences;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+
+public class PreferencesWriterTest {
+
+  private static final Duration DELAY = Duration.ofMillis(50);
+
+  @Rule
+  public TemporaryFolder preferencesDirectory = new TemporaryFolder();
+
+  private PreferencesWriter instance;
+  private ThreadPoolTaskScheduler taskScheduler;
+  private Path file;
+  private String content;
+  private AtomicInteger serializations;
+  private CountDownLatch written;
+
+  @Before
+  public void setUp() {
+    file = preferencesDirectory.getRoot().toPath().resolve("client.prefs");
+    content = "{}";
+    serializations = new AtomicInteger();
+    written = new CountDownLatch(1);
+    taskScheduler = new ThreadPoolTaskScheduler();
+    taskScheduler.initialize();
+    instance = newInstance(Duration.ofMinutes(1));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    instance.close();
+    taskScheduler.shutdown();
+  }
+
+  @Test
+  public void testChangesAreCoalesced() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      content = "{\"value\":" + i + "}";
+      instance.scheduleWrite();
+    }
+
+    assertTrue(written.await(5, TimeUnit.SECONDS));
+    assertThat(serializations.get(), is(1));
+    assertThat(new String(Files.readAllBytes(file), UTF_8), is("{\"value\":9}"));
+  }
+
+  @Test
+  public void testChangesAreWrittenAfterMaxDelay() throws Exception {
+    instance.close();
+    instance = newInstance(Duration.ofMillis(200));
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (written.getCount() > 0) {
+      assertTrue("Changes have not been written", System.nanoTime() < deadline);
+      instance.scheduleWrite();
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void testPreviousFileIsKeptAsBackup() throws Exception {
+    Files.write(file, "previous".getBytes(UTF_8));
+
+    content = "first";
+    instance.write();
+    content = "second";
+    instance.write();
+
+    assertThat(new String(Files.readAllBytes(file), UTF_8), is("second"));
+    assertThat(new String(Files.readAllBytes(PreferencesWriter.getBackupFile(file)), UTF_8), is("previous"));
+    assertThat(Files.exists(file.resolveSibling("client.prefs.tmp")), is(false));
+  }
+
+  @Test
+  public void testUnchangedContentIsNotWritten() throws Exception {
+    instance.write();
+    Files.delete(file);
+
+    instance.write();
+
+    assertThat(Files.exists(file), is(false));
+  }
+
+  @Test
+  public void testCloseWritesPendingChanges() throws Exception {
+    instance.scheduleWrite();
+
+    instance.close();
+
+    assertThat(new String(Files.readAllBytes(file), UTF_8), is("{}"));
+  }
+
+  private PreferencesWriter newInstance(Duration maxDelay) {
+    return new PreferencesWriter(file, () -> {
+      serializations.incrementAndGet();
+      return content;
+    }, written::countDown, DELAY, maxDelay, taskScheduler);
+  }
+}
@@ -0,0 +1,47 @@
+package com.faforever.client.startup;
+
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+public class ClassDataSharingServiceTest {
+
+  @Test
+  public void testGetSharedArchiveFile() {
+    List<String> inputArguments = Arrays.asList("-Dprism.dirtyopts=false", "-XX:SharedArchiveFile=lib/faf-client.jsa");
+
+    assertThat(ClassDataSharingService.getSharedArchiveFile(inputArguments),
+        is(Optional.of(Paths.get("lib/faf-client.jsa").toAbsolutePath())));
+  }
+
+  @Test
+  public void testGetSharedArchiveFileNotLaunchedWithArchive() {
+    assertThat(ClassDataSharingService.getSharedArchiveFile(Collections.singletonList("-Xmx512m")),
+        is(Optional.empty()));
+  }
+
+  @Test
+  public void testGetDumpCommandKeepsUseAppCds() {
+    Path classList = Paths.get("lib", ClassDataSharingService.CLASS_LIST_FILE_NAME);
+    Path archive = Paths.get("lib", "faf-client.jsa");
+
+    List<String> command = ClassDataSharingService.getDumpCommand(classList, archive, "lib/a.jar",
+        Arrays.asList("-XX:+UseAppCDS", "-XX:SharedArchiveFile=lib/faf-client.jsa"));
+
+    assertThat(command.subList(1, command.size()), is(Arrays.asList(
+        "-XX:+UseAppCDS", "-Xshare:dump", "-XX:SharedClassListFile=" + classList,
+        "-XX:SharedArchiveFile=" + archive, "-cp", "lib/a.jar")));
+    assertThat(ClassDataSharingService.getDumpCommand(classList, archive, "lib/a.jar", Collections.emptyList()),
+        not(hasItem("-XX:+UseAppCDS")));
+  }
+}
@@ -0,0 +1,76 @@
+package com.faforever.client.startup;
+
+import com.faforever.client.startup.StartupProfiler.BeanTiming;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StartupProfilerTest {
+
+  private StartupProfiler instance;
+
+  @Before
+  public void setUp() {
+    instance = new StartupProfiler();
+  }
+
+  @Test
+  public void testNestedInitializationCountsTowardsOuterBean() throws Exception {
+    Object outer = new Object();
+    Object inner = new Object();
+
+    instance.postProcessBeforeInitialization(outer, "outer");
+    instance.postProcessBeforeInitialization(inner, "inner");
+    Thread.sleep(10);
+    instance.postProcessAfterInitialization(inner, "inner");
+    instance.postProcessAfterInitialization(outer, "outer");
+
+    List<BeanTiming> timings = instance.getBeanTimings();
+    assertThat(timings.stream().map(BeanTiming::getBeanName).collect(Collectors.toList()), contains("outer", "inner"));
+    assertThat(timings.get(0).getTotalNanos(), greaterThanOrEqualTo(timings.get(1).getTotalNanos()));
+  }
+
+  @Test
+  public void testPrototypesAreAggregated() {
+    for (int i = 0; i < 3; i++) {
+      Object controller = new Object();
+      instance.postProcessBeforeInitialization(controller, "controller");
+      instance.postProcessAfterInitialization(controller, "controller");
+    }
+
+    assertThat(instance.getBeanTimings().get(0).getCount(), is(3));
+  }
+
+  @Test
+  public void testFactoryBeanObjectIsIgnored() {
+    Object bean = new Object();
+
+    instance.postProcessBeforeInitialization(bean, "bean");
+    instance.postProcessAfterInitialization(new Object(), "objectFromFactoryBean");
+    instance.postProcessAfterInitialization(bean, "bean");
+
+    assertThat(instance.getBeanTimings().stream().map(BeanTiming::getBeanName).collect(Collectors.toList()),
+        contains("bean"));
+  }
+
+  @Test
+  public void testNothingRecordedAfterFinish() {
+    instance.finish();
+
+    Object bean = new Object();
+    instance.postProcessBeforeInitialization(bean, "bean");
+    instance.postProcessAfterInitialization(bean, "bean");
+    instance.mark("milestone");
+
+    assertThat(instance.getBeanTimings(), is(empty()));
+    assertThat(instance.getMilestones().isEmpty(), is(true));
+  }
+}
@@ -0,0 +1,70 @@
+package com.faforever.client.startup;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationContext;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WarmUpServiceTest {
+
+  @Mock
+  private ApplicationContext applicationContext;
+  @Mock
+  private WarmUp failingWarmUp;
+  @Mock
+  private WarmUp warmUp;
+
+  private StartupProfiler startupProfiler;
+  private WarmUpService instance;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+    startupProfiler = new StartupProfiler();
+    when(applicationContext.getBeansOfType(WarmUp.class))
+        .thenReturn(ImmutableMap.of("failing", failingWarmUp, "working", warmUp));
+
+    instance = new WarmUpService(applicationContext, Runnable::run, startupProfiler);
+  }
+
+  @Test
+  public void testFailingWarmUpDoesNotStopOthers() throws Exception {
+    doThrow(new IllegalStateException("Expected")).when(failingWarmUp).warmUp();
+
+    CompletableFuture<Void> future = instance.warmUp();
+
+    assertThat(future.isCompletedExceptionally(), is(false));
+    verify(warmUp).warmUp();
+    assertThat(startupProfiler.getMilestones(), hasKey("Warm-up finished"));
+  }
+
+  @Test
+  public void testWarmUpRunsOnce() throws Exception {
+    CompletableFuture<Void> future = instance.warmUp();
+
+    assertThat(instance.warmUp(), sameInstance(future));
+    verify(warmUp, times(1)).warmUp();
+    verify(failingWarmUp, times(1)).warmUp();
+  }
+
+  @Test
+  public void testWarmUpIsRecorded() {
+    instance.warmUp().join();
+
+    assertThat(startupProfiler.getBeanTimings().stream()
+        .anyMatch(beanTiming -> beanTiming.getBeanName().equals("working (warm-up)")), is(true));
+  }
+}
@@ -0,0 +1,149 @@
+package com.faforever.client.task;
+
+import com.faforever.client.config.ClientProperties;
+import com.faforever.client.task.CompletableTask.Priority;
+import com.faforever.client.task.CompletableTask.ResourceClass;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TaskServiceTest {
+
+  private static final long TIMEOUT_SECONDS = 5;
+
+  private TaskService instance;
+  private ClientProperties clientProperties;
+  private ExecutorService executorService;
+  private CountDownLatch release;
+  /** The names of the tasks in the order they have been started. */
+  private List<String> started;
+
+  @Before
+  public void setUp() {
+    clientProperties = new ClientProperties();
+    clientProperties.getTasks().setMaxDiskTasks(1);
+    executorService = Executors.newCachedThreadPool();
+    release = new CountDownLatch(1);
+    started = new CopyOnWriteArrayList<>();
+    instance = new TaskService(executorService, clientProperties);
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testConcurrencyIsLimitedPerResourceClass() throws Exception {
+    instance.submitTask(mockTask("first", Priority.MEDIUM, ResourceClass.DISK));
+    instance.submitTask(mockTask("second", Priority.MEDIUM, ResourceClass.DISK));
+    instance.submitTask(mockTask("network", Priority.LOW, ResourceClass.NETWORK));
+
+    assertThat(instance.getRunningTasks(ResourceClass.DISK), is(1));
+    assertThat(instance.getWaitingTasks(ResourceClass.DISK), is(1));
+    assertThat(instance.getRunningTasks(ResourceClass.NETWORK), is(1));
+
+    release.countDown();
+    awaitIdle(ResourceClass.DISK);
+    assertThat(started, containsInAnyOrder("first", "network", "second"));
+    assertTrue(started.indexOf("first") < started.indexOf("second"));
+  }
+
+  @Test
+  public void testHigherPriorityIsStartedFirst() throws Exception {
+    instance.submitTask(mockTask("running", Priority.HIGH, ResourceClass.DISK));
+    instance.submitTask(mockTask("low", Priority.LOW, ResourceClass.DISK));
+    instance.submitTask(mockTask("medium", Priority.MEDIUM, ResourceClass.DISK));
+
+    release.countDown();
+    awaitIdle(ResourceClass.DISK);
+
+    assertThat(started, contains("running", "medium", "low"));
+  }
+
+  @Test
+  public void testHighPriorityMayExceedLimitOnce() throws Exception {
+    instance.submitTask(mockTask("low", Priority.LOW, ResourceClass.DISK));
+    instance.submitTask(mockTask("high1", Priority.HIGH, ResourceClass.DISK));
+    instance.submitTask(mockTask("high2", Priority.HIGH, ResourceClass.DISK));
+
+    assertThat(instance.getRunningTasks(ResourceClass.DISK), is(2));
+    assertThat(instance.getWaitingTasks(ResourceClass.DISK), is(1));
+  }
+
+  @Test
+  public void testWaitingTasksAge() throws Exception {
+    clientProperties.getTasks().setAgingInterval(Duration.ofMillis(10));
+    instance = new TaskService(executorService, clientProperties);
+
+    instance.submitTask(mockTask("running", Priority.HIGH, ResourceClass.DISK));
+    instance.submitTask(mockTask("low", Priority.LOW, ResourceClass.DISK));
+    Thread.sleep(50);
+    instance.submitTask(mockTask("medium", Priority.MEDIUM, ResourceClass.DISK));
+
+    release.countDown();
+    awaitIdle(ResourceClass.DISK);
+
+    assertThat(started, contains("running", "low", "medium"));
+  }
+
+  @Test
+  public void testCancelledTaskIsNotStarted() throws Exception {
+    instance.submitTask(mockTask("running", Priority.MEDIUM, ResourceClass.DISK));
+    PrioritizedCompletableTask<Void> cancelled = instance.submitTask(mockTask("cancelled", Priority.MEDIUM, ResourceClass.DISK));
+
+    cancelled.getFuture().cancel(true);
+    assertThat(instance.getWaitingTasks(ResourceClass.DISK), is(0));
+
+    release.countDown();
+    awaitIdle(ResourceClass.DISK);
+    assertThat(started, contains("running"));
+  }
+
+  private void awaitIdle(ResourceClass resourceClass) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+    while (instance.getRunningTasks(resourceClass) > 0 || instance.getWaitingTasks(resourceClass) > 0) {
+      assertTrue("Tasks didn't finish in time", System.nanoTime() < deadline);
+      Thread.sleep(10);
+    }
+  }
+
+  /**
+   * Creates a task that records when it's started and then blocks until {@link #release} is counted down.
+   */
+  @SuppressWarnings("unchecked")
+  private PrioritizedCompletableTask<Void> mockTask(String name, Priority priority, ResourceClass resourceClass) {
+    PrioritizedCompletableTask<Void> task = mock(PrioritizedCompletableTask.class);
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    when(task.getPriority()).thenReturn(priority);
+    when(task.getResourceClass()).thenReturn(resourceClass);
+    when(task.getFuture()).thenReturn(future);
+    when(task.isDone()).thenAnswer(invocation -> future.isDone());
+    doAnswer(invocation -> {
+      started.add(name);
+      release.await();
+      future.complete(null);
+      return null;
+    }).when(task).run();
+    return task;
+  }
+}
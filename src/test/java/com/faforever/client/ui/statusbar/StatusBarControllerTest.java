@@ -2,6 +2,7 @@ package com.faforever.client.ui.statusbar;
 
 import com.faforever.client.chat.ChatService;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.io.TransferScheduler;
 import com.faforever.client.net.ConnectionState;
 import com.faforever.client.remote.FafService;
 import com.faforever.client.task.TaskService;
@@ -33,10 +34,12 @@ public class StatusBarControllerTest extends AbstractPlainJavaFxTest {
   private ChatService chatService;
   @Mock
   private TaskService taskService;
+  @Mock
+  private TransferScheduler transferScheduler;
 
   @Before
   public void setUp() throws Exception {
-    instance = new StatusBarController(fafService, i18n, chatService, taskService);
+    instance = new StatusBarController(fafService, i18n, chatService, taskService, transferScheduler);
 
     connectionStateProperty = new SimpleObjectProperty<>();
     when(taskService.getActiveWorkers()).thenReturn(FXCollections.emptyObservableList());
@@ -0,0 +1,89 @@
+package com.faforever.client.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class BoundedExecutorTest {
+
+  private ExecutorService delegate;
+
+  @Before
+  public void setUp() {
+    delegate = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    delegate.shutdownNow();
+  }
+
+  @Test
+  public void testRunsNoMoreThanMaxParallelismTasks() throws Exception {
+    BoundedExecutor instance = new BoundedExecutor(delegate, 2);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      futures.add(CompletableFuture.runAsync(() -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        running.decrementAndGet();
+      }, instance));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+    assertThat(maxRunning.get(), lessThanOrEqualTo(2));
+  }
+
+  @Test
+  public void testSubmittingDoesNotBlock() throws Exception {
+    BoundedExecutor instance = new BoundedExecutor(delegate, 1);
+    CountDownLatch blocker = new CountDownLatch(1);
+    CountDownLatch secondTaskRan = new CountDownLatch(1);
+
+    instance.execute(() -> {
+      try {
+        blocker.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    instance.execute(secondTaskRan::countDown);
+
+    assertThat(secondTaskRan.getCount(), is(1L));
+    blocker.countDown();
+    assertThat(secondTaskRan.await(5, TimeUnit.SECONDS), is(true));
+  }
+
+  @Test
+  public void testFailingTaskDoesNotStopQueue() throws Exception {
+    BoundedExecutor instance = new BoundedExecutor(delegate, 1);
+    CountDownLatch secondTaskRan = new CountDownLatch(1);
+
+    instance.execute(() -> {
+      throw new IllegalStateException("Expected");
+    });
+    instance.execute(secondTaskRan::countDown);
+
+    assertThat(secondTaskRan.await(5, TimeUnit.SECONDS), is(true));
+  }
+}
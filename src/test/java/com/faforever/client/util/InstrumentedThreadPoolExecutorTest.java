@@ -0,0 +1,87 @@
+package com.faforever.client.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor.AbortPolicy;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.fail;
+
+public class InstrumentedThreadPoolExecutorTest {
+
+  private InstrumentedThreadPoolExecutor instance;
+
+  @After
+  public void tearDown() {
+    instance.shutdownNow();
+  }
+
+  @Test
+  public void testThreadsAreNamedAfterPool() {
+    instance = new InstrumentedThreadPoolExecutor("test", 1, 1, Duration.ofSeconds(1), new LinkedBlockingQueue<>(), true, new AbortPolicy());
+
+    CompletableFuture<Thread> thread = CompletableFuture.supplyAsync(Thread::currentThread, instance);
+
+    assertThat(thread.join().getName(), startsWith("test-"));
+    assertThat(thread.join().isDaemon(), is(true));
+  }
+
+  @Test
+  public void testWaitAndRunTimesAreMeasured() throws Exception {
+    instance = new InstrumentedThreadPoolExecutor("test", 1, 1, Duration.ofSeconds(1), new LinkedBlockingQueue<>(), false, new AbortPolicy());
+
+    instance.execute(() -> sleep(50));
+    instance.execute(() -> {
+    });
+    instance.shutdown();
+    instance.awaitTermination(5, TimeUnit.SECONDS);
+
+    assertThat(instance.getCompletedTaskCount(), is(2L));
+    assertThat(instance.getAverageRunMillis(), greaterThanOrEqualTo(25d));
+    assertThat(instance.getMaxWaitMillis(), greaterThanOrEqualTo(40d));
+  }
+
+  @Test
+  public void testRejectedTasksAreCounted() throws Exception {
+    instance = new InstrumentedThreadPoolExecutor("test", 0, 1, Duration.ofSeconds(1), new SynchronousQueue<>(), false, new AbortPolicy());
+    CountDownLatch release = new CountDownLatch(1);
+    instance.execute(() -> await(release));
+
+    try {
+      instance.execute(() -> {
+      });
+      fail("Expected the task to be rejected");
+    } catch (RejectedExecutionException e) {
+      assertThat(instance.getRejectedTaskCount(), is(1L));
+    } finally {
+      release.countDown();
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
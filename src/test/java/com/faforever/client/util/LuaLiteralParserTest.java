@@ -0,0 +1,97 @@
+package com.faforever.client.util;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Test;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+
+import java.io.InputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class LuaLiteralParserTest {
+
+  private static LuaTable parse(String lua) {
+    return LuaLiteralParser.parse(lua.getBytes(UTF_8));
+  }
+
+  @Test
+  public void testParseScenario() throws Exception {
+    byte[] bytes;
+    try (InputStream inputStream = getClass().getResourceAsStream("/maps/SCMP_001/SCMP_001_scenario.lua")) {
+      bytes = ByteStreams.toByteArray(inputStream);
+    }
+
+    LuaTable globals = LuaLiteralParser.parse(bytes);
+
+    assertThat(globals, notNullValue());
+    LuaValue scenarioInfo = globals.get("ScenarioInfo");
+    assertThat(scenarioInfo.get("name").tojstring(), is("Burial Mounds"));
+    assertThat(scenarioInfo.get("type").tojstring(), is("skirmish"));
+    assertThat(scenarioInfo.get("size").get(1).toint(), is(1024));
+    assertThat(scenarioInfo.get("size").get(2).toint(), is(1024));
+    assertThat(scenarioInfo.get("map_version").tojstring(), is("1"));
+    assertThat(scenarioInfo.get("norushoffsetY_ARMY_2").todouble(), is(-15.0));
+    assertThat(scenarioInfo.get("Configurations").get("standard").get("teams").get(1).get("armies").length(), is(8));
+    assertThat(scenarioInfo.get("Configurations").get("standard").get("customprops").get("ExtraArmies").tojstring(),
+        is("ARMY_9 NEUTRAL_CIVILIAN"));
+  }
+
+  @Test
+  public void testParseModInfo() {
+    LuaTable globals = parse("-- comment\n" +
+        "name = \"Eco\\tManager\"\n" +
+        "uid = 'b2cde810'; version = 3.5\n" +
+        "description = [[\nMulti\nline]]\n" +
+        "--[==[ block\ncomment ]==]\n" +
+        "selectable = true ui_only = false icon = nil\n" +
+        "conflicts = { \"a\", 'b'; [10] = 0x10, }");
+
+    assertThat(globals, notNullValue());
+    assertThat(globals.get("name").tojstring(), is("Eco\tManager"));
+    assertThat(globals.get("uid").tojstring(), is("b2cde810"));
+    assertThat(globals.get("version").tojstring(), is("3.5"));
+    assertThat(globals.get("description").tojstring(), is("Multi\nline"));
+    assertThat(globals.get("selectable").toboolean(), is(true));
+    assertThat(globals.get("ui_only").toboolean(), is(false));
+    assertThat(globals.get("icon").isnil(), is(true));
+    assertThat(globals.get("conflicts").length(), is(2));
+    assertThat(globals.get("conflicts").get(2).tojstring(), is("b"));
+    assertThat(globals.get("conflicts").get(10).toint(), is(16));
+  }
+
+  @Test
+  public void testIntegralNumbersAreIntegers() {
+    LuaTable globals = parse("a = 1 b = 90.000000 c = -2 d = 1e2");
+
+    assertThat(globals.get("a").isinttype(), is(true));
+    assertThat(globals.get("b").isinttype(), is(true));
+    assertThat(globals.get("c").toint(), is(-2));
+    assertThat(globals.get("d").toint(), is(100));
+  }
+
+  @Test
+  public void testCodeIsNotALiteral() {
+    assertThat(parse("a = 1 + 2"), nullValue());
+    assertThat(parse("a = b"), nullValue());
+    assertThat(parse("local a = 1"), nullValue());
+    assertThat(parse("a.b = 1"), nullValue());
+    assertThat(parse("function a() end"), nullValue());
+    assertThat(parse("a = 'x' .. 'y'"), nullValue());
+    assertThat(parse("a = UNKNOWN('x')"), nullValue());
+    assertThat(parse("a = { b = c }"), nullValue());
+  }
+
+  @Test
+  public void testSyntaxErrorIsNotALiteral() {
+    assertThat(parse("{\"This is invalid\", \"}"), nullValue());
+    assertThat(parse("a = { 1, 2"), nullValue());
+    assertThat(parse("a = 'unterminated"), nullValue());
+    assertThat(parse("a = -"), nullValue());
+    assertThat(parse("end = 1"), nullValue());
+  }
+}
@@ -0,0 +1,101 @@
+package com.faforever.client.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.fail;
+
+public class OverflowQueueTest {
+
+  private InstrumentedThreadPoolExecutor instance;
+  private OverflowQueue queue;
+  private CountDownLatch release;
+
+  @Before
+  public void setUp() {
+    queue = new OverflowQueue(1);
+    instance = new InstrumentedThreadPoolExecutor("test", 0, 2, Duration.ofSeconds(1), queue, true, queue);
+    queue.setExecutor(instance);
+    release = new CountDownLatch(1);
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    instance.shutdownNow();
+  }
+
+  @Test
+  public void testThreadsAreStartedBeforeTasksAreQueued() {
+    instance.execute(() -> await(release));
+    instance.execute(() -> await(release));
+
+    assertThat(instance.getPoolSize(), is(2));
+    assertThat(queue.size(), is(0));
+  }
+
+  @Test
+  public void testTasksAreQueuedOnceAllThreadsAreBusy() throws Exception {
+    instance.execute(() -> await(release));
+    instance.execute(() -> await(release));
+    CountDownLatch queuedTaskRan = new CountDownLatch(1);
+    AtomicReference<Thread> queuedTaskThread = new AtomicReference<>();
+
+    instance.execute(() -> {
+      queuedTaskThread.set(Thread.currentThread());
+      queuedTaskRan.countDown();
+    });
+
+    assertThat(queue.size(), is(1));
+    release.countDown();
+    assertThat(queuedTaskRan.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(queuedTaskThread.get(), is(not(Thread.currentThread())));
+  }
+
+  @Test
+  public void testTasksAreRejectedInsteadOfRunByCallerOnceQueueIsFull() {
+    instance.execute(() -> await(release));
+    instance.execute(() -> await(release));
+    instance.execute(() -> {
+    });
+
+    try {
+      instance.execute(() -> fail("Task must not run"));
+      fail("Task has not been rejected");
+    } catch (RejectedExecutionException e) {
+      assertThat(instance.getUnfinishedTaskCount(), is(3));
+    }
+  }
+
+  @Test
+  public void testIdleThreadIsReused() throws Exception {
+    CountDownLatch firstTaskRan = new CountDownLatch(1);
+    instance.execute(firstTaskRan::countDown);
+    assertThat(firstTaskRan.await(5, TimeUnit.SECONDS), is(true));
+    while (instance.getUnfinishedTaskCount() > 0) {
+      Thread.sleep(1);
+    }
+
+    instance.execute(() -> await(release));
+
+    assertThat(instance.getPoolSize(), is(1));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.faforever.client.util;
+
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class VirtualThreadsTest {
+
+  @Test
+  public void testThreadFactory() throws Exception {
+    Optional<ThreadFactory> threadFactory = VirtualThreads.newThreadFactory("test");
+
+    assertThat(threadFactory.isPresent(), is(VirtualThreads.isSupported()));
+    if (threadFactory.isPresent()) {
+      Thread thread = threadFactory.get().newThread(() -> {
+      });
+      assertThat(thread.getName(), is("test-0"));
+      assertThat(Thread.class.getMethod("isVirtual").invoke(thread), is(true));
+    }
+  }
+
+  @Test
+  public void testSupportDependsOnJavaVersion() {
+    assertThat(VirtualThreads.isSupported(), is(Runtime.version().feature() >= 21));
+  }
+}